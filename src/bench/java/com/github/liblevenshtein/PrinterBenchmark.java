@@ -0,0 +1,73 @@
+package com.github.liblevenshtein;
+
+import java.nio.channels.Channels;
+
+import com.google.common.io.ByteStreams;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Compares the cost of printing colorized spelling candidates against that of
+ * printing plain ones.
+ */
+@Slf4j
+public class PrinterBenchmark {
+
+  private static final int NUM_QUERIES = 10_000;
+
+  private static final int CANDIDATES_PER_QUERY = 100;
+
+  private static final int WARMUP_ROUNDS = 10;
+
+  private static final int MEASURED_ROUNDS = 10;
+
+  private static final String QUERY = "mispelled";
+
+  private static final String[] CANDIDATES = {
+    QUERY, "misspelled", "dispelled", "spelled", "misspell",
+  };
+
+  @Test
+  public void benchmarkColorizedPrinting() {
+    final OutputBuffer output = new OutputBuffer(
+      Channels.newChannel(ByteStreams.nullOutputStream()), OutputBuffer.DEFAULT_CAPACITY);
+
+    final double plainNanos = measure(
+      new HeaderPrinter(output), new CandidatePrinter(output));
+    final double colorNanos = measure(
+      new HeaderColorPrinter(output), new CandidateColorPrinter(output));
+
+    log.info("Plain output:     {} ns per candidate", plainNanos);
+    log.info("Colorized output: {} ns per candidate", colorNanos);
+
+    assertThat(colorNanos).isLessThan(2.0 * plainNanos);
+  }
+
+  private double measure(final AbstractPrinter header, final AbstractPrinter printer) {
+    for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+      round(header, printer);
+    }
+    final long startNanos = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i += 1) {
+      round(header, printer);
+    }
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    return (double) elapsedNanos / ((long) MEASURED_ROUNDS * NUM_QUERIES * CANDIDATES_PER_QUERY);
+  }
+
+  private void round(final AbstractPrinter header, final AbstractPrinter printer) {
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      header.accept(QUERY);
+      printer.query(QUERY);
+      for (int j = 0; j < CANDIDATES_PER_QUERY; j += 1) {
+        printer.visit(CANDIDATES[j % CANDIDATES.length], j % 3);
+      }
+    }
+  }
+}
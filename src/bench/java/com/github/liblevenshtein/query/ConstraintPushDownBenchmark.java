@@ -0,0 +1,116 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Compares applying a {@link CandidateFilter} while the dictionary is
+ * traversed against generating every spelling candidate and filtering them
+ * afterwards.
+ */
+@Slf4j
+public class ConstraintPushDownBenchmark {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+  private static final int DICTIONARY_SIZE = 200_000;
+
+  private static final int NUM_QUERIES = 500;
+
+  private static final int MAX_DISTANCE = 2;
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  private static final int MEASURED_ROUNDS = 3;
+
+  @Test
+  public void benchmarkConstraints() {
+    final Random random = new Random(0xC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < DICTIONARY_SIZE) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 3, 12));
+    }
+    final List<String> dictionaryTerms = new ArrayList<>(terms);
+    final SortedDawg dictionary = new SortedDawg(dictionaryTerms);
+
+    final List<String> queryTerms = new ArrayList<>(NUM_QUERIES);
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      final StringBuilder term = new StringBuilder(
+        dictionaryTerms.get(random.nextInt(dictionaryTerms.size())));
+      term.setCharAt(random.nextInt(term.length()),
+        ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      queryTerms.add(term.toString());
+    }
+
+    // Candidates must keep the first character of the query term, be no
+    // longer than it, and end in a vowel
+    final CandidateFilter filter = new CandidateFilter()
+      .pattern(new Glob("*[aeiou]"));
+    final QueryEngine unfiltered =
+      new DawgQueryEngine(dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE);
+    final QueryEngine filtered =
+      new DawgQueryEngine(dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE)
+        .filter(filter);
+
+    final long[] candidates = new long[1];
+    final Round postFiltering = () -> {
+      for (final String queryTerm : queryTerms) {
+        constrain(filter, queryTerm);
+        unfiltered.query(queryTerm, (candidate, distance) -> {
+          if (filter.accepts(candidate)) {
+            candidates[0] += 1L;
+          }
+        });
+      }
+    };
+    final Round pushDown = () -> {
+      for (final String queryTerm : queryTerms) {
+        constrain(filter, queryTerm);
+        filtered.query(queryTerm, (candidate, distance) -> candidates[0] += 1L);
+      }
+    };
+
+    final double postFilteringMicros = measure(postFiltering, queryTerms.size());
+    final long postFilteringCandidates = candidates[0];
+    candidates[0] = 0L;
+    final double pushDownMicros = measure(pushDown, queryTerms.size());
+
+    log.info(String.format("Post-filtering: %.1f us per query", postFilteringMicros));
+    log.info(String.format("Push-down:      %.1f us per query", pushDownMicros));
+
+    assertThat(candidates[0]).isEqualTo(postFilteringCandidates);
+    assertThat(pushDownMicros).isLessThan(postFilteringMicros);
+  }
+
+  private void constrain(final CandidateFilter filter, final String queryTerm) {
+    filter.prefix(queryTerm.substring(0, 1)).maxLength(queryTerm.length());
+  }
+
+  private double measure(final Round round, final int queries) {
+    for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+      round.run();
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i += 1) {
+      round.run();
+    }
+    return (System.nanoTime() - start) / 1e3 / MEASURED_ROUNDS / queries;
+  }
+
+  @FunctionalInterface
+  private interface Round {
+    void run();
+  }
+}
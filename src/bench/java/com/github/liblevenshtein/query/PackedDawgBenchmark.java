@@ -0,0 +1,117 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Compares the heap held by a {@link SortedDawg} and by the {@link PackedDawg}
+ * packed from it, and the time {@link DawgQueryEngine} and
+ * {@link PackedQueryEngine} take to query them, for each {@link Algorithm}.
+ */
+@Slf4j
+public class PackedDawgBenchmark {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+  private static final int DICTIONARY_SIZE = 200_000;
+
+  private static final int NUM_QUERIES = 100;
+
+  private static final int MAX_DISTANCE = 2;
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  private static final int MEASURED_ROUNDS = 3;
+
+  private static final int GC_ROUNDS = 4;
+
+  @Test
+  public void benchmarkPackedDawg() throws InterruptedException {
+    final Random random = new Random(0xC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < DICTIONARY_SIZE) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 3, 12));
+    }
+    final List<String> dictionaryTerms = new ArrayList<>(terms);
+    terms.clear();
+
+    final long beforeDawg = usedHeap();
+    final SortedDawg dictionary = new SortedDawg(dictionaryTerms);
+    final long dawgBytes = usedHeap() - beforeDawg;
+    final long beforePacked = usedHeap();
+    final PackedDawg packed = new PackedDawg(dictionary);
+    final long packedBytes = usedHeap() - beforePacked;
+    log.info(String.format("SortedDawg: %,d bytes; PackedDawg: %,d bytes (%,d by its arrays) "
+        + "for %,d nodes and %,d edges", dawgBytes, packedBytes, packed.sizeInBytes(),
+        packed.nodes(), packed.edges()));
+
+    final List<String> queryTerms = new ArrayList<>(NUM_QUERIES);
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      final StringBuilder term = new StringBuilder(
+        dictionaryTerms.get(random.nextInt(dictionaryTerms.size())));
+      term.setCharAt(random.nextInt(term.length()),
+        ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      queryTerms.add(term.toString());
+    }
+
+    for (final Algorithm algorithm : Algorithm.values()) {
+      final long[] candidates = new long[2];
+      final QueryEngine dawg = new DawgQueryEngine(dictionary, algorithm, MAX_DISTANCE);
+      final QueryEngine csr = new PackedQueryEngine(packed, algorithm, MAX_DISTANCE);
+      final double dawgMicros = measure(() -> {
+        for (final String queryTerm : queryTerms) {
+          dawg.query(queryTerm, (candidate, distance) -> candidates[0] += 1L);
+        }
+      }, queryTerms.size());
+      final double packedMicros = measure(() -> {
+        for (final String queryTerm : queryTerms) {
+          csr.query(queryTerm, (candidate, distance) -> candidates[1] += 1L);
+        }
+      }, queryTerms.size());
+
+      log.info(String.format("%s: SortedDawg: %.1f us per query; PackedDawg: %.1f us per query",
+        algorithm, dawgMicros, packedMicros));
+      assertThat(candidates[1]).isEqualTo(candidates[0]);
+      assertThat(packedMicros).isLessThan(dawgMicros);
+    }
+
+    assertThat(packed.sizeInBytes()).isLessThan(dawgBytes / 2);
+  }
+
+  private long usedHeap() throws InterruptedException {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < GC_ROUNDS; i += 1) {
+      System.gc();
+      Thread.sleep(10L);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private double measure(final Round round, final int queries) {
+    for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+      round.run();
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i += 1) {
+      round.run();
+    }
+    return (System.nanoTime() - start) / 1e3 / MEASURED_ROUNDS / queries;
+  }
+
+  @FunctionalInterface
+  private interface Round {
+    void run();
+  }
+}
@@ -0,0 +1,114 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Measures the latency of completing partially-typed, misspelled prefixes
+ * against a large dictionary, as a search box would on each keystroke.
+ */
+@Slf4j
+public class PrefixLatencyBenchmark {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+  private static final int DICTIONARY_SIZE = 200_000;
+
+  private static final int NUM_QUERIES = 500;
+
+  private static final int MAX_DISTANCE = 2;
+
+  private static final int COMPLETION_LIMIT = 10;
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  @Test
+  public void benchmarkKeystrokeLatency() {
+    final Random random = new Random(0xC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < DICTIONARY_SIZE) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 3, 12));
+    }
+    final List<String> dictionaryTerms = new ArrayList<>(terms);
+    final SortedDawg dictionary = new SortedDawg(dictionaryTerms);
+
+    // Keystrokes: a prefix of a dictionary term, with one typo
+    final List<String> queryTerms = new ArrayList<>(NUM_QUERIES);
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      final String term = dictionaryTerms.get(random.nextInt(dictionaryTerms.size()));
+      final StringBuilder prefix =
+        new StringBuilder(term.substring(0, 1 + random.nextInt(term.length())));
+      prefix.setCharAt(random.nextInt(prefix.length()),
+        ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      queryTerms.add(prefix.toString());
+    }
+
+    final Latencies limited = measure(new PrefixQueryEngine(
+      dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE, COMPLETION_LIMIT), queryTerms);
+    final Latencies unlimited = measure(new PrefixQueryEngine(
+      dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE, Integer.MAX_VALUE), queryTerms);
+
+    log.info("Limited to {}: {}", COMPLETION_LIMIT, limited);
+    log.info("Unlimited:     {}", unlimited);
+
+    assertThat(limited.percentile(50)).isLessThan(unlimited.percentile(50) / 10.0);
+  }
+
+  private Latencies measure(final QueryEngine engine, final List<String> queryTerms) {
+    final long[] completions = new long[1];
+    final CandidateVisitor counter = (completion, distance) -> completions[0] += 1L;
+
+    for (int round = 0; round < WARMUP_ROUNDS; round += 1) {
+      for (final String queryTerm : queryTerms) {
+        engine.query(queryTerm, counter);
+      }
+    }
+
+    completions[0] = 0L;
+    final long[] latencies = new long[queryTerms.size()];
+    for (int i = 0; i < latencies.length; i += 1) {
+      final long start = System.nanoTime();
+      engine.query(queryTerms.get(i), counter);
+      latencies[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(latencies);
+    return new Latencies(latencies, (double) completions[0] / latencies.length);
+  }
+
+  private static final class Latencies {
+
+    private final long[] sortedNanos;
+
+    private final double completionsPerQuery;
+
+    Latencies(final long[] sortedNanos, final double completionsPerQuery) {
+      this.sortedNanos = sortedNanos;
+      this.completionsPerQuery = completionsPerQuery;
+    }
+
+    double percentile(final int percentile) {
+      final int index = Math.min(sortedNanos.length - 1, sortedNanos.length * percentile / 100);
+      return (double) sortedNanos[index] / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%.1f completions per query, p50 = %.3f ms, p90 = %.3f ms, p99 = %.3f ms",
+        completionsPerQuery, percentile(50), percentile(90), percentile(99));
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package com.github.liblevenshtein.query;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import com.google.common.io.ByteStreams;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.CandidatePrinter;
+import com.github.liblevenshtein.Printer;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.transducer.Candidate;
+import com.github.liblevenshtein.transducer.ITransducer;
+import com.github.liblevenshtein.transducer.factory.TransducerBuilder;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Compares the bytes allocated per spelling candidate by the transducer and
+ * {@link Object}-based printer path against the {@link CandidateVisitor} path,
+ * from querying through printing.
+ */
+@Slf4j
+public class QueryAllocationBenchmark {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+  private static final int DICTIONARY_SIZE = 50_000;
+
+  private static final int NUM_QUERIES = 500;
+
+  private static final int MAX_DISTANCE = 2;
+
+  private static final int WARMUP_ROUNDS = 10;
+
+  private static final int MEASURED_ROUNDS = 10;
+
+  @Test
+  public void benchmarkAllocationsPerCandidate() throws IOException {
+    final Random random = new Random(0xC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < DICTIONARY_SIZE) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 3, 10));
+    }
+    final List<String> dictionaryTerms = new ArrayList<>(terms);
+    final SortedDawg dictionary = new SortedDawg(dictionaryTerms);
+
+    final List<String> queryTerms = new ArrayList<>(NUM_QUERIES);
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      queryTerms.add(mutate(random, dictionaryTerms.get(random.nextInt(dictionaryTerms.size()))));
+    }
+
+    final ITransducer<Candidate> transducer = new TransducerBuilder()
+      .algorithm(Algorithm.TRANSPOSITION)
+      .defaultMaxDistance(MAX_DISTANCE)
+      .includeDistance(true)
+      .dictionary(dictionary, true)
+      .build();
+    final OutputStream sink = ByteStreams.nullOutputStream();
+    final StringBuilder buffer = new StringBuilder(1024);
+    final Round transducerRound = () -> {
+      long candidates = 0L;
+      for (final String queryTerm : queryTerms) {
+        final String escapedQuery = StringEscapeUtils.escapeJava(queryTerm);
+        for (final Candidate candidate : transducer.transduce(queryTerm)) {
+          buffer.setLength(0);
+          buffer.append("| d(\"").append(escapedQuery).append("\", \"")
+            .append(StringEscapeUtils.escapeJava(candidate.term()))
+            .append("\") = [").append(candidate.distance()).append(']');
+          sink.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+          candidates += 1L;
+        }
+      }
+      return candidates;
+    };
+
+    final QueryEngine engine =
+      new DawgQueryEngine(dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE);
+    final OutputBuffer output = new OutputBuffer(Channels.newChannel(sink), OutputBuffer.DEFAULT_CAPACITY);
+    final Printer printer = new CandidatePrinter(output);
+    final long[] visited = new long[1];
+    final CandidateVisitor countingPrinter = (term, distance) -> {
+      printer.visit(term, distance);
+      visited[0] += 1L;
+    };
+    final Round visitorRound = () -> {
+      visited[0] = 0L;
+      for (final String queryTerm : queryTerms) {
+        printer.query(StringEscapeUtils.escapeJava(queryTerm));
+        engine.query(queryTerm, countingPrinter);
+      }
+      output.flush();
+      return visited[0];
+    };
+
+    final Measurement transducerPath = measure(transducerRound);
+    final Measurement visitorPath = measure(visitorRound);
+
+    log.info("Transducer path: {}", transducerPath);
+    log.info("Visitor path:    {}", visitorPath);
+
+    assertThat(visitorPath.candidates).isEqualTo(transducerPath.candidates);
+    assertThat(visitorPath.bytesPerCandidate())
+      .isLessThan(transducerPath.bytesPerCandidate() / 100.0);
+  }
+
+  private Measurement measure(final Round round) throws IOException {
+    for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+      round.run();
+    }
+    final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().getId();
+    final long startBytes = threads.getThreadAllocatedBytes(threadId);
+    final long startNanos = System.nanoTime();
+    long candidates = 0L;
+    for (int i = 0; i < MEASURED_ROUNDS; i += 1) {
+      candidates += round.run();
+    }
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    final long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+    return new Measurement(candidates / MEASURED_ROUNDS, allocatedBytes, elapsedNanos);
+  }
+
+  private String mutate(final Random random, final String term) {
+    final StringBuilder mutation = new StringBuilder(term);
+    mutation.setCharAt(random.nextInt(term.length()),
+      ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    return mutation.toString();
+  }
+
+  @FunctionalInterface
+  private interface Round {
+    long run() throws IOException;
+  }
+
+  private static final class Measurement {
+
+    private final long candidates;
+
+    private final long allocatedBytes;
+
+    private final long elapsedNanos;
+
+    Measurement(final long candidates, final long allocatedBytes, final long elapsedNanos) {
+      this.candidates = candidates;
+      this.allocatedBytes = allocatedBytes;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    double bytesPerCandidate() {
+      return (double) allocatedBytes / (candidates * MEASURED_ROUNDS);
+    }
+
+    double nanosPerCandidate() {
+      return (double) elapsedNanos / (candidates * MEASURED_ROUNDS);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d candidates per round, %.1f bytes and %.1f ns per candidate",
+        candidates, bytesPerCandidate(), nanosPerCandidate());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Compares ranking every spelling candidate and keeping the most frequent few
+ * against a {@link RankedQueryEngine} that searches for the most frequent few
+ * directly, over a dictionary with Zipf-distributed frequencies.  Query terms
+ * are dictionary terms with one typo, as a spelling corrector would see.
+ */
+@Slf4j
+public class RankedTopNBenchmark {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+  private static final int DICTIONARY_SIZE = 200_000;
+
+  private static final int NUM_QUERIES = 500;
+
+  private static final int MAX_DISTANCE = 2;
+
+  private static final int CANDIDATE_LIMIT = 10;
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  private static final int MEASURED_ROUNDS = 3;
+
+  @Test
+  public void benchmarkTopN() {
+    final Random random = new Random(0xC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < DICTIONARY_SIZE) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 3, 8));
+    }
+    final List<String> dictionaryTerms = new ArrayList<>(terms);
+
+    // Zipf's law: the i-th most frequent term occurs about 1 / i as often as
+    // the most frequent one, and popularity is unrelated to spelling
+    final int[] frequencies = new int[DICTIONARY_SIZE];
+    for (int rank = 0; rank < DICTIONARY_SIZE; rank += 1) {
+      frequencies[rank] = 100_000_000 / (1 + random.nextInt(DICTIONARY_SIZE));
+    }
+    final WeightedDictionary dictionary =
+      new WeightedDictionary(new SortedDawg(dictionaryTerms), frequencies).index();
+
+    final List<String> queries = new ArrayList<>(NUM_QUERIES);
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      final String term = dictionaryTerms.get(random.nextInt(DICTIONARY_SIZE));
+      queries.add(misspell(random, term));
+    }
+
+    final RankedQueryEngine unlimited = new RankedQueryEngine(
+      dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE, Integer.MAX_VALUE);
+    final RankedQueryEngine limited = new RankedQueryEngine(
+      dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE, CANDIDATE_LIMIT);
+
+    final List<String> top = new ArrayList<>();
+    final List<String> expected = new ArrayList<>();
+    final List<String> actual = new ArrayList<>();
+
+    final Round rankAll = () -> {
+      expected.clear();
+      for (final String query : queries) {
+        top.clear();
+        unlimited.query(query, (candidate, distance) -> top.add(candidate.toString()));
+        expected.addAll(top.subList(0, Math.min(CANDIDATE_LIMIT, top.size())));
+      }
+    };
+    final Round rankTop = () -> {
+      actual.clear();
+      for (final String query : queries) {
+        limited.query(query, (candidate, distance) -> actual.add(candidate.toString()));
+      }
+    };
+
+    final double rankAllMicros = measure(rankAll, queries.size());
+    final double rankTopMicros = measure(rankTop, queries.size());
+
+    log.info(String.format("Ranking all candidates: %.1f us per query", rankAllMicros));
+    log.info(String.format("Ranking top %d:         %.1f us per query",
+      CANDIDATE_LIMIT, rankTopMicros));
+
+    assertThat(actual).isEqualTo(expected);
+    assertThat(rankTopMicros).isLessThan(rankAllMicros);
+  }
+
+  private double measure(final Round round, final int queries) {
+    for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+      round.run();
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i += 1) {
+      round.run();
+    }
+    return (System.nanoTime() - start) / 1e3 / MEASURED_ROUNDS / queries;
+  }
+
+  private String misspell(final Random random, final String term) {
+    final StringBuilder misspelling = new StringBuilder(term);
+    final int i = random.nextInt(term.length());
+    final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    switch (random.nextInt(3)) {
+      case 0:
+        misspelling.setCharAt(i, c);
+        break;
+      case 1:
+        misspelling.insert(i, c);
+        break;
+      default:
+        misspelling.deleteCharAt(i);
+        break;
+    }
+    return misspelling.toString();
+  }
+
+  @FunctionalInterface
+  private interface Round {
+    void run();
+  }
+}
@@ -0,0 +1,113 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Compares the cost per keystroke of re-querying the whole term against
+ * editing a {@link QuerySession}, while typing (and occasionally correcting)
+ * query terms one character at a time.
+ */
+@Slf4j
+public class SessionKeystrokeBenchmark {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+  private static final int DICTIONARY_SIZE = 200_000;
+
+  private static final int NUM_QUERIES = 300;
+
+  private static final int MAX_DISTANCE = 2;
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  private static final int MEASURED_ROUNDS = 3;
+
+  @Test
+  public void benchmarkKeystrokes() {
+    final Random random = new Random(0xC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < DICTIONARY_SIZE) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 3, 12));
+    }
+    final List<String> dictionaryTerms = new ArrayList<>(terms);
+    final SortedDawg dictionary = new SortedDawg(dictionaryTerms);
+
+    // Each keystroke is the query term after typing one more character, or
+    // after backspacing over the last one
+    final List<String> keystrokes = new ArrayList<>();
+    for (int i = 0; i < NUM_QUERIES; i += 1) {
+      final String term = dictionaryTerms.get(random.nextInt(dictionaryTerms.size()));
+      final StringBuilder typed = new StringBuilder(term.length());
+      for (int j = 0; j < term.length(); j += 1) {
+        if (random.nextInt(8) == 0) {
+          typed.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+          keystrokes.add(typed.toString());
+          typed.setLength(typed.length() - 1);
+          keystrokes.add(typed.toString());
+        }
+        typed.append(term.charAt(j));
+        keystrokes.add(typed.toString());
+      }
+      keystrokes.add("");
+    }
+
+    final QueryEngine engine =
+      new DawgQueryEngine(dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE);
+    final QuerySession session =
+      new QuerySession(dictionary, Algorithm.TRANSPOSITION, MAX_DISTANCE);
+    final long[] candidates = new long[1];
+    final CandidateVisitor counter = (candidate, distance) -> candidates[0] += 1L;
+
+    final Round requery = () -> {
+      for (final String keystroke : keystrokes) {
+        engine.query(keystroke, counter);
+      }
+    };
+    final Round edit = () -> {
+      for (final String keystroke : keystrokes) {
+        session.edit(keystroke);
+        session.candidates(counter);
+      }
+    };
+
+    final double requeryMicros = measure(requery, keystrokes.size());
+    final long requeryCandidates = candidates[0];
+    candidates[0] = 0L;
+    final double editMicros = measure(edit, keystrokes.size());
+
+    log.info(String.format("Re-querying: %.1f us per keystroke", requeryMicros));
+    log.info(String.format("Session:     %.1f us per keystroke", editMicros));
+
+    assertThat(candidates[0]).isEqualTo(requeryCandidates);
+    assertThat(editMicros).isLessThan(requeryMicros);
+  }
+
+  private double measure(final Round round, final int keystrokes) {
+    for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+      round.run();
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i += 1) {
+      round.run();
+    }
+    return (System.nanoTime() - start) / 1e3 / MEASURED_ROUNDS / keystrokes;
+  }
+
+  @FunctionalInterface
+  private interface Round {
+    void run();
+  }
+}
@@ -219,10 +219,21 @@ public class CommandLineInterfaceIntegTest {
     "");
 
   private static final String HELP_TEXT = NEWLINES.join(
-    "usage: liblevenshtein-java-cli [-a <ALGORITHM>] [--colorize] [-d",
-    "       <PATH|URI>] [-h] [-i] [-m <INTEGER>] [-q <STRING> <...>] [-s]",
-    "       [--serialize <PATH>] [--source-format <FORMAT>] [--target-format",
-    "       <FORMAT>]",
+    "usage: liblevenshtein-java-cli [-a <ALGORITHM>] [--admission <POLICY>]",
+    "       [--bulk-convert <PATH>] [--candidate-limit <INTEGER>] [--check",
+    "       <PATH|URI> <...>] [--colorize] [--completion-limit <INTEGER>] [-d",
+    "       <PATH|URI> <...>] [--deadline <MILLISECONDS>] [--deletion-index",
+    "       <PATH>] [--distance <PATH|URI> <...>] [--engine <ENGINE>]",
+    "       [--fan-out] [--gzip] [-h] [--host <PATH>] [-i] [--inspect] [--jmx]",
+    "       [-m <INTEGER>] [--max-cost <INTEGER>] [--max-length <INTEGER>]",
+    "       [--max-steps <INTEGER>] [--memory-budget <MEBIBYTES>]",
+    "       [--min-candidates <INTEGER>] [--min-length <INTEGER>] [-o <PATH>]",
+    "       [--pattern <GLOB>] [--prefix] [-q <STRING> <...>] [--qgram-distance",
+    "       <INTEGER>] [--qgram-length <INTEGER>] [--query-file <PATH>]",
+    "       [--query-timeout <MILLISECONDS>] [--rank] [-s] [--serialize <PATH>]",
+    "       [--serve] [--shard <INDEX/COUNT>] [--shard-output] [--source-format",
+    "       <FORMAT>] [--starts-with <STRING>] [--target-format <FORMAT> <...>]",
+    "       [--threads <INTEGER>]",
     "",
     "Command-Line Interface to liblevenshtein (Java)",
     "",
@@ -237,6 +248,26 @@ public class CommandLineInterfaceIntegTest {
     "  3. PLAIN_TEXT",
     "     - (de)serialize the dictionary as a plain text file.",
     "     - Terms are delimited by newlines.",
+    "  4. WEIGHTED",
+    "     - (de)serialize the dictionary and the frequencies of its terms as",
+    "       a compact, binary stream.",
+    "  5. WEIGHTED_TEXT",
+    "     - (de)serialize the dictionary and the frequencies of its terms as",
+    "       a plain text file.",
+    "     - Each line holds a term, a tab, and its frequency.",
+    "     - Must be given explicitly as the source format.",
+    "  6. CHUNKED_PROTOBUF",
+    "     - (de)serialize the dictionary as blocks of protobuf varints.",
+    "     - Blocks are decoded on every core, so large dictionaries load",
+    "       faster than as PROTOBUF.",
+    "  7. FRONT_CODED",
+    "     - (de)serialize the sorted terms of the dictionary, each as the",
+    "       length of the prefix it shares with the term before it and the",
+    "       remaining characters, in blocks that each begin with a whole term.",
+    "  8. LENGTH_PARTITIONED",
+    "     - (de)serialize the terms of the dictionary partitioned by length,",
+    "       front-coded within each partition, after an index of the",
+    "       partitions, so --engine PARTITIONED need not partition it again.",
     "",
     "<ALGORITHM> specifies the Levenshtein algorithm to use for",
     "querying-against the dictionary, and may be one of the following:",
@@ -274,27 +305,265 @@ public class CommandLineInterfaceIntegTest {
     "           > An insertion and a substitution",
     "           > A substitution and an insertion",
     "",
-    " -a,--algorithm <ALGORITHM>    Levenshtein algorithm to use (Default:",
-    "                               TRANSPOSITION)",
-    "    --colorize                 Colorize output",
-    " -d,--dictionary <PATH|URI>    Filesystem path or Java-compatible URI to a",
-    "                               dictionary of terms",
-    " -h,--help                     print this help text",
-    " -i,--include-distance         Include the Levenshtein distance with each",
-    "                               spelling candidate (Default: false)",
-    " -m,--max-distance <INTEGER>   Maximun, Levenshtein distance a spelling",
-    "                               candidatemay be from the query term",
-    "                               (Default: 2)",
-    " -q,--query <STRING> <...>     Terms to query against the dictionary.  You",
-    "                               may specify multiple terms.",
-    " -s,--is-sorted                Specifies that the dictionary is sorted",
-    "                               lexicographically, in ascending order",
-    "                               (Default: false)",
-    "    --serialize <PATH>         Path to save the serialized dictionary",
-    "    --source-format <FORMAT>   Format of the source dictionary (Default:",
-    "                               adaptively-try each format until one works)",
-    "    --target-format <FORMAT>   Format of the serialized dictionary",
-    "                               (Default: PROTOBUF)",
+    " -a,--algorithm <ALGORITHM>          Levenshtein algorithm to use",
+    "                                     (Default: TRANSPOSITION)",
+    "    --admission <POLICY>             What to do with queries predicted to",
+    "                                     cost more than the --max-cost: REJECT",
+    "                                     prints them empty, DOWNGRADE lowers",
+    "                                     their distance until they cost less,",
+    "                                     and QUEUE runs them one at a time",
+    "                                     across workers.  Those rejected or",
+    "                                     downgraded are marked as truncated",
+    "                                     (Default: DOWNGRADE)",
+    "    --bulk-convert <PATH>            Directory or manifest (one path per",
+    "                                     line) of dictionaries to convert",
+    "                                     concurrently to each target format,",
+    "                                     into the --serialize directory.",
+    "                                     Dictionaries whose targets are",
+    "                                     up-to-date are skipped.",
+    "    --candidate-limit <INTEGER>      Maximum number of spelling candidates",
+    "                                     to print for each query term, with",
+    "                                     --rank (Default: all of them)",
+    "    --check <PATH|URI> <...>         UTF-8 documents to spell-check",
+    "                                     instead of --query terms.  Each is",
+    "                                     split into words, which are looked up",
+    "                                     in the --dictionary as written and in",
+    "                                     lower case; the byte offset of each",
+    "                                     word found neither way is printed",
+    "                                     with its spelling candidates.  Words",
+    "                                     are checked by --threads workers, and",
+    "                                     the candidates of each unknown word",
+    "                                     are cached for the run",
+    "    --colorize                       Colorize output",
+    "    --completion-limit <INTEGER>     Maximum number of completions to",
+    "                                     print for each query term, with",
+    "                                     --prefix (Default: 10)",
+    " -d,--dictionary <PATH|URI> <...>    Filesystem paths or Java-compatible",
+    "                                     URIs to dictionaries of terms.  You",
+    "                                     may specify multiple dictionaries,",
+    "                                     which are queried as a cascade: each",
+    "                                     is consulted (and loaded, the first",
+    "                                     time) only while those before it have",
+    "                                     found fewer than --min-candidates",
+    "                                     spelling candidates (or, with",
+    "                                     --fan-out, all are queried in",
+    "                                     parallel), and spelling candidates",
+    "                                     are tagged with the dictionary they",
+    "                                     come from",
+    "    --deadline <MILLISECONDS>        Maximum time all the queries may take",
+    "                                     together, from when the first begins.",
+    "                                     Queries running at the deadline are",
+    "                                     truncated, and those after it are",
+    "                                     printed empty and truncated (Default:",
+    "                                     unlimited)",
+    "    --deletion-index <PATH>          File of the index of the --engine",
+    "                                     SYMMETRIC_DELETION.  If the file",
+    "                                     holds the index of the --dictionary,",
+    "                                     it is memory-mapped rather than",
+    "                                     rebuilt, and held off the heap;",
+    "                                     otherwise, the index is built and",
+    "                                     written to the file.  Requires a",
+    "                                     single --dictionary",
+    "    --distance <PATH|URI> <...>      Instead of querying a --dictionary,",
+    "                                     print the distance between each pair",
+    "                                     of terms in these UTF-8 files (or",
+    "                                     standard input, if there are none),",
+    "                                     one tab-separated pair per line.",
+    "                                     Each pair is printed with its",
+    "                                     distance, or with > and the",
+    "                                     --max-distance if it is beyond it",
+    "                                     (Default: no maximum).  Terms up to",
+    "                                     64 characters long are compared",
+    "                                     bit-parallel, and pairs are computed",
+    "                                     by --threads workers",
+    "    --engine <ENGINE>                How each dictionary is held in memory",
+    "                                     and walked while it is queried: DAWG",
+    "                                     walks its nodes as they are loaded,",
+    "                                     PACKED packs them into flat arrays",
+    "                                     once it is loaded, which takes less",
+    "                                     memory and queries faster,",
+    "                                     PARTITIONED partitions its terms by",
+    "                                     length, so queries walk only the",
+    "                                     terms whose lengths are within",
+    "                                     --max-distance of theirs, and",
+    "                                     SYMMETRIC_DELETION indexes every",
+    "                                     string within --max-distance",
+    "                                     deletions of each term, so queries",
+    "                                     are answered by a few hash probes",
+    "                                     rather than a walk of the dictionary.",
+    "                                     All print the same spelling",
+    "                                     candidates.  Only DAWG supports",
+    "                                     --prefix and --rank, and",
+    "                                     SYMMETRIC_DELETION supports neither",
+    "                                     the MERGE_AND_SPLIT algorithm nor",
+    "                                     distances beyond 2 (Default: DAWG)",
+    "    --fan-out                        Load every --dictionary concurrently",
+    "                                     and query them in parallel, printing",
+    "                                     the union of their spelling",
+    "                                     candidates, each once, tagged with",
+    "                                     the first dictionary that has it.",
+    "                                     The latency of each dictionary is",
+    "                                     logged once every query term has been",
+    "                                     answered",
+    "    --gzip                           Compress the --output file with GZIP",
+    "                                     (Default: whether it ends with .gz)",
+    " -h,--help                           print this help text",
+    "    --host <PATH>                    Directory of many dictionaries, such",
+    "                                     as one for each tenant, to query",
+    "                                     instead of a --dictionary.  Each",
+    "                                     query term names the file of its",
+    "                                     dictionary, as NAME:TERM, and each",
+    "                                     dictionary is loaded the first time",
+    "                                     it is named, once, however many",
+    "                                     workers name it at once.  The",
+    "                                     least-recently named dictionaries are",
+    "                                     evicted once those loaded exceed the",
+    "                                     --memory-budget",
+    " -i,--include-distance               Include the Levenshtein distance with",
+    "                                     each spelling candidate (Default:",
+    "                                     false)",
+    "    --inspect                        Instead of querying each",
+    "                                     --dictionary, report its size and",
+    "                                     shape: its numbers of terms, nodes",
+    "                                     and edges, its alphabet, how its",
+    "                                     nodes fan out and how deep its terms",
+    "                                     go, the heap it takes in each",
+    "                                     representation, and its size and load",
+    "                                     time in each --target-format",
+    "                                     (Default: every format)",
+    "    --jmx                            Register an MBean, named",
+    "                                     com.github.liblevenshtein:type=QueryM",
+    "                                     etrics, that exposes live metrics of",
+    "                                     the queries and dictionaries, for",
+    "                                     watching long-running jobs from",
+    "                                     jconsole or another JMX client:",
+    "                                     queries answered, queries and",
+    "                                     spelling candidates per second,",
+    "                                     latency percentiles, dictionary sizes",
+    "                                     and load times, and the hit and",
+    "                                     eviction counts of --host",
+    "                                     dictionaries",
+    " -m,--max-distance <INTEGER>         Maximun, Levenshtein distance a",
+    "                                     spelling candidatemay be from the",
+    "                                     query term (Default: 2)",
+    "    --max-cost <INTEGER>             Maximum number of dictionary nodes a",
+    "                                     query may be predicted to expand and",
+    "                                     still be run as it is.  Predictions",
+    "                                     come from a model of the dictionary,",
+    "                                     measured and calibrated when it is",
+    "                                     loaded, of how the cost of a query",
+    "                                     grows with the length of its term,",
+    "                                     its distance and the --algorithm.",
+    "                                     Requires a single --dictionary",
+    "                                     (Default: unlimited)",
+    "    --max-length <INTEGER>           Only print spelling candidates of at",
+    "                                     most this length",
+    "    --max-steps <INTEGER>            Maximum number of dictionary nodes",
+    "                                     each query may expand, after which",
+    "                                     the spelling candidates found so far",
+    "                                     are printed and marked as truncated",
+    "                                     (Default: unlimited)",
+    "    --memory-budget <MEBIBYTES>      Heap that may be reserved for",
+    "                                     resident dictionaries (Default: half",
+    "                                     the maximum heap)",
+    "    --min-candidates <INTEGER>       Number of spelling candidates a query",
+    "                                     term must have before the rest of a",
+    "                                     cascade of --dictionary sources is",
+    "                                     skipped (Default: 1, so only misses",
+    "                                     fall through)",
+    "    --min-length <INTEGER>           Only print spelling candidates of at",
+    "                                     least this length",
+    " -o,--output <PATH>                  File to print results into (Default:",
+    "                                     standard output)",
+    "    --pattern <GLOB>                 Only print spelling candidates that",
+    "                                     match this glob pattern (* matches",
+    "                                     any characters, ? any one character,",
+    "                                     [a-z] or [!a-z] any one character in",
+    "                                     or outside a class, and \\c the",
+    "                                     character c).  Constraints are",
+    "                                     checked while the dictionary is",
+    "                                     searched, so they prune the search",
+    "                                     rather than its results",
+    "    --prefix                         Complete each query term as a",
+    "                                     possibly-misspelled prefix: print",
+    "                                     dictionary terms with a prefix within",
+    "                                     --max-distance of the query term,",
+    "                                     nearest first, up to",
+    "                                     --completion-limit of them",
+    " -q,--query <STRING> <...>           Terms to query against the",
+    "                                     dictionary.  You may specify multiple",
+    "                                     terms.",
+    "    --qgram-distance <INTEGER>       Index the q-grams of each dictionary,",
+    "                                     and answer queries of at least this",
+    "                                     distance from the index instead of",
+    "                                     the --engine, if their terms are long",
+    "                                     enough for the q-grams they must",
+    "                                     share with their spelling candidates",
+    "                                     to rule out most terms.  Only the few",
+    "                                     terms that share enough of them, and",
+    "                                     whose lengths are close enough, are",
+    "                                     compared with the query term.  Does",
+    "                                     not support --prefix or --rank",
+    "    --qgram-length <INTEGER>         Least length of the query terms",
+    "                                     answered from the q-gram index of the",
+    "                                     --qgram-distance (Default: the least",
+    "                                     length it prunes for)",
+    "    --query-file <PATH>              UTF-8 file of terms to query, one per",
+    "                                     line, after any --query terms",
+    "    --query-timeout <MILLISECONDS>   Maximum time each query may take,",
+    "                                     after which the spelling candidates",
+    "                                     found so far are printed and marked",
+    "                                     as truncated (Default: unlimited)",
+    "    --rank                           Print the spelling candidates of each",
+    "                                     query term by distance, then from the",
+    "                                     most frequent (as given by a WEIGHTED",
+    "                                     or WEIGHTED_TEXT dictionary), up to",
+    "                                     --candidate-limit candidates",
+    " -s,--is-sorted                      Specifies that the dictionary is",
+    "                                     sorted lexicographically, in",
+    "                                     ascending order (Default: false)",
+    "    --serialize <PATH>               Path to save the serialized",
+    "                                     dictionary (or directory to save the",
+    "                                     converted dictionaries, with",
+    "                                     --bulk-convert)",
+    "    --serve                          Serve an as-you-type query session:",
+    "                                     read one edit of the query term per",
+    "                                     line from standard input (+TEXT",
+    "                                     appends TEXT, -N deletes N",
+    "                                     characters, =TEXT replaces the term,",
+    "                                     ? reprints it) and print its spelling",
+    "                                     candidates after each, followed by an",
+    "                                     empty line.  Requires --dictionary",
+    "    --shard <INDEX/COUNT>            Query only one of COUNT disjoint",
+    "                                     slices of the query terms, numbered",
+    "                                     from zero, so independent processes",
+    "                                     running the same command each take",
+    "                                     their own.  The --query-file is split",
+    "                                     into byte ranges, and only this",
+    "                                     shard's range is read; --query terms",
+    "                                     are selected by a stable hash.  The",
+    "                                     --output file is named after the",
+    "                                     shard, e.g. results-INDEX.txt, and",
+    "                                     concatenating those of every shard in",
+    "                                     order yields the output of the whole",
+    "                                     --query-file",
+    "    --shard-output                   Query with --threads workers in",
+    "                                     parallel, each printing a contiguous",
+    "                                     slice of the results into its own",
+    "                                     --output file, named by inserting the",
+    "                                     worker's index before the extension",
+    "                                     (e.g. results-0.txt)",
+    "    --source-format <FORMAT>         Format of the source dictionary",
+    "                                     (Default: adaptively-try each format",
+    "                                     until one works)",
+    "    --starts-with <STRING>           Only print spelling candidates that",
+    "                                     begin with this prefix",
+    "    --target-format <FORMAT> <...>   Format of the serialized dictionary.",
+    "                                     You may specify multiple formats with",
+    "                                     --bulk-convert (Default: PROTOBUF)",
+    "    --threads <INTEGER>              Number of worker threads, for",
+    "                                     --bulk-convert and --shard-output",
+    "                                     (Default: number of processors)",
     "",
     "Example: liblevenshtein-java-cli \\",
     "  --algorithm TRANSPOSITION \\",
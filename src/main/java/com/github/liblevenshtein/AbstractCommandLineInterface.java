@@ -0,0 +1,520 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.cli.Options;
+
+import com.google.common.base.Joiner;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.CandidateFilter;
+import com.github.liblevenshtein.query.Glob;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_ALGORITHM;
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_COMPLETION_LIMIT;
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_FORMAT;
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_MAX_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_MIN_CANDIDATES;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_ALGORITHM;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_BULK_CONVERT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_CANDIDATE_LIMIT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_CHECK;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_COLORIZE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_COMPLETION_LIMIT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DELETION_INDEX;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DICTIONARY;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_FAN_OUT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_GZIP;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_HOST;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_INCLUDE_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_INSPECT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_IS_SORTED;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_JMX;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_LENGTH;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MEMORY_BUDGET;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MIN_CANDIDATES;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MIN_LENGTH;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_OUTPUT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_PATTERN;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_PREFIX;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_QUERY;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_QUERY_FILE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_RANK;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SERIALIZE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SERVE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SHARD;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SHARD_OUTPUT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SOURCE_FORMAT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_STARTS_WITH;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_TARGET_FORMAT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_THREADS;
+import static com.github.liblevenshtein.CommandLineOptions.GZIP_EXTENSION;
+
+/**
+ * Typed access to the options of {@link CommandLineInterface}, which parses
+ * and validates each option where it is read, leaving the subclass to decide
+ * what to do with them.
+ */
+@Slf4j
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public abstract class AbstractCommandLineInterface extends Action {
+
+  /**
+   * Joins elements with commas.
+   */
+  private static final Joiner COMMAS = Joiner.on(", ");
+
+  /**
+   * Constructs a new command-line interface with the arguments.
+   * @param args Command-line arguments
+   */
+  protected AbstractCommandLineInterface(final String[] args) {
+    super(args);
+  }
+
+  /**
+   * Stream to the dictionary to query against.  This may be any valid,
+   * filesystem path or Java-compatible URI (such as a remote dictionary, Jar
+   * resource, etc.).
+   * @return Stream to the dictionary to query against.
+   * @throws IOException If the dictionary stream cannot be read.
+   */
+  protected InputStream dictionary() throws IOException {
+    final String path = cli.getOptionValue(FLAG_DICTIONARY);
+
+    try {
+      if (null == path && 0 != System.in.available()) {
+        return System.in;
+      }
+    }
+    catch (final IOException exception) {
+      log.warn("Cannot read from <STDIN>");
+    }
+
+    if (null == path) {
+      throw new IllegalArgumentException("No dictionary specified");
+    }
+
+    return DictionaryLoader.open(path);
+  }
+
+  /**
+   * Filesystem paths or Java-compatible URIs to the dictionaries to query
+   * against, in the order they are consulted.
+   * @return Paths or URIs to the dictionaries, which is empty if none were
+   *   specified.
+   */
+  protected List<String> dictionaryPaths() {
+    if (cli.hasOption(FLAG_DICTIONARY)) {
+      return Arrays.asList(cli.getOptionValues(FLAG_DICTIONARY));
+    }
+    return Arrays.asList();
+  }
+
+  /**
+   * Specifies whether the dictionary is sorted (saves work if it is).
+   * @return Whether the dictionary is sorted.
+   */
+  protected boolean isSorted() {
+    return cli.hasOption(FLAG_IS_SORTED);
+  }
+
+  /**
+   * Levenshtein algorithm to use while querying the dictionary.
+   * @return Levenshtein algorithm to use while querying the dictionary.
+   */
+  protected Algorithm algorithm() {
+    final String algorithmName = cli.getOptionValue(FLAG_ALGORITHM);
+
+    if (null == algorithmName) {
+      return DEFAULT_ALGORITHM;
+    }
+
+    for (final Algorithm algorithm : Algorithm.values()) {
+      if (algorithm.name().equals(algorithmName)) {
+        return algorithm;
+      }
+    }
+
+    final String message =
+      String.format("Unknown algorithm [%s], expected one of [%s]",
+        algorithmName, COMMAS.join(Algorithm.values()));
+    throw new IllegalArgumentException(message);
+  }
+
+  /**
+   * Parses the value of an integer-valued option.
+   * @param flag Name of the option.
+   * @param defaultValue Value to return when the option is not specified.
+   * @return Value of the option, or defaultValue if it was not specified.
+   */
+  protected int integerOption(final String flag, final int defaultValue) {
+    final String value = cli.getOptionValue(flag);
+
+    if (null == value) {
+      return defaultValue;
+    }
+
+    try {
+      return Integer.parseInt(value);
+    }
+    catch (final NumberFormatException exception) {
+      final String message =
+        String.format("Expected an integer for [%s], but received [%s]",
+          flag, value);
+      throw new IllegalArgumentException(message, exception);
+    }
+  }
+
+  /**
+   * Maximum-allowed, Levenshtein distance a spelling candidate may be from its
+   * query term.
+   * @return Maximum, Levenshtein distance of spelling candidates.
+   */
+  protected int maxDistance() {
+    return integerOption(FLAG_MAX_DISTANCE, DEFAULT_MAX_DISTANCE);
+  }
+
+  /**
+   * Whether to complete query terms as prefixes of dictionary terms, rather
+   * than correct them as whole terms.
+   * @return Whether to complete query terms.
+   */
+  protected boolean prefix() {
+    return cli.hasOption(FLAG_PREFIX);
+  }
+
+  /**
+   * Whether to rank spelling candidates by their frequencies.
+   * @return Whether to rank spelling candidates.
+   */
+  protected boolean rank() {
+    return cli.hasOption(FLAG_RANK);
+  }
+
+  /**
+   * Maximum number of ranked spelling candidates for each query term.
+   * @return Maximum number of ranked spelling candidates for each query term.
+   */
+  protected int candidateLimit() {
+    return integerOption(FLAG_CANDIDATE_LIMIT, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Number of spelling candidates that must be found before the rest of a
+   * cascade of dictionaries is skipped.
+   * @return Number of spelling candidates that end a cascade.
+   */
+  protected int minCandidates() {
+    return integerOption(FLAG_MIN_CANDIDATES, DEFAULT_MIN_CANDIDATES);
+  }
+
+  /**
+   * Whether to query several dictionaries in parallel, as a union, rather than
+   * as a cascade.
+   * @return Whether to fan query terms out to every dictionary.
+   */
+  protected boolean fanOut() {
+    return cli.hasOption(FLAG_FAN_OUT);
+  }
+
+  /**
+   * Whether to serve an incremental query session over standard input and
+   * output.
+   * @return Whether to serve a query session.
+   */
+  protected boolean serve() {
+    return cli.hasOption(FLAG_SERVE);
+  }
+
+  /**
+   * Maximum number of completions for each query term.
+   * @return Maximum number of completions for each query term.
+   */
+  protected int completionLimit() {
+    return integerOption(FLAG_COMPLETION_LIMIT, DEFAULT_COMPLETION_LIMIT);
+  }
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * Each engine and session gets its own, since compiled patterns are not
+   * thread-safe.
+   * @return Constraints spelling candidates must satisfy.
+   */
+  protected CandidateFilter candidateFilter() {
+    final CandidateFilter filter = new CandidateFilter()
+      .minLength(integerOption(FLAG_MIN_LENGTH, 0))
+      .maxLength(integerOption(FLAG_MAX_LENGTH, Integer.MAX_VALUE))
+      .prefix(cli.getOptionValue(FLAG_STARTS_WITH, ""));
+    if (cli.hasOption(FLAG_PATTERN)) {
+      filter.pattern(new Glob(cli.getOptionValue(FLAG_PATTERN)));
+    }
+    return filter;
+  }
+
+  /**
+   * Whether to include the number of errors from each query term, with the
+   * spelling candidates.
+   * @return Whether to include the Levenshtein distance.
+   */
+  protected boolean includeDistance() {
+    return cli.hasOption(FLAG_INCLUDE_DISTANCE);
+  }
+
+  /**
+   * Terms to query against the dictionary, given directly and read from the
+   * query file, limited to those of this shard.
+   * @return Terms to query against the dictionary.
+   * @throws IOException If the query file cannot be read.
+   */
+  protected List<String> queryTerms() throws IOException {
+    final QueryShard shard = shard();
+    final List<String> queryTerms = new ArrayList<>();
+    if (cli.hasOption(FLAG_QUERY)) {
+      queryTerms.addAll(shard.select(Arrays.asList(cli.getOptionValues(FLAG_QUERY))));
+    }
+    if (cli.hasOption(FLAG_QUERY_FILE)) {
+      queryTerms.addAll(shard.read(Paths.get(cli.getOptionValue(FLAG_QUERY_FILE))));
+    }
+    return queryTerms;
+  }
+
+  /**
+   * Documents to spell-check.
+   * @return Filesystem paths or Java-compatible URIs to the documents, or an
+   *   empty list if there are none.
+   */
+  protected List<String> checkPaths() {
+    if (cli.hasOption(FLAG_CHECK)) {
+      return Arrays.asList(cli.getOptionValues(FLAG_CHECK));
+    }
+    return Arrays.asList();
+  }
+
+  /**
+   * Whether to compute the distances between pairs of terms, rather than
+   * query a dictionary.
+   * @return Whether to compute the distances between pairs of terms.
+   */
+  protected boolean distance() {
+    return cli.hasOption(FLAG_DISTANCE);
+  }
+
+  /**
+   * Files of pairs of terms whose distances to compute.
+   * @return Filesystem paths or Java-compatible URIs to the files, or an
+   *   empty list if the pairs are read from standard input.
+   */
+  protected List<String> distancePaths() {
+    final String[] paths = cli.getOptionValues(FLAG_DISTANCE);
+    return null == paths ? Arrays.asList() : Arrays.asList(paths);
+  }
+
+  /**
+   * Slice of the query terms to query.
+   * @return Slice of the query terms to query, or every term if there is no
+   *   --shard.
+   */
+  protected QueryShard shard() {
+    final String shard = cli.getOptionValue(FLAG_SHARD);
+    return null == shard ? QueryShard.ALL : QueryShard.parse(shard);
+  }
+
+  /**
+   * Where to serialize the dictionary.  This will be null if the dictionary
+   * should not be serialzied.
+   * @return Where to serialize the dictionary.
+   */
+  protected Path serializationPath() {
+    final String serializationPath = cli.getOptionValue(FLAG_SERIALIZE);
+    if (null == serializationPath) {
+      return null;
+    }
+    return Paths.get(serializationPath);
+  }
+
+  /**
+   * Returns the source, serialization format for dictionaries (or null, if no
+   * source format was specified).
+   * @return Target, serialization format for dictionaries.
+   */
+  protected SerializationFormat sourceFormat() {
+    final String sourceFormat = cli.getOptionValue(FLAG_SOURCE_FORMAT);
+    if (null == sourceFormat) {
+      return null;
+    }
+    return SerializationFormat.valueOf(sourceFormat);
+  }
+
+  /**
+   * Returns the target, serialization formats for dictionaries
+   * (or {@link CommandLineOptions#DEFAULT_FORMAT}, if no target format was specified).
+   * @return Target, serialization formats for dictionaries.
+   */
+  protected List<SerializationFormat> targetFormats() {
+    final String[] targetFormats = cli.getOptionValues(FLAG_TARGET_FORMAT);
+    if (null == targetFormats) {
+      return Arrays.asList(DEFAULT_FORMAT);
+    }
+    final List<SerializationFormat> formats = new ArrayList<>(targetFormats.length);
+    for (final String targetFormat : targetFormats) {
+      formats.add(SerializationFormat.valueOf(targetFormat));
+    }
+    return formats;
+  }
+
+  /**
+   * Returns the target, serialization format for dictionaries
+   * (or {@link CommandLineOptions#DEFAULT_FORMAT}, if no target format was specified).
+   * @return Target, serialization format for dictionaries.
+   */
+  protected SerializationFormat targetFormat() {
+    final List<SerializationFormat> targetFormats = targetFormats();
+    if (1 != targetFormats.size()) {
+      final String message = String.format(
+        "Multiple target formats %s may only be specified with --%s",
+          targetFormats, FLAG_BULK_CONVERT);
+      throw new IllegalArgumentException(message);
+    }
+    return targetFormats.get(0);
+  }
+
+  /**
+   * Whether to report the size and shape of each dictionary instead of
+   * querying it.
+   * @return Whether to inspect the dictionaries.
+   */
+  protected boolean inspect() {
+    return cli.hasOption(FLAG_INSPECT);
+  }
+
+  /**
+   * Whether to expose live metrics of the queries and dictionaries over JMX.
+   * @return Whether to register the metrics as an MBean.
+   */
+  protected boolean jmx() {
+    return cli.hasOption(FLAG_JMX);
+  }
+
+  /**
+   * Whether to colorize the output.
+   * @return Whether to colorize the output.
+   */
+  protected boolean colorize() {
+    return cli.hasOption(FLAG_COLORIZE);
+  }
+
+  /**
+   * Directory or manifest of dictionaries to convert in bulk.  This will be
+   * null if dictionaries should not be converted in bulk.
+   * @return Directory or manifest of dictionaries to convert in bulk.
+   */
+  protected Path bulkConvertPath() {
+    final String bulkConvertPath = cli.getOptionValue(FLAG_BULK_CONVERT);
+    if (null == bulkConvertPath) {
+      return null;
+    }
+    return Paths.get(bulkConvertPath);
+  }
+
+  /**
+   * Directory of many dictionaries to host, which query terms name.  This
+   * will be null if a single --dictionary (or cascade) should be queried.
+   * @return Directory of dictionaries to host.
+   */
+  protected Path hostPath() {
+    final String hostPath = cli.getOptionValue(FLAG_HOST);
+    if (null == hostPath) {
+      return null;
+    }
+    return Paths.get(hostPath);
+  }
+
+  /**
+   * File of the symmetric-deletion index of the dictionary.  This will be null
+   * if the index should be built on the heap, and not written.
+   * @return File of the symmetric-deletion index.
+   */
+  protected Path deletionIndexPath() {
+    final String deletionIndexPath = cli.getOptionValue(FLAG_DELETION_INDEX);
+    if (null == deletionIndexPath) {
+      return null;
+    }
+    return Paths.get(deletionIndexPath);
+  }
+
+  /**
+   * Number of worker threads.
+   * @return Number of worker threads.
+   */
+  protected int threads() {
+    return integerOption(FLAG_THREADS, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Heap, in mebibytes, that may be reserved for resident dictionaries.
+   * @return Memory budget, in mebibytes.
+   */
+  protected int memoryBudget() {
+    return integerOption(FLAG_MEMORY_BUDGET,
+      (int) (Runtime.getRuntime().maxMemory() / 2 / BulkConverter.MEBIBYTE));
+  }
+
+  /**
+   * File to print results into.  This will be null if results should be
+   * printed to standard output.
+   * @return File to print results into.
+   * @throws IllegalArgumentException If there is no output file, but it
+   *   should be compressed.
+   */
+  protected Path outputPath() {
+    final String outputPath = cli.getOptionValue(FLAG_OUTPUT);
+    if (null == outputPath) {
+      if (cli.hasOption(FLAG_GZIP)) {
+        final String message = String.format("--%s requires an --%s file",
+          FLAG_GZIP, FLAG_OUTPUT);
+        throw new IllegalArgumentException(message);
+      }
+      return null;
+    }
+    return Paths.get(outputPath);
+  }
+
+  /**
+   * Whether to compress the output file with GZIP.  This is implied by an
+   * output file with a GZIP extension.
+   * @return Whether to compress the output file.
+   */
+  protected boolean gzip() {
+    return cli.hasOption(FLAG_GZIP)
+      || cli.hasOption(FLAG_OUTPUT)
+        && cli.getOptionValue(FLAG_OUTPUT).endsWith(GZIP_EXTENSION);
+  }
+
+  /**
+   * Whether to query in parallel, with each worker printing into its own
+   * output file.
+   * @return Whether to shard the output.
+   */
+  protected boolean shardOutput() {
+    return cli.hasOption(FLAG_SHARD_OUTPUT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Options options() {
+    return CommandLineOptions.addTo(super.options());
+  }
+}
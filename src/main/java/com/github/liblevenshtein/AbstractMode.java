@@ -0,0 +1,47 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+
+import lombok.NonNull;
+
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Common behavior of the modes of {@link CommandLineInterface} that do
+ * something other than print the spelling candidates of query terms.  Each
+ * mode validates the options it reads, and leaves the rest to the
+ * command-line interface.
+ */
+abstract class AbstractMode {
+
+  /**
+   * Command-line interface whose options configure this mode.
+   */
+  protected final CommandLineInterface app;
+
+  /**
+   * Constructs a mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  protected AbstractMode(@NonNull final CommandLineInterface app) {
+    this.app = app;
+  }
+
+  /**
+   * Runs this mode.
+   * @throws Exception If the mode fails.
+   * @throws IllegalArgumentException If the options do not suit the mode.
+   */
+  protected abstract void run() throws Exception;
+
+  /**
+   * Opens the --output file, or standard output if there is none.
+   * @return Buffers the output of this mode.
+   * @throws IOException If the --output file cannot be opened.
+   */
+  protected OutputBuffer openOutput() throws IOException {
+    return null == app.outputPath()
+      ? OutputBuffer.stdout()
+      : OutputBuffer.open(app.outputPath(), app.gzip());
+  }
+}
@@ -1,17 +1,109 @@
 package com.github.liblevenshtein;
 
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import lombok.NonNull;
 import lombok.experimental.ExtensionMethod;
 
 import com.github.liblevenshtein.util.HighlightUtils;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template;
+import com.github.liblevenshtein.util.Template.Slot;
 
 /**
- * Prints strings in color.
+ * Prints strings in color.  Each printer lays out its messages once, as a
+ * {@link Template}, so printing a message only fills the template's slots.
  */
 @ExtensionMethod(HighlightUtils.class)
-public abstract class AbstractPrinter
-    implements Printer, BiConsumer<StringBuilder, String> {
+public abstract class AbstractPrinter implements Printer, Consumer<String> {
+
+  /**
+   * Buffers printed messages.
+   */
+  protected final OutputBuffer output;
+
+  /**
+   * Precompiled layout of this printer's messages.
+   */
+  private final Template template;
+
+  /**
+   * Precompiled layout of this printer's messages, tagged with the dictionary
+   * each spelling candidate comes from.
+   */
+  private final Template sourceTemplate;
+
+  /**
+   * Precompiled marker of query terms whose queries were cut short.
+   */
+  private final Template truncationTemplate;
+
+  /**
+   * Java-escaped, query term whose spelling candidates are being printed.
+   */
+  private String currentQuery = "";
+
+  /**
+   * Java-escaped name of the dictionary whose spelling candidates are being
+   * printed, or null until a query engine names one.
+   */
+  private String escapedSource = null;
+
+  /**
+   * {@link #template} (or {@link #sourceTemplate}, once a dictionary has been
+   * named) bound to the query term and dictionary whose spelling candidates
+   * are being printed.
+   */
+  private Template boundTemplate;
+
+  /**
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  protected AbstractPrinter(@NonNull final OutputBuffer output) {
+    this.output = output;
+    this.template = Template.compile(
+      layout(new StringBuilder(1024)).append(System.lineSeparator()));
+    this.sourceTemplate = Template.compile(
+      layoutSource(layout(new StringBuilder(1024))).append(System.lineSeparator()));
+    this.truncationTemplate = Template.compile(
+      layoutTruncation(new StringBuilder(64)).append(System.lineSeparator()));
+    this.boundTemplate = template.bind("");
+  }
+
+  /**
+   * Lays out this printer's messages, marking where the query term, spelling
+   * candidate and distance go with {@link Template.Slot} placeholders.
+   * @param buffer Holds the layout.
+   * @return buffer, for fluency.
+   */
+  protected abstract StringBuilder layout(StringBuilder buffer);
+
+  /**
+   * Lays out the tag naming the dictionary a spelling candidate comes from,
+   * after the rest of the message, marking where the name goes with a
+   * {@link Slot#SOURCE} placeholder.
+   * @param buffer Holds the layout.
+   * @return buffer, for fluency.
+   */
+  protected StringBuilder layoutSource(final StringBuilder buffer) {
+    return buffer.append(' ')
+      .append('[')
+        .append(Slot.SOURCE.placeholder())
+      .append(']');
+  }
+
+  /**
+   * Lays out the marker printed after the spelling candidates of a query term
+   * whose query was cut short by its budget.
+   * @param buffer Holds the layout.
+   * @return buffer, for fluency.
+   */
+  protected StringBuilder layoutTruncation(final StringBuilder buffer) {
+    return buffer.append("| ... [truncated]");
+  }
 
   /**
    * Generates the border for appending above and below a header's text.
@@ -182,11 +274,8 @@ public abstract class AbstractPrinter
    */
   protected StringBuilder highlightDistance(
       final StringBuilder buffer,
-      final int distance) {
-    highlightBracket(buffer, "[");
-    buffer.foreground(HighlightUtils.YELLOW).append(distance);
-    highlightBracket(buffer, "]");
-    return buffer;
+      final String distance) {
+    return highlightBracketed(buffer, HighlightUtils.YELLOW, distance);
   }
 
   /**
@@ -209,6 +298,52 @@ public abstract class AbstractPrinter
     return buffer;
   }
 
+  /**
+   * Highlights the tag naming the dictionary a spelling candidate comes from.
+   * @param buffer Holds messages.
+   * @param source Name of the dictionary.
+   * @return buffer, for fluency.
+   */
+  protected StringBuilder highlightSource(
+      final StringBuilder buffer,
+      final String source) {
+    buffer.mode(HighlightUtils.BOLD).append(' ');
+    highlightBracketed(buffer, HighlightUtils.BLUE, source);
+    return buffer.end();
+  }
+
+  /**
+   * Highlights the marker printed after the spelling candidates of a query
+   * term whose query was cut short by its budget.
+   * @param buffer Holds messages.
+   * @return buffer, for fluency.
+   */
+  protected StringBuilder highlightTruncation(final StringBuilder buffer) {
+    buffer.mode(HighlightUtils.BOLD);
+    highlightTabulator(buffer, "| ");
+    highlightOperator(buffer, "...");
+    buffer.append(' ');
+    highlightBracketed(buffer, HighlightUtils.RED, "truncated");
+    return buffer.end();
+  }
+
+  /**
+   * Highlights text between brackets.
+   * @param buffer Holds messages.
+   * @param color Foreground color of the text.
+   * @param text Text to highlight.
+   * @return buffer, for fluency.
+   */
+  private StringBuilder highlightBracketed(
+      final StringBuilder buffer,
+      final int color,
+      final String text) {
+    highlightBracket(buffer, "[");
+    buffer.foreground(color).append(text);
+    highlightBracket(buffer, "]");
+    return buffer;
+  }
+
   /**
    * Highlights a tabulator.
    * @param buffer Holds messages.
@@ -226,18 +361,52 @@ public abstract class AbstractPrinter
    * {@inheritDoc}
    */
   @Override
-  public void print(
-      final StringBuilder buffer,
-      final String escapedQuery,
-      final Object object) {
-    throw new UnsupportedOperationException("print(StringBuilder,String,Object) is not implemented");
+  public void query(final String escapedQuery) {
+    this.currentQuery = escapedQuery;
+    bindTemplate();
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void accept(final StringBuilder buffer, final String escapedQuery) {
-    throw new UnsupportedOperationException("accept(StringBuilder,String) is not implemented");
+  public void source(final String name) {
+    this.escapedSource = StringEscapeUtils.escapeJava(name);
+    bindTemplate();
+  }
+
+  /**
+   * Binds the template to the query term and dictionary whose spelling
+   * candidates are printed next.
+   */
+  private void bindTemplate() {
+    boundTemplate = null == escapedSource
+      ? template.bind(currentQuery)
+      : sourceTemplate.bind(currentQuery).bind(Slot.SOURCE, escapedSource);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void visit(final CharSequence term, final int distance) {
+    boundTemplate.render(output, null, term, distance);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void truncated() {
+    truncationTemplate.render(output, null, null, 0);
+  }
+
+  /**
+   * Prints a message for a query term.
+   * @param escapedQuery Java-escaped, query term.
+   */
+  @Override
+  public void accept(final String escapedQuery) {
+    template.render(output, escapedQuery, null, 0);
   }
 }
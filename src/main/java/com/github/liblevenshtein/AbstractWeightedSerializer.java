@@ -0,0 +1,109 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.serialization.AbstractSerializer;
+
+/**
+ * Common behavior of serializers for {@link WeightedDictionary}.  They also
+ * serialize bare {@link SortedDawg}s, whose terms get a frequency of zero, and
+ * deserialize as bare {@link SortedDawg}s, dropping the frequencies, so they
+ * may stand in for any other format.
+ */
+abstract class AbstractWeightedSerializer extends AbstractSerializer {
+
+  /**
+   * Writes a weighted dictionary to a stream.
+   * @param dictionary Dictionary to write.
+   * @param stream Receives the dictionary.
+   * @throws IOException If the dictionary cannot be written.
+   */
+  protected abstract void write(
+      WeightedDictionary dictionary,
+      OutputStream stream) throws IOException;
+
+  /**
+   * Reads a weighted dictionary from a stream.
+   * @param stream Provides the dictionary.
+   * @return Dictionary read from the stream.
+   * @throws IOException If the stream does not hold a dictionary of this
+   *   format.
+   */
+  protected abstract WeightedDictionary read(InputStream stream) throws IOException;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(
+      @NonNull final Serializable object,
+      @NonNull final OutputStream stream) throws Exception {
+    write(weighted(object), stream);
+    stream.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public byte[] serialize(@NonNull final Serializable object) throws Exception {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    serialize(object, stream);
+    return stream.toByteArray();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <Type extends Serializable> Type deserialize(
+      @NonNull final Class<Type> type,
+      @NonNull final InputStream stream) throws Exception {
+    final WeightedDictionary dictionary = read(stream);
+    if (type.isInstance(dictionary)) {
+      return type.cast(dictionary);
+    }
+    if (type.isInstance(dictionary.dictionary())) {
+      return type.cast(dictionary.dictionary());
+    }
+    final String message = String.format(
+      "Cannot deserialize a weighted dictionary as [%s]", type.getName());
+    throw new IllegalArgumentException(message);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <Type extends Serializable> Type deserialize(
+      @NonNull final Class<Type> type,
+      @NonNull final byte[] bytes) throws Exception {
+    return deserialize(type, new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * Weighted view of a dictionary to serialize.
+   * @param object Dictionary to serialize.
+   * @return The dictionary, or its terms with frequencies of zero.
+   */
+  private static WeightedDictionary weighted(final Serializable object) {
+    if (object instanceof WeightedDictionary) {
+      return (WeightedDictionary) object;
+    }
+    if (object instanceof SortedDawg) {
+      return new WeightedDictionary((SortedDawg) object);
+    }
+    final String message = String.format(
+      "Cannot serialize [%s] as a weighted dictionary", object.getClass().getName());
+    throw new IllegalArgumentException(message);
+  }
+}
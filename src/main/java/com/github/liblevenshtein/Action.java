@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
  * Boilerplate logic for task actions.
  */
 @Slf4j
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
 public abstract class Action implements Runnable {
 
   /**
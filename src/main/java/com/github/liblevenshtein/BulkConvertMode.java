@@ -0,0 +1,42 @@
+package com.github.liblevenshtein;
+
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_BULK_CONVERT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SERIALIZE;
+
+/**
+ * Converts the dictionaries in the --bulk-convert directory or manifest to
+ * each --target-format, into the --serialize directory.
+ */
+final class BulkConvertMode extends AbstractMode {
+
+  /**
+   * Constructs the bulk-conversion mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  BulkConvertMode(final CommandLineInterface app) {
+    super(app);
+  }
+
+  /**
+   * Converts every dictionary to each target format.
+   * @throws Exception If any dictionary cannot be converted.
+   */
+  @Override
+  protected void run() throws Exception {
+    if (null == app.serializationPath()) {
+      final String message = String.format(
+        "--%s requires a target directory, specified with --%s",
+          FLAG_BULK_CONVERT, FLAG_SERIALIZE);
+      throw new IllegalArgumentException(message);
+    }
+
+    new BulkConverter()
+      .sourceFormat(app.sourceFormat())
+      .isSorted(app.isSorted())
+      .targetFormats(app.targetFormats())
+      .targetDirectory(app.serializationPath())
+      .threads(app.threads())
+      .memoryBudget(app.memoryBudget())
+      .convert(BulkConverter.sources(app.bulkConvertPath()));
+  }
+}
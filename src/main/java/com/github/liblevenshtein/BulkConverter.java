@@ -0,0 +1,394 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.util.AtomicFiles;
+
+/**
+ * Converts many dictionaries between serialization formats, concurrently.
+ * Each worker reserves the estimated heap footprint of its source from a
+ * shared memory budget before deserializing it, so no more dictionaries are
+ * resident at once than the budget allows.  Targets are written atomically,
+ * and sources whose targets were already built from the same content are
+ * skipped.
+ */
+@Slf4j
+@Setter
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class BulkConverter {
+
+  /**
+   * Number of bytes in a mebibyte.
+   */
+  public static final long MEBIBYTE = 1L << 20;
+
+  /**
+   * Rough ratio between the heap footprint of a deserialized dictionary and
+   * the size of its serialized form.
+   */
+  static final long HEAP_BYTES_PER_SOURCE_BYTE = 16L;
+
+  /**
+   * Lines of a manifest beginning with this prefix are comments.
+   */
+  private static final String MANIFEST_COMMENT = "#";
+
+  /**
+   * Extension of the file, beside each target, that records the content hash
+   * of the source it was converted from.
+   */
+  private static final String HASH_EXTENSION = ".sha256";
+
+  /**
+   * Separates file names from their extensions.
+   */
+  private static final String EXTENSION_SEPARATOR = ".";
+
+  /**
+   * Format of the source dictionaries, or null to try each format until one
+   * works.
+   */
+  private SerializationFormat sourceFormat = null;
+
+  /**
+   * Whether the source dictionaries are sorted (saves work if they are).
+   */
+  private boolean isSorted = false;
+
+  /**
+   * Formats to convert each source dictionary into.
+   */
+  @NonNull
+  private List<SerializationFormat> targetFormats =
+    Collections.singletonList(SerializationFormat.PROTOBUF);
+
+  /**
+   * Directory to write the converted dictionaries into.
+   */
+  @NonNull
+  private Path targetDirectory;
+
+  /**
+   * Maximum number of dictionaries to convert concurrently.
+   */
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Heap, in mebibytes, that workers may reserve for resident dictionaries.
+   */
+  private long memoryBudget = Runtime.getRuntime().maxMemory() / 2 / MEBIBYTE;
+
+  /**
+   * Lists the source dictionaries at some path.  If the path is a directory,
+   * every regular, non-hidden file within it is a source.  Otherwise, the path
+   * is a manifest listing one source per line, relative to the manifest's
+   * directory.  Blank lines and lines beginning with "#" are ignored.
+   * @param path Directory or manifest of source dictionaries.
+   * @return Source dictionaries at the path.
+   * @throws IOException If the directory or manifest cannot be read.
+   */
+  public static List<Path> sources(@NonNull final Path path) throws IOException {
+    final List<Path> sources = new ArrayList<>();
+
+    if (Files.isDirectory(path)) {
+      try (final DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+        for (final Path entry : entries) {
+          final String name = entry.getFileName().toString();
+          if (Files.isRegularFile(entry)
+              && !name.startsWith(EXTENSION_SEPARATOR)
+              && !name.endsWith(HASH_EXTENSION)) {
+            sources.add(entry);
+          }
+        }
+      }
+      Collections.sort(sources);
+      return sources;
+    }
+
+    final Path base = path.toAbsolutePath().getParent();
+    for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+      final String source = line.trim();
+      if (!source.isEmpty() && !source.startsWith(MANIFEST_COMMENT)) {
+        sources.add(base.resolve(source));
+      }
+    }
+    return sources;
+  }
+
+  /**
+   * Converts each source dictionary into each target format.
+   * @param sources Source dictionaries to convert.
+   * @return Number of target dictionaries written (up-to-date targets are not
+   *   counted).
+   * @throws Exception If the conversion cannot be scheduled.
+   * @throws IllegalStateException If any source fails to convert.
+   */
+  public int convert(@NonNull final List<Path> sources) throws Exception {
+    if (threads < 1) {
+      throw new IllegalArgumentException(
+        String.format("Expected at least one thread, but received [%d]", threads));
+    }
+
+    if (memoryBudget < 1) {
+      throw new IllegalArgumentException(
+        String.format("Expected a positive memory budget, but received [%d]",
+          memoryBudget));
+    }
+
+    checkTargets(sources);
+    Files.createDirectories(targetDirectory);
+
+    final int budget = (int) Math.min(Integer.MAX_VALUE, memoryBudget);
+    final Semaphore permits = new Semaphore(budget, true);
+    final ExecutorService workers = Executors.newFixedThreadPool(
+      Math.max(1, Math.min(threads, sources.size())),
+      new ThreadFactoryBuilder().setNameFormat("bulk-convert-%d").build());
+
+    log.info("Converting [{}] dictionaries to [{}] with [{}] workers and a "
+        + "budget of [{}] MiB", sources.size(), targetFormats, threads,
+        memoryBudget);
+
+    try {
+      final List<Future<Integer>> conversions = new ArrayList<>(sources.size());
+      for (final Path source : sources) {
+        conversions.add(workers.submit(() -> convertSource(source, permits, budget)));
+      }
+
+      int written = 0;
+      int failed = 0;
+      for (int i = 0; i < conversions.size(); i += 1) {
+        try {
+          written += conversions.get(i).get();
+        }
+        catch (final ExecutionException exception) {
+          failed += 1;
+          log.error("Failed to convert dictionary [{}]", sources.get(i),
+              exception.getCause());
+        }
+      }
+
+      log.info("Wrote [{}] dictionaries to [{}]", written, targetDirectory);
+
+      if (0 < failed) {
+        throw new IllegalStateException(
+          String.format("Failed to convert [%d] of [%d] dictionaries",
+            failed, sources.size()));
+      }
+
+      return written;
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Path of the target for some source, in some format.
+   * @param source Source dictionary.
+   * @param format Format of the target.
+   * @return Path of the target dictionary.
+   */
+  public Path target(final Path source, final SerializationFormat format) {
+    String name = source.getFileName().toString();
+    boolean stripped = false;
+    for (final SerializationFormat candidate : SerializationFormat.values()) {
+      final String extension = EXTENSION_SEPARATOR + candidate.extension();
+      if (name.endsWith(extension) && name.length() > extension.length()) {
+        name = name.substring(0, name.length() - extension.length());
+        stripped = true;
+        break;
+      }
+    }
+    final int dot = name.lastIndexOf('.');
+    if (!stripped && 0 < dot) {
+      name = name.substring(0, dot);
+    }
+    return targetDirectory.resolve(name + EXTENSION_SEPARATOR + format.extension());
+  }
+
+  /**
+   * Ensures no two sources would be converted to the same target, and no
+   * target would be written among the sources, where the next run would take
+   * it for a source and convert it again.  Sources are listed without
+   * recursing, so targets may be written to a subdirectory of theirs.
+   * @param sources Source dictionaries to convert.
+   */
+  private void checkTargets(final List<Path> sources) {
+    final Path directory = targetDirectory.toAbsolutePath().normalize();
+    final Map<Path, Path> targets = new HashMap<>();
+    for (final Path source : sources) {
+      if (directory.equals(source.toAbsolutePath().normalize().getParent())) {
+        final String message =
+          String.format("Target directory [%s] is the directory of dictionary [%s]",
+            targetDirectory, source);
+        throw new IllegalArgumentException(message);
+      }
+      for (final SerializationFormat format : targetFormats) {
+        final Path target = target(source, format);
+        final Path other = targets.put(target, source);
+        if (null != other) {
+          final String message =
+            String.format("Dictionaries [%s] and [%s] would both be converted to [%s]",
+              other, source, target);
+          throw new IllegalArgumentException(message);
+        }
+      }
+    }
+  }
+
+  /**
+   * Converts a source dictionary into every target format whose target is not
+   * up-to-date.
+   * @param source Source dictionary.
+   * @param permits Memory budget, in mebibytes, shared by all the workers.
+   * @param budget Total number of permits in the memory budget.
+   * @return Number of targets written.
+   * @throws Exception If the source cannot be converted.
+   */
+  private int convertSource(
+      final Path source,
+      final Semaphore permits,
+      final int budget) throws Exception {
+    final String hash = contentHash(source);
+
+    final List<SerializationFormat> staleFormats = new ArrayList<>();
+    for (final SerializationFormat format : targetFormats) {
+      if (!isUpToDate(target(source, format), hash)) {
+        staleFormats.add(format);
+      }
+    }
+
+    if (staleFormats.isEmpty()) {
+      log.info("Dictionary [{}] is up-to-date, skipping it", source);
+      return 0;
+    }
+
+    final long footprint =
+      Files.size(source) * HEAP_BYTES_PER_SOURCE_BYTE / MEBIBYTE + 1;
+    final int reservation = (int) Math.min(budget, footprint);
+
+    permits.acquire(reservation);
+    try {
+      final WeightedDictionary dictionary = deserialize(source);
+      for (final SerializationFormat format : staleFormats) {
+        final Path target = target(source, format);
+        log.info("Converting dictionary [{}] to [{}] as format [{}]",
+            source, target, format);
+        AtomicFiles.write(target, stream -> format.serialize(isSorted, dictionary, stream));
+        AtomicFiles.write(hashPath(target), stream ->
+          stream.write(hash.getBytes(StandardCharsets.UTF_8)));
+      }
+      return staleFormats.size();
+    }
+    finally {
+      permits.release(reservation);
+    }
+  }
+
+  /**
+   * Deserializes a source dictionary, either as {@link #sourceFormat} or by
+   * trying each format until one works.
+   * @param source Source dictionary.
+   * @return Deserialized dictionary.
+   * @throws Exception If the dictionary cannot be deserialized.
+   */
+  @SuppressWarnings("checkstyle:illegalcatch")
+  private WeightedDictionary deserialize(final Path source) throws Exception {
+    if (null != sourceFormat) {
+      return deserialize(source, sourceFormat);
+    }
+
+    for (final SerializationFormat format : SerializationFormat.values()) {
+      try {
+        return deserialize(source, format);
+      }
+      catch (final Exception exception) {
+        log.debug("Dictionary [{}] is not a [{}] stream", source, format);
+      }
+    }
+
+    final String message = String.format(
+      "Cannot read dictionary [%s] as any of [%s]",
+        source, Arrays.toString(SerializationFormat.values()));
+    throw new IllegalStateException(message);
+  }
+
+  /**
+   * Deserializes a source dictionary as some format.
+   * @param source Source dictionary.
+   * @param format Serialization format of the source dictionary.
+   * @return Deserialized dictionary.
+   * @throws Exception If the dictionary cannot be deserialized as the format.
+   */
+  private WeightedDictionary deserialize(
+      final Path source,
+      final SerializationFormat format) throws Exception {
+    try (final InputStream stream = Files.newInputStream(source)) {
+      return format.deserialize(isSorted, stream);
+    }
+  }
+
+  /**
+   * Whether a target was converted from a source having some content hash.
+   * @param target Target dictionary.
+   * @param hash Content hash of the source dictionary.
+   * @return Whether the target is up-to-date.
+   * @throws IOException If the recorded hash cannot be read.
+   */
+  private boolean isUpToDate(final Path target, final String hash) throws IOException {
+    final Path hashPath = hashPath(target);
+    return Files.isRegularFile(target)
+      && Files.isRegularFile(hashPath)
+      && hash.equals(new String(Files.readAllBytes(hashPath), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Path of the file recording the content hash of a target's source.
+   * @param target Target dictionary.
+   * @return Path of the hash file.
+   */
+  private Path hashPath(final Path target) {
+    return target.resolveSibling(target.getFileName() + HASH_EXTENSION);
+  }
+
+  /**
+   * Computes the SHA-256 hash of a file's content.
+   * @param path File to hash.
+   * @return Hex-encoded hash of the file's content.
+   * @throws IOException If the file cannot be read.
+   */
+  private String contentHash(final Path path) throws IOException {
+    try (final InputStream stream = Files.newInputStream(path);
+        final HashingInputStream hashing =
+          new HashingInputStream(Hashing.sha256(), stream)) {
+      ByteStreams.copy(hashing, ByteStreams.nullOutputStream());
+      return hashing.hash().toString();
+    }
+  }
+}
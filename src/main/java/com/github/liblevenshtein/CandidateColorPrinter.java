@@ -1,12 +1,10 @@
 package com.github.liblevenshtein;
 
-import org.apache.commons.lang3.StringEscapeUtils;
-
 import lombok.experimental.ExtensionMethod;
 
-import com.github.liblevenshtein.transducer.Candidate;
-
 import com.github.liblevenshtein.util.HighlightUtils;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template.Slot;
 
 /**
  * Prints the distance between a query term and spelling candidate, with
@@ -15,24 +13,42 @@ import com.github.liblevenshtein.util.HighlightUtils;
 @ExtensionMethod(HighlightUtils.class)
 public class CandidateColorPrinter extends AbstractPrinter {
 
+  /**
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  public CandidateColorPrinter(final OutputBuffer output) {
+    super(output);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  public void print(
-      final StringBuilder buffer,
-      final String escapedQuery,
-      final Object object) {
-    buffer.setLength(0);
-    final Candidate spellingCandidate = (Candidate) object;
-    final String escapedCandidate =
-      StringEscapeUtils.escapeJava(spellingCandidate.term());
+  protected StringBuilder layout(final StringBuilder buffer) {
     buffer.mode(HighlightUtils.BOLD);
     highlightTabulator(buffer, "| ");
-    highlightDistance(buffer, escapedQuery, escapedCandidate);
+    highlightDistance(buffer,
+      Slot.QUERY.placeholder(),
+      Slot.CANDIDATE.placeholder());
     highlightOperator(buffer, " = ");
-    highlightDistance(buffer, spellingCandidate.distance());
-    buffer.end();
-    System.out.println(buffer);
+    highlightDistance(buffer, Slot.DISTANCE.placeholder());
+    return buffer.end();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected StringBuilder layoutSource(final StringBuilder buffer) {
+    return highlightSource(buffer, Slot.SOURCE.placeholder());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected StringBuilder layoutTruncation(final StringBuilder buffer) {
+    return highlightTruncation(buffer);
   }
 }
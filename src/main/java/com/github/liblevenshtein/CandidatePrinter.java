@@ -1,8 +1,7 @@
 package com.github.liblevenshtein;
 
-import org.apache.commons.lang3.StringEscapeUtils;
-
-import com.github.liblevenshtein.transducer.Candidate;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template.Slot;
 
 /**
  * Prints the distance between a query term and spelling candidate, without
@@ -10,32 +9,32 @@ import com.github.liblevenshtein.transducer.Candidate;
  */
 public class CandidatePrinter extends AbstractPrinter {
 
+  /**
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  public CandidatePrinter(final OutputBuffer output) {
+    super(output);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  public void print(
-      final StringBuilder buffer,
-      final String escapedQuery,
-      final Object object) {
-    buffer.setLength(0);
-    final Candidate spellingCandidate = (Candidate) object;
-    final String escapedCandidate =
-      StringEscapeUtils.escapeJava(spellingCandidate.term());
-    buffer.append("| ")
+  protected StringBuilder layout(final StringBuilder buffer) {
+    return buffer.append("| ")
       .append("d(")
         .append('\"')
-          .append(escapedQuery)
+          .append(Slot.QUERY.placeholder())
         .append('\"')
         .append(", ")
         .append('\"')
-          .append(escapedCandidate)
+          .append(Slot.CANDIDATE.placeholder())
         .append('\"')
       .append(')')
       .append(" = ")
       .append('[')
-        .append(spellingCandidate.distance())
+        .append(Slot.DISTANCE.placeholder())
       .append(']');
-    System.out.println(buffer.toString());
   }
 }
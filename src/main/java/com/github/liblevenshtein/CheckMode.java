@@ -0,0 +1,60 @@
+package com.github.liblevenshtein;
+
+import java.io.InputStream;
+
+import com.github.liblevenshtein.query.MeteredQueryEngine;
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_CHECK;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_PREFIX;
+import static com.github.liblevenshtein.CommandLineOptions.singleDictionary;
+import static com.github.liblevenshtein.CommandLineOptions.unsupported;
+
+/**
+ * Spell-checks each --check document against the --dictionary, printing its
+ * unknown words and their spelling candidates.
+ */
+final class CheckMode extends AbstractMode {
+
+  /**
+   * Constructs the --check mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  CheckMode(final CommandLineInterface app) {
+    super(app);
+  }
+
+  /**
+   * Spell-checks each document.
+   * @throws Exception If the dictionary or any document cannot be read, or the
+   *   results cannot be printed.
+   */
+  @Override
+  protected void run() throws Exception {
+    if (app.prefix()) {
+      throw unsupported(FLAG_CHECK, FLAG_PREFIX);
+    }
+    if (1 < app.dictionaryPaths().size()) {
+      throw singleDictionary(FLAG_CHECK);
+    }
+
+    final WeightedDictionary dictionary = app.buildDictionary();
+    final QueryMetrics metrics = app.metrics();
+    final DocumentChecker checker = new DocumentChecker()
+      .dictionary(dictionary.dictionary())
+      .engines(null == metrics
+        ? () -> app.buildQueryEngine(dictionary)
+        : () -> new MeteredQueryEngine(app.buildQueryEngine(dictionary), metrics.meter()))
+      .includeDistance(app.includeDistance())
+      .threads(app.threads());
+
+    try (final OutputBuffer output = openOutput()) {
+      for (final String path : app.checkPaths()) {
+        try (final InputStream document = DictionaryLoader.open(path)) {
+          checker.check(path, document, output);
+        }
+      }
+    }
+  }
+}
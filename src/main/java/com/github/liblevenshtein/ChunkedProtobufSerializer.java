@@ -0,0 +1,475 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.FinalDawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.serialization.AbstractSerializer;
+
+/**
+ * Serializes {@link SortedDawg}s as a sectioned stream of independently
+ * decodable blocks of nodes, so they are deserialized on every core.
+ *
+ * <p>The nodes of the dictionary are numbered breadth-first from its root,
+ * and split into blocks of up to {@link #BLOCK_NODES} consecutive nodes.
+ * After a magic number and version, the stream holds an index: the number of
+ * terms, nodes and nodes per block, and the length in bytes of each block.
+ * No block holds more nodes than the dictionary.  Each
+ * block then holds, for each of its nodes, its number of edges and whether
+ * it is final, then the label and target node of each edge.  Every number is
+ * a Protocol Buffers varint.</p>
+ *
+ * <p>The nested messages of {@link SerializationFormat#PROTOBUF} must be
+ * decoded from the root down, on one thread.  Here, the blocks are decoded
+ * concurrently, each building its own nodes, and then linked concurrently,
+ * each linking the edges of its own nodes, so no two threads ever touch the
+ * same node.</p>
+ */
+@Slf4j
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class ChunkedProtobufSerializer extends AbstractSerializer {
+
+  /**
+   * Number of nodes in each block.
+   */
+  static final int BLOCK_NODES = 1 << 14;
+
+  /**
+   * Leading bytes of every chunked dictionary stream.
+   */
+  private static final byte[] MAGIC = {'L', 'L', 'C', 'P'};
+
+  /**
+   * Version of the stream layout.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Number of threads that decode blocks.
+   */
+  private final int threads;
+
+  /**
+   * Constructs a serializer that decodes blocks on every core.
+   */
+  public ChunkedProtobufSerializer() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a serializer.
+   * @param threads Number of threads that decode blocks.
+   */
+  public ChunkedProtobufSerializer(final int threads) {
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serialize(
+      @NonNull final Serializable object,
+      @NonNull final OutputStream stream) throws Exception {
+    final SortedDawg dictionary = dictionary(object);
+    final Reference2IntOpenHashMap<DawgNode> ids = new Reference2IntOpenHashMap<>();
+    final List<DawgNode> nodes = number(dictionary.root(), ids);
+    final int blocks = (nodes.size() + BLOCK_NODES - 1) / BLOCK_NODES;
+    final List<byte[]> encoded = new ArrayList<>(blocks);
+    for (int block = 0; block < blocks; block += 1) {
+      encoded.add(encode(nodes, ids, block));
+    }
+
+    final CodedOutputStream output = CodedOutputStream.newInstance(stream);
+    output.writeRawBytes(MAGIC);
+    output.writeUInt32NoTag(VERSION);
+    output.writeUInt32NoTag(dictionary.size());
+    output.writeUInt32NoTag(nodes.size());
+    output.writeUInt32NoTag(Math.min(BLOCK_NODES, nodes.size()));
+    for (final byte[] block : encoded) {
+      output.writeUInt32NoTag(block.length);
+    }
+    for (final byte[] block : encoded) {
+      output.writeRawBytes(block);
+    }
+    output.flush();
+    stream.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public byte[] serialize(@NonNull final Serializable object) throws Exception {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    serialize(object, stream);
+    return stream.toByteArray();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <Type extends Serializable> Type deserialize(
+      @NonNull final Class<Type> type,
+      @NonNull final InputStream stream) throws Exception {
+    if (!type.isAssignableFrom(SortedDawg.class)) {
+      final String message = String.format(
+        "Cannot deserialize a chunked dictionary as [%s]", type.getName());
+      throw new IllegalArgumentException(message);
+    }
+    return type.cast(read(ByteStreams.toByteArray(stream)));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <Type extends Serializable> Type deserialize(
+      @NonNull final Class<Type> type,
+      @NonNull final byte[] bytes) throws Exception {
+    return deserialize(type, new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * Dictionary to serialize.
+   * @param object Dictionary to serialize, or a weighted dictionary of it.
+   * @return The dictionary.
+   */
+  private static SortedDawg dictionary(final Serializable object) {
+    if (object instanceof SortedDawg) {
+      return (SortedDawg) object;
+    }
+    if (object instanceof WeightedDictionary) {
+      return ((WeightedDictionary) object).dictionary();
+    }
+    final String message = String.format(
+      "Cannot serialize [%s] as a chunked dictionary", object.getClass().getName());
+    throw new IllegalArgumentException(message);
+  }
+
+  /**
+   * Numbers the nodes of a dictionary, breadth-first from its root.  Nodes are
+   * told apart by identity, since their equality compares every node beneath
+   * them.
+   * @param root Root of the dictionary.
+   * @param seen Receives the number of each node.
+   * @return Nodes of the dictionary, by number.
+   */
+  private static List<DawgNode> number(
+      final DawgNode root,
+      final Reference2IntOpenHashMap<DawgNode> seen) {
+    final List<DawgNode> nodes = new ArrayList<>();
+    final Deque<DawgNode> queue = new ArrayDeque<>();
+    seen.put(root, 0);
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      final DawgNode node = queue.poll();
+      nodes.add(node);
+      for (final Char2ObjectMap.Entry<DawgNode> edge : node.edges().char2ObjectEntrySet()) {
+        final DawgNode target = edge.getValue();
+        if (!seen.containsKey(target)) {
+          seen.put(target, seen.size());
+          queue.add(target);
+        }
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * Encodes a block of nodes.
+   * @param nodes Nodes of the dictionary, by number.
+   * @param ids Number of each node.
+   * @param block Index of the block.
+   * @return Encoded block.
+   * @throws IOException If the block cannot be encoded.
+   */
+  private static byte[] encode(
+      final List<DawgNode> nodes,
+      final Reference2IntOpenHashMap<DawgNode> ids,
+      final int block) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    final int end = Math.min(nodes.size(), (block + 1) * BLOCK_NODES);
+    for (int id = block * BLOCK_NODES; id < end; id += 1) {
+      final DawgNode node = nodes.get(id);
+      final Char2ObjectMap<DawgNode> edges = node.edges();
+      output.writeUInt32NoTag(edges.size() << 1 | (node.isFinal() ? 1 : 0));
+      for (final Char2ObjectMap.Entry<DawgNode> edge : edges.char2ObjectEntrySet()) {
+        output.writeUInt32NoTag(edge.getCharKey());
+        output.writeUInt32NoTag(ids.getInt(edge.getValue()));
+      }
+    }
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads the lengths of the blocks, which must span the rest of the stream.
+   * @param input Provides the lengths.
+   * @param blocks Number of blocks.
+   * @param streamLength Length of the stream in bytes.
+   * @return Offset of each block after the lengths, followed by the end of
+   *   the last.
+   * @throws IOException If the blocks do not span the rest of the stream.
+   */
+  private static int[] offsets(
+      final CodedInputStream input,
+      final int blocks,
+      final int streamLength) throws IOException {
+    final int[] offsets = new int[blocks + 1];
+    long length = 0L;
+    for (int block = 0; block < blocks; block += 1) {
+      // Offsets past the end of the stream are clamped, and rejected with the
+      // total length below
+      length += input.readUInt32() & 0xFFFFFFFFL;
+      offsets[block + 1] = (int) Math.min(length, streamLength);
+    }
+    if (input.getTotalBytesRead() + length != streamLength) {
+      throw new IOException("Chunked dictionary is corrupt: bad block lengths");
+    }
+    return offsets;
+  }
+
+  /**
+   * Decodes a dictionary from the bytes of a chunked stream.
+   * @param bytes Bytes of the stream.
+   * @return Dictionary held by the stream.
+   * @throws IOException If the bytes do not hold a chunked dictionary.
+   * @throws InterruptedException If the thread is interrupted while waiting
+   *   for the blocks to be decoded.
+   */
+  private SortedDawg read(final byte[] bytes) throws IOException, InterruptedException {
+    final CodedInputStream input = CodedInputStream.newInstance(bytes);
+    checkVersion(input, bytes.length);
+    final int size = input.readUInt32();
+    final int nodeCount = input.readUInt32();
+    final int blockNodes = input.readUInt32();
+    final int blocks = blocks(nodeCount, blockNodes, bytes.length - input.getTotalBytesRead());
+    final int[] offsets = offsets(input, blocks, bytes.length);
+    final int start = input.getTotalBytesRead();
+
+    final long begin = System.nanoTime();
+    final DawgNode[] nodes = new DawgNode[nodeCount];
+    final Block[] decoded = new Block[blocks];
+    final ExecutorService executor = Executors.newFixedThreadPool(
+      Math.min(threads, blocks),
+      new ThreadFactoryBuilder().setNameFormat("chunk-%d").setDaemon(true).build());
+    try {
+      final List<Callable<Void>> decoders = new ArrayList<>(blocks);
+      for (int block = 0; block < blocks; block += 1) {
+        final int index = block;
+        decoders.add(() -> {
+          decoded[index] = new Block(
+            bytes, start + offsets[index], offsets[index + 1] - offsets[index],
+            index * blockNodes, (int) Math.min(nodeCount, (index + 1L) * blockNodes), nodes);
+          return null;
+        });
+      }
+      await(executor.invokeAll(decoders));
+
+      final List<Callable<Void>> linkers = new ArrayList<>(blocks);
+      for (final Block block : decoded) {
+        linkers.add(() -> {
+          block.link(nodes);
+          return null;
+        });
+      }
+      await(executor.invokeAll(linkers));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    log.debug("Decoded [{}] nodes in [{}] blocks in [{}] us",
+        nodeCount, blocks, (System.nanoTime() - begin) / 1_000L);
+    return new SortedDawg(size, nodes[0]);
+  }
+
+  /**
+   * Checks that a stream is a chunked dictionary of a supported version.
+   * @param input Provides the magic number and version of the stream.
+   * @param streamLength Length of the stream in bytes.
+   * @throws IOException If the stream is not a chunked dictionary, or its
+   *   version is not supported.
+   */
+  private static void checkVersion(final CodedInputStream input, final int streamLength)
+      throws IOException {
+    if (streamLength < MAGIC.length
+        || !Arrays.equals(MAGIC, input.readRawBytes(MAGIC.length))) {
+      throw new IOException("Stream is not a chunked dictionary");
+    }
+    final int version = input.readUInt32();
+    if (VERSION != version) {
+      final String message = String.format(
+        "Unsupported chunked-dictionary version [%d]", version);
+      throw new IOException(message);
+    }
+  }
+
+  /**
+   * Number of blocks in the index of a chunked stream, once the index is
+   * known to fit in the stream, so nothing is allocated for a corrupt one.
+   * @param nodes Number of nodes in the index.
+   * @param blockNodes Number of nodes per block in the index.
+   * @param remaining Number of bytes of the stream after the header.
+   * @return Number of blocks.
+   * @throws IOException If the blocks cannot fit in the remaining bytes.
+   */
+  private static int blocks(final int nodes, final int blockNodes, final int remaining)
+      throws IOException {
+    final long blocks = 1 <= blockNodes && blockNodes <= nodes
+      ? (nodes + (long) blockNodes - 1L) / blockNodes
+      : Long.MAX_VALUE;
+    // Every node and the length of every block take at least one byte
+    if (blocks > remaining - (long) nodes) {
+      throw new IOException("Chunked dictionary is corrupt: bad index");
+    }
+    return (int) blocks;
+  }
+
+  /**
+   * Waits for every task, rethrowing the first failure.
+   * @param tasks Tasks to wait for.
+   * @throws IOException If any task failed to decode its block.
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  private static void await(final List<Future<Void>> tasks)
+      throws IOException, InterruptedException {
+    for (final Future<Void> task : tasks) {
+      try {
+        task.get();
+      }
+      catch (final ExecutionException exception) {
+        final Throwable cause = exception.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        throw new IOException("Chunked dictionary is corrupt", cause);
+      }
+    }
+  }
+
+  /**
+   * Decoded block of nodes, whose edges are yet to be linked.
+   */
+  private static final class Block {
+
+    /**
+     * Number of the first node of the block.
+     */
+    private final int first;
+
+    /**
+     * Number of edges of each node of the block.
+     */
+    private final int[] degrees;
+
+    /**
+     * Label of each edge of the block, in order.
+     */
+    private final char[] labels;
+
+    /**
+     * Number of the target node of each edge of the block, in order.
+     */
+    private final int[] targets;
+
+    /**
+     * Decodes a block, building its nodes.
+     * @param bytes Bytes of the stream.
+     * @param offset Offset of the block in the stream.
+     * @param length Length of the block, in bytes.
+     * @param first Number of the first node of the block.
+     * @param end Number of the node after the last node of the block.
+     * @param nodes Receives the nodes of the block, by number.
+     * @throws IOException If the block is corrupt.
+     */
+    private Block(
+        final byte[] bytes,
+        final int offset,
+        final int length,
+        final int first,
+        final int end,
+        final DawgNode[] nodes) throws IOException {
+      final CodedInputStream input = CodedInputStream.newInstance(bytes, offset, length);
+      this.first = first;
+      this.degrees = new int[end - first];
+      char[] edgeLabels = new char[degrees.length];
+      int[] edgeTargets = new int[degrees.length];
+      int edges = 0;
+      for (int id = first; id < end; id += 1) {
+        final int header = input.readUInt32();
+        final int degree = header >>> 1;
+        nodes[id] = 0 == (header & 1) ? new DawgNode() : new FinalDawgNode();
+        degrees[id - first] = degree;
+        if (edgeLabels.length < edges + degree) {
+          final int capacity = Math.max(edges + degree, 2 * edgeLabels.length);
+          edgeLabels = Arrays.copyOf(edgeLabels, capacity);
+          edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+        }
+        for (int i = 0; i < degree; i += 1) {
+          final int label = input.readUInt32();
+          final int target = input.readUInt32();
+          if (label > Character.MAX_VALUE || target < 0 || target >= nodes.length) {
+            throw new IOException("Chunked dictionary is corrupt: bad edge");
+          }
+          edgeLabels[edges] = (char) label;
+          edgeTargets[edges] = target;
+          edges += 1;
+        }
+      }
+      if (!input.isAtEnd()) {
+        throw new IOException("Chunked dictionary is corrupt: bad block length");
+      }
+      this.labels = edgeLabels;
+      this.targets = edgeTargets;
+    }
+
+    /**
+     * Links the edges of the nodes of this block, once every block has built
+     * its nodes.
+     * @param nodes Nodes of the dictionary, by number.
+     */
+    private void link(final DawgNode[] nodes) {
+      int edge = 0;
+      for (int i = 0; i < degrees.length; i += 1) {
+        final DawgNode node = nodes[first + i];
+        for (int j = 0; j < degrees[i]; j += 1) {
+          node.addEdge(labels[edge], nodes[targets[edge]]);
+          edge += 1;
+        }
+      }
+    }
+  }
+}
@@ -1,159 +1,103 @@
 package com.github.liblevenshtein;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BiConsumer;
-import java.util.regex.Pattern;
-
-import org.apache.commons.lang3.StringEscapeUtils;
-
-import org.apache.commons.cli.Option;
-import org.apache.commons.cli.Options;
-
-import com.google.common.base.Joiner;
-
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.extern.slf4j.Slf4j;
 
 import com.github.liblevenshtein.collection.dictionary.SortedDawg;
-import com.github.liblevenshtein.serialization.BytecodeSerializer;
-import com.github.liblevenshtein.serialization.PlainTextSerializer;
-import com.github.liblevenshtein.serialization.ProtobufSerializer;
-import com.github.liblevenshtein.serialization.Serializer;
+import com.github.liblevenshtein.query.Admission;
+import com.github.liblevenshtein.query.AdmissionPolicy;
+import com.github.liblevenshtein.query.AdmittedQueryEngine;
+import com.github.liblevenshtein.query.CascadeQueryEngine;
+import com.github.liblevenshtein.query.CostModel;
+import com.github.liblevenshtein.query.DawgQueryEngine;
+import com.github.liblevenshtein.query.EngineType;
+import com.github.liblevenshtein.query.FanOutQueryEngine;
+import com.github.liblevenshtein.query.LengthPartitionedDawg;
+import com.github.liblevenshtein.query.MeteredQueryEngine;
+import com.github.liblevenshtein.query.PackedDawg;
+import com.github.liblevenshtein.query.PackedQueryEngine;
+import com.github.liblevenshtein.query.PartitionedQueryEngine;
+import com.github.liblevenshtein.query.PrefixQueryEngine;
+import com.github.liblevenshtein.query.QGramIndex;
+import com.github.liblevenshtein.query.QGramQueryEngine;
+import com.github.liblevenshtein.query.QueryBudget;
+import com.github.liblevenshtein.query.QueryEngine;
+import com.github.liblevenshtein.query.QueryLatency;
+import com.github.liblevenshtein.query.RankedQueryEngine;
+import com.github.liblevenshtein.query.SymmetricDeletionIndex;
+import com.github.liblevenshtein.query.SymmetricDeletionQueryEngine;
+import com.github.liblevenshtein.query.WeightedDictionary;
 import com.github.liblevenshtein.transducer.Algorithm;
-import com.github.liblevenshtein.transducer.ITransducer;
-import com.github.liblevenshtein.transducer.factory.TransducerBuilder;
+import com.github.liblevenshtein.util.AtomicFiles;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_ADMISSION;
+import static com.github.liblevenshtein.CommandLineOptions.DEFAULT_ENGINE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_ADMISSION;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DEADLINE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DELETION_INDEX;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_ENGINE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_COST;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_STEPS;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_OUTPUT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_PREFIX;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_QGRAM_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_QGRAM_LENGTH;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_QUERY_TIMEOUT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_RANK;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SERIALIZE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SHARD_OUTPUT;
+import static com.github.liblevenshtein.CommandLineOptions.singleDictionary;
+import static com.github.liblevenshtein.CommandLineOptions.unsupported;
 
 /**
  * Command-line interface to liblevenshtein (Java).
  */
 @Slf4j
-@SuppressWarnings({"checkstyle:uncommentedmain", "checkstyle:classdataabstractioncoupling"})
-public class CommandLineInterface extends Action {
-
-  /**
-   * Argument may be a filesystem path or Java-compatible URI.
-   */
-  private static final String ARG_PATH_OR_URI = "PATH|URI";
-
-  /**
-   * Argument must be an {@link Algorithm}.
-   */
-  private static final String ARG_ALGORITHM = "ALGORITHM";
-
-  /**
-   * Argument must be an {@link Integer}.
-   */
-  private static final String ARG_INTEGER = "INTEGER";
-
-  /**
-   * Argument must be a list of space-delimited strings, with at least one
-   * value.
-   */
-  private static final String ARG_STRINGS = "STRING> <...";
-
-  /**
-   * Argument must be a filesystem path.
-   */
-  private static final String ARG_PATH = "PATH";
-
-  /**
-   * Argument must be a {@link SerializationFormat}.
-   */
-  private static final String ARG_FORMAT = "FORMAT";
-
-  /**
-   * Filesystem path or Java-compatible URI to a dictionary of terms.
-   */
-  private static final String FLAG_DICTIONARY = "dictionary";
-
-  /**
-   * Specifies that the dictionary is sorted lexicographically, in ascending
-   * order.
-   */
-  private static final String FLAG_IS_SORTED = "is-sorted";
-
-  /**
-   * Levenshtein algorithm to use.
-   */
-  private static final String FLAG_ALGORITHM = "algorithm";
-
-  /**
-   * Maximun, Levenshtein distance a spelling candidate may be from the query
-   * term.
-   */
-  private static final String FLAG_MAX_DISTANCE = "max-distance";
-
-  /**
-   * Include the Levenshtein distance with each spelling candidate.
-   */
-  private static final String FLAG_INCLUDE_DISTANCE = "include-distance";
-
-  /**
-   * Terms to query against the dictionary.
-   */
-  private static final String FLAG_QUERY = "query";
-
-  /**
-   * Path to save the serialized dictionary.
-   */
-  private static final String FLAG_SERIALIZE = "serialize";
-
-  /**
-   * Format of the source dictionary.
-   */
-  private static final String FLAG_SOURCE_FORMAT = "source-format";
-
-  /**
-   * Format of the serialized dictionary.
-   */
-  private static final String FLAG_TARGET_FORMAT = "target-format";
-
-  /**
-   * Colorize output.
-   */
-  private static final String FLAG_COLORIZE = "colorize";
-
-  /**
-   * Heuristic to distinguish between URIs and filesystem paths.
-   */
-  private static final Pattern RE_PROTO =
-    Pattern.compile("^(?:[a-z]+:)*[a-z]+://.*$");
-
-  /**
-   * Default, Levenshtein algorithm to use for querying the dictionary.
-   */
-  private static final Algorithm DEFAULT_ALGORITHM = Algorithm.TRANSPOSITION;
+@SuppressWarnings({
+  "checkstyle:uncommentedmain",
+  "checkstyle:classdataabstractioncoupling",
+  "checkstyle:classfanoutcomplexity"})
+public class CommandLineInterface extends AbstractCommandLineInterface {
 
   /**
-   * Default, number of spelling errors to accept when querying the dictionary.
+   * Number of nanoseconds in a millisecond.
    */
-  private static final int DEFAULT_MAX_DISTANCE = 2;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
 
   /**
-   * Default format for serializing dictionaries.
+   * Number of nanoseconds in a microsecond.
    */
-  private static final SerializationFormat DEFAULT_FORMAT =
-    SerializationFormat.PROTOBUF;
+  private static final long NANOS_PER_MICRO = 1_000L;
 
   /**
-   * Joins elements with commas.
+   * Time, on {@link System#nanoTime()}, at which every query is cut short, or
+   * null if there is no --deadline or querying has not begun.
    */
-  private static final Joiner COMMAS = Joiner.on(", ");
+  private Long deadline = null;
 
   /**
-   * Joins elements with newlines.
+   * Live metrics of the queries and dictionaries, or null if there is no
+   * --jmx.
    */
-  private static final Joiner NEWLINES = Joiner.on("\n");
+  private QueryMetrics metrics = null;
 
   /**
    * Constructs a new command-line interface with the arguments.
@@ -177,59 +121,8 @@ public class CommandLineInterface extends Action {
    * @return Header for the help documentation.
    */
   @Override
-  @SuppressWarnings("checkstyle:multiplestringliterals")
   protected String helpHeader() {
-    return String.format("%s%n%n", NEWLINES.join(
-      "",
-      "Command-Line Interface to liblevenshtein (Java)",
-      "",
-      "<" + ARG_FORMAT + "> specifies the serialization format of the dictionary,",
-      "and may be one of the following:",
-      "  1. " + SerializationFormat.PROTOBUF,
-      "     - (de)serialize the dictionary as a protobuf stream.",
-      "     - This is the preferred format.",
-      "     - See: https://developers.google.com/protocol-buffers/",
-      "  2. " + SerializationFormat.BYTECODE,
-      "     - (de)serialize the dictionary as a Java, bytecode stream.",
-      "  3. " + SerializationFormat.PLAIN_TEXT,
-      "     - (de)serialize the dictionary as a plain text file.",
-      "     - Terms are delimited by newlines.",
-      "",
-      "<" + ARG_ALGORITHM + "> specifies the Levenshtein algorithm to use for",
-      "querying-against the dictionary, and may be one of the following:",
-      "  1. " + Algorithm.STANDARD,
-      "     - Use the standard, Levenshtein distance which considers the",
-      "     following elementary operations:",
-      "       o Insertion",
-      "       o Deletion",
-      "       o Substitution",
-      "     - An elementary operation is an operation that incurs a penalty of",
-      "     one unit.",
-      "  2. " + Algorithm.TRANSPOSITION,
-      "     - Extend the standard, Levenshtein distance to include transpositions",
-      "     as elementary operations.",
-      "       o A transposition is a swapping of two, consecutive characters as",
-      "       follows: ba -> ab",
-      "       o With the standard distance, this would require at least two",
-      "       operations:",
-      "         + An insertion and a deletion",
-      "         + A deletion and an insertion",
-      "         + Two substitutions",
-      "  3. " + Algorithm.MERGE_AND_SPLIT,
-      "     - Extend the standard, Levenshtein distance to include merges and",
-      "     splits as elementary operations.",
-      "       o A merge takes two characters and merges them into a single one.",
-      "         + For example: ab -> c",
-      "       o A split takes a single character and splits it into two others",
-      "         + For example: a -> bc",
-      "       o With the standard distance, these would require at least two",
-      "       operations:",
-      "         + Merge:",
-      "           > A deletion and a substitution",
-      "           > A substitution and a deletion",
-      "         + Split:",
-      "           > An insertion and a substitution",
-      "           > A substitution and an insertion"));
+    return CommandLineOptions.helpHeader();
   }
 
   /**
@@ -248,488 +141,648 @@ public class CommandLineInterface extends Action {
   }
 
   /**
-   * Stream to the dictionary to query against.  This may be any valid,
-   * filesystem path or Java-compatible URI (such as a remote dictionary, Jar
-   * resource, etc.).
-   * @return Stream to the dictionary to query against.
-   * @throws IOException If the dictionary stream cannot be read.
+   * Live metrics of the queries and dictionaries.
+   * @return Live metrics of the queries and dictionaries, or null if there is
+   *   no --jmx.
    */
-  @SuppressWarnings("checkstyle:illegalcatch")
-  private InputStream dictionary() throws IOException {
-    final String path = cli.getOptionValue(FLAG_DICTIONARY);
+  QueryMetrics metrics() {
+    return metrics;
+  }
 
-    try {
-      if (null == path && 0 != System.in.available()) {
-        return System.in;
-      }
+  /**
+   * Bounds the work of each query, for one query engine.
+   * @return Bounds the work of each query.
+   */
+  private QueryBudget queryBudget() {
+    final QueryBudget budget = new QueryBudget();
+    if (cli.hasOption(FLAG_MAX_STEPS)) {
+      budget.maxSteps(integerOption(FLAG_MAX_STEPS, Integer.MAX_VALUE));
     }
-    catch (final IOException exception) {
-      log.warn("Cannot read from <STDIN>");
+    if (cli.hasOption(FLAG_QUERY_TIMEOUT)) {
+      budget.maxNanos(TimeUnit.MILLISECONDS.toNanos(
+        integerOption(FLAG_QUERY_TIMEOUT, Integer.MAX_VALUE)));
     }
-
-    if (null == path) {
-      throw new IllegalArgumentException("No dictionary specified");
+    if (null != deadline) {
+      budget.deadline(deadline);
     }
+    return budget;
+  }
 
-    try {
-      final URI uri = RE_PROTO.matcher(path).matches()
-        ? new URI(path)
-        : Paths.get(path).toUri();
+  /**
+   * Engine for querying the dictionary.
+   * @return Engine for querying the dictionary.
+   */
+  private EngineType engine() {
+    final String engine = cli.getOptionValue(FLAG_ENGINE);
+    return null == engine ? DEFAULT_ENGINE : EngineType.valueOf(engine);
+  }
 
-      return uri.toURL().openStream();
-    }
-    catch (final Exception exception) {
-      final String message =
-        String.format("Failed to build dictionary from [%s]", path);
-      throw new IllegalArgumentException(message, exception);
+  /**
+   * Builds the admission controller of a dictionary, shared by every worker,
+   * if a maximum cost is specified.
+   * @param dictionary Dictionary whose queries are admitted.
+   * @return Admission controller of the dictionary, or null to admit every
+   *   query.
+   */
+  Admission buildAdmission(final SortedDawg dictionary) {
+    if (!cli.hasOption(FLAG_MAX_COST)) {
+      return null;
     }
+    final CostModel model = CostModel.of(dictionary, algorithm(), maxDistance());
+    log.info("Calibrated the cost model of the dictionary, scaling its predictions by [{}]",
+        model.scale());
+    final String policy = cli.getOptionValue(FLAG_ADMISSION);
+    return new Admission(model,
+      null == policy ? DEFAULT_ADMISSION : AdmissionPolicy.valueOf(policy),
+      integerOption(FLAG_MAX_COST, Integer.MAX_VALUE));
   }
 
   /**
-   * Specifies whether the dictionary is sorted (saves work if it is).
-   * @return Whether the dictionary is sorted.
+   * Logs how the queries of a dictionary were admitted.
+   * @param admission Admission controller of the dictionary, or null.
    */
-  private boolean isSorted() {
-    return cli.hasOption(FLAG_IS_SORTED);
+  void logAdmission(final Admission admission) {
+    if (null != admission) {
+      log.info("Admitted [{}] queries as they were, downgraded [{}], queued [{}] and rejected [{}]",
+          admission.admitted(), admission.downgraded(), admission.queued(), admission.rejected());
+    }
   }
 
   /**
-   * Levenshtein algorithm to use while querying the dictionary.
-   * @return Levenshtein algorithm to use while querying the dictionary.
+   * Builds a new dictionary from the specified stream and whether it is sorted.
+   * @return New dictionary, according to command-line arguments.
+   * @throws Exception When the dictionary cannot be read from the stream.
    */
-  private Algorithm algorithm() {
-    final String algorithmName = cli.getOptionValue(FLAG_ALGORITHM);
+  WeightedDictionary buildDictionary() throws Exception {
+    final long start = System.nanoTime();
+    final WeightedDictionary dictionary = new DictionaryLoader()
+      .sourceFormat(sourceFormat())
+      .isSorted(isSorted())
+      .loadWeighted(this::dictionary);
+    recordLoad(dictionary, start);
+    return prepare(dictionary);
+  }
 
-    if (null == algorithmName) {
-      return DEFAULT_ALGORITHM;
+  /**
+   * Records a dictionary that was loaded in the metrics, if there are any.
+   * @param dictionary Dictionary that was loaded.
+   * @param start Time, on {@link System#nanoTime()}, at which it began to load.
+   */
+  private void recordLoad(final WeightedDictionary dictionary, final long start) {
+    if (null != metrics) {
+      metrics.loaded(dictionary.size(), System.nanoTime() - start);
     }
+  }
 
-    for (final Algorithm algorithm : Algorithm.values()) {
-      if (algorithm.name().equals(algorithmName)) {
-        return algorithm;
-      }
+  /**
+   * Prepares a dictionary that was loaded for the engine that will query it,
+   * once: packs it into flat arrays for the {@link EngineType#PACKED} engine,
+   * partitions it by term length for the {@link EngineType#PARTITIONED}
+   * engine, or indexes it for the {@link EngineType#SYMMETRIC_DELETION}
+   * engine, and indexes its q-grams if large-distance queries are answered
+   * from them.
+   * @param dictionary Dictionary that was loaded.
+   * @return The dictionary.
+   * @throws IOException If its symmetric-deletion index cannot be read or
+   *   written.
+   */
+  private WeightedDictionary prepare(final WeightedDictionary dictionary) throws IOException {
+    final long start = System.nanoTime();
+    if (EngineType.PACKED == engine()) {
+      final PackedDawg packed = dictionary.packed();
+      log.info("Packed [{}] nodes and [{}] edges into [{}] bytes in [{}] ms",
+          packed.nodes(), packed.edges(), packed.sizeInBytes(),
+          (System.nanoTime() - start) / NANOS_PER_MILLI);
     }
+    else if (EngineType.PARTITIONED == engine()) {
+      final LengthPartitionedDawg partitioned = dictionary.partitioned();
+      log.info("Partitioned [{}] terms into [{}] lengths in [{}] ms",
+          partitioned.size(), partitioned.partitions(),
+          (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+    else if (EngineType.SYMMETRIC_DELETION == engine()) {
+      final SymmetricDeletionIndex index = null == deletionIndexPath()
+        ? dictionary.deletionIndex(maxDistance())
+        : mapDeletionIndex(dictionary);
+      log.info("Indexed the deletion neighborhoods of [{}] terms in [{}] bytes in [{}] ms",
+          index.size(), index.sizeInBytes(), (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+    if (cli.hasOption(FLAG_QGRAM_DISTANCE)) {
+      final long qgramStart = System.nanoTime();
+      final QGramIndex index = dictionary.qgramIndex();
+      log.info("Indexed [{}] distinct q-grams of [{}] terms in [{}] bytes in [{}] ms",
+          index.grams(), index.size(), index.sizeInBytes(),
+          (System.nanoTime() - qgramStart) / NANOS_PER_MILLI);
+    }
+    return dictionary;
+  }
 
-    final String message =
-      String.format("Unknown algorithm [%s], expected one of [%s]",
-        algorithmName, COMMAS.join(Algorithm.values()));
-    throw new IllegalArgumentException(message);
+  /**
+   * Maps the symmetric-deletion index of a dictionary from its file, if the
+   * file holds it, or else builds the index and writes it to the file.  A file
+   * that cannot be read as an index, such as one that was truncated, is stale
+   * like one that indexes another dictionary, and is rebuilt.
+   * @param dictionary Dictionary whose index is mapped.
+   * @return Index of the dictionary, which it shares with its engines.
+   * @throws IOException If the file cannot be written.
+   */
+  private SymmetricDeletionIndex mapDeletionIndex(final WeightedDictionary dictionary)
+      throws IOException {
+    final Path path = deletionIndexPath();
+    final SymmetricDeletionIndex mapped = readDeletionIndex(path);
+    if (null != mapped && mapped.maxDistance() >= maxDistance() && mapped.indexes(dictionary)) {
+      log.info("Mapped the symmetric-deletion index [{}]", path);
+      dictionary.deletionIndex(mapped);
+      return mapped;
+    }
+    if (null != mapped) {
+      log.info("Symmetric-deletion index [{}] does not index the dictionary within "
+          + "distance [{}], so it will be rebuilt", path, maxDistance());
+    }
+    final SymmetricDeletionIndex index = dictionary.deletionIndex(maxDistance());
+    index.write(path);
+    log.info("Wrote the symmetric-deletion index [{}]", path);
+    return index;
   }
 
   /**
-   * Maximum-allowed, Levenshtein distance a spelling candidate may be from its
-   * query term.
-   * @return Maximum, Levenshtein distance of spelling candidates.
+   * Maps a symmetric-deletion index from its file, if the file holds one.
+   * @param path File of the index.
+   * @return Index held by the file, or null if it does not exist or cannot be
+   *   read as an index.
    */
-  private int maxDistance() {
-    final String maxDistance = cli.getOptionValue(FLAG_MAX_DISTANCE);
-
-    if (null == maxDistance) {
-      return DEFAULT_MAX_DISTANCE;
+  private SymmetricDeletionIndex readDeletionIndex(final Path path) {
+    if (!Files.exists(path)) {
+      return null;
     }
-
     try {
-      return Integer.parseInt(maxDistance);
+      return SymmetricDeletionIndex.read(path);
     }
-    catch (final NumberFormatException exception) {
-      final String message =
-        String.format("Expeted an integer for max-distance, but received [%s]",
-          maxDistance);
-      throw new IllegalArgumentException(message, exception);
+    catch (final IOException exception) {
+      log.warn("Cannot read the symmetric-deletion index [{}], so it will be rebuilt",
+          path, exception);
+      return null;
     }
   }
 
   /**
-   * Whether to include the number of errors from each query term, with the
-   * spelling candidates.
-   * @return Whether to include the Levenshtein distance.
+   * Loads a dictionary from a filesystem path or Java-compatible URI.
+   * @param path Path or URI to the dictionary.
+   * @return Dictionary read from the path.
+   * @throws IllegalStateException If the dictionary cannot be read.
    */
-  private boolean includeDistance() {
-    return cli.hasOption(FLAG_INCLUDE_DISTANCE);
+  @SuppressWarnings("checkstyle:illegalcatch")
+  private WeightedDictionary loadDictionary(final String path) {
+    log.info("Loading dictionary [{}]", path);
+    final long start = System.nanoTime();
+    try {
+      final WeightedDictionary dictionary = new DictionaryLoader()
+        .sourceFormat(sourceFormat())
+        .isSorted(isSorted())
+        .loadWeighted(() -> DictionaryLoader.open(path));
+      recordLoad(dictionary, start);
+      return prepare(dictionary);
+    }
+    catch (final Exception exception) {
+      final String message = String.format("Cannot load dictionary [%s]", path);
+      throw new IllegalStateException(message, exception);
+    }
   }
 
   /**
-   * Terms to query against the dictionary.
-   * @return Terms to query against the dictionary.
+   * Builds a cascade of engines over several dictionaries, for each worker.
+   * Each dictionary is loaded the first time any worker falls through to it,
+   * and shared by every worker from then on.
+   * @param paths Paths or URIs to the dictionaries, in the order they are
+   *   consulted.
+   * @return Builds a cascade of engines for each worker.
    */
-  private List<String> queryTerms() {
-    if (cli.hasOption(FLAG_QUERY)) {
-      return Arrays.asList(cli.getOptionValues(FLAG_QUERY));
+  private Supplier<QueryEngine> buildCascade(final List<String> paths) {
+    final List<Supplier<WeightedDictionary>> dictionaries = new ArrayList<>(paths.size());
+    for (final String path : paths) {
+      dictionaries.add(Suppliers.memoize(() -> loadDictionary(path))::get);
     }
-    return Arrays.asList();
+    return () -> {
+      final CascadeQueryEngine cascade =
+        new CascadeQueryEngine(maxDistance(), minCandidates());
+      for (int i = 0; i < paths.size(); i += 1) {
+        final Supplier<WeightedDictionary> dictionary = dictionaries.get(i);
+        cascade.tier(paths.get(i), () -> buildQueryEngine(dictionary.get()));
+      }
+      return cascade;
+    };
   }
 
   /**
-   * Where to serialize the dictionary.  This will be null if the dictionary
-   * should not be serialzied.
-   * @return Where to serialize the dictionary.
-   */
-  private Path serializationPath() {
-    final String serializationPath = cli.getOptionValue(FLAG_SERIALIZE);
-    if (null == serializationPath) {
-      return null;
+   * Prints the results of querying the union of several dictionaries, which
+   * are loaded concurrently and queried in parallel, then logs the latency of
+   * each dictionary.
+   * @param paths Paths or URIs to the dictionaries, in the order their
+   *   spelling candidates are merged.
+   * @param queryTerms Query terms for the dictionaries.
+   * @throws Exception If any dictionary cannot be loaded, or the results
+   *   cannot be printed.
+   */
+  private void printFanOut(
+      final List<String> paths,
+      final List<String> queryTerms) throws Exception {
+    final ExecutorService executor = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("fan-out-%d").setDaemon(true).build());
+    try {
+      final long start = System.nanoTime();
+      final List<Future<WeightedDictionary>> loads = new ArrayList<>(paths.size());
+      for (final String path : paths) {
+        loads.add(executor.submit(() -> loadDictionary(path)));
+      }
+      final List<WeightedDictionary> dictionaries = new ArrayList<>(paths.size());
+      for (final Future<WeightedDictionary> load : loads) {
+        try {
+          dictionaries.add(load.get());
+        }
+        catch (final ExecutionException exception) {
+          if (exception.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) exception.getCause();
+          }
+          throw exception;
+        }
+      }
+      log.info("Loaded [{}] dictionaries in [{}] ms",
+          paths.size(), (System.nanoTime() - start) / NANOS_PER_MILLI);
+
+      final List<QueryLatency> latencies = new ArrayList<>(paths.size());
+      for (int i = 0; i < paths.size(); i += 1) {
+        latencies.add(new QueryLatency());
+      }
+
+      printResults(() -> {
+        final FanOutQueryEngine union = new FanOutQueryEngine(executor, maxDistance());
+        for (int i = 0; i < paths.size(); i += 1) {
+          union.source(paths.get(i), buildQueryEngine(dictionaries.get(i)), latencies.get(i));
+        }
+        return union;
+      }, queryTerms);
+
+      for (int i = 0; i < paths.size(); i += 1) {
+        final QueryLatency latency = latencies.get(i);
+        log.info("Dictionary [{}] answered [{}] queries in [{}] us on average, and [{}] us at worst",
+            paths.get(i),
+            latency.queries(),
+            latency.meanNanos() / NANOS_PER_MICRO,
+            latency.maxNanos() / NANOS_PER_MICRO);
+      }
+    }
+    finally {
+      executor.shutdownNow();
     }
-    return Paths.get(serializationPath);
   }
 
   /**
-   * Returns the source, serialization format for dictionaries (or null, if no
-   * source format was specified).
-   * @return Target, serialization format for dictionaries.
+   * Generates spelling candidates (or completions, in prefix mode, or the most
+   * frequent candidates, in ranking mode), answering large-distance queries
+   * from the q-gram index of the dictionary if asked to.
+   * @param dictionary Spelling candidates to query.
+   * @return Engine that queries the dictionary for spelling candidates.
    */
-  private SerializationFormat sourceFormat() {
-    final String sourceFormat = cli.getOptionValue(FLAG_SOURCE_FORMAT);
-    if (null == sourceFormat) {
-      return null;
+  QueryEngine buildQueryEngine(final WeightedDictionary dictionary) {
+    final QueryEngine engine = buildSearchEngine(dictionary);
+    if (!cli.hasOption(FLAG_QGRAM_DISTANCE)) {
+      return engine;
     }
-    return SerializationFormat.valueOf(sourceFormat);
+    return new QGramQueryEngine(dictionary.qgramIndex(), algorithm(), maxDistance(), engine)
+      .minDistance(integerOption(FLAG_QGRAM_DISTANCE, QGramQueryEngine.DEFAULT_MIN_DISTANCE))
+      .minLength(integerOption(FLAG_QGRAM_LENGTH, 0))
+      .filter(candidateFilter())
+      .budget(queryBudget());
   }
 
   /**
-   * Returns the target, serialization format for dictionaries
-   * (or {@link #DEFAULT_FORMAT}, if no target format was specified).
-   * @return Target, serialization format for dictionaries.
-   */
-  private SerializationFormat targetFormat() {
-    final String targetFormat = cli.getOptionValue(FLAG_TARGET_FORMAT);
-    if (null == targetFormat) {
-      return DEFAULT_FORMAT;
+   * Builds the engine that searches the dictionary for spelling candidates
+   * (or completions, in prefix mode, or the most frequent candidates, in
+   * ranking mode).
+   * @param dictionary Spelling candidates to query.
+   * @return Engine that searches the dictionary for spelling candidates.
+   */
+  private QueryEngine buildSearchEngine(final WeightedDictionary dictionary) {
+    if (prefix()) {
+      return new PrefixQueryEngine(
+        dictionary.dictionary(), algorithm(), maxDistance(), completionLimit())
+        .filter(candidateFilter())
+        .budget(queryBudget());
     }
-    return SerializationFormat.valueOf(targetFormat);
+    if (rank()) {
+      return new RankedQueryEngine(
+        dictionary, algorithm(), maxDistance(), candidateLimit())
+        .filter(candidateFilter())
+        .budget(queryBudget());
+    }
+    if (EngineType.PACKED == engine()) {
+      return new PackedQueryEngine(dictionary.packed(), algorithm(), maxDistance())
+        .filter(candidateFilter())
+        .budget(queryBudget());
+    }
+    if (EngineType.PARTITIONED == engine()) {
+      return new PartitionedQueryEngine(dictionary.partitioned(), algorithm(), maxDistance())
+        .filter(candidateFilter())
+        .budget(queryBudget());
+    }
+    if (EngineType.SYMMETRIC_DELETION == engine()) {
+      return new SymmetricDeletionQueryEngine(
+        dictionary.deletionIndex(maxDistance()), algorithm(), maxDistance())
+        .filter(candidateFilter())
+        .budget(queryBudget());
+    }
+    return new DawgQueryEngine(dictionary.dictionary(), algorithm(), maxDistance())
+      .filter(candidateFilter())
+      .budget(queryBudget());
   }
 
   /**
-   * Whether to colorize the output.
-   * @return Whether to colorize the output.
+   * Prints headers.
+   * @param output Buffers printed messages.
+   * @return Printer for headers.
    */
-  private boolean colorize() {
-    return cli.hasOption(FLAG_COLORIZE);
+  Consumer<String> buildHeaderPrinter(final OutputBuffer output) {
+    return colorize()
+      ? new HeaderColorPrinter(output)
+      : new HeaderPrinter(output);
   }
 
   /**
-   * {@inheritDoc}
+   * Prints spelling candidates.
+   * @param output Buffers printed messages.
+   * @return Printer for spelling candidates.
    */
-  @Override
-  protected Options options() {
-    final Options options = super.options();
-    options.addOption(
-      Option.builder("d")
-        .longOpt(FLAG_DICTIONARY)
-        .argName(ARG_PATH_OR_URI)
-        .desc("Filesystem path or Java-compatible URI to a dictionary of terms")
-        .hasArg()
-        .build());
-    options.addOption(
-      Option.builder("s")
-        .longOpt(FLAG_IS_SORTED)
-        .desc("Specifies that the dictionary is sorted lexicographically, in "
-          + "ascending order (Default: false)")
-        .build());
-    options.addOption(
-      Option.builder("a")
-        .longOpt(FLAG_ALGORITHM)
-        .argName(ARG_ALGORITHM)
-        .desc(String.format("Levenshtein algorithm to use (Default: %s)",
-          DEFAULT_ALGORITHM))
-        .hasArg()
-        .build());
-    options.addOption(
-      Option.builder("m")
-        .longOpt(FLAG_MAX_DISTANCE)
-        .argName(ARG_INTEGER)
-        .desc(String.format("Maximun, Levenshtein distance a spelling candidate"
-          + "may be from the query term (Default: %d)", DEFAULT_MAX_DISTANCE))
-        .hasArg()
-        .build());
-    options.addOption(
-      Option.builder("i")
-        .longOpt(FLAG_INCLUDE_DISTANCE)
-        .desc("Include the Levenshtein distance with each spelling candidate "
-          + "(Default: false)")
-        .build());
-    options.addOption(
-      Option.builder("q")
-        .longOpt(FLAG_QUERY)
-        .argName(ARG_STRINGS)
-        .desc("Terms to query against the dictionary.  You may specify multiple terms.")
-        .hasArgs()
-        .build());
-    options.addOption(
-      Option.builder()
-        .longOpt(FLAG_SERIALIZE)
-        .argName(ARG_PATH)
-        .desc("Path to save the serialized dictionary")
-        .hasArg()
-        .build());
-    options.addOption(
-      Option.builder()
-        .longOpt(FLAG_SOURCE_FORMAT)
-        .argName(ARG_FORMAT)
-        .desc("Format of the source dictionary (Default: adaptively-try each format until one works)")
-        .hasArg()
-        .build());
-    options.addOption(
-      Option.builder()
-        .longOpt(FLAG_TARGET_FORMAT)
-        .argName(ARG_FORMAT)
-        .desc(String.format("Format of the serialized dictionary (Default: %s)",
-          DEFAULT_FORMAT))
-        .hasArg()
-        .build());
-    options.addOption(
-      Option.builder()
-        .longOpt(FLAG_COLORIZE)
-        .desc("Colorize output")
-        .build());
-    return options;
+  Printer buildCandidatePrinter(final OutputBuffer output) {
+    return includeDistance()
+      ? colorize()
+        ? new CandidateColorPrinter(output)
+        : new CandidatePrinter(output)
+      : colorize()
+        ? new StringColorPrinter(output)
+        : new StringPrinter(output);
   }
 
   /**
-   * Deserializes the dictionary as the desired format.
-   * @param serializer Deserializes the dictionary.
-   * @return Deserialized dictionary.
-   * @throws Exception When the dictionary cannot be deserialized.
+   * Prints the results of querying the dictionaries.
+   * @param engines Builds an engine over the dictionaries, for each worker.
+   * @param queryTerms Query terms for the dictionaries.
+   * @throws Exception If the results cannot be printed.
    */
-  private SortedDawg deserialize(final Serializer serializer) throws Exception {
-    try (final InputStream stream = dictionary()) {
-      return serializer.deserialize(SortedDawg.class, stream);
+  void printResults(
+      final Supplier<QueryEngine> engines,
+      final List<String> queryTerms) throws Exception {
+    if (prefix() && rank()) {
+      throw unsupported(FLAG_PREFIX, FLAG_RANK);
     }
-  }
 
-  /**
-   * Deserialize the dictionary using the specified format.
-   * @param format Serialization format of the dictionary stream.
-   * @return Dictionary desized using the specified format.
-   * @throws Exception When the dictionary cannot be deserialized as the given
-   *   format.
-   */
-  private SortedDawg deserialize(final SerializationFormat format) throws Exception {
-    switch (format) {
-      case PROTOBUF:
-        return deserialize(new ProtobufSerializer());
-      case PLAIN_TEXT:
-        if (isSorted()) {
-          return deserialize(new PlainTextSerializer(true));
-        }
-        return deserialize(new PlainTextSerializer(false));
-      case BYTECODE:
-        return deserialize(new BytecodeSerializer());
-      default:
-        final String message = String.format("Unsupported format [%s]", format);
-        throw new IllegalArgumentException(message);
+    final QueryBatch batch = new QueryBatch()
+      .engines(null == metrics
+        ? engines
+        : () -> new MeteredQueryEngine(engines.get(), metrics.meter()))
+      .printers(this::buildCandidatePrinter)
+      .headers(this::buildHeaderPrinter);
+
+    if (cli.hasOption(FLAG_DEADLINE)) {
+      deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+        integerOption(FLAG_DEADLINE, Integer.MAX_VALUE));
+    }
+
+    final Path outputPath = null == outputPath() ? null : shard().output(outputPath());
+
+    if (shardOutput()) {
+      printShards(batch, outputPath, queryTerms);
+      return;
+    }
+
+    try (final OutputBuffer output = null == outputPath
+        ? OutputBuffer.stdout()
+        : OutputBuffer.open(outputPath, gzip())) {
+      batch.run(queryTerms, output);
     }
   }
 
   /**
-   * Guess the content-type of the dictionary stream.
-   * @return Content-type of the dictionary.
-   * @throws IOException If the content-type cannot be guessed.
-   */
-  private String dictionaryContentType() throws IOException {
-    Path tmp = null;
+   * Prints the results of querying the dictionaries to one output file per
+   * worker.
+   * @param batch Queries the dictionaries.
+   * @param outputPath Path from which the output files are named.
+   * @param queryTerms Query terms for the dictionaries.
+   * @throws Exception If the results cannot be printed.
+   */
+  private void printShards(
+      final QueryBatch batch,
+      final Path outputPath,
+      final List<String> queryTerms) throws Exception {
+    if (null == outputPath) {
+      final String message = String.format("--%s requires an --%s file",
+        FLAG_SHARD_OUTPUT, FLAG_OUTPUT);
+      throw new IllegalArgumentException(message);
+    }
 
+    final int shards = Math.max(1, Math.min(threads(), queryTerms.size()));
+    final List<OutputBuffer> outputs = new ArrayList<>(shards);
     try {
-      tmp = Files.createTempFile("dictionary-", ".unknown");
-      tmp.toFile().deleteOnExit();
-
-      try (final InputStream stream = dictionary()) {
-        Files.copy(stream, tmp, StandardCopyOption.REPLACE_EXISTING);
+      for (int i = 0; i < shards; i += 1) {
+        outputs.add(OutputBuffer.open(QueryBatch.shard(outputPath, i), gzip()));
       }
-
-      // Guess the content-type of the dictionary stream
-      return Files.probeContentType(tmp);
+      batch.run(queryTerms, outputs);
     }
     finally {
-      if (null != tmp) {
-        Files.delete(tmp);
+      for (final OutputBuffer output : outputs) {
+        output.close();
       }
     }
   }
 
   /**
-   * Adaptively-deserializes the dictionary by trying each serializer until one
-   * succeeds.
-   * @return Dictionary from the first deserializer that succeeds.
-   * @throws Exception If the dictionary cannot be deserialized.
+   * Queries a dictionary to find all spelling candidates for a sequence of
+   * query terms, according to the parameters specified on the command-line.
    */
-  @SuppressWarnings("checkstyle:illegalcatch")
-  private SortedDawg deserializeAdaptive() throws Exception {
-    for (final SerializationFormat format : SerializationFormat.values()) {
-      try {
-        log.info("Attempting to deserialize dictionary as a [{}] stream", format);
-        return deserialize(format);
-      }
-      catch (final Exception exception) {
-        log.warn("Nope, dictionary is not a [{}] stream", format);
-      }
+  @Override
+  protected void runInternal() throws Exception {
+    if (null != bulkConvertPath()) {
+      new BulkConvertMode(this).run();
+      return;
     }
 
-    final String message =
-      String.format(
-        "Cannot read dictionary, which appears to have the content-type [%s].",
-          dictionaryContentType());
+    if (distance()) {
+      new DistanceMode(this).run();
+      return;
+    }
 
-    throw new IllegalStateException(message);
-  }
+    if (inspect()) {
+      new InspectMode(this).run();
+      return;
+    }
 
-  /**
-   * Builds a new dictionary from the specified stream and whether it is sorted.
-   * @return New dictionary, according to command-line arguments.
-   * @throws Exception When the dictionary cannot be read from the stream.
-   */
-  @SuppressFBWarnings("REC_CATCH_EXCEPTION")
-  @SuppressWarnings("checkstyle:illegalcatch")
-  private SortedDawg buildDictionary() throws Exception {
-    if (null == sourceFormat()) {
-      return deserializeAdaptive();
+    if (jmx()) {
+      metrics = new QueryMetrics().register();
     }
 
     try {
-      return deserialize(sourceFormat());
+      query();
     }
-    catch (final Exception exception) {
-      final String dictionaryContentType = dictionaryContentType();
-
-      if (!dictionaryContentType.equals(sourceFormat().contentType())) {
-        log.warn("Serialization format [{}] expects a content-type [{}], but "
-            + "the dictionary appears to have the content-type [{}].",
-            sourceFormat(), sourceFormat().contentType(),
-            dictionaryContentType);
+    finally {
+      if (null != metrics) {
+        metrics.logSummary();
+        metrics.close();
       }
-
-      final String message =
-        String.format("Failed to deserialize dictionary as type [%s].",
-          sourceFormat());
-
-      throw new IOException(message, exception);
     }
   }
 
   /**
-   * Generates spelling candidates.
-   * @param dictionary Spelling candidates to query.
-   * @return Transducer of query terms to spelling candidates.
-   */
-  private ITransducer<Object> buildTransducer(final SortedDawg dictionary) {
-    return new TransducerBuilder()
-      .algorithm(algorithm())
-      .defaultMaxDistance(maxDistance())
-      .includeDistance(includeDistance())
-      .dictionary(dictionary, true)
-      .build();
-  }
-
-  /**
-   * Prints headers.
-   * @return Printer for headers.
+   * Checks that the engine supports the other options.
+   * @throws IllegalArgumentException If it does not.
    */
-  private BiConsumer<StringBuilder, String> buildHeaderPrinter() {
-    return colorize()
-      ? new HeaderColorPrinter()
-      : new HeaderPrinter();
+  private void checkEngine() {
+    if (EngineType.DAWG != engine() && (prefix() || rank())) {
+      throw unsupported(FLAG_ENGINE, prefix() ? FLAG_PREFIX : FLAG_RANK);
+    }
+    if (cli.hasOption(FLAG_QGRAM_DISTANCE) && (prefix() || rank())) {
+      throw unsupported(FLAG_QGRAM_DISTANCE, prefix() ? FLAG_PREFIX : FLAG_RANK);
+    }
+    checkSymmetricDeletion();
   }
 
   /**
-   * Prints spelling candidates.
-   * @return Printer for spelling candidates.
+   * Checks that the symmetric-deletion engine, and its index, support the
+   * other options.
+   * @throws IllegalArgumentException If they do not.
    */
-  private Printer buildCandidatePrinter() {
-    return includeDistance()
-      ? colorize()
-        ? new CandidateColorPrinter()
-        : new CandidatePrinter()
-      : colorize()
-        ? new StringColorPrinter()
-        : new StringPrinter();
+  private void checkSymmetricDeletion() {
+    if (EngineType.SYMMETRIC_DELETION == engine()
+        && (Algorithm.MERGE_AND_SPLIT == algorithm()
+          || maxDistance() > SymmetricDeletionIndex.MAX_DISTANCE)) {
+      final String message = String.format(
+        "--%s %s supports neither the %s algorithm nor a --%s beyond %d",
+          FLAG_ENGINE, EngineType.SYMMETRIC_DELETION, Algorithm.MERGE_AND_SPLIT,
+          FLAG_MAX_DISTANCE, SymmetricDeletionIndex.MAX_DISTANCE);
+      throw new IllegalArgumentException(message);
+    }
+    if (null != deletionIndexPath()) {
+      if (EngineType.SYMMETRIC_DELETION != engine()) {
+        final String message = String.format("--%s requires --%s %s",
+          FLAG_DELETION_INDEX, FLAG_ENGINE, EngineType.SYMMETRIC_DELETION);
+        throw new IllegalArgumentException(message);
+      }
+      if (null != hostPath() || 1 < dictionaryPaths().size()) {
+        throw singleDictionary(FLAG_DELETION_INDEX);
+      }
+    }
   }
 
   /**
-   * Prints the results of querying the dictionary.
-   * @param dictionary Spelling candidates to query.
-   * @param queryTerms Query terms for the dictionary.
+   * Queries the dictionaries, handing over to the --serve, --check or --host
+   * mode if one is asked for, or else printing the spelling candidates of the
+   * query terms, then serializes the dictionary if asked to.  The query terms
+   * are read while the dictionary loads, and the dictionary is serialized
+   * while it is queried.
+   * @throws Exception If any dictionary cannot be loaded or serialized, or the
+   *   results cannot be printed.
    */
-  private void printResults(
-      final SortedDawg dictionary,
-      final List<String> queryTerms) {
-    final ITransducer<Object> transducer = buildTransducer(dictionary);
-    final Printer printer = buildCandidatePrinter();
-    final BiConsumer<StringBuilder, String> header = buildHeaderPrinter();
+  private void query() throws Exception {
+    checkEngine();
+
+    if (serve()) {
+      new ServeMode(this).run();
+      return;
+    }
+
+    if (!checkPaths().isEmpty()) {
+      new CheckMode(this).run();
+      return;
+    }
+
+    if (null != hostPath()) {
+      new HostMode(this).run();
+      return;
+    }
+
+    final List<String> paths = dictionaryPaths();
+    if (1 < paths.size() && (null != serializationPath() || cli.hasOption(FLAG_MAX_COST))) {
+      throw singleDictionary(null != serializationPath() ? FLAG_SERIALIZE : FLAG_MAX_COST);
+    }
 
-    final StringBuilder buffer = new StringBuilder(1024);
+    try (final Pipeline pipeline = new Pipeline()) {
+      final CompletableFuture<List<String>> queryTerms =
+        pipeline.start("read query terms", this::queryTerms);
 
-    for (final String queryTerm : queryTerms) {
-      final String escapedQuery = StringEscapeUtils.escapeJava(queryTerm);
-      header.accept(buffer, escapedQuery);
-      for (final Object object : transducer.transduce(queryTerm)) {
-        printer.print(buffer, escapedQuery, object);
+      if (1 < paths.size()) {
+        queryAll(paths, Pipeline.join(queryTerms));
+      }
+      else {
+        final CompletableFuture<WeightedDictionary> dictionary =
+          pipeline.start("load dictionary", this::buildDictionary);
+        pipeline.then("query dictionary", dictionary, loaded -> {
+          queryDictionary(loaded, Pipeline.join(queryTerms));
+          return null;
+        });
+        if (null != serializationPath()) {
+          pipeline.then("serialize dictionary", dictionary, loaded -> {
+            serialize(loaded);
+            return null;
+          });
+        }
       }
+
+      pipeline.await();
     }
   }
 
   /**
-   * Queries a dictionary to find all spelling candidates for a sequence of
-   * query terms, according to the parameters specified on the command-line.
+   * Prints the spelling candidates of the query terms in several
+   * dictionaries, either fanning out to all of them or cascading through them.
+   * @param paths Paths or URIs to the dictionaries.
+   * @param queryTerms Query terms for the dictionaries.
+   * @throws Exception If any dictionary cannot be loaded, or the results
+   *   cannot be printed.
    */
-  @Override
-  protected void runInternal() throws Exception {
-    final SortedDawg dictionary = buildDictionary();
-    final List<String> queryTerms = queryTerms();
-
-    if (!queryTerms.isEmpty()) {
-      printResults(dictionary, queryTerms);
+  private void queryAll(final List<String> paths, final List<String> queryTerms) throws Exception {
+    if (queryTerms.isEmpty()) {
+      return;
+    }
+    if (fanOut()) {
+      printFanOut(paths, queryTerms);
     }
+    else {
+      printResults(buildCascade(paths), queryTerms);
+    }
+  }
 
-    if (null != serializationPath()) {
-      serialize(dictionary);
+  /**
+   * Prints the spelling candidates of the query terms in one dictionary.
+   * @param dictionary Dictionary to query.
+   * @param queryTerms Query terms for the dictionary.
+   * @throws Exception If the results cannot be printed.
+   */
+  private void queryDictionary(
+      final WeightedDictionary dictionary,
+      final List<String> queryTerms) throws Exception {
+    if (!queryTerms.isEmpty()) {
+      final Admission admission = buildAdmission(dictionary.dictionary());
+      printResults(() -> null == admission
+        ? buildQueryEngine(dictionary)
+        : new AdmittedQueryEngine(buildQueryEngine(dictionary), admission), queryTerms);
+      logAdmission(admission);
     }
   }
 
   /**
-   * Serializes the dictionary to the desired location, as the specified format.
+   * Serializes the dictionary to the desired location, as the specified format,
+   * replacing any file there atomically.
    * @param dictionary Dictionary to serialize.
    * @throws Exception If the dictionary cannot be serialized.
    */
-  private void serialize(final SortedDawg dictionary) throws Exception {
+  private void serialize(final WeightedDictionary dictionary) throws Exception {
     log.info("Serializing [{}] terms in the dictionary to [{}] as format [{}]",
         dictionary.size(),
         serializationPath(),
         targetFormat());
 
-    switch (targetFormat()) {
-      case PROTOBUF:
-        serialize(dictionary, new ProtobufSerializer());
-        break;
-      case PLAIN_TEXT:
-        if (isSorted()) {
-          serialize(dictionary, new PlainTextSerializer(true));
-        }
-        else {
-          serialize(dictionary, new PlainTextSerializer(false));
-        }
-        break;
-      case BYTECODE:
-        serialize(dictionary, new BytecodeSerializer());
-        break;
-      default:
-        final String message = String.format(
-          "Unsupported, serialization format [%s]",
-            targetFormat());
-        throw new IllegalArgumentException(message);
-    }
-  }
-
-  /**
-   * Serializes a dictionary to the desired location, as the specified format.
-   * @param dictionary Dictionary to serialize.
-   * @param serializer Serializes the dictionary as the speicified format.
-   * @throws Exception If the dictionary cannot be serialized.
-   */
-  private void serialize(
-      final SortedDawg dictionary,
-      final Serializer serializer) throws Exception {
-    try (final OutputStream stream = Files.newOutputStream(serializationPath())) {
-      serializer.serialize(dictionary, stream);
-    }
+    // Serializing runs alongside the queries, and is interrupted if they
+    // fail, so a partial dictionary must never replace the destination
+    AtomicFiles.write(serializationPath(),
+      stream -> targetFormat().serialize(isSorted(), dictionary, stream));
   }
 
   /**
@@ -0,0 +1,925 @@
+package com.github.liblevenshtein;
+
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import com.google.common.base.Joiner;
+
+import com.github.liblevenshtein.query.AdmissionPolicy;
+import com.github.liblevenshtein.query.BitParallelDistance;
+import com.github.liblevenshtein.query.EngineType;
+import com.github.liblevenshtein.query.SymmetricDeletionIndex;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Command-line options of {@link CommandLineInterface}: their names,
+ * argument names and defaults, and how they are described in the help text.
+ */
+final class CommandLineOptions {
+
+  /**
+   * Argument must be a list of space-delimited filesystem paths or
+   * Java-compatible URIs, with at least one value.
+   */
+  static final String ARG_PATHS_OR_URIS = "PATH|URI> <...";
+
+  /**
+   * Argument must be an {@link Algorithm}.
+   */
+  static final String ARG_ALGORITHM = "ALGORITHM";
+
+  /**
+   * Argument must be an {@link Integer}.
+   */
+  static final String ARG_INTEGER = "INTEGER";
+
+  /**
+   * Argument must be a list of space-delimited strings, with at least one
+   * value.
+   */
+  static final String ARG_STRINGS = "STRING> <...";
+
+  /**
+   * Argument may be any string.
+   */
+  static final String ARG_STRING = "STRING";
+
+  /**
+   * Argument must be a glob pattern.
+   */
+  static final String ARG_GLOB = "GLOB";
+
+  /**
+   * Argument must be a filesystem path.
+   */
+  static final String ARG_PATH = "PATH";
+
+  /**
+   * Argument must be a {@link SerializationFormat}.
+   */
+  static final String ARG_FORMAT = "FORMAT";
+
+  /**
+   * Argument must be a list of space-delimited
+   * {@link SerializationFormat}s, with at least one value.
+   */
+  static final String ARG_FORMATS = "FORMAT> <...";
+
+  /**
+   * Argument must be a whole number of mebibytes.
+   */
+  static final String ARG_MEBIBYTES = "MEBIBYTES";
+
+  /**
+   * Argument must be a whole number of milliseconds.
+   */
+  static final String ARG_MILLISECONDS = "MILLISECONDS";
+
+  /**
+   * Argument must be the name of an admission policy.
+   */
+  static final String ARG_POLICY = "POLICY";
+
+  /**
+   * Argument must be the index of a shard and the number of shards.
+   */
+  static final String ARG_SHARD = "INDEX/COUNT";
+
+  /**
+   * Argument must be an {@link EngineType}.
+   */
+  static final String ARG_ENGINE = "ENGINE";
+
+  /**
+   * Filesystem paths or Java-compatible URIs to dictionaries of terms.
+   */
+  static final String FLAG_DICTIONARY = "dictionary";
+
+  /**
+   * Specifies that the dictionary is sorted lexicographically, in ascending
+   * order.
+   */
+  static final String FLAG_IS_SORTED = "is-sorted";
+
+  /**
+   * Levenshtein algorithm to use.
+   */
+  static final String FLAG_ALGORITHM = "algorithm";
+
+  /**
+   * Maximun, Levenshtein distance a spelling candidate may be from the query
+   * term.
+   */
+  static final String FLAG_MAX_DISTANCE = "max-distance";
+
+  /**
+   * Include the Levenshtein distance with each spelling candidate.
+   */
+  static final String FLAG_INCLUDE_DISTANCE = "include-distance";
+
+  /**
+   * Terms to query against the dictionary.
+   */
+  static final String FLAG_QUERY = "query";
+
+  /**
+   * Path to save the serialized dictionary.
+   */
+  static final String FLAG_SERIALIZE = "serialize";
+
+  /**
+   * Format of the source dictionary.
+   */
+  static final String FLAG_SOURCE_FORMAT = "source-format";
+
+  /**
+   * Format of the serialized dictionary.
+   */
+  static final String FLAG_TARGET_FORMAT = "target-format";
+
+  /**
+   * Colorize output.
+   */
+  static final String FLAG_COLORIZE = "colorize";
+
+  /**
+   * Directory or manifest of dictionaries to convert in bulk.
+   */
+  static final String FLAG_BULK_CONVERT = "bulk-convert";
+
+  /**
+   * Number of worker threads.
+   */
+  static final String FLAG_THREADS = "threads";
+
+  /**
+   * Heap, in mebibytes, that may be reserved for resident dictionaries.
+   */
+  static final String FLAG_MEMORY_BUDGET = "memory-budget";
+
+  /**
+   * File to print results into, instead of standard output.
+   */
+  static final String FLAG_OUTPUT = "output";
+
+  /**
+   * Compress the output file with GZIP.
+   */
+  static final String FLAG_GZIP = "gzip";
+
+  /**
+   * Query in parallel, with each worker printing into its own output file.
+   */
+  static final String FLAG_SHARD_OUTPUT = "shard-output";
+
+  /**
+   * Complete query terms as prefixes of dictionary terms.
+   */
+  static final String FLAG_PREFIX = "prefix";
+
+  /**
+   * Serve an incremental query session over standard input and output.
+   */
+  static final String FLAG_SERVE = "serve";
+
+  /**
+   * Maximum number of completions for each query term.
+   */
+  static final String FLAG_COMPLETION_LIMIT = "completion-limit";
+
+  /**
+   * Rank spelling candidates by their frequencies.
+   */
+  static final String FLAG_RANK = "rank";
+
+  /**
+   * Maximum number of ranked spelling candidates for each query term.
+   */
+  static final String FLAG_CANDIDATE_LIMIT = "candidate-limit";
+
+  /**
+   * Number of spelling candidates that must be found before the rest of a
+   * cascade of dictionaries is skipped.
+   */
+  static final String FLAG_MIN_CANDIDATES = "min-candidates";
+
+  /**
+   * Query several dictionaries in parallel, as a union, rather than as a
+   * cascade.
+   */
+  static final String FLAG_FAN_OUT = "fan-out";
+
+  /**
+   * Directory of many dictionaries, loaded by name as query terms name them.
+   */
+  static final String FLAG_HOST = "host";
+
+  /**
+   * Maximum number of dictionary nodes each query may expand.
+   */
+  static final String FLAG_MAX_STEPS = "max-steps";
+
+  /**
+   * Maximum time each query may take.
+   */
+  static final String FLAG_QUERY_TIMEOUT = "query-timeout";
+
+  /**
+   * Maximum time all the queries may take together.
+   */
+  static final String FLAG_DEADLINE = "deadline";
+
+  /**
+   * Maximum predicted number of steps of a query that is run as it is.
+   */
+  static final String FLAG_MAX_COST = "max-cost";
+
+  /**
+   * What to do with queries predicted to cost more than the maximum.
+   */
+  static final String FLAG_ADMISSION = "admission";
+
+  /**
+   * Reports the size and shape of each dictionary instead of querying it.
+   */
+  static final String FLAG_INSPECT = "inspect";
+
+  /**
+   * Exposes live metrics of the queries and dictionaries over JMX.
+   */
+  static final String FLAG_JMX = "jmx";
+
+  /**
+   * File of query terms, one per line.
+   */
+  static final String FLAG_QUERY_FILE = "query-file";
+
+  /**
+   * Queries only one of several disjoint slices of the query terms.
+   */
+  static final String FLAG_SHARD = "shard";
+
+  /**
+   * Documents to spell-check, word by word.
+   */
+  static final String FLAG_CHECK = "check";
+
+  /**
+   * Pairs of terms whose distances to compute, without a dictionary.
+   */
+  static final String FLAG_DISTANCE = "distance";
+
+  /**
+   * Minimum length of spelling candidates.
+   */
+  static final String FLAG_MIN_LENGTH = "min-length";
+
+  /**
+   * Maximum length of spelling candidates.
+   */
+  static final String FLAG_MAX_LENGTH = "max-length";
+
+  /**
+   * Prefix spelling candidates must begin with.
+   */
+  static final String FLAG_STARTS_WITH = "starts-with";
+
+  /**
+   * Glob pattern spelling candidates must match.
+   */
+  static final String FLAG_PATTERN = "pattern";
+
+  /**
+   * How the dictionary is held in memory and walked while it is queried.
+   */
+  static final String FLAG_ENGINE = "engine";
+
+  /**
+   * File of the symmetric-deletion index of the dictionary.
+   */
+  static final String FLAG_DELETION_INDEX = "deletion-index";
+
+  /**
+   * Least distance of the queries answered from the q-gram index.
+   */
+  static final String FLAG_QGRAM_DISTANCE = "qgram-distance";
+
+  /**
+   * Least length of the query terms answered from the q-gram index.
+   */
+  static final String FLAG_QGRAM_LENGTH = "qgram-length";
+
+  /**
+   * Extension of GZIP-compressed files.
+   */
+  static final String GZIP_EXTENSION = ".gz";
+
+  /**
+   * Default, Levenshtein algorithm to use for querying the dictionary.
+   */
+  static final Algorithm DEFAULT_ALGORITHM = Algorithm.TRANSPOSITION;
+
+  /**
+   * Default, number of spelling errors to accept when querying the dictionary.
+   */
+  static final int DEFAULT_MAX_DISTANCE = 2;
+
+  /**
+   * Default, maximum number of completions for each query term.
+   */
+  static final int DEFAULT_COMPLETION_LIMIT = 10;
+
+  /**
+   * Default number of spelling candidates that must be found before the rest
+   * of a cascade of dictionaries is skipped.
+   */
+  static final int DEFAULT_MIN_CANDIDATES = 1;
+
+  /**
+   * Default policy for queries predicted to cost more than the maximum.
+   */
+  static final AdmissionPolicy DEFAULT_ADMISSION = AdmissionPolicy.DOWNGRADE;
+
+  /**
+   * Default engine for querying the dictionary.
+   */
+  static final EngineType DEFAULT_ENGINE = EngineType.DAWG;
+
+  /**
+   * Default format for serializing dictionaries.
+   */
+  static final SerializationFormat DEFAULT_FORMAT =
+    SerializationFormat.PROTOBUF;
+
+  /**
+   * Joins lines of the help text.
+   */
+  private static final Joiner NEWLINES = Joiner.on("\n");
+
+  /**
+   * Utility class.
+   */
+  private CommandLineOptions() {
+  }
+
+  /**
+   * Header of the help text, which describes the arguments shared by several
+   * options.
+   * @return Header of the help text.
+   */
+  @SuppressWarnings("checkstyle:multiplestringliterals")
+  static String helpHeader() {
+    return String.format("%s%n%n", NEWLINES.join(
+      "",
+      "Command-Line Interface to liblevenshtein (Java)",
+      "",
+      "<" + ARG_FORMAT + "> specifies the serialization format of the dictionary,",
+      "and may be one of the following:",
+      "  1. " + SerializationFormat.PROTOBUF,
+      "     - (de)serialize the dictionary as a protobuf stream.",
+      "     - This is the preferred format.",
+      "     - See: https://developers.google.com/protocol-buffers/",
+      "  2. " + SerializationFormat.BYTECODE,
+      "     - (de)serialize the dictionary as a Java, bytecode stream.",
+      "  3. " + SerializationFormat.PLAIN_TEXT,
+      "     - (de)serialize the dictionary as a plain text file.",
+      "     - Terms are delimited by newlines.",
+      "  4. " + SerializationFormat.WEIGHTED,
+      "     - (de)serialize the dictionary and the frequencies of its terms as",
+      "       a compact, binary stream.",
+      "  5. " + SerializationFormat.WEIGHTED_TEXT,
+      "     - (de)serialize the dictionary and the frequencies of its terms as",
+      "       a plain text file.",
+      "     - Each line holds a term, a tab, and its frequency.",
+      "     - Must be given explicitly as the source format.",
+      "  6. " + SerializationFormat.CHUNKED_PROTOBUF,
+      "     - (de)serialize the dictionary as blocks of protobuf varints.",
+      "     - Blocks are decoded on every core, so large dictionaries load",
+      "       faster than as " + SerializationFormat.PROTOBUF + ".",
+      "  7. " + SerializationFormat.FRONT_CODED,
+      "     - (de)serialize the sorted terms of the dictionary, each as the",
+      "       length of the prefix it shares with the term before it and the",
+      "       remaining characters, in blocks that each begin with a whole term.",
+      "  8. " + SerializationFormat.LENGTH_PARTITIONED,
+      "     - (de)serialize the terms of the dictionary partitioned by length,",
+      "       front-coded within each partition, after an index of the",
+      "       partitions, so --" + FLAG_ENGINE + " " + EngineType.PARTITIONED
+        + " need not partition it again.",
+      "",
+      "<" + ARG_ALGORITHM + "> specifies the Levenshtein algorithm to use for",
+      "querying-against the dictionary, and may be one of the following:",
+      "  1. " + Algorithm.STANDARD,
+      "     - Use the standard, Levenshtein distance which considers the",
+      "     following elementary operations:",
+      "       o Insertion",
+      "       o Deletion",
+      "       o Substitution",
+      "     - An elementary operation is an operation that incurs a penalty of",
+      "     one unit.",
+      "  2. " + Algorithm.TRANSPOSITION,
+      "     - Extend the standard, Levenshtein distance to include transpositions",
+      "     as elementary operations.",
+      "       o A transposition is a swapping of two, consecutive characters as",
+      "       follows: ba -> ab",
+      "       o With the standard distance, this would require at least two",
+      "       operations:",
+      "         + An insertion and a deletion",
+      "         + A deletion and an insertion",
+      "         + Two substitutions",
+      "  3. " + Algorithm.MERGE_AND_SPLIT,
+      "     - Extend the standard, Levenshtein distance to include merges and",
+      "     splits as elementary operations.",
+      "       o A merge takes two characters and merges them into a single one.",
+      "         + For example: ab -> c",
+      "       o A split takes a single character and splits it into two others",
+      "         + For example: a -> bc",
+      "       o With the standard distance, these would require at least two",
+      "       operations:",
+      "         + Merge:",
+      "           > A deletion and a substitution",
+      "           > A substitution and a deletion",
+      "         + Split:",
+      "           > An insertion and a substitution",
+      "           > A substitution and an insertion"));
+  }
+
+  /**
+   * Describes a combination of options that is not supported.
+   * @param flag Option that does not support the other.
+   * @param other Option that is not supported with flag.
+   * @return Exception describing the combination.
+   */
+  static IllegalArgumentException unsupported(
+      final String flag,
+      final String other) {
+    final String message = String.format(
+      "--%s does not support --%s", flag, other);
+    return new IllegalArgumentException(message);
+  }
+
+  /**
+   * Describes an option that does not support several dictionaries.
+   * @param flag Option that requires a single dictionary.
+   * @return Exception describing the option.
+   */
+  static IllegalArgumentException singleDictionary(final String flag) {
+    final String message = String.format(
+      "--%s requires a single --%s", flag, FLAG_DICTIONARY);
+    return new IllegalArgumentException(message);
+  }
+
+  /**
+   * Adds the command-line options to a set of options.
+   * @param options Options to add the command-line options to.
+   * @return options, for fluency.
+   */
+  static Options addTo(final Options options) {
+    options.addOption(
+      Option.builder("d")
+        .longOpt(FLAG_DICTIONARY)
+        .argName(ARG_PATHS_OR_URIS)
+        .desc("Filesystem paths or Java-compatible URIs to dictionaries of "
+          + "terms.  You may specify multiple dictionaries, which are queried "
+          + "as a cascade: each is consulted (and loaded, the first time) only "
+          + "while those before it have found fewer than --"
+          + FLAG_MIN_CANDIDATES + " spelling candidates (or, with --"
+          + FLAG_FAN_OUT + ", all are queried in parallel), and spelling "
+          + "candidates are tagged with the dictionary they come from")
+        .hasArgs()
+        .build());
+    options.addOption(
+      Option.builder("s")
+        .longOpt(FLAG_IS_SORTED)
+        .desc("Specifies that the dictionary is sorted lexicographically, in "
+          + "ascending order (Default: false)")
+        .build());
+    options.addOption(
+      Option.builder("a")
+        .longOpt(FLAG_ALGORITHM)
+        .argName(ARG_ALGORITHM)
+        .desc(String.format("Levenshtein algorithm to use (Default: %s)",
+          DEFAULT_ALGORITHM))
+        .hasArg()
+        .build());
+    addEngineOptions(options);
+    options.addOption(
+      Option.builder("m")
+        .longOpt(FLAG_MAX_DISTANCE)
+        .argName(ARG_INTEGER)
+        .desc(String.format("Maximun, Levenshtein distance a spelling candidate"
+          + "may be from the query term (Default: %d)", DEFAULT_MAX_DISTANCE))
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder("i")
+        .longOpt(FLAG_INCLUDE_DISTANCE)
+        .desc("Include the Levenshtein distance with each spelling candidate "
+          + "(Default: false)")
+        .build());
+    options.addOption(
+      Option.builder("q")
+        .longOpt(FLAG_QUERY)
+        .argName(ARG_STRINGS)
+        .desc("Terms to query against the dictionary.  You may specify multiple terms.")
+        .hasArgs()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_SERIALIZE)
+        .argName(ARG_PATH)
+        .desc("Path to save the serialized dictionary (or directory to save the "
+          + "converted dictionaries, with --" + FLAG_BULK_CONVERT + ")")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_SOURCE_FORMAT)
+        .argName(ARG_FORMAT)
+        .desc("Format of the source dictionary (Default: adaptively-try each format until one works)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_TARGET_FORMAT)
+        .argName(ARG_FORMATS)
+        .desc(String.format("Format of the serialized dictionary.  You may "
+          + "specify multiple formats with --%s (Default: %s)",
+          FLAG_BULK_CONVERT, DEFAULT_FORMAT))
+        .hasArgs()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_COLORIZE)
+        .desc("Colorize output")
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_BULK_CONVERT)
+        .argName(ARG_PATH)
+        .desc("Directory or manifest (one path per line) of dictionaries to "
+          + "convert concurrently to each target format, into the --"
+          + FLAG_SERIALIZE + " directory.  Dictionaries whose targets are "
+          + "up-to-date are skipped.")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_THREADS)
+        .argName(ARG_INTEGER)
+        .desc("Number of worker threads, for --" + FLAG_BULK_CONVERT + " and --"
+          + FLAG_SHARD_OUTPUT + " (Default: number of processors)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_MEMORY_BUDGET)
+        .argName(ARG_MEBIBYTES)
+        .desc("Heap that may be reserved for resident dictionaries "
+          + "(Default: half the maximum heap)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder("o")
+        .longOpt(FLAG_OUTPUT)
+        .argName(ARG_PATH)
+        .desc("File to print results into (Default: standard output)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_GZIP)
+        .desc(String.format("Compress the --%s file with GZIP (Default: "
+          + "whether it ends with %s)", FLAG_OUTPUT, GZIP_EXTENSION))
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_SHARD_OUTPUT)
+        .desc("Query with --" + FLAG_THREADS + " workers in parallel, each "
+          + "printing a contiguous slice of the results into its own --"
+          + FLAG_OUTPUT + " file, named by inserting the worker's index before "
+          + "the extension (e.g. results-0.txt)")
+        .build());
+    return addQueryModeTo(options);
+  }
+
+  /**
+   * Adds the options that select how query terms are matched against the
+   * dictionary, and which spelling candidates are printed.
+   * @param options Options to add the query-mode options to.
+   * @return options, for fluency.
+   */
+  private static Options addQueryModeTo(final Options options) {
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_PREFIX)
+        .desc("Complete each query term as a possibly-misspelled prefix: "
+          + "print dictionary terms with a prefix within --" + FLAG_MAX_DISTANCE
+          + " of the query term, nearest first, up to --"
+          + FLAG_COMPLETION_LIMIT + " of them")
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_COMPLETION_LIMIT)
+        .argName(ARG_INTEGER)
+        .desc(String.format("Maximum number of completions to print for each "
+          + "query term, with --%s (Default: %d)",
+          FLAG_PREFIX, DEFAULT_COMPLETION_LIMIT))
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_RANK)
+        .desc("Print the spelling candidates of each query term by distance, "
+          + "then from the most frequent (as given by a " + SerializationFormat.WEIGHTED
+          + " or " + SerializationFormat.WEIGHTED_TEXT + " dictionary), up to --"
+          + FLAG_CANDIDATE_LIMIT + " candidates")
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_CANDIDATE_LIMIT)
+        .argName(ARG_INTEGER)
+        .desc("Maximum number of spelling candidates to print for each query "
+          + "term, with --" + FLAG_RANK + " (Default: all of them)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_MIN_CANDIDATES)
+        .argName(ARG_INTEGER)
+        .desc(String.format("Number of spelling candidates a query term must "
+          + "have before the rest of a cascade of --%s sources is skipped "
+          + "(Default: %d, so only misses fall through)",
+          FLAG_DICTIONARY, DEFAULT_MIN_CANDIDATES))
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_FAN_OUT)
+        .desc("Load every --" + FLAG_DICTIONARY + " concurrently and query "
+          + "them in parallel, printing the union of their spelling candidates, "
+          + "each once, tagged with the first dictionary that has it.  The "
+          + "latency of each dictionary is logged once every query term has "
+          + "been answered")
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_HOST)
+        .argName(ARG_PATH)
+        .desc("Directory of many dictionaries, such as one for each tenant, to "
+          + "query instead of a --" + FLAG_DICTIONARY + ".  Each query term "
+          + "names the file of its dictionary, as NAME:TERM, and each dictionary "
+          + "is loaded the first time it is named, once, however many workers "
+          + "name it at once.  The least-recently named dictionaries are "
+          + "evicted once those loaded exceed the --" + FLAG_MEMORY_BUDGET)
+        .hasArg()
+        .build());
+    addBudgetOptions(options);
+    addShardOptions(options);
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_MIN_LENGTH)
+        .argName(ARG_INTEGER)
+        .desc("Only print spelling candidates of at least this length")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_MAX_LENGTH)
+        .argName(ARG_INTEGER)
+        .desc("Only print spelling candidates of at most this length")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_STARTS_WITH)
+        .argName(ARG_STRING)
+        .desc("Only print spelling candidates that begin with this prefix")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_PATTERN)
+        .argName(ARG_GLOB)
+        .desc("Only print spelling candidates that match this glob pattern "
+          + "(* matches any characters, ? any one character, [a-z] or [!a-z] "
+          + "any one character in or outside a class, and \\c the character "
+          + "c).  Constraints are checked while the dictionary is searched, so "
+          + "they prune the search rather than its results")
+        .hasArg()
+        .build());
+    addModeOptions(options);
+    return options;
+  }
+
+  /**
+   * Adds the options that do something other than print the spelling
+   * candidates of query terms to a set of options.
+   * @param options Options to add the mode options to.
+   */
+  private static void addModeOptions(final Options options) {
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_INSPECT)
+        .desc("Instead of querying each --" + FLAG_DICTIONARY + ", report its "
+          + "size and shape: its numbers of terms, nodes and edges, its "
+          + "alphabet, how its nodes fan out and how deep its terms go, the "
+          + "heap it takes in each representation, and its size and load time "
+          + "in each --" + FLAG_TARGET_FORMAT + " (Default: every format)")
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_JMX)
+        .desc("Register an MBean, named " + QueryMetrics.OBJECT_NAME + ", that "
+          + "exposes live metrics of the queries and dictionaries, for watching "
+          + "long-running jobs from jconsole or another JMX client: queries "
+          + "answered, queries and spelling candidates per second, latency "
+          + "percentiles, dictionary sizes and load times, and the hit and "
+          + "eviction counts of --" + FLAG_HOST + " dictionaries")
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_CHECK)
+        .argName(ARG_PATHS_OR_URIS)
+        .desc("UTF-8 documents to spell-check instead of --" + FLAG_QUERY + " terms.  "
+          + "Each is split into words, which are looked up in the --" + FLAG_DICTIONARY
+          + " as written and in lower case; the byte offset of each word found "
+          + "neither way is printed with its spelling candidates.  Words are "
+          + "checked by --" + FLAG_THREADS + " workers, and the candidates of each "
+          + "unknown word are cached for the run")
+        .hasArgs()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_DISTANCE)
+        .argName(ARG_PATHS_OR_URIS)
+        .desc("Instead of querying a --" + FLAG_DICTIONARY + ", print the distance "
+          + "between each pair of terms in these UTF-8 files (or standard input, "
+          + "if there are none), one tab-separated pair per line.  Each pair is "
+          + "printed with its distance, or with > and the --" + FLAG_MAX_DISTANCE
+          + " if it is beyond it (Default: no maximum).  Terms up to "
+          + BitParallelDistance.MAX_WORD_LENGTH + " characters long are compared bit-parallel, and pairs are computed "
+          + "by --" + FLAG_THREADS + " workers")
+        .hasArgs()
+        .optionalArg(true)
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_SERVE)
+        .desc("Serve an as-you-type query session: read one edit of the "
+          + "query term per line from standard input (+TEXT appends TEXT, -N "
+          + "deletes N characters, =TEXT replaces the term, ? reprints it) and "
+          + "print its spelling candidates after each, followed by an empty "
+          + "line.  Requires --" + FLAG_DICTIONARY)
+        .build());
+  }
+
+  /**
+   * Adds the options that choose how dictionaries are queried to a set of
+   * options.
+   * @param options Options to add the engine options to.
+   */
+  private static void addEngineOptions(final Options options) {
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_ENGINE)
+        .argName(ARG_ENGINE)
+        .desc(String.format("How each dictionary is held in memory and walked "
+          + "while it is queried: %s walks its nodes as they are loaded, %s "
+          + "packs them into flat arrays once it is loaded, which takes less "
+          + "memory and queries faster, %s partitions its terms by length, so "
+          + "queries walk only the terms whose lengths are within --%s of "
+          + "theirs, and %s indexes every string within --%s deletions of "
+          + "each term, so queries are answered by a few hash probes rather "
+          + "than a walk of the dictionary.  All print the same spelling "
+          + "candidates.  Only %s supports --%s and --%s, and %s supports "
+          + "neither the %s algorithm nor distances beyond %d (Default: %s)",
+          EngineType.DAWG, EngineType.PACKED, EngineType.PARTITIONED,
+          FLAG_MAX_DISTANCE, EngineType.SYMMETRIC_DELETION,
+          FLAG_MAX_DISTANCE, EngineType.DAWG, FLAG_PREFIX, FLAG_RANK,
+          EngineType.SYMMETRIC_DELETION, Algorithm.MERGE_AND_SPLIT,
+          SymmetricDeletionIndex.MAX_DISTANCE, DEFAULT_ENGINE))
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_DELETION_INDEX)
+        .argName(ARG_PATH)
+        .desc("File of the index of the --" + FLAG_ENGINE + " "
+          + EngineType.SYMMETRIC_DELETION + ".  If the file holds the index of "
+          + "the --" + FLAG_DICTIONARY + ", it is memory-mapped rather than "
+          + "rebuilt, and held off the heap; otherwise, the index is built and "
+          + "written to the file.  Requires a single --" + FLAG_DICTIONARY)
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_QGRAM_DISTANCE)
+        .argName(ARG_INTEGER)
+        .desc("Index the q-grams of each dictionary, and answer queries of at "
+          + "least this distance from the index instead of the --" + FLAG_ENGINE
+          + ", if their terms are long enough for the q-grams they must share "
+          + "with their spelling candidates to rule out most terms.  Only the "
+          + "few terms that share enough of them, and whose lengths are close "
+          + "enough, are compared with the query term.  Does not support --"
+          + FLAG_PREFIX + " or --" + FLAG_RANK)
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_QGRAM_LENGTH)
+        .argName(ARG_INTEGER)
+        .desc("Least length of the query terms answered from the q-gram index "
+          + "of the --" + FLAG_QGRAM_DISTANCE + " (Default: the least length "
+          + "it prunes for)")
+        .hasArg()
+        .build());
+  }
+
+  /**
+   * Adds the options that read and split query files to a set of options.
+   * @param options Options to add the shard options to.
+   */
+  private static void addShardOptions(final Options options) {
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_QUERY_FILE)
+        .argName(ARG_PATH)
+        .desc("UTF-8 file of terms to query, one per line, after any --"
+          + FLAG_QUERY + " terms")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_SHARD)
+        .argName(ARG_SHARD)
+        .desc("Query only one of COUNT disjoint slices of the query terms, "
+          + "numbered from zero, so independent processes running the same "
+          + "command each take their own.  The --" + FLAG_QUERY_FILE + " is "
+          + "split into byte ranges, and only this shard's range is read; --"
+          + FLAG_QUERY + " terms are selected by a stable hash.  The --"
+          + FLAG_OUTPUT + " file is named after the shard, e.g. results-INDEX.txt, "
+          + "and concatenating those of every shard in order yields the output "
+          + "of the whole --" + FLAG_QUERY_FILE)
+        .hasArg()
+        .build());
+  }
+
+  /**
+   * Adds the options that bound the cost of queries to a set of options.
+   * @param options Options to add the budget options to.
+   */
+  private static void addBudgetOptions(final Options options) {
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_MAX_STEPS)
+        .argName(ARG_INTEGER)
+        .desc("Maximum number of dictionary nodes each query may expand, after "
+          + "which the spelling candidates found so far are printed and marked "
+          + "as truncated (Default: unlimited)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_QUERY_TIMEOUT)
+        .argName(ARG_MILLISECONDS)
+        .desc("Maximum time each query may take, after which the spelling "
+          + "candidates found so far are printed and marked as truncated "
+          + "(Default: unlimited)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_DEADLINE)
+        .argName(ARG_MILLISECONDS)
+        .desc("Maximum time all the queries may take together, from when the "
+          + "first begins.  Queries running at the deadline are truncated, and "
+          + "those after it are printed empty and truncated (Default: "
+          + "unlimited)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_MAX_COST)
+        .argName(ARG_INTEGER)
+        .desc("Maximum number of dictionary nodes a query may be predicted to "
+          + "expand and still be run as it is.  Predictions come from a model "
+          + "of the dictionary, measured and calibrated when it is loaded, of "
+          + "how the cost of a query grows with the length of its term, its "
+          + "distance and the --" + FLAG_ALGORITHM + ".  Requires a single --"
+          + FLAG_DICTIONARY + " (Default: unlimited)")
+        .hasArg()
+        .build());
+    options.addOption(
+      Option.builder()
+        .longOpt(FLAG_ADMISSION)
+        .argName(ARG_POLICY)
+        .desc(String.format("What to do with queries predicted to cost more "
+          + "than the --%s: %s prints them empty, %s lowers their distance "
+          + "until they cost less, and %s runs them one at a time across "
+          + "workers.  Those rejected or downgraded are marked as truncated "
+          + "(Default: %s)", FLAG_MAX_COST, AdmissionPolicy.REJECT,
+          AdmissionPolicy.DOWNGRADE, AdmissionPolicy.QUEUE, DEFAULT_ADMISSION))
+        .hasArg()
+        .build());
+  }
+}
@@ -0,0 +1,306 @@
+package com.github.liblevenshtein;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+/**
+ * Hosts the dictionaries of many tenants, named after their files in a
+ * directory, of which only some are resident at any time.  Each dictionary is
+ * loaded the first time it is requested; concurrent requests for a dictionary
+ * that is being loaded wait for that load rather than starting their own.
+ *
+ * <p>The heap footprint of each resident dictionary is estimated from the size
+ * of its file, as {@link BulkConverter} estimates it, and once their sum
+ * exceeds the memory budget the least-recently requested dictionaries are
+ * evicted until it fits again.  A dictionary that exceeds the budget alone is
+ * kept, until the next one is loaded.  Eviction only forgets a dictionary, so
+ * threads still querying it keep it reachable until they are done.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+@Slf4j
+public class DictionaryHost {
+
+  /**
+   * Directory of the hosted dictionaries, whose file names are their names.
+   * -- SETTER --
+   * Directory of the hosted dictionaries, whose file names are their names.
+   * @param directory Directory of the hosted dictionaries.
+   * @return This {@link DictionaryHost}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private Path directory;
+
+  /**
+   * Format of the hosted dictionaries, or null to try each format until one
+   * works.
+   * -- SETTER --
+   * Format of the hosted dictionaries, or null to try each format until one
+   * works.
+   * @param sourceFormat Format of the hosted dictionaries, or null.
+   * @return This {@link DictionaryHost}, for fluency.
+   */
+  @Setter
+  private SerializationFormat sourceFormat = null;
+
+  /**
+   * Whether the hosted dictionaries are sorted (saves work if they are).
+   * -- SETTER --
+   * Whether the hosted dictionaries are sorted (saves work if they are).
+   * @param isSorted Whether the hosted dictionaries are sorted.
+   * @return This {@link DictionaryHost}, for fluency.
+   */
+  @Setter
+  private boolean isSorted = false;
+
+  /**
+   * Heap, in mebibytes, that resident dictionaries may occupy.
+   * -- SETTER --
+   * Heap, in mebibytes, that resident dictionaries may occupy.
+   * @param memoryBudget Heap, in mebibytes, that resident dictionaries may
+   *   occupy.
+   * @return This {@link DictionaryHost}, for fluency.
+   */
+  @Setter
+  private long memoryBudget = Runtime.getRuntime().maxMemory() / 2 / BulkConverter.MEBIBYTE;
+
+  /**
+   * Resident and loading dictionaries, by name, from the least to the most
+   * recently requested.  Guarded by this host.
+   */
+  private final Map<String, Residency> residents =
+    new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Estimated heap footprint of the resident dictionaries, in bytes.  Guarded
+   * by this host.
+   */
+  private long footprint = 0L;
+
+  /**
+   * Number of requests for dictionaries that were resident or loading.
+   * Guarded by this host.
+   */
+  private long hits = 0L;
+
+  /**
+   * Number of dictionaries loaded.  Guarded by this host.
+   */
+  private long loads = 0L;
+
+  /**
+   * Number of dictionaries evicted.  Guarded by this host.
+   */
+  private long evictions = 0L;
+
+  /**
+   * Requests a hosted dictionary, loading it if it is not resident.
+   * @param name Name of the dictionary.
+   * @return The dictionary.
+   * @throws IllegalArgumentException If the name does not name a file in the
+   *   directory.
+   * @throws IllegalStateException If the dictionary cannot be loaded.
+   */
+  public WeightedDictionary dictionary(@NonNull final String name) {
+    final Path path = path(name);
+    final Residency residency;
+    final boolean loader;
+    synchronized (this) {
+      final Residency resident = residents.get(name);
+      loader = null == resident;
+      residency = loader ? new Residency() : resident;
+      if (loader) {
+        residents.put(name, residency);
+      }
+      else {
+        hits += 1;
+      }
+    }
+
+    if (loader) {
+      return load(name, path, residency);
+    }
+
+    try {
+      return residency.dictionary.join();
+    }
+    catch (final CompletionException exception) {
+      throw cannotLoad(name, exception.getCause());
+    }
+  }
+
+  /**
+   * Names of the resident dictionaries, from the least to the most recently
+   * requested.
+   * @return Names of the resident dictionaries.
+   */
+  public synchronized List<String> resident() {
+    final List<String> names = new ArrayList<>(residents.size());
+    for (final Map.Entry<String, Residency> entry : residents.entrySet()) {
+      if (entry.getValue().dictionary.isDone()) {
+        names.add(entry.getKey());
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Estimated heap footprint of the resident dictionaries.
+   * @return Estimated heap footprint of the resident dictionaries, in bytes.
+   */
+  public synchronized long footprint() {
+    return footprint;
+  }
+
+  /**
+   * Number of requests so far for dictionaries that were resident, or being
+   * loaded by an earlier request.
+   * @return Number of requests that did not load their dictionaries.
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Number of dictionaries loaded so far, including those since evicted.
+   * @return Number of dictionaries loaded.
+   */
+  public synchronized long loads() {
+    return loads;
+  }
+
+  /**
+   * Number of dictionaries evicted so far.
+   * @return Number of dictionaries evicted.
+   */
+  public synchronized long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Loads a dictionary on behalf of every request waiting for it, then evicts
+   * others until the resident dictionaries fit the budget.
+   * @param name Name of the dictionary.
+   * @param path File of the dictionary.
+   * @param residency Residency of the dictionary, which requests wait on.
+   * @return The dictionary.
+   * @throws IllegalStateException If the dictionary cannot be loaded.
+   */
+  @SuppressWarnings("checkstyle:illegalcatch")
+  private WeightedDictionary load(
+      final String name,
+      final Path path,
+      final Residency residency) {
+    final WeightedDictionary dictionary;
+    final long bytes;
+    try {
+      log.info("Loading dictionary [{}] from [{}]", name, path);
+      bytes = Math.max(1L, Files.size(path) * BulkConverter.HEAP_BYTES_PER_SOURCE_BYTE);
+      dictionary = new DictionaryLoader()
+        .sourceFormat(sourceFormat)
+        .isSorted(isSorted)
+        .loadWeighted(() -> Files.newInputStream(path));
+    }
+    catch (final Exception exception) {
+      synchronized (this) {
+        residents.remove(name, residency);
+      }
+      residency.dictionary.completeExceptionally(exception);
+      throw cannotLoad(name, exception);
+    }
+
+    synchronized (this) {
+      residency.footprint = bytes;
+      footprint += bytes;
+      loads += 1;
+      evict();
+    }
+    residency.dictionary.complete(dictionary);
+    return dictionary;
+  }
+
+  /**
+   * Evicts the least-recently requested, resident dictionaries until the rest
+   * fit the budget, sparing the most recent one.  Guarded by this host.
+   */
+  private void evict() {
+    final long budget = memoryBudget * BulkConverter.MEBIBYTE;
+    final Iterator<Map.Entry<String, Residency>> iter = residents.entrySet().iterator();
+    while (footprint > budget && iter.hasNext()) {
+      final Map.Entry<String, Residency> entry = iter.next();
+      final Residency residency = entry.getValue();
+      // Dictionaries still loading have no footprint, yet
+      if (iter.hasNext() && 0L < residency.footprint) {
+        log.info("Evicting dictionary [{}] to fit the memory budget of [{}] MiB",
+            entry.getKey(), memoryBudget);
+        iter.remove();
+        footprint -= residency.footprint;
+        evictions += 1;
+      }
+    }
+  }
+
+  /**
+   * Resolves the file of a dictionary.
+   * @param name Name of the dictionary.
+   * @return File of the dictionary.
+   * @throws IllegalArgumentException If the name does not name a file in the
+   *   directory.
+   */
+  private Path path(final String name) {
+    final Path root = directory.toAbsolutePath().normalize();
+    final Path path = root.resolve(name).normalize();
+    if (name.isEmpty() || !root.equals(path.getParent())) {
+      final String message = String.format(
+        "Expected the name of a dictionary in [%s], but received [%s]",
+          directory, name);
+      throw new IllegalArgumentException(message);
+    }
+    return path;
+  }
+
+  /**
+   * Describes a dictionary that cannot be loaded.
+   * @param name Name of the dictionary.
+   * @param cause Why the dictionary cannot be loaded.
+   * @return Exception describing the dictionary.
+   */
+  private static IllegalStateException cannotLoad(
+      final String name,
+      final Throwable cause) {
+    final String message = String.format("Cannot load dictionary [%s]", name);
+    return new IllegalStateException(message, cause);
+  }
+
+  /**
+   * Residency of a dictionary in the host.
+   */
+  private static final class Residency {
+
+    /**
+     * Completes with the dictionary once it is loaded.
+     */
+    private final CompletableFuture<WeightedDictionary> dictionary =
+      new CompletableFuture<>();
+
+    /**
+     * Estimated heap footprint of the dictionary, in bytes, or zero while it
+     * is loading.  Guarded by the host.
+     */
+    private long footprint = 0L;
+  }
+}
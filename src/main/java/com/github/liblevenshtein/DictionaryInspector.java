@@ -0,0 +1,383 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+import it.unimi.dsi.fastutil.chars.CharOpenHashSet;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongRBTreeMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.DictionaryProfile;
+import com.github.liblevenshtein.query.PackedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Reports the size and shape of dictionaries, for capacity planning: how many
+ * terms, nodes and edges each has, how its nodes fan out and how deep its
+ * terms go, how much heap it takes in each representation, and how large and
+ * how quick to load it is in each serialization format.
+ *
+ * <p>Heap sizes are estimated from the object layouts of a 64-bit JVM with
+ * compressed references (12-byte headers, 4-byte references, objects aligned
+ * to 8 bytes), which is the default for heaps under 32 GiB.  Load times are
+ * those of a single, cold load, so they are indicative rather than
+ * precise.</p>
+ */
+@Slf4j
+@Setter
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class DictionaryInspector {
+
+  /**
+   * Bytes of an object header.
+   */
+  private static final long HEADER_BYTES = 12L;
+
+  /**
+   * Bytes of an array header, including its length.
+   */
+  private static final long ARRAY_HEADER_BYTES = 16L;
+
+  /**
+   * Bytes of a reference.
+   */
+  private static final long REFERENCE_BYTES = 4L;
+
+  /**
+   * Objects are aligned to multiples of this many bytes.
+   */
+  private static final long ALIGNMENT = 8L;
+
+  /**
+   * Bytes of a {@link DawgNode}: a header and a reference to its edges.
+   */
+  private static final long NODE_BYTES = align(HEADER_BYTES + REFERENCE_BYTES);
+
+  /**
+   * Bytes of the tree map that holds the edges of each node: a header, nine
+   * references (root, first and last entries, cached views and comparator), a
+   * count and a modification flag.
+   */
+  private static final long EDGE_MAP_BYTES =
+    align(HEADER_BYTES + 9 * REFERENCE_BYTES + Integer.BYTES + 1);
+
+  /**
+   * Bytes of each entry of a tree map of edges: a header, a label, references
+   * to the target and two children, and balancing flags.
+   */
+  private static final long EDGE_BYTES =
+    align(HEADER_BYTES + Character.BYTES + 3 * REFERENCE_BYTES + Integer.BYTES);
+
+  /**
+   * Bytes of a {@link String}, excluding its characters: a header, a
+   * reference to its characters and a cached hash.
+   */
+  private static final long STRING_BYTES =
+    align(HEADER_BYTES + REFERENCE_BYTES + Integer.BYTES);
+
+  /**
+   * Width of the report, in characters.
+   */
+  private static final int WIDTH = 80;
+
+  /**
+   * Separates the tables of the report.
+   */
+  private static final String SEPARATOR = "|\n";
+
+  /**
+   * Ends each line of the report.
+   */
+  private static final String NEWLINE = "\n";
+
+  /**
+   * Heading of the column of terms.
+   */
+  private static final String TERMS = "Terms";
+
+  /**
+   * Heading of the column of nodes.
+   */
+  private static final String NODES = "Nodes";
+
+  /**
+   * Format of ratios.
+   */
+  private static final String RATIO = "%.2f";
+
+  /**
+   * Format of the rows of two-column tables.
+   */
+  private static final String PAIR = "| %-30s %16s\n";
+
+  /**
+   * Format of the rows of three-column tables.
+   */
+  private static final String TRIPLE = "| %-14s %16s %16s\n";
+
+  /**
+   * Format of the rows of four-column tables.
+   */
+  private static final String QUADRUPLE = "| %-14s %16s %16s %16s\n";
+
+  /**
+   * Format of the dictionaries, or null to try each format until one works.
+   */
+  private SerializationFormat sourceFormat = null;
+
+  /**
+   * Whether the dictionaries are sorted (saves work if they are).
+   */
+  private boolean isSorted = false;
+
+  /**
+   * Formats whose sizes and load times are reported.
+   */
+  @NonNull
+  private List<SerializationFormat> formats = Arrays.asList(SerializationFormat.values());
+
+  /**
+   * Loads a dictionary and prints a report on it.
+   * @param pathOrUri Filesystem path or Java-compatible URI to the dictionary.
+   * @param output Buffers the report.
+   * @throws Exception If the dictionary cannot be loaded, or the report cannot
+   *   be printed.
+   */
+  public void inspect(
+      @NonNull final String pathOrUri,
+      @NonNull final OutputBuffer output) throws Exception {
+    log.info("Inspecting dictionary [{}]", pathOrUri);
+
+    final long sourceBytes;
+    try (final InputStream stream = DictionaryLoader.open(pathOrUri)) {
+      sourceBytes = ByteStreams.copy(stream, ByteStreams.nullOutputStream());
+    }
+
+    final long start = System.nanoTime();
+    final WeightedDictionary dictionary = new DictionaryLoader()
+      .sourceFormat(sourceFormat)
+      .isSorted(isSorted)
+      .loadWeighted(() -> DictionaryLoader.open(pathOrUri));
+    final long loadNanos = System.nanoTime() - start;
+
+    final String border = "+" + Strings.repeat("-", WIDTH - 1) + NEWLINE;
+    output.putAscii(border).putAscii("| Dictionary: \"").putEscaped(pathOrUri)
+      .putAscii("\"" + NEWLINE).putAscii(border);
+    output.putAscii(String.format(PAIR, "Source bytes", sourceBytes));
+    output.putAscii(String.format(PAIR, "Load milliseconds", millis(loadNanos)));
+    inspect(dictionary, sourceBytes, output);
+  }
+
+  /**
+   * Prints a report on a loaded dictionary.
+   * @param weighted Dictionary to report on.
+   * @param sourceBytes Size of the serialized dictionary it was loaded from.
+   * @param output Buffers the report.
+   * @throws Exception If the dictionary cannot be serialized in some format.
+   */
+  void inspect(
+      final WeightedDictionary weighted,
+      final long sourceBytes,
+      final OutputBuffer output) throws Exception {
+    final SortedDawg dictionary = weighted.dictionary();
+    final DictionaryProfile profile = DictionaryProfile.of(dictionary);
+    final Shape shape = new Shape(dictionary, profile);
+
+    output.putAscii(String.format(PAIR, TERMS, weighted.size()));
+    output.putAscii(String.format(PAIR, NODES, shape.nodes));
+    output.putAscii(String.format(PAIR, "Final nodes", shape.finals));
+    output.putAscii(String.format(PAIR, "Edges", shape.edges));
+    output.putAscii(String.format(PAIR, "Alphabet", shape.alphabet.size()));
+    output.putAscii(String.format(PAIR, "Longest term", profile.maxLength()));
+    output.putAscii(String.format(PAIR, "Prefixes (trie nodes)", shape.prefixes));
+
+    output.putAscii(SEPARATOR).putAscii(String.format(PAIR, "Fan-out", NODES));
+    for (final Int2LongMap.Entry entry : shape.fanOuts.int2LongEntrySet()) {
+      output.putAscii(String.format(PAIR, entry.getIntKey(), entry.getLongValue()));
+    }
+
+    output.putAscii(SEPARATOR).putAscii(String.format(TRIPLE, "Depth", "Prefixes", TERMS));
+    for (int depth = 1; depth <= profile.maxLength(); depth += 1) {
+      output.putAscii(String.format(TRIPLE,
+        depth, profile.prefixes(depth), profile.terms(depth)));
+    }
+
+    final long dawgBytes = shape.nodes * (NODE_BYTES + EDGE_MAP_BYTES) + shape.edges * EDGE_BYTES;
+    printRepresentations(weighted, shape, dawgBytes, sourceBytes, output);
+    printFormats(weighted, dawgBytes, output);
+    output.putAscii(NEWLINE);
+  }
+
+  /**
+   * Prints the heap taken by a dictionary in each representation.
+   * @param weighted Dictionary to report on.
+   * @param shape Shape of the dictionary.
+   * @param dawgBytes Heap taken by the dictionary as a DAWG.
+   * @param sourceBytes Size of the serialized dictionary it was loaded from.
+   * @param output Buffers the report.
+   */
+  private static void printRepresentations(
+      final WeightedDictionary weighted,
+      final Shape shape,
+      final long dawgBytes,
+      final long sourceBytes,
+      final OutputBuffer output) {
+    final SortedDawg dictionary = weighted.dictionary();
+    final long frequencyBytes = align(ARRAY_HEADER_BYTES + (long) Integer.BYTES * weighted.size());
+    final long trieBytes =
+      shape.prefixes * (NODE_BYTES + EDGE_MAP_BYTES) + (shape.prefixes - 1L) * EDGE_BYTES;
+    final long listBytes =
+      align(ARRAY_HEADER_BYTES + REFERENCE_BYTES * weighted.size()) + shape.termBytes;
+
+    output.putAscii(SEPARATOR).putAscii(String.format(PAIR, "Representation", "Heap bytes"));
+    output.putAscii(String.format(PAIR, "DAWG", dawgBytes));
+    output.putAscii(String.format(PAIR, "DAWG with frequencies", dawgBytes + frequencyBytes));
+    output.putAscii(String.format(PAIR, "Packed DAWG", new PackedDawg(dictionary).sizeInBytes()));
+    output.putAscii(String.format(PAIR, "Trie", trieBytes));
+    output.putAscii(String.format(PAIR, "Array of strings", listBytes));
+    output.putAscii(String.format(PAIR, "DAWG per source byte",
+      String.format(RATIO, (double) dawgBytes / Math.max(1L, sourceBytes))));
+  }
+
+  /**
+   * Prints the size of a dictionary in each serialization format, and how
+   * long it takes to load from it.
+   * @param weighted Dictionary to report on.
+   * @param dawgBytes Heap taken by the dictionary as a DAWG.
+   * @param output Buffers the report.
+   * @throws Exception If the dictionary cannot be serialized in some format.
+   */
+  private void printFormats(
+      final WeightedDictionary weighted,
+      final long dawgBytes,
+      final OutputBuffer output) throws Exception {
+    output.putAscii(SEPARATOR).putAscii(String.format(QUADRUPLE,
+      "Format", "Bytes", "Load ms", "Heap per byte"));
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    for (final SerializationFormat format : formats) {
+      buffer.reset();
+      format.serialize(true, weighted, buffer);
+      final long start = System.nanoTime();
+      format.deserialize(true, new ByteArrayInputStream(buffer.toByteArray()));
+      final long loadNanos = System.nanoTime() - start;
+      output.putAscii(String.format(QUADRUPLE, format, buffer.size(), millis(loadNanos),
+        String.format(RATIO, (double) dawgBytes / Math.max(1, buffer.size()))));
+    }
+  }
+
+  /**
+   * Rounds a size up to the alignment of objects.
+   * @param bytes Size of an object.
+   * @return Aligned size of the object.
+   */
+  private static long align(final long bytes) {
+    return (bytes + ALIGNMENT - 1L) / ALIGNMENT * ALIGNMENT;
+  }
+
+  /**
+   * Formats a duration as milliseconds.
+   * @param nanos Duration, in nanoseconds.
+   * @return Duration, in milliseconds, to two decimal places.
+   */
+  private static String millis(final long nanos) {
+    return String.format(RATIO, nanos / 1e6);
+  }
+
+  /**
+   * Shape of a dictionary, swept from every distinct node once.
+   */
+  private static final class Shape {
+
+    /**
+     * Number of nodes with each number of children.
+     */
+    private final Int2LongRBTreeMap fanOuts = new Int2LongRBTreeMap();
+
+    /**
+     * Labels of the edges.
+     */
+    private final CharOpenHashSet alphabet = new CharOpenHashSet();
+
+    /**
+     * Number of distinct nodes.
+     */
+    private final long nodes;
+
+    /**
+     * Number of edges between distinct nodes.
+     */
+    private long edges = 0L;
+
+    /**
+     * Number of distinct final nodes.
+     */
+    private long finals = 0L;
+
+    /**
+     * Number of distinct prefixes of the terms, which is the number of nodes
+     * of their trie.
+     */
+    private long prefixes = 0L;
+
+    /**
+     * Heap taken by the terms as strings.
+     */
+    private long termBytes = 0L;
+
+    /**
+     * Sweeps a dictionary.
+     * @param dictionary Dictionary to sweep.
+     * @param profile Number of prefixes and terms at each depth of the
+     *   dictionary.
+     */
+    private Shape(final SortedDawg dictionary, final DictionaryProfile profile) {
+      final ReferenceOpenHashSet<DawgNode> visited = new ReferenceOpenHashSet<>();
+      final Deque<DawgNode> pending = new ArrayDeque<>();
+      pending.push(dictionary.root());
+      visited.add(dictionary.root());
+      while (!pending.isEmpty()) {
+        final DawgNode node = pending.pop();
+        int children = 0;
+        final CharIterator labels = node.labels();
+        while (labels.hasNext()) {
+          final char label = labels.nextChar();
+          alphabet.add(label);
+          final DawgNode child = node.transition(label);
+          if (visited.add(child)) {
+            pending.push(child);
+          }
+          children += 1;
+        }
+        fanOuts.addTo(children, 1L);
+        edges += children;
+        if (node.isFinal()) {
+          finals += 1L;
+        }
+      }
+      nodes = visited.size();
+
+      for (int depth = 0; depth <= profile.maxLength(); depth += 1) {
+        prefixes += profile.prefixes(depth);
+        termBytes += profile.terms(depth)
+          * (STRING_BYTES + align(ARRAY_HEADER_BYTES + (long) Character.BYTES * depth));
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+/**
+ * Loads dictionaries from streams, either as a known serialization format or
+ * by trying each format until one works.  Streams are reopened for each
+ * attempt, so they are supplied by a {@link Source} rather than directly.
+ */
+@Slf4j
+@Setter
+public class DictionaryLoader {
+
+  /**
+   * Heuristic to distinguish between URIs and filesystem paths.
+   */
+  private static final Pattern RE_PROTO =
+    Pattern.compile("^(?:[a-z]+:)*[a-z]+://.*$");
+
+  /**
+   * Format of the dictionaries, or null to try each format until one works.
+   */
+  private SerializationFormat sourceFormat = null;
+
+  /**
+   * Whether the dictionaries are sorted (saves work if they are).
+   */
+  private boolean isSorted = false;
+
+  /**
+   * Opens a stream to a dictionary, which may be a filesystem path or
+   * Java-compatible URI (such as a remote dictionary, Jar resource, etc.).
+   * @param pathOrUri Filesystem path or Java-compatible URI to the dictionary.
+   * @return Stream to the dictionary.
+   */
+  @SuppressWarnings("checkstyle:illegalcatch")
+  public static InputStream open(@NonNull final String pathOrUri) {
+    try {
+      final URI uri = RE_PROTO.matcher(pathOrUri).matches()
+        ? new URI(pathOrUri)
+        : Paths.get(pathOrUri).toUri();
+
+      return uri.toURL().openStream();
+    }
+    catch (final Exception exception) {
+      final String message =
+        String.format("Failed to build dictionary from [%s]", pathOrUri);
+      throw new IllegalArgumentException(message, exception);
+    }
+  }
+
+  /**
+   * Loads a dictionary.
+   * @param source Opens streams to the dictionary.
+   * @return Dictionary read from the source.
+   * @throws Exception When the dictionary cannot be read from the source.
+   */
+  public SortedDawg load(@NonNull final Source source) throws Exception {
+    return loadWeighted(source).dictionary();
+  }
+
+  /**
+   * Loads a dictionary along with the frequencies of its terms, which are zero
+   * if its format does not keep them.
+   * @param source Opens streams to the dictionary.
+   * @return Dictionary read from the source.
+   * @throws Exception When the dictionary cannot be read from the source.
+   */
+  @SuppressFBWarnings("REC_CATCH_EXCEPTION")
+  @SuppressWarnings("checkstyle:illegalcatch")
+  public WeightedDictionary loadWeighted(@NonNull final Source source) throws Exception {
+    if (null == sourceFormat) {
+      return deserializeAdaptive(source);
+    }
+
+    try {
+      return deserialize(source, sourceFormat);
+    }
+    catch (final Exception exception) {
+      final String dictionaryContentType = contentType(source);
+
+      if (!sourceFormat.contentType().equals(dictionaryContentType)) {
+        log.warn("Serialization format [{}] expects a content-type [{}], but "
+            + "the dictionary appears to have the content-type [{}].",
+            sourceFormat, sourceFormat.contentType(),
+            dictionaryContentType);
+      }
+
+      final String message =
+        String.format("Failed to deserialize dictionary as type [%s].",
+          sourceFormat);
+
+      throw new IOException(message, exception);
+    }
+  }
+
+  /**
+   * Deserialize a dictionary using the specified format.
+   * @param source Opens streams to the dictionary.
+   * @param format Serialization format of the dictionary stream.
+   * @return Dictionary deserialized using the specified format.
+   * @throws Exception When the dictionary cannot be deserialized as the given
+   *   format.
+   */
+  private WeightedDictionary deserialize(
+      final Source source,
+      final SerializationFormat format) throws Exception {
+    try (final InputStream stream = source.open()) {
+      return format.deserialize(isSorted, stream);
+    }
+  }
+
+  /**
+   * Adaptively-deserializes a dictionary by trying each serializer until one
+   * succeeds.
+   * @param source Opens streams to the dictionary.
+   * @return Dictionary from the first deserializer that succeeds.
+   * @throws Exception If the dictionary cannot be deserialized.
+   */
+  @SuppressWarnings("checkstyle:illegalcatch")
+  private WeightedDictionary deserializeAdaptive(final Source source) throws Exception {
+    for (final SerializationFormat format : SerializationFormat.values()) {
+      try {
+        log.info("Attempting to deserialize dictionary as a [{}] stream", format);
+        return deserialize(source, format);
+      }
+      catch (final Exception exception) {
+        log.warn("Nope, dictionary is not a [{}] stream", format);
+      }
+    }
+
+    final String message =
+      String.format(
+        "Cannot read dictionary, which appears to have the content-type [%s].",
+          contentType(source));
+
+    throw new IllegalStateException(message);
+  }
+
+  /**
+   * Guess the content-type of a dictionary stream.
+   * @param source Opens streams to the dictionary.
+   * @return Content-type of the dictionary.
+   * @throws IOException If the content-type cannot be guessed.
+   */
+  private static String contentType(final Source source) throws IOException {
+    Path tmp = null;
+
+    try {
+      tmp = Files.createTempFile("dictionary-", ".unknown");
+      tmp.toFile().deleteOnExit();
+
+      try (final InputStream stream = source.open()) {
+        Files.copy(stream, tmp, StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      // Guess the content-type of the dictionary stream
+      return Files.probeContentType(tmp);
+    }
+    finally {
+      if (null != tmp) {
+        Files.delete(tmp);
+      }
+    }
+  }
+
+  /**
+   * Opens a new stream to a dictionary each time it is called.
+   */
+  @FunctionalInterface
+  public interface Source {
+
+    /**
+     * Opens a new stream to the dictionary.
+     * @return New stream to the dictionary.
+     * @throws IOException If the dictionary cannot be opened.
+     */
+    InputStream open() throws IOException;
+  }
+}
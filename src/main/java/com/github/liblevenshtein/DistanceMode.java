@@ -0,0 +1,53 @@
+package com.github.liblevenshtein;
+
+import java.io.InputStream;
+
+import com.github.liblevenshtein.util.OutputBuffer;
+
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DICTIONARY;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.unsupported;
+
+/**
+ * Prints the distance between each pair of terms, read from each --distance
+ * file of pairs, or from standard input if there are none.
+ */
+final class DistanceMode extends AbstractMode {
+
+  /**
+   * Constructs the --distance mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  DistanceMode(final CommandLineInterface app) {
+    super(app);
+  }
+
+  /**
+   * Prints the distance between each pair of terms.
+   * @throws Exception If the pairs cannot be read, or the distances cannot be
+   *   printed.
+   */
+  @Override
+  protected void run() throws Exception {
+    if (app.cli.hasOption(FLAG_DICTIONARY)) {
+      throw unsupported(FLAG_DISTANCE, FLAG_DICTIONARY);
+    }
+
+    final PairwiseDistances distances = new PairwiseDistances()
+      .algorithm(app.algorithm())
+      .maxDistance(app.integerOption(FLAG_MAX_DISTANCE, Integer.MAX_VALUE))
+      .threads(app.threads());
+
+    try (final OutputBuffer output = openOutput()) {
+      if (app.distancePaths().isEmpty()) {
+        distances.compute("<STDIN>", System.in, output);
+      }
+      for (final String path : app.distancePaths()) {
+        try (final InputStream pairs = DictionaryLoader.open(path)) {
+          distances.compute(path, pairs, output);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,437 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.CandidateVisitor;
+import com.github.liblevenshtein.query.QueryEngine;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.WordTokenizer;
+
+/**
+ * Spell-checks whole documents, printing the byte offset of each word that is
+ * not in the dictionary, with its spelling candidates.
+ *
+ * <p>Documents are checked by a pipeline: the calling thread splits each into
+ * words and hands them, a chunk at a time, to a pool of workers; the workers
+ * look each word up in the dictionary, which is a walk of as many nodes as the
+ * word has letters, and only query the engine, in lower case, for words not
+ * found as written nor in lower case; and the calling thread prints the
+ * chunks in order as they are done, while the workers carry on.  Only a
+ * bounded number of chunks are in flight, so memory stays constant whatever
+ * the size of the document.</p>
+ *
+ * <p>Words are cached across every document the checker checks, up to a
+ * maximum number: words found in the dictionary, since looking a word up in a
+ * hash table touches less memory than walking the dictionary, and unknown
+ * words with their spelling candidates, so a misspelling that recurs
+ * throughout a corpus is only corrected once.</p>
+ */
+@Slf4j
+@Setter
+public class DocumentChecker {
+
+  /**
+   * Default, maximum number of known words, and of unknown words with their
+   * spelling candidates, that are cached.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 1 << 18;
+
+  /**
+   * Number of words handed to a worker at a time.
+   */
+  private static final int CHUNK_WORDS = 1 << 12;
+
+  /**
+   * Width of the report, in characters.
+   */
+  private static final int WIDTH = 80;
+
+  /**
+   * Separates an unknown word from its spelling candidates.
+   */
+  private static final String TILDE = " ~ ";
+
+  /**
+   * Separates spelling candidates.
+   */
+  private static final String COMMA = ", ";
+
+  /**
+   * Quotes words and spelling candidates.
+   */
+  private static final byte QUOTE = '"';
+
+  /**
+   * Ends each line of the report.
+   */
+  private static final byte NEWLINE = '\n';
+
+  /**
+   * Dictionary that words are looked up in.
+   */
+  @NonNull
+  private SortedDawg dictionary;
+
+  /**
+   * Builds a query engine for each worker (engines are not thread-safe).
+   */
+  @NonNull
+  private Supplier<QueryEngine> engines;
+
+  /**
+   * Whether to print the distance of each spelling candidate.
+   */
+  private boolean includeDistance = false;
+
+  /**
+   * Number of workers that look words up and correct them.
+   */
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Maximum number of known words, and of unknown words with their spelling
+   * candidates, that are cached.
+   */
+  private int cacheSize = DEFAULT_CACHE_SIZE;
+
+  /**
+   * Words found in the dictionary, across every document checked.
+   */
+  private final Set<String> known = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Printed spelling candidates of unknown words, in lower case, across every
+   * document checked.
+   */
+  private final Map<String, byte[]> corrections = new ConcurrentHashMap<>();
+
+  /**
+   * Checks a document, printing its unknown words and their spelling
+   * candidates.
+   * @param name Name of the document, for its header.
+   * @param document UTF-8 text of the document, which is read to its end but
+   *   not closed.
+   * @param output Buffers the report.
+   * @throws IOException If the document cannot be read.
+   * @throws IllegalStateException If any worker fails, or the thread is
+   *   interrupted while waiting for them.
+   */
+  public void check(
+      @NonNull final String name,
+      @NonNull final InputStream document,
+      @NonNull final OutputBuffer output) throws IOException {
+    final String border = "+" + Strings.repeat("-", WIDTH - 1) + "\n";
+    output.putAscii(border).putAscii("| Unknown Words in Document: \"")
+      .putEscaped(name).putAscii("\"\n").putAscii(border);
+
+    final ExecutorService workers = Executors.newFixedThreadPool(
+      Math.max(1, threads),
+      new ThreadFactoryBuilder().setNameFormat("check-%d").setDaemon(true).build());
+    final Run run = new Run(workers, output);
+    final long start = System.nanoTime();
+    try {
+      final long bytes = WordTokenizer.tokenize(document, run::accept);
+      run.finish();
+      log.info("Checked [{}] words ([{}] bytes) of [{}] in [{}] ms, answering [{}] from the "
+          + "cache and finding [{}] unknown",
+          run.words.sum(), bytes, name,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          run.cached.sum(), run.unknown.sum());
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Words of a document, handed to a worker together.
+   */
+  private static final class Chunk {
+
+    /**
+     * Words of the chunk.
+     */
+    private final String[] words = new String[CHUNK_WORDS];
+
+    /**
+     * Byte offset at which each word begins.
+     */
+    private final long[] offsets = new long[CHUNK_WORDS];
+
+    /**
+     * Number of words in the chunk.
+     */
+    private int size = 0;
+
+    /**
+     * Adds a word to the chunk.
+     * @param word Word to add.
+     * @param offset Byte offset at which the word begins.
+     * @return Whether the chunk is full.
+     */
+    private boolean add(final String word, final long offset) {
+      words[size] = word;
+      offsets[size] = offset;
+      size += 1;
+      return CHUNK_WORDS == size;
+    }
+  }
+
+  /**
+   * Text printed by a worker, which is collected as bytes to be handed to the
+   * calling thread.
+   */
+  private static final class Printed {
+
+    /**
+     * Bytes printed so far.
+     */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    /**
+     * Encodes text into {@link #bytes}.
+     */
+    private final OutputBuffer output = new OutputBuffer(
+      Channels.newChannel(bytes), OutputBuffer.DEFAULT_CAPACITY);
+
+    /**
+     * Takes the bytes printed since they were last taken.
+     * @return Bytes printed.
+     * @throws IOException If the bytes cannot be drained from the buffer.
+     */
+    private byte[] take() throws IOException {
+      output.flush();
+      final byte[] printed = bytes.toByteArray();
+      bytes.reset();
+      return printed;
+    }
+  }
+
+  /**
+   * One run of the pipeline over a document.  The calling thread adds words
+   * to it and prints the reports of the workers, in order; the workers check
+   * chunks of words, sharing its cache and statistics.
+   */
+  @SuppressWarnings("checkstyle:classfanoutcomplexity")
+  private final class Run {
+
+    /**
+     * Engine of each worker.
+     */
+    private final ThreadLocal<QueryEngine> engine = ThreadLocal.withInitial(engines);
+
+    /**
+     * Report of each worker on its current chunk.
+     */
+    private final ThreadLocal<Printed> reports = ThreadLocal.withInitial(Printed::new);
+
+    /**
+     * Spelling candidates of each worker's current, unknown word.
+     */
+    private final ThreadLocal<Printed> spellings = ThreadLocal.withInitial(Printed::new);
+
+    /**
+     * Number of words checked.
+     */
+    private final LongAdder words = new LongAdder();
+
+    /**
+     * Number of words not in the dictionary.
+     */
+    private final LongAdder unknown = new LongAdder();
+
+    /**
+     * Number of words answered from the cache.
+     */
+    private final LongAdder cached = new LongAdder();
+
+    /**
+     * Checks chunks of words.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Buffers the reports.
+     */
+    private final OutputBuffer output;
+
+    /**
+     * Reports on the chunks handed to the workers, in order, that are yet to
+     * be printed.
+     */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    /**
+     * Maximum number of chunks in flight.
+     */
+    private final int maxPending = 2 * Math.max(1, threads);
+
+    /**
+     * Chunk of words being added.
+     */
+    private Chunk chunk = new Chunk();
+
+    /**
+     * Constructs a run of the pipeline.
+     * @param workers Checks chunks of words.
+     * @param output Buffers the reports.
+     */
+    private Run(final ExecutorService workers, final OutputBuffer output) {
+      this.workers = workers;
+      this.output = output;
+    }
+
+    /**
+     * Adds a word of the document, handing its chunk to a worker once it is
+     * full, and printing the oldest report once too many are in flight.
+     * @param word Word of the document.
+     * @param offset Byte offset at which the word begins.
+     */
+    private void accept(final String word, final long offset) {
+      if (chunk.add(word, offset)) {
+        submit();
+        if (pending.size() >= maxPending) {
+          print();
+        }
+      }
+    }
+
+    /**
+     * Hands the last chunk to a worker and prints every report still in
+     * flight.
+     */
+    private void finish() {
+      if (0 < chunk.size) {
+        submit();
+      }
+      while (!pending.isEmpty()) {
+        print();
+      }
+    }
+
+    /**
+     * Hands the current chunk to a worker and starts another.
+     */
+    private void submit() {
+      final Chunk full = chunk;
+      pending.add(workers.submit(() -> correct(full)));
+      chunk = new Chunk();
+    }
+
+    /**
+     * Prints the oldest report in flight, once it is done.
+     * @throws IllegalStateException If the chunk cannot be checked, or the
+     *   thread is interrupted while waiting for it.
+     */
+    private void print() {
+      try {
+        output.put(pending.poll().get());
+      }
+      catch (final ExecutionException exception) {
+        throw new IllegalStateException("Failed to check a chunk of words", exception.getCause());
+      }
+      catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while checking words", exception);
+      }
+    }
+
+    /**
+     * Checks a chunk of words.
+     * @param batch Words to check.
+     * @return Report on the unknown words of the chunk.
+     * @throws IOException If the report cannot be collected.
+     */
+    private byte[] correct(final Chunk batch) throws IOException {
+      final Printed report = reports.get();
+      int misses = 0;
+      int hits = 0;
+      for (int i = 0; i < batch.size; i += 1) {
+        final String word = batch.words[i];
+        if (known.contains(word)) {
+          hits += 1;
+          continue;
+        }
+        final String lower = word.toLowerCase(Locale.ROOT);
+        if (dictionary.contains(word) || !lower.equals(word) && dictionary.contains(lower)) {
+          if (known.size() < cacheSize) {
+            known.add(word);
+          }
+          continue;
+        }
+        misses += 1;
+        report.output.putAscii("| ").putAscii(Long.toString(batch.offsets[i])).putAscii(" ")
+          .put(QUOTE).putEscaped(word).put(QUOTE)
+          .put(candidates(lower)).put(NEWLINE);
+      }
+      words.add(batch.size);
+      unknown.add(misses);
+      cached.add(hits);
+      return report.take();
+    }
+
+    /**
+     * Prints the spelling candidates of an unknown word, from the cache if
+     * they are there.
+     * @param word Unknown word, in lower case.
+     * @return Printed spelling candidates of the word.
+     * @throws IOException If the candidates cannot be collected.
+     */
+    private byte[] candidates(final String word) throws IOException {
+      final byte[] hit = corrections.get(word);
+      if (null != hit) {
+        cached.increment();
+        return hit;
+      }
+
+      final OutputBuffer printed = spellings.get().output;
+      engine.get().query(word, new CandidateVisitor() {
+        private String separator = TILDE;
+
+        @Override
+        public void visit(final CharSequence term, final int distance) {
+          printed.putAscii(separator).put(QUOTE).putEscaped(term).put(QUOTE);
+          separator = COMMA;
+          if (includeDistance) {
+            printed.putAscii(" [").putInt(distance).putAscii("]");
+          }
+        }
+
+        @Override
+        public void truncated() {
+          printed.putAscii(separator).putAscii("... [truncated]");
+        }
+      });
+
+      final byte[] candidates = spellings.get().take();
+      if (corrections.size() < cacheSize) {
+        corrections.put(word, candidates);
+      }
+      return candidates;
+    }
+  }
+}
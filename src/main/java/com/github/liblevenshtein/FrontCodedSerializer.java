@@ -0,0 +1,284 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+/**
+ * Serializes the sorted terms of a dictionary, front-coded: each term is the
+ * length of the prefix it shares with the term before it, then the remaining
+ * characters.  Every {@link #RESTART_INTERVAL} terms, a term is written in full,
+ * so each block of terms between these restart points decodes on its own.
+ * After a magic number and version, the stream holds the number of terms and
+ * the restart interval, then the terms, then the number of blocks and the
+ * length in bytes of each, so readers may seek to any block.  Every number,
+ * including each character, is a varint.
+ *
+ * <p>Terms are decoded into one character buffer, shared by every term, and
+ * added straight from it to a {@link SortedDawgBuilder}, so no string is built
+ * for any term.  Frequencies are not kept.</p>
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class FrontCodedSerializer extends AbstractWeightedSerializer {
+
+  /**
+   * Number of terms in each block, the first of which is written in full.
+   */
+  static final int RESTART_INTERVAL = 64;
+
+  /**
+   * Leading bytes of every front-coded stream.
+   */
+  private static final byte[] MAGIC = {'L', 'L', 'F', 'C'};
+
+  /**
+   * Version of the stream layout.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void write(
+      final WeightedDictionary dictionary,
+      final OutputStream stream) throws IOException {
+    final CodedOutputStream output = CodedOutputStream.newInstance(stream);
+    output.writeRawBytes(MAGIC);
+    output.writeUInt32NoTag(VERSION);
+    output.writeUInt32NoTag(dictionary.size());
+    output.writeUInt32NoTag(RESTART_INTERVAL);
+
+    final Blocks blocks = new Blocks(output);
+    try {
+      dictionary.terms((term, frequency) -> {
+        try {
+          blocks.write(term);
+        }
+        catch (final IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+    }
+    catch (final UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+
+    final IntArrayList lengths = blocks.lengths();
+    output.writeUInt32NoTag(lengths.size());
+    for (int i = 0; i < lengths.size(); i += 1) {
+      output.writeUInt32NoTag(lengths.getInt(i));
+    }
+    output.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected WeightedDictionary read(final InputStream stream) throws IOException {
+    final CodedInputStream input = CodedInputStream.newInstance(stream);
+    input.setSizeLimit(Integer.MAX_VALUE);
+    final byte[] magic = input.readRawBytes(MAGIC.length);
+    if (!Arrays.equals(MAGIC, magic)) {
+      throw new IOException("Stream is not a front-coded dictionary");
+    }
+    final int version = input.readUInt32();
+    if (VERSION != version) {
+      final String message = String.format(
+        "Unsupported front-coded dictionary version [%d]", version);
+      throw new IOException(message);
+    }
+
+    final int size = input.readUInt32();
+    final int interval = input.readUInt32();
+    if (size < 0 || interval < 1) {
+      throw corrupt("bad header");
+    }
+
+    final SortedDawgBuilder builder = new SortedDawgBuilder();
+    final IntArrayList blocks = new IntArrayList();
+    readTerms(input, size, interval, builder, blocks);
+    if (input.readUInt32() != blocks.size()) {
+      throw corrupt("bad block count");
+    }
+    for (int i = 0; i < blocks.size(); i += 1) {
+      if (input.readUInt32() != blocks.getInt(i)) {
+        throw corrupt("bad block length");
+      }
+    }
+    return new WeightedDictionary(builder.build());
+  }
+
+  /**
+   * Reads the front-coded terms, measuring the length of each block.
+   * @param input Provides the terms.
+   * @param size Number of terms.
+   * @param interval Number of terms in each block.
+   * @param builder Receives the terms.
+   * @param blocks Receives the length in bytes of each block.
+   * @throws IOException If the terms are corrupt.
+   */
+  private static void readTerms(
+      final CodedInputStream input,
+      final int size,
+      final int interval,
+      final SortedDawgBuilder builder,
+      final IntArrayList blocks) throws IOException {
+    char[] term = new char[0];
+    int length = 0;
+    int blockStart = 0;
+    for (int rank = 0; rank < size; rank += 1) {
+      final boolean blockStarts = 0 == rank % interval;
+      if (blockStarts) {
+        if (0 < rank) {
+          blocks.add(input.getTotalBytesRead() - blockStart);
+        }
+        blockStart = input.getTotalBytesRead();
+      }
+
+      final int common = input.readUInt32();
+      final int suffix = input.readUInt32();
+      // The first term of each block is written in full
+      if (common < 0 || suffix < 0 || common > (blockStarts ? 0 : length)) {
+        throw corrupt("bad prefix length");
+      }
+      term = readSuffix(input, term, common, suffix);
+      length = common + suffix;
+      try {
+        builder.add(term, length);
+      }
+      catch (final IllegalArgumentException exception) {
+        throw corrupt("terms are not sorted");
+      }
+    }
+    if (0 < size) {
+      blocks.add(input.getTotalBytesRead() - blockStart);
+    }
+  }
+
+  /**
+   * Reads the suffix of a term, after the prefix it shares with the last.
+   * @param input Provides the suffix.
+   * @param term Last term, whose prefix is kept.
+   * @param common Length of the shared prefix.
+   * @param suffix Length of the suffix.
+   * @return The term, which is reallocated if it is too short for the suffix.
+   * @throws IOException If the suffix is corrupt.
+   */
+  private static char[] readSuffix(
+      final CodedInputStream input,
+      final char[] term,
+      final int common,
+      final int suffix) throws IOException {
+    final char[] chars = term.length < common + suffix
+      ? Arrays.copyOf(term, Math.max(common + suffix, 2 * term.length))
+      : term;
+    for (int i = common; i < common + suffix; i += 1) {
+      final int c = input.readUInt32();
+      if (c < 0 || c > Character.MAX_VALUE) {
+        throw corrupt("bad character");
+      }
+      chars[i] = (char) c;
+    }
+    return chars;
+  }
+
+  /**
+   * Signals a corrupt stream.
+   * @param reason What is wrong with the stream.
+   * @return Exception to throw.
+   */
+  private static IOException corrupt(final String reason) {
+    return new IOException("Front-coded dictionary is corrupt: " + reason);
+  }
+
+  /**
+   * Front-codes terms into blocks, measuring the length of each.
+   */
+  private static final class Blocks {
+
+    /**
+     * Receives the terms.
+     */
+    private final CodedOutputStream output;
+
+    /**
+     * Length in bytes of each block written before the current one.
+     */
+    private final IntArrayList lengths = new IntArrayList();
+
+    /**
+     * Term written before the next one in its block.
+     */
+    private final StringBuilder previous = new StringBuilder();
+
+    /**
+     * Number of terms written.
+     */
+    private int terms = 0;
+
+    /**
+     * Offset of the current block in the stream.
+     */
+    private int blockStart = 0;
+
+    /**
+     * Constructs an empty sequence of blocks.
+     * @param output Receives the terms.
+     */
+    private Blocks(final CodedOutputStream output) {
+      this.output = output;
+    }
+
+    /**
+     * Writes a term, front-coded against the one before it in its block, or
+     * in full if it begins a block.
+     * @param term Term to write.
+     * @throws IOException If the term cannot be written.
+     */
+    private void write(final CharSequence term) throws IOException {
+      if (0 == terms % RESTART_INTERVAL) {
+        if (0 < terms) {
+          lengths.add(output.getTotalBytesWritten() - blockStart);
+        }
+        blockStart = output.getTotalBytesWritten();
+        previous.setLength(0);
+      }
+
+      int common = 0;
+      while (common < previous.length() && common < term.length()
+          && previous.charAt(common) == term.charAt(common)) {
+        common += 1;
+      }
+      output.writeUInt32NoTag(common);
+      output.writeUInt32NoTag(term.length() - common);
+      for (int i = common; i < term.length(); i += 1) {
+        output.writeUInt32NoTag(term.charAt(i));
+      }
+      previous.setLength(common);
+      previous.append(term, common, term.length());
+      terms += 1;
+    }
+
+    /**
+     * Length in bytes of each block, once every term is written.
+     * @return Length of each block.
+     */
+    private IntArrayList lengths() {
+      if (0 < terms && lengths.size() * RESTART_INTERVAL < terms) {
+        lengths.add(output.getTotalBytesWritten() - blockStart);
+      }
+      return lengths;
+    }
+  }
+}
@@ -3,6 +3,8 @@ package com.github.liblevenshtein;
 import lombok.experimental.ExtensionMethod;
 
 import com.github.liblevenshtein.util.HighlightUtils;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template.Slot;
 
 /**
  * Prints a user-friendly header, that specifies which term is being queried,
@@ -12,17 +14,23 @@ import com.github.liblevenshtein.util.HighlightUtils;
 public class HeaderColorPrinter extends AbstractPrinter {
 
   /**
-   * Prints a user-friendly header, that specifies which term is being queried,
-   * in color.
-   * @param buffer Holds messages.
-   * @param escapedQuery Java-escaped, query term.
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  public HeaderColorPrinter(final OutputBuffer output) {
+    super(output);
+  }
+
+  /**
+   * Lays out a user-friendly header, that specifies which term is being
+   * queried, in color.
+   * @param buffer Holds the layout.
+   * @return buffer, for fluency.
    */
   @Override
-  public void accept(final StringBuilder buffer, final String escapedQuery) {
-    buffer.setLength(0);
+  protected StringBuilder layout(final StringBuilder buffer) {
     buffer.mode(HighlightUtils.BOLD);
-    highlightHeader(buffer, escapedQuery);
-    buffer.end();
-    System.out.println(buffer.toString());
+    highlightHeader(buffer, Slot.QUERY.placeholder());
+    return buffer.end();
   }
 }
@@ -1,25 +1,35 @@
 package com.github.liblevenshtein;
 
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template.Slot;
+
 /**
  * Prints a user-friendly header, that specifies which term is being queried.
  */
 public class HeaderPrinter extends AbstractPrinter {
 
   /**
-   * Prints a user-friendly header, that specifies which term is being queried.
-   * @param buffer Holds messages.
-   * @param escapedQuery Java-escaped, query term.
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  public HeaderPrinter(final OutputBuffer output) {
+    super(output);
+  }
+
+  /**
+   * Lays out a user-friendly header, that specifies which term is being
+   * queried.
+   * @param buffer Holds the layout.
+   * @return buffer, for fluency.
    */
   @Override
-  public void accept(final StringBuilder buffer, final String escapedQuery) {
-    buffer.setLength(0);
+  protected StringBuilder layout(final StringBuilder buffer) {
     headerBorder(buffer).append('\n');
     buffer.append("| Spelling Candidates for Query Term: ")
       .append('\"')
-        .append(escapedQuery)
+        .append(Slot.QUERY.placeholder())
       .append('\"')
       .append('\n');
-    headerBorder(buffer);
-    System.out.println(buffer.toString());
+    return headerBorder(buffer);
   }
 }
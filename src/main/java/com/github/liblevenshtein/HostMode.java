@@ -0,0 +1,59 @@
+package com.github.liblevenshtein;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.HostedQueryEngine;
+
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DICTIONARY;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_HOST;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_MAX_COST;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SERIALIZE;
+import static com.github.liblevenshtein.CommandLineOptions.unsupported;
+
+/**
+ * Prints the spelling candidates of query terms in the dictionaries of the
+ * --host directory that they name, which are loaded on demand and evicted to
+ * stay within the --memory-budget.
+ */
+@Slf4j
+final class HostMode extends AbstractMode {
+
+  /**
+   * Constructs the --host mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  HostMode(final CommandLineInterface app) {
+    super(app);
+  }
+
+  /**
+   * Prints the results of querying the hosted dictionaries, then logs how
+   * many were loaded and evicted.
+   * @throws Exception If the query terms cannot be read, or the results
+   *   cannot be printed.
+   */
+  @Override
+  protected void run() throws Exception {
+    if (app.cli.hasOption(FLAG_DICTIONARY)) {
+      throw unsupported(FLAG_HOST, FLAG_DICTIONARY);
+    }
+    if (null != app.serializationPath() || app.cli.hasOption(FLAG_MAX_COST)) {
+      throw unsupported(FLAG_HOST, null != app.serializationPath() ? FLAG_SERIALIZE : FLAG_MAX_COST);
+    }
+
+    final DictionaryHost host = new DictionaryHost()
+      .directory(app.hostPath())
+      .sourceFormat(app.sourceFormat())
+      .isSorted(app.isSorted())
+      .memoryBudget(app.memoryBudget());
+    if (null != app.metrics()) {
+      app.metrics().host(host);
+    }
+
+    app.printResults(() -> new HostedQueryEngine(
+      host::dictionary, app::buildQueryEngine, app.maxDistance()), app.queryTerms());
+
+    log.info("Loaded [{}] hosted dictionaries and evicted [{}], leaving {} resident",
+        host.loads(), host.evictions(), host.resident());
+  }
+}
@@ -0,0 +1,51 @@
+package com.github.liblevenshtein;
+
+import java.util.List;
+
+import com.github.liblevenshtein.util.OutputBuffer;
+
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DICTIONARY;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_INSPECT;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_TARGET_FORMAT;
+
+/**
+ * Prints a report on the size and shape of each --dictionary, instead of
+ * querying it.
+ */
+final class InspectMode extends AbstractMode {
+
+  /**
+   * Constructs the --inspect mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  InspectMode(final CommandLineInterface app) {
+    super(app);
+  }
+
+  /**
+   * Prints a report on each dictionary.
+   * @throws Exception If any dictionary cannot be loaded, or the reports
+   *   cannot be printed.
+   */
+  @Override
+  protected void run() throws Exception {
+    final List<String> paths = app.dictionaryPaths();
+    if (paths.isEmpty()) {
+      final String message = String.format("--%s requires a --%s", FLAG_INSPECT, FLAG_DICTIONARY);
+      throw new IllegalArgumentException(message);
+    }
+
+    final DictionaryInspector inspector = new DictionaryInspector()
+      .sourceFormat(app.sourceFormat())
+      .isSorted(app.isSorted());
+    if (app.cli.hasOption(FLAG_TARGET_FORMAT)) {
+      inspector.formats(app.targetFormats());
+    }
+
+    try (final OutputBuffer output = openOutput()) {
+      for (final String path : paths) {
+        inspector.inspect(path, output);
+      }
+    }
+  }
+}
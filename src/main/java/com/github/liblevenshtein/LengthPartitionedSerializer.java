@@ -0,0 +1,308 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.LengthPartitionedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+/**
+ * Serializes the terms of a dictionary partitioned by length, as
+ * {@link LengthPartitionedDawg} holds them.  After a magic number and version,
+ * the stream holds the number of terms and of partitions, then an index of
+ * the partitions, each as the length of its terms, their number, and its
+ * length in bytes, then the partitions themselves, in ascending order of
+ * length.  Within a partition, the terms are in dictionary order and
+ * front-coded: every term has the same length, so each is only the length of
+ * the prefix it shares with the term before it, then the remaining
+ * characters.  Every number, including each character, is a varint.
+ *
+ * <p>Reading decodes the terms of each partition, then builds the partitions
+ * on other cores while it merges their terms into the whole dictionary, and
+ * shares the partitions with the dictionary, so the
+ * {@link com.github.liblevenshtein.query.EngineType#PARTITIONED} engine does not
+ * partition it again.  Frequencies are not kept.</p>
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class LengthPartitionedSerializer extends AbstractWeightedSerializer {
+
+  /**
+   * Leading bytes of every length-partitioned stream.
+   */
+  private static final byte[] MAGIC = {'L', 'L', 'L', 'P'};
+
+  /**
+   * Version of the stream layout.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void write(
+      final WeightedDictionary dictionary,
+      final OutputStream stream) throws IOException {
+    final LengthPartitionedDawg partitioned = dictionary.partitioned();
+    final CodedOutputStream output = CodedOutputStream.newInstance(stream);
+    output.writeRawBytes(MAGIC);
+    output.writeUInt32NoTag(VERSION);
+    output.writeUInt32NoTag(partitioned.size());
+    output.writeUInt32NoTag(partitioned.partitions());
+
+    final byte[][] partitions = new byte[partitioned.maxLength() + 1][];
+    for (int length = 0; length < partitions.length; length += 1) {
+      final SortedDawg partition = partitioned.partition(length);
+      if (null != partition) {
+        partitions[length] = encode(partition, length);
+        output.writeUInt32NoTag(length);
+        output.writeUInt32NoTag(WeightedDictionary.size(partition));
+        output.writeUInt32NoTag(partitions[length].length);
+      }
+    }
+    for (final byte[] partition : partitions) {
+      if (null != partition) {
+        output.writeRawBytes(partition);
+      }
+    }
+    output.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected WeightedDictionary read(final InputStream stream) throws IOException {
+    final CodedInputStream input = CodedInputStream.newInstance(stream);
+    input.setSizeLimit(Integer.MAX_VALUE);
+    final byte[] magic = input.readRawBytes(MAGIC.length);
+    if (!Arrays.equals(MAGIC, magic)) {
+      throw new IOException("Stream is not a length-partitioned dictionary");
+    }
+    final int version = input.readUInt32();
+    if (VERSION != version) {
+      final String message = String.format(
+        "Unsupported length-partitioned dictionary version [%d]", version);
+      throw new IOException(message);
+    }
+
+    final int size = input.readUInt32();
+    final int count = input.readUInt32();
+    if (size < 0 || count < 0 || count > size) {
+      throw corrupt("bad header");
+    }
+    final int[] lengths = new int[count];
+    final int[] sizes = new int[count];
+    final int[] bytes = new int[count];
+    if (readIndex(input, lengths, sizes, bytes) != size) {
+      throw corrupt("bad term count");
+    }
+
+    final char[][] arenas = new char[count][];
+    for (int p = 0; p < count; p += 1) {
+      final int start = input.getTotalBytesRead();
+      arenas[p] = decode(input, lengths[p], sizes[p]);
+      if (input.getTotalBytesRead() - start != bytes[p]) {
+        throw corrupt("bad partition length");
+      }
+    }
+    return build(lengths, sizes, arenas);
+  }
+
+  /**
+   * Reads the index of the partitions.
+   * @param input Provides the index.
+   * @param lengths Receives the length of the terms of each partition.
+   * @param sizes Receives the number of terms in each partition.
+   * @param bytes Receives the number of bytes of each partition.
+   * @return Total number of terms in the partitions.
+   * @throws IOException If the index is corrupt.
+   */
+  private static long readIndex(
+      final CodedInputStream input,
+      final int[] lengths,
+      final int[] sizes,
+      final int[] bytes) throws IOException {
+    long total = 0L;
+    for (int p = 0; p < lengths.length; p += 1) {
+      lengths[p] = input.readUInt32();
+      sizes[p] = input.readUInt32();
+      bytes[p] = input.readUInt32();
+      final boolean ascending = 0 == p ? lengths[p] >= 0 : lengths[p] > lengths[p - 1];
+      if (!ascending || sizes[p] < 1 || bytes[p] < 0
+          || (long) sizes[p] * lengths[p] > Integer.MAX_VALUE) {
+        throw corrupt("bad partition index");
+      }
+      total += sizes[p];
+    }
+    return total;
+  }
+
+  /**
+   * Builds a dictionary from its decoded partitions.
+   * @param lengths Length of the terms of each partition.
+   * @param sizes Number of terms in each partition.
+   * @param arenas Terms of each partition, back-to-back.
+   * @return Dictionary of the partitions.
+   * @throws IOException If the terms are not sorted.
+   */
+  private static WeightedDictionary build(
+      final int[] lengths,
+      final int[] sizes,
+      final char[][] arenas) throws IOException {
+    final int count = lengths.length;
+    // The partitions are built on other cores while the terms are merged
+    final char[][] terms = new char[0 == count ? 0 : lengths[count - 1] + 1][];
+    final int[] termSizes = new int[terms.length];
+    for (int p = 0; p < count; p += 1) {
+      terms[lengths[p]] = arenas[p];
+      termSizes[lengths[p]] = sizes[p];
+    }
+    final CompletableFuture<LengthPartitionedDawg> partitioned =
+      CompletableFuture.supplyAsync(() -> new LengthPartitionedDawg(terms, termSizes));
+    try {
+      return new WeightedDictionary(merge(lengths, sizes, arenas))
+        .partitioned(partitioned.join());
+    }
+    catch (final IllegalArgumentException | CompletionException exception) {
+      throw corrupt("terms are not sorted");
+    }
+  }
+
+  /**
+   * Front-codes the terms of a partition.
+   * @param partition Terms of the partition.
+   * @param length Length of every term of the partition.
+   * @return Bytes of the partition.
+   * @throws IOException If the terms cannot be encoded.
+   */
+  private static byte[] encode(final SortedDawg partition, final int length) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    final StringBuilder previous = new StringBuilder(length);
+    try {
+      new WeightedDictionary(partition).terms((term, frequency) -> {
+        int common = 0;
+        while (common < previous.length() && previous.charAt(common) == term.charAt(common)) {
+          common += 1;
+        }
+        try {
+          output.writeUInt32NoTag(common);
+          for (int i = common; i < length; i += 1) {
+            output.writeUInt32NoTag(term.charAt(i));
+          }
+        }
+        catch (final IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+        previous.setLength(common);
+        previous.append(term, common, length);
+      });
+    }
+    catch (final UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes the terms of a partition.
+   * @param input Provides the partition.
+   * @param length Length of every term of the partition.
+   * @param size Number of terms in the partition.
+   * @return Terms of the partition, back-to-back.
+   * @throws IOException If the partition is corrupt.
+   */
+  private static char[] decode(
+      final CodedInputStream input,
+      final int length,
+      final int size) throws IOException {
+    final char[] arena = new char[size * length];
+    for (int rank = 0, offset = 0; rank < size; rank += 1, offset += length) {
+      final int common = input.readUInt32();
+      if (common < 0 || common > length || 0 == rank && 0 != common) {
+        throw corrupt("bad prefix length");
+      }
+      if (common > 0) {
+        System.arraycopy(arena, offset - length, arena, offset, common);
+      }
+      for (int i = common; i < length; i += 1) {
+        final int c = input.readUInt32();
+        if (c < 0 || c > Character.MAX_VALUE) {
+          throw corrupt("bad character");
+        }
+        arena[offset + i] = (char) c;
+      }
+    }
+    return arena;
+  }
+
+  /**
+   * Merges the terms of every partition into one dictionary, in dictionary
+   * order.
+   * @param lengths Length of the terms of each partition.
+   * @param sizes Number of terms in each partition.
+   * @param arenas Terms of each partition, back-to-back.
+   * @return Terms of every partition.
+   */
+  private static SortedDawg merge(
+      final int[] lengths,
+      final int[] sizes,
+      final char[][] arenas) {
+    final int[] ranks = new int[lengths.length];
+    final IntHeapPriorityQueue heads = new IntHeapPriorityQueue(new AbstractIntComparator() {
+      @Override
+      public int compare(final int p, final int q) {
+        final int pOffset = ranks[p] * lengths[p];
+        final int qOffset = ranks[q] * lengths[q];
+        final int shared = Math.min(lengths[p], lengths[q]);
+        for (int i = 0; i < shared; i += 1) {
+          final int difference = arenas[p][pOffset + i] - arenas[q][qOffset + i];
+          if (0 != difference) {
+            return difference;
+          }
+        }
+        return lengths[p] - lengths[q];
+      }
+    });
+    for (int p = 0; p < lengths.length; p += 1) {
+      heads.enqueue(p);
+    }
+
+    final SortedDawgBuilder builder = new SortedDawgBuilder();
+    final char[] term = new char[0 == lengths.length ? 0 : lengths[lengths.length - 1]];
+    while (!heads.isEmpty()) {
+      final int p = heads.dequeueInt();
+      System.arraycopy(arenas[p], ranks[p] * lengths[p], term, 0, lengths[p]);
+      builder.add(term, lengths[p]);
+      ranks[p] += 1;
+      if (ranks[p] < sizes[p]) {
+        heads.enqueue(p);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Signals a corrupt stream.
+   * @param reason What is wrong with the stream.
+   * @return Exception to throw.
+   */
+  private static IOException corrupt(final String reason) {
+    return new IOException("Length-partitioned dictionary is corrupt: " + reason);
+  }
+}
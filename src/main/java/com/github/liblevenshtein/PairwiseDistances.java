@@ -0,0 +1,295 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.BitParallelDistance;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Computes the distance between each of a sequence of pairs of terms, with no
+ * dictionary.  Pairs are read one per line, as two terms separated by a tab,
+ * and printed in the same order, each followed by its distance, or by
+ * "&gt;" and the maximum distance if its distance is beyond the maximum.
+ * Terms are printed escaped as Java string literals, so a tab within a term
+ * cannot be mistaken for a separator.
+ *
+ * <p>Pairs are computed by a pipeline, like {@link DocumentChecker} checks
+ * words: the calling thread reads them and hands them, a chunk at a time, to a
+ * pool of workers, each of which computes them with its own
+ * {@link BitParallelDistance}, and prints the chunks in order as they are done.
+ * Only a bounded number of chunks are in flight, so memory stays constant
+ * whatever the number of pairs.</p>
+ */
+@Slf4j
+@Setter
+public class PairwiseDistances {
+
+  /**
+   * Number of pairs handed to a worker at a time.
+   */
+  private static final int CHUNK_PAIRS = 1 << 12;
+
+  /**
+   * Separates the terms of a pair, and a pair from its distance.
+   */
+  private static final char TAB = '\t';
+
+  /**
+   * Elementary operations for transforming one term of each pair into the
+   * other.
+   */
+  @NonNull
+  private Algorithm algorithm = Algorithm.STANDARD;
+
+  /**
+   * Largest distance of interest; pairs beyond it are only reported as
+   * being beyond it, which saves computing their distances in full.
+   */
+  private int maxDistance = Integer.MAX_VALUE;
+
+  /**
+   * Number of workers that compute distances.
+   */
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Computes and prints the distance between each pair of terms.
+   * @param name Name of the source of the pairs, for errors and logging.
+   * @param pairs UTF-8 text of the pairs, one per line, which is read to its
+   *   end but not closed.
+   * @param output Buffers the distances.
+   * @throws IOException If the pairs cannot be read.
+   * @throws IllegalArgumentException If any line is not two terms separated
+   *   by a tab.
+   * @throws IllegalStateException If any worker fails, or the thread is
+   *   interrupted while waiting for them.
+   */
+  public void compute(
+      @NonNull final String name,
+      @NonNull final InputStream pairs,
+      @NonNull final OutputBuffer output) throws IOException {
+    final ExecutorService workers = Executors.newFixedThreadPool(
+      Math.max(1, threads),
+      new ThreadFactoryBuilder().setNameFormat("distance-%d").setDaemon(true).build());
+    final Run run = new Run(workers, output);
+    final long start = System.nanoTime();
+    try {
+      final BufferedReader reader =
+        new BufferedReader(new InputStreamReader(pairs, StandardCharsets.UTF_8));
+      long lineNumber = 0L;
+      String line;
+      while (null != (line = reader.readLine())) {
+        lineNumber += 1L;
+        final int tab = line.indexOf(TAB);
+        if (-1 == tab || -1 != line.indexOf(TAB, tab + 1)) {
+          final String message = String.format(
+            "Expected two terms separated by a tab on line [%d] of [%s]", lineNumber, name);
+          throw new IllegalArgumentException(message);
+        }
+        run.accept(line.substring(0, tab), line.substring(tab + 1));
+      }
+      run.finish();
+      log.info("Computed the distances of [{}] pairs of [{}] in [{}] ms, finding [{}] beyond "
+          + "the maximum",
+          lineNumber, name,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          run.beyond.sum());
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Pairs of terms, handed to a worker together.
+   */
+  private static final class Chunk {
+
+    /**
+     * First term of each pair.
+     */
+    private final String[] lefts = new String[CHUNK_PAIRS];
+
+    /**
+     * Second term of each pair.
+     */
+    private final String[] rights = new String[CHUNK_PAIRS];
+
+    /**
+     * Number of pairs in the chunk.
+     */
+    private int size = 0;
+
+    /**
+     * Adds a pair to the chunk.
+     * @param left First term of the pair.
+     * @param right Second term of the pair.
+     * @return Whether the chunk is full.
+     */
+    private boolean add(final String left, final String right) {
+      lefts[size] = left;
+      rights[size] = right;
+      size += 1;
+      return CHUNK_PAIRS == size;
+    }
+  }
+
+  /**
+   * One run of the pipeline over a sequence of pairs.  The calling thread
+   * adds pairs to it and prints the distances computed by the workers, in
+   * order.
+   */
+  private final class Run {
+
+    /**
+     * Distance of each worker.
+     */
+    private final ThreadLocal<BitParallelDistance> distance =
+      ThreadLocal.withInitial(() -> new BitParallelDistance(algorithm));
+
+    /**
+     * Number of pairs whose distances are beyond the maximum.
+     */
+    private final LongAdder beyond = new LongAdder();
+
+    /**
+     * Computes chunks of pairs.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Buffers the distances.
+     */
+    private final OutputBuffer output;
+
+    /**
+     * Distances of the chunks handed to the workers, in order, that are yet
+     * to be printed.
+     */
+    private final Deque<Future<String>> pending = new ArrayDeque<>();
+
+    /**
+     * Maximum number of chunks in flight.
+     */
+    private final int maxPending = 2 * Math.max(1, threads);
+
+    /**
+     * Chunk of pairs being added.
+     */
+    private Chunk chunk = new Chunk();
+
+    /**
+     * Constructs a run of the pipeline.
+     * @param workers Computes chunks of pairs.
+     * @param output Buffers the distances.
+     */
+    private Run(final ExecutorService workers, final OutputBuffer output) {
+      this.workers = workers;
+      this.output = output;
+    }
+
+    /**
+     * Adds a pair, handing its chunk to a worker once it is full, and
+     * printing the oldest distances once too many are in flight.
+     * @param left First term of the pair.
+     * @param right Second term of the pair.
+     */
+    private void accept(final String left, final String right) {
+      if (chunk.add(left, right)) {
+        submit();
+        if (pending.size() >= maxPending) {
+          print();
+        }
+      }
+    }
+
+    /**
+     * Hands the last chunk to a worker and prints every distance still in
+     * flight.
+     */
+    private void finish() {
+      if (0 < chunk.size) {
+        submit();
+      }
+      while (!pending.isEmpty()) {
+        print();
+      }
+    }
+
+    /**
+     * Hands the current chunk to a worker and starts another.
+     */
+    private void submit() {
+      final Chunk full = chunk;
+      pending.add(workers.submit(() -> compute(full)));
+      chunk = new Chunk();
+    }
+
+    /**
+     * Prints the oldest distances in flight, once they are done.
+     * @throws IllegalStateException If the chunk cannot be computed, or the
+     *   thread is interrupted while waiting for it.
+     */
+    private void print() {
+      try {
+        output.putAscii(pending.poll().get());
+      }
+      catch (final ExecutionException exception) {
+        throw new IllegalStateException("Failed to compute a chunk of distances", exception.getCause());
+      }
+      catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while computing distances", exception);
+      }
+    }
+
+    /**
+     * Computes the distances of a chunk of pairs.
+     * @param batch Pairs to compute.
+     * @return Printed pairs and their distances.
+     */
+    private String compute(final Chunk batch) {
+      final BitParallelDistance between = distance.get();
+      final StringBuilder printed = new StringBuilder();
+      int misses = 0;
+      for (int i = 0; i < batch.size; i += 1) {
+        final String left = batch.lefts[i];
+        final String right = batch.rights[i];
+        printed.append(StringEscapeUtils.escapeJava(left)).append(TAB)
+          .append(StringEscapeUtils.escapeJava(right)).append(TAB);
+        final int d = between.between(left, right, maxDistance);
+        if (d > maxDistance) {
+          misses += 1;
+          printed.append('>').append(maxDistance);
+        }
+        else {
+          printed.append(d);
+        }
+        printed.append('\n');
+      }
+      beyond.add(misses);
+      return printed.toString();
+    }
+  }
+}
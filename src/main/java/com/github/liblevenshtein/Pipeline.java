@@ -0,0 +1,164 @@
+package com.github.liblevenshtein;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the stages of a job concurrently, each as soon as the stage it depends
+ * on is done, so independent stages overlap (e.g. reading the query terms
+ * while the dictionary loads, and serializing the dictionary while it is
+ * queried).
+ *
+ * <p>Stages whose dependency fails are not run, and fail with the same cause.
+ * {@link #await()} waits for every stage, in the order they were added, and
+ * rethrows the failure of the first that failed; closing the pipeline then
+ * interrupts any stages still running.</p>
+ */
+@Slf4j
+public class Pipeline implements AutoCloseable {
+
+  /**
+   * Runs the stages.
+   */
+  private final ExecutorService executor = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("stage-%d").setDaemon(true).build());
+
+  /**
+   * Stages of the pipeline, in the order they were added.
+   */
+  private final List<CompletableFuture<?>> stages = new ArrayList<>();
+
+  /**
+   * Starts a stage that depends on no other.
+   * @param name Name of the stage, for logging.
+   * @param task Work of the stage.
+   * @param <T> Type of the result of the stage.
+   * @return Result of the stage, once it is done.
+   */
+  public synchronized <T> CompletableFuture<T> start(
+      @NonNull final String name,
+      @NonNull final Callable<T> task) {
+    return add(CompletableFuture.supplyAsync(() -> run(name, task), executor));
+  }
+
+  /**
+   * Adds a stage that runs once another is done.
+   * @param name Name of the stage, for logging.
+   * @param dependency Stage whose result this one needs.
+   * @param stage Work of the stage.
+   * @param <T> Type of the result of the stage depended on.
+   * @param <R> Type of the result of this stage.
+   * @return Result of the stage, once it is done.
+   */
+  public synchronized <T, R> CompletableFuture<R> then(
+      @NonNull final String name,
+      @NonNull final CompletableFuture<T> dependency,
+      @NonNull final Stage<? super T, R> stage) {
+    return add(dependency.thenApplyAsync(input -> run(name, () -> stage.apply(input)), executor));
+  }
+
+  /**
+   * Waits for every stage to finish.
+   * @throws Exception The failure of the first stage that failed, in the order
+   *   they were added.
+   */
+  public void await() throws Exception {
+    final List<CompletableFuture<?>> added;
+    synchronized (this) {
+      added = new ArrayList<>(stages);
+    }
+    for (final CompletableFuture<?> stage : added) {
+      join(stage);
+    }
+  }
+
+  /**
+   * Waits for the result of a stage.
+   * @param stage Stage to wait for.
+   * @param <T> Type of the result of the stage.
+   * @return Result of the stage.
+   * @throws Exception The failure of the stage, as it was thrown.
+   */
+  public static <T> T join(@NonNull final CompletableFuture<T> stage) throws Exception {
+    try {
+      return stage.join();
+    }
+    catch (final CompletionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw exception;
+    }
+  }
+
+  /**
+   * Interrupts any stages still running.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Records a stage, so it is waited for.
+   * @param stage Stage to record.
+   * @param <T> Type of the result of the stage.
+   * @return The stage.
+   */
+  private <T> CompletableFuture<T> add(final CompletableFuture<T> stage) {
+    stages.add(stage);
+    return stage;
+  }
+
+  /**
+   * Does the work of a stage, logging how long it took.
+   * @param name Name of the stage.
+   * @param task Work of the stage.
+   * @param <T> Type of the result of the stage.
+   * @return Result of the stage.
+   * @throws CompletionException If the work fails, wrapping its failure.
+   */
+  @SuppressWarnings("checkstyle:illegalcatch")
+  private static <T> T run(final String name, final Callable<T> task) {
+    final long start = System.nanoTime();
+    try {
+      final T result = task.call();
+      log.debug("Finished stage [{}] in [{}] us", name, (System.nanoTime() - start) / 1_000L);
+      return result;
+    }
+    catch (final Exception exception) {
+      throw new CompletionException(exception);
+    }
+  }
+
+  /**
+   * Work of a stage that depends on the result of another.
+   * @param <T> Type of the result of the stage depended on.
+   * @param <R> Type of the result of this stage.
+   */
+  @FunctionalInterface
+  public interface Stage<T, R> {
+
+    /**
+     * Does the work of the stage.
+     * @param input Result of the stage depended on.
+     * @return Result of this stage.
+     * @throws Exception If the work cannot be done.
+     */
+    R apply(T input) throws Exception;
+  }
+}
@@ -1,15 +1,15 @@
 package com.github.liblevenshtein;
 
+import com.github.liblevenshtein.query.CandidateVisitor;
+
 /**
- * Functional interface for methods that print spelling candidates.
+ * Prints the spelling candidates of one query term at a time.
  */
-public interface Printer {
+public interface Printer extends CandidateVisitor {
 
   /**
-   * Prints spelling candidates.
-   * @param buffer Holds messages.
+   * Specifies the query term whose spelling candidates are visited next.
    * @param escapedQuery Java-escaped, query term.
-   * @param object Spelling candidate.
    */
-  void print(StringBuilder buffer, String escapedQuery, Object object);
+  void query(String escapedQuery);
 }
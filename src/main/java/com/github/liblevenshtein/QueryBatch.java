@@ -0,0 +1,155 @@
+package com.github.liblevenshtein;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.QueryEngine;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Queries a batch of terms and prints the spelling candidates of each.  A
+ * batch may be split into contiguous slices that are queried in parallel, each
+ * by its own worker printing into its own output, so workers never contend on
+ * a shared stream.  Concatenating the outputs in order yields the same text as
+ * querying the whole batch into one output.
+ */
+@Slf4j
+@Setter
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class QueryBatch {
+
+  /**
+   * Separates file names from their extensions.
+   */
+  private static final char EXTENSION_SEPARATOR = '.';
+
+  /**
+   * Builds a query engine for each worker (engines are not thread-safe).
+   */
+  @NonNull
+  private Supplier<QueryEngine> engines;
+
+  /**
+   * Builds a printer of spelling candidates for each output.
+   */
+  @NonNull
+  private Function<OutputBuffer, Printer> printers;
+
+  /**
+   * Builds a printer of headers for each output.
+   */
+  @NonNull
+  private Function<OutputBuffer, Consumer<String>> headers;
+
+  /**
+   * Path of one shard of a sharded output file.  The shard's index is inserted
+   * before the extensions of the file name, so "results.txt.gz" becomes
+   * "results-0.txt.gz" for the first shard.
+   * @param path Path of the output file.
+   * @param index Index of the shard.
+   * @return Path of the shard.
+   */
+  public static Path shard(@NonNull final Path path, final int index) {
+    final String name = path.getFileName().toString();
+    final int extension = name.indexOf(EXTENSION_SEPARATOR, 1);
+    final String shardName = -1 == extension
+      ? String.format("%s-%d", name, index)
+      : String.format("%s-%d%s",
+          name.substring(0, extension), index, name.substring(extension));
+    return path.resolveSibling(shardName);
+  }
+
+  /**
+   * Queries each term, printing its spelling candidates into an output.
+   * @param queryTerms Terms to query.
+   * @param output Buffers printed messages.
+   */
+  public void run(
+      @NonNull final List<String> queryTerms,
+      @NonNull final OutputBuffer output) {
+    final QueryEngine engine = engines.get();
+    final Printer printer = printers.apply(output);
+    final Consumer<String> header = headers.apply(output);
+    for (final String queryTerm : queryTerms) {
+      final String escapedQuery = StringEscapeUtils.escapeJava(queryTerm);
+      header.accept(escapedQuery);
+      printer.query(escapedQuery);
+      engine.query(queryTerm, printer);
+    }
+  }
+
+  /**
+   * Splits the terms into as many contiguous slices as there are outputs, and
+   * queries each slice in parallel, printing its spelling candidates into the
+   * corresponding output.
+   * @param queryTerms Terms to query.
+   * @param outputs Buffers printed messages, one for each worker.
+   * @throws InterruptedException If interrupted while waiting for the workers.
+   * @throws IllegalStateException If any worker fails.
+   */
+  public void run(
+      @NonNull final List<String> queryTerms,
+      @NonNull final List<OutputBuffer> outputs) throws InterruptedException {
+    if (outputs.isEmpty()) {
+      throw new IllegalArgumentException("Expected at least one output");
+    }
+
+    if (1 == outputs.size()) {
+      run(queryTerms, outputs.get(0));
+      return;
+    }
+
+    final ExecutorService workers = Executors.newFixedThreadPool(
+      outputs.size(),
+      new ThreadFactoryBuilder().setNameFormat("query-%d").build());
+
+    log.info("Querying [{}] terms with [{}] workers", queryTerms.size(), outputs.size());
+
+    try {
+      final List<Future<?>> slices = new ArrayList<>(outputs.size());
+      for (int i = 0; i < outputs.size(); i += 1) {
+        final List<String> slice = queryTerms.subList(
+          (int) ((long) i * queryTerms.size() / outputs.size()),
+          (int) ((long) (i + 1) * queryTerms.size() / outputs.size()));
+        final OutputBuffer output = outputs.get(i);
+        slices.add(workers.submit(() -> run(slice, output)));
+      }
+
+      int failed = 0;
+      for (int i = 0; i < slices.size(); i += 1) {
+        try {
+          slices.get(i).get();
+        }
+        catch (final ExecutionException exception) {
+          failed += 1;
+          log.error("Worker [{}] failed to query its terms", i, exception.getCause());
+        }
+      }
+
+      if (0 < failed) {
+        throw new IllegalStateException(
+          String.format("[%d] of [%d] workers failed to query their terms",
+            failed, slices.size()));
+      }
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+}
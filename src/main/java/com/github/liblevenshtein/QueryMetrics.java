@@ -0,0 +1,395 @@
+package com.github.liblevenshtein;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.QueryLatency;
+import com.github.liblevenshtein.query.QueryMeter;
+
+/**
+ * Live metrics of the queries and dictionaries of a job, exposed as a JMX
+ * MBean so long-running jobs may be watched while they run.  Queries are
+ * recorded by engines sharing the {@link #meter()}, and dictionaries as they
+ * are {@link #loaded(long, long)}; both are recorded with striped counters, so
+ * workers never contend on them.  The work of summarizing them, including
+ * percentiles and rates, is left to whoever reads the attributes.
+ *
+ * <p>Rates are measured over the time between reads, but no less than a
+ * second, so they reflect the current pace of the job rather than its
+ * average.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+@Slf4j
+public class QueryMetrics implements QueryMetricsMBean, AutoCloseable {
+
+  /**
+   * Name under which the metrics are registered.
+   */
+  public static final String OBJECT_NAME = "com.github.liblevenshtein:type=QueryMetrics";
+
+  /**
+   * Shortest time over which rates are measured, in nanoseconds.
+   */
+  private static final long SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+  /**
+   * Number of nanoseconds in a second, as a double.
+   */
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+  /**
+   * Fraction of the queries answered within the median latency.
+   */
+  private static final double MEDIAN = 0.5;
+
+  /**
+   * Fraction of the queries answered within the 90th percentile latency.
+   */
+  private static final double P90 = 0.9;
+
+  /**
+   * Fraction of the queries answered within the 99th percentile latency.
+   */
+  private static final double P99 = 0.99;
+
+  /**
+   * Fraction of the queries answered within the 99.9th percentile latency.
+   */
+  private static final double P999 = 0.999;
+
+  /**
+   * Records the queries.
+   * -- GETTER --
+   * Records the queries, to be shared by the engines of every worker.
+   * @return Records the queries.
+   */
+  @Getter
+  private final QueryMeter meter = new QueryMeter();
+
+  /**
+   * Number of dictionaries loaded.
+   */
+  private final LongAdder dictionaries = new LongAdder();
+
+  /**
+   * Number of terms in the dictionaries loaded.
+   */
+  private final LongAdder dictionaryTerms = new LongAdder();
+
+  /**
+   * Time taken to load the dictionaries, in nanoseconds.
+   */
+  private final LongAdder loadNanos = new LongAdder();
+
+  /**
+   * Time, on {@link System#nanoTime()}, at which the metrics began.
+   */
+  private final long started = System.nanoTime();
+
+  /**
+   * Hosts dictionaries whose cache is reported, or null.
+   */
+  private volatile DictionaryHost host = null;
+
+  /**
+   * Server the metrics are registered with, or null.  Guarded by these
+   * metrics.
+   */
+  private MBeanServer server = null;
+
+  /**
+   * Time, on {@link System#nanoTime()}, at which the rates were last measured.
+   * Guarded by these metrics.
+   */
+  private long sampledAt = started;
+
+  /**
+   * Number of queries when the rates were last measured.  Guarded by these
+   * metrics.
+   */
+  private long sampledQueries = 0L;
+
+  /**
+   * Number of spelling candidates when the rates were last measured.  Guarded
+   * by these metrics.
+   */
+  private long sampledCandidates = 0L;
+
+  /**
+   * Number of queries answered per second, when last measured.  Guarded by
+   * these metrics.
+   */
+  private double queriesPerSecond = 0.0;
+
+  /**
+   * Number of spelling candidates found per second, when last measured.
+   * Guarded by these metrics.
+   */
+  private double candidatesPerSecond = 0.0;
+
+  /**
+   * Registers these metrics with the platform's MBean server, under
+   * {@link #OBJECT_NAME}.
+   * @return These {@link QueryMetrics}, for fluency.
+   * @throws JMException If the metrics cannot be registered, e.g. because
+   *   other metrics are registered under the same name.
+   */
+  public synchronized QueryMetrics register() throws JMException {
+    final MBeanServer platform = ManagementFactory.getPlatformMBeanServer();
+    platform.registerMBean(this, new ObjectName(OBJECT_NAME));
+    server = platform;
+    log.info("Registered query metrics as MBean [{}]", OBJECT_NAME);
+    return this;
+  }
+
+  /**
+   * Unregisters these metrics, if they are registered.
+   * @throws JMException If the metrics cannot be unregistered.
+   */
+  @Override
+  public synchronized void close() throws JMException {
+    if (null != server) {
+      server.unregisterMBean(new ObjectName(OBJECT_NAME));
+      server = null;
+    }
+  }
+
+  /**
+   * Reports the cache of a host of dictionaries.
+   * @param dictionaryHost Hosts dictionaries whose cache is reported.
+   * @return These {@link QueryMetrics}, for fluency.
+   */
+  public QueryMetrics host(@NonNull final DictionaryHost dictionaryHost) {
+    this.host = dictionaryHost;
+    return this;
+  }
+
+  /**
+   * Records a dictionary that was loaded.
+   * @param terms Number of terms in the dictionary.
+   * @param nanos Time taken to load the dictionary, in nanoseconds.
+   */
+  public void loaded(final long terms, final long nanos) {
+    dictionaries.increment();
+    dictionaryTerms.add(terms);
+    loadNanos.add(nanos);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getQueries() {
+    return meter.queries();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized double getQueriesPerSecond() {
+    sample();
+    return queriesPerSecond;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCandidates() {
+    return meter.candidates();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized double getCandidatesPerSecond() {
+    sample();
+    return candidatesPerSecond;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTruncatedQueries() {
+    return meter.truncated();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMeanLatencyMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(meter.latency().meanNanos());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMedianLatencyMicros() {
+    return percentileMicros(MEDIAN);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getP90LatencyMicros() {
+    return percentileMicros(P90);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getP99LatencyMicros() {
+    return percentileMicros(P99);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getP999LatencyMicros() {
+    return percentileMicros(P999);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMaxLatencyMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(meter.latency().maxNanos());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getDictionaries() {
+    return dictionaries.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getDictionaryTerms() {
+    return dictionaryTerms.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getDictionaryLoadMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(loadNanos.sum());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCacheHits() {
+    final DictionaryHost current = host;
+    return null == current ? 0L : current.hits();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCacheMisses() {
+    final DictionaryHost current = host;
+    return null == current ? 0L : current.loads();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCacheEvictions() {
+    final DictionaryHost current = host;
+    return null == current ? 0L : current.evictions();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getCacheResident() {
+    final DictionaryHost current = host;
+    return null == current ? 0 : current.resident().size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCacheFootprintBytes() {
+    final DictionaryHost current = host;
+    return null == current ? 0L : current.footprint();
+  }
+
+  /**
+   * Logs a summary of the queries and dictionaries.
+   */
+  public void logSummary() {
+    log.info("Loaded [{}] dictionaries of [{}] terms in [{}] ms",
+        getDictionaries(), getDictionaryTerms(), getDictionaryLoadMillis());
+    if (0L < getQueries()) {
+      log.info("Answered [{}] queries, finding [{}] spelling candidates and cutting [{}] short, "
+          + "in [{}] us at the median, [{}] us at the 99th percentile and [{}] us at worst",
+          getQueries(), getCandidates(), getTruncatedQueries(),
+          getMedianLatencyMicros(), getP99LatencyMicros(), getMaxLatencyMicros());
+    }
+  }
+
+  /**
+   * Time within which some fraction of the queries were answered.
+   * @param fraction Fraction of the queries.
+   * @return Percentile of the time taken by the queries, in microseconds.
+   */
+  private long percentileMicros(final double fraction) {
+    final QueryLatency latency = meter.latency();
+    return TimeUnit.NANOSECONDS.toMicros(latency.percentileNanos(fraction));
+  }
+
+  /**
+   * Measures the rates again, if a second or more has passed since they were
+   * last measured.  Guarded by these metrics.
+   */
+  private void sample() {
+    final long now = System.nanoTime();
+    final long elapsed = now - sampledAt;
+    if (elapsed >= SAMPLE_NANOS) {
+      final long queries = meter.queries();
+      final long candidates = meter.candidates();
+      queriesPerSecond = (queries - sampledQueries) * NANOS_PER_SECOND / elapsed;
+      candidatesPerSecond = (candidates - sampledCandidates) * NANOS_PER_SECOND / elapsed;
+      sampledAt = now;
+      sampledQueries = queries;
+      sampledCandidates = candidates;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.github.liblevenshtein;
+
+/**
+ * Management interface of {@link QueryMetrics}, whose attributes may be
+ * watched from jconsole or any other JMX client while a job runs.
+ */
+public interface QueryMetricsMBean {
+
+  /**
+   * Time since the metrics began.
+   * @return Time since the metrics began, in milliseconds.
+   */
+  long getElapsedMillis();
+
+  /**
+   * Number of queries answered so far.
+   * @return Number of queries answered so far.
+   */
+  long getQueries();
+
+  /**
+   * Number of queries answered per second, over the last second or more.
+   * @return Number of queries answered per second.
+   */
+  double getQueriesPerSecond();
+
+  /**
+   * Number of spelling candidates found so far.
+   * @return Number of spelling candidates found so far.
+   */
+  long getCandidates();
+
+  /**
+   * Number of spelling candidates found per second, over the last second or
+   * more.
+   * @return Number of spelling candidates found per second.
+   */
+  double getCandidatesPerSecond();
+
+  /**
+   * Number of queries cut short so far.
+   * @return Number of queries cut short so far.
+   */
+  long getTruncatedQueries();
+
+  /**
+   * Mean time taken by the queries.
+   * @return Mean time taken by the queries, in microseconds.
+   */
+  long getMeanLatencyMicros();
+
+  /**
+   * Time within which half the queries were answered.
+   * @return Median time taken by the queries, in microseconds.
+   */
+  long getMedianLatencyMicros();
+
+  /**
+   * Time within which 90% of the queries were answered.
+   * @return 90th percentile of the time taken by the queries, in
+   *   microseconds.
+   */
+  long getP90LatencyMicros();
+
+  /**
+   * Time within which 99% of the queries were answered.
+   * @return 99th percentile of the time taken by the queries, in
+   *   microseconds.
+   */
+  long getP99LatencyMicros();
+
+  /**
+   * Time within which 99.9% of the queries were answered.
+   * @return 99.9th percentile of the time taken by the queries, in
+   *   microseconds.
+   */
+  long getP999LatencyMicros();
+
+  /**
+   * Longest time taken by any query.
+   * @return Longest time taken by any query, in microseconds.
+   */
+  long getMaxLatencyMicros();
+
+  /**
+   * Number of dictionaries loaded so far, other than hosted ones.
+   * @return Number of dictionaries loaded so far.
+   */
+  long getDictionaries();
+
+  /**
+   * Number of terms in the dictionaries loaded so far, other than hosted ones.
+   * @return Number of terms in the dictionaries.
+   */
+  long getDictionaryTerms();
+
+  /**
+   * Time taken to load the dictionaries so far, other than hosted ones.
+   * @return Time taken to load the dictionaries, in milliseconds.
+   */
+  long getDictionaryLoadMillis();
+
+  /**
+   * Number of requests for hosted dictionaries that were already resident.
+   * @return Number of requests that did not load their dictionaries, or zero
+   *   if no dictionaries are hosted.
+   */
+  long getCacheHits();
+
+  /**
+   * Number of requests for hosted dictionaries that loaded them.
+   * @return Number of requests that loaded their dictionaries, or zero if no
+   *   dictionaries are hosted.
+   */
+  long getCacheMisses();
+
+  /**
+   * Number of hosted dictionaries evicted.
+   * @return Number of hosted dictionaries evicted, or zero if no dictionaries
+   *   are hosted.
+   */
+  long getCacheEvictions();
+
+  /**
+   * Number of hosted dictionaries resident.
+   * @return Number of hosted dictionaries resident, or zero if no
+   *   dictionaries are hosted.
+   */
+  int getCacheResident();
+
+  /**
+   * Estimated heap footprint of the resident, hosted dictionaries.
+   * @return Estimated heap footprint of the resident dictionaries, in bytes,
+   *   or zero if no dictionaries are hosted.
+   */
+  long getCacheFootprintBytes();
+}
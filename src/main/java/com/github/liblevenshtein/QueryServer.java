@@ -0,0 +1,168 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.github.liblevenshtein.query.Admission;
+import com.github.liblevenshtein.query.QuerySession;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+/**
+ * Serves a {@link QuerySession} over a line-oriented protocol, such as a pipe
+ * from an editor or search box.  Each line is one command that edits the
+ * query term:
+ *
+ * <ul>
+ *   <li>{@code +TEXT} appends TEXT to the query term,</li>
+ *   <li>{@code -} deletes the last character of the query term, and
+ *     {@code -N} deletes its last N characters,</li>
+ *   <li>{@code =TEXT} replaces the query term with TEXT, keeping their common
+ *     prefix, and</li>
+ *   <li>{@code ?} leaves the query term as it is.</li>
+ * </ul>
+ *
+ * <p>TEXT is Java-escaped, as printed terms are, so it may contain any
+ * character.  After each command, the header and spelling candidates of the
+ * query term are printed, followed by an empty line, and the output is
+ * flushed.  With an {@link Admission} controller, the spelling candidates of
+ * expensive query terms may be printed at a lower distance, or not at all,
+ * and marked as truncated.  Commands that cannot be parsed are logged and answered with just
+ * the empty line.</p>
+ */
+@Slf4j
+@Setter
+public class QueryServer {
+
+  /**
+   * Prefix of commands that append text to the query term.
+   */
+  public static final char APPEND = '+';
+
+  /**
+   * Prefix of commands that delete characters from the query term.
+   */
+  public static final char DELETE = '-';
+
+  /**
+   * Prefix of commands that replace the query term.
+   */
+  public static final char REPLACE = '=';
+
+  /**
+   * Command that prints the spelling candidates of the query term, as-is.
+   */
+  public static final char PRINT = '?';
+
+  /**
+   * Session whose query term is edited by the commands.
+   */
+  @NonNull
+  private QuerySession session;
+
+  /**
+   * Builds the printer of spelling candidates for the output.
+   */
+  @NonNull
+  private Function<OutputBuffer, Printer> printers;
+
+  /**
+   * Builds the printer of headers for the output.
+   */
+  @NonNull
+  private Function<OutputBuffer, Consumer<String>> headers;
+
+  /**
+   * Decides whether, and at what distance, to print the spelling candidates
+   * of each query term, or null to print them all.  The session maintains
+   * every path within its maximum distance regardless, so admission bounds
+   * what is printed rather than what is searched.
+   */
+  private Admission admission = null;
+
+  /**
+   * Serves commands until there are no more.
+   * @param commands Reads commands, one per line.
+   * @param output Buffers printed messages.
+   * @throws IOException If the commands cannot be read or the output cannot be
+   *   written.
+   */
+  public void serve(
+      @NonNull final BufferedReader commands,
+      @NonNull final OutputBuffer output) throws IOException {
+    final Printer printer = printers.apply(output);
+    final Consumer<String> header = headers.apply(output);
+    String command;
+    while (null != (command = commands.readLine())) {
+      if (execute(command)) {
+        final String escapedQuery = StringEscapeUtils.escapeJava(session.term());
+        header.accept(escapedQuery);
+        printer.query(escapedQuery);
+        candidates(printer);
+      }
+      output.newline();
+      output.flush();
+    }
+  }
+
+  /**
+   * Prints the candidates for the query term, within the admitted distance if
+   * queries are admitted.
+   * @param printer Prints the candidates.
+   */
+  private void candidates(final Printer printer) {
+    if (null == admission) {
+      session.candidates(printer);
+    }
+    else {
+      final boolean complete = admission.admit(session.term(), session.maxDistance(),
+        distance -> session.candidates(distance, printer));
+      if (!complete) {
+        printer.truncated();
+      }
+    }
+  }
+
+  /**
+   * Edits the query term, according to a command.
+   * @param command Command to execute.
+   * @return Whether the command was executed.
+   */
+  private boolean execute(final String command) {
+    if (command.isEmpty()) {
+      log.warn("Ignoring empty command");
+      return false;
+    }
+
+    final String argument = command.substring(1);
+    try {
+      switch (command.charAt(0)) {
+        case APPEND:
+          session.append(StringEscapeUtils.unescapeJava(argument));
+          return true;
+        case DELETE:
+          session.delete(argument.isEmpty() ? 1 : Integer.parseInt(argument));
+          return true;
+        case REPLACE:
+          session.edit(StringEscapeUtils.unescapeJava(argument));
+          return true;
+        case PRINT:
+          return true;
+        default:
+          log.warn("Ignoring unknown command [{}]", command);
+          return false;
+      }
+    }
+    catch (final IllegalArgumentException exception) {
+      log.warn("Ignoring invalid command [{}]", command, exception);
+      return false;
+    }
+  }
+}
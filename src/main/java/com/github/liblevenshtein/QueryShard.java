@@ -0,0 +1,250 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One of several disjoint slices of the query terms of a batch, so that
+ * independent processes running the same command each query their own slice,
+ * without coordinating.  Together, the shards of a batch query each term
+ * exactly once.
+ *
+ * <p>A query file, of one term per line, is split into contiguous byte ranges
+ * of equal size, and each shard seeks straight to its range and reads only
+ * the lines that begin within it, so its output is the corresponding slice of
+ * the output of the whole batch.  Terms given directly are selected by a
+ * stable hash of their UTF-8 bytes, which is the same on every process and
+ * every platform.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+@Slf4j
+public final class QueryShard {
+
+  /**
+   * Every query term, as one shard.
+   */
+  public static final QueryShard ALL = new QueryShard(0, 1);
+
+  /**
+   * Separates the index of a shard from their count.
+   */
+  private static final char SEPARATOR = '/';
+
+  /**
+   * Stable hash of query terms.
+   */
+  private static final HashFunction HASH = Hashing.murmur3_32();
+
+  /**
+   * Ends each line of a query file.
+   */
+  private static final int NEWLINE = '\n';
+
+  /**
+   * Ends each line of a query file with Windows line endings, before the
+   * {@link #NEWLINE}.
+   */
+  private static final char CARRIAGE_RETURN = '\r';
+
+  /**
+   * Index of this shard, from zero.
+   * -- GETTER --
+   * Index of this shard, from zero.
+   * @return Index of this shard.
+   */
+  @Getter
+  private final int index;
+
+  /**
+   * Number of shards.
+   * -- GETTER --
+   * Number of shards.
+   * @return Number of shards.
+   */
+  @Getter
+  private final int count;
+
+  /**
+   * Constructs one of several shards.
+   * @param index Index of the shard, from zero.
+   * @param count Number of shards.
+   * @throws IllegalArgumentException If the index is not within the count.
+   */
+  public QueryShard(final int index, final int count) {
+    if (count < 1 || index < 0 || index >= count) {
+      final String message = String.format(
+        "Expected a shard index in [0, %d), but received [%d]", count, index);
+      throw new IllegalArgumentException(message);
+    }
+    this.index = index;
+    this.count = count;
+  }
+
+  /**
+   * Parses a shard.
+   * @param spec Index of the shard and number of shards, as "INDEX/COUNT"
+   *   (e.g. "0/4" for the first of four shards).
+   * @return The shard.
+   * @throws IllegalArgumentException If the shard cannot be parsed.
+   */
+  public static QueryShard parse(@NonNull final String spec) {
+    final String message = String.format(
+      "Expected a shard as INDEX/COUNT, but received [%s]", spec);
+    final int separator = spec.indexOf(SEPARATOR);
+    if (-1 == separator) {
+      throw new IllegalArgumentException(message);
+    }
+    try {
+      return new QueryShard(
+        Integer.parseInt(spec.substring(0, separator).trim()),
+        Integer.parseInt(spec.substring(separator + 1).trim()));
+    }
+    catch (final NumberFormatException exception) {
+      throw new IllegalArgumentException(message, exception);
+    }
+  }
+
+  /**
+   * Whether a query term directly given belongs to this shard.
+   * @param term Query term.
+   * @return Whether this shard queries the term.
+   */
+  public boolean contains(@NonNull final String term) {
+    return Math.floorMod(HASH.hashString(term, StandardCharsets.UTF_8).asInt(), count) == index;
+  }
+
+  /**
+   * Selects the query terms directly given that belong to this shard.
+   * @param terms Query terms.
+   * @return Query terms that belong to this shard, in their order.
+   */
+  public List<String> select(@NonNull final List<String> terms) {
+    if (1 == count) {
+      return terms;
+    }
+    final List<String> selected = new ArrayList<>(terms.size() / count + 1);
+    for (final String term : terms) {
+      if (contains(term)) {
+        selected.add(term);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Reads the query terms of this shard from a query file: the non-empty
+   * lines that begin within its byte range.
+   * @param file UTF-8 file of one query term per line.
+   * @return Query terms of this shard, in their order.
+   * @throws IOException If the file cannot be read.
+   */
+  public List<String> read(@NonNull final Path file) throws IOException {
+    final List<String> terms = new ArrayList<>();
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final long start = boundary(size, index);
+      final long end = boundary(size, index + 1);
+
+      // Starts just before the range, to tell whether a line begins at it
+      channel.position(Math.max(0L, start - 1L));
+      final InputStream stream = new BufferedInputStream(Channels.newInputStream(channel));
+      final ByteArrayOutputStream line = new ByteArrayOutputStream();
+      long position = start;
+      if (0L < start) {
+        position += readLine(stream, line) - 1L;
+      }
+
+      while (position < end) {
+        final long length = readLine(stream, line);
+        if (0L == length) {
+          break;
+        }
+        position += length;
+        int bytes = line.size();
+        final byte[] buffer = line.toByteArray();
+        if (0 < bytes && CARRIAGE_RETURN == buffer[bytes - 1]) {
+          bytes -= 1;
+        }
+        if (0 < bytes) {
+          terms.add(new String(buffer, 0, bytes, StandardCharsets.UTF_8));
+        }
+      }
+
+      log.info("Shard [{}/{}] read [{}] query terms from bytes [{}, {}) of [{}]",
+          index, count, terms.size(), start, end, file);
+    }
+    return terms;
+  }
+
+  /**
+   * Path of this shard's output, so the outputs of every shard may share a
+   * directory.  Concatenating them in order of their indices yields the output
+   * of the whole batch, for terms read from a query file.
+   * @param path Path of the output of the whole batch.
+   * @return Path of this shard's output.
+   */
+  public Path output(@NonNull final Path path) {
+    return 1 == count ? path : QueryBatch.shard(path, index);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return index + String.valueOf(SEPARATOR) + count;
+  }
+
+  /**
+   * Offset of the first byte of a shard's range, so every shard's range is
+   * within a byte of the same size.
+   * @param size Size of the file.
+   * @param shard Index of the shard, or the number of shards for the end of
+   *   the last.
+   * @return Offset of the first byte of the shard's range.
+   */
+  private long boundary(final long size, final int shard) {
+    // size * shard / count, without overflowing
+    return size / count * shard + size % count * shard / count;
+  }
+
+  /**
+   * Reads a line, up to and including its newline.
+   * @param stream Reads the file.
+   * @param line Receives the bytes of the line, without its newline.
+   * @return Number of bytes read, including the newline, or zero at the end
+   *   of the file.
+   * @throws IOException If the file cannot be read.
+   */
+  private static long readLine(
+      final InputStream stream,
+      final ByteArrayOutputStream line) throws IOException {
+    line.reset();
+    long length = 0L;
+    for (int next = stream.read(); -1 != next; next = stream.read()) {
+      length += 1L;
+      if (NEWLINE == next) {
+        break;
+      }
+      line.write(next);
+    }
+    return length;
+  }
+}
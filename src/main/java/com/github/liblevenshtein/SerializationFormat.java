@@ -1,15 +1,29 @@
 package com.github.liblevenshtein;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import com.google.common.net.MediaType;
 
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.serialization.BytecodeSerializer;
+import com.github.liblevenshtein.serialization.PlainTextSerializer;
+import com.github.liblevenshtein.serialization.ProtobufSerializer;
+import com.github.liblevenshtein.serialization.Serializer;
+
 /**
  * Supported serialization types.
  */
 @Getter
 @RequiredArgsConstructor
+@SuppressWarnings({
+  "checkstyle:classdataabstractioncoupling",
+  "checkstyle:classfanoutcomplexity"})
 public enum SerializationFormat {
 
   // [WARNING] :: The ordering of these formats is intentional.  Rearranging
@@ -18,17 +32,42 @@ public enum SerializationFormat {
   // -------------------------------------------------------------------------
 
   /** Java bytecode. */
-  BYTECODE(MediaType.OCTET_STREAM.toString()),
+  BYTECODE(MediaType.OCTET_STREAM.toString(), "bytecode.bytes", false),
+
+  /** Compact, binary dictionary of terms and their frequencies. */
+  WEIGHTED(MediaType.OCTET_STREAM.toString(), "weighted.bytes", true),
+
+  /** Google Protocol Buffers varints, in blocks decoded concurrently. */
+  CHUNKED_PROTOBUF(MediaType.OCTET_STREAM.toString(), "chunked.protobuf.bytes", false),
+
+  /** Sorted terms, front-coded in blocks with restart points. */
+  FRONT_CODED(MediaType.OCTET_STREAM.toString(), "frontcoded.bytes", false),
+
+  /** Terms partitioned by length, front-coded within each partition. */
+  LENGTH_PARTITIONED(MediaType.OCTET_STREAM.toString(), "partitioned.bytes", false),
+
+  // [WARNING] :: WEIGHTED, CHUNKED_PROTOBUF, FRONT_CODED and LENGTH_PARTITIONED
+  // should come before PROTOBUF, as Protocol Buffers will parse some foreign
+  // streams (WEIGHTED among them) as an empty dictionary instead of failing ...
+  // -------------------------------------------------------------------------
 
   /** Google Protocol Buffers. */
-  PROTOBUF(MediaType.OCTET_STREAM.toString()),
+  PROTOBUF(MediaType.OCTET_STREAM.toString(), "protobuf.bytes", false),
 
   // [WARNING] :: PLAIN_TEXT should come last as its Serializer will attempt
   // to deserialize any file as plain text ...
   // -------------------------------------------------------------------------
 
   /** Plain text dictionary (newline-delimited terms). */
-  PLAIN_TEXT(MediaType.PLAIN_TEXT_UTF_8.withoutParameters().toString());
+  PLAIN_TEXT(MediaType.PLAIN_TEXT_UTF_8.withoutParameters().toString(), "txt", false),
+
+  // [WARNING] :: WEIGHTED_TEXT is never reached by the adaptive
+  // deserialization algorithm, since PLAIN_TEXT accepts anything; it must be
+  // requested explicitly.
+  // -------------------------------------------------------------------------
+
+  /** Plain text dictionary of terms and their frequencies, tab-separated. */
+  WEIGHTED_TEXT(MediaType.TSV_UTF_8.withoutParameters().toString(), "tsv", true);
 
   /**
    * Expected content-type of the serialization format.  The content type does
@@ -39,4 +78,86 @@ public enum SerializationFormat {
    * @return Expected content-type of the serialization format.
    */
   private final String contentType;
+
+  /**
+   * Conventional file extension (without the leading dot) of dictionaries
+   * serialized as this format.
+   * -- GETTER --
+   * Conventional file extension (without the leading dot) of dictionaries
+   * serialized as this format.
+   * @return Conventional file extension of this format.
+   */
+  private final String extension;
+
+  /**
+   * Whether this format keeps the frequencies of terms.
+   * -- GETTER --
+   * Whether this format keeps the frequencies of terms.
+   * @return Whether this format keeps the frequencies of terms.
+   */
+  private final boolean isWeighted;
+
+  /**
+   * Builds a serializer for this format.
+   * @param isSorted Whether the dictionary is sorted (saves work if it is).
+   * @return New serializer for this format.
+   */
+  public Serializer serializer(final boolean isSorted) {
+    switch (this) {
+      case PROTOBUF:
+        return new ProtobufSerializer();
+      case PLAIN_TEXT:
+        return new PlainTextSerializer(isSorted);
+      case BYTECODE:
+        return new BytecodeSerializer();
+      case WEIGHTED:
+        return new WeightedSerializer();
+      case WEIGHTED_TEXT:
+        return new WeightedTextSerializer();
+      case CHUNKED_PROTOBUF:
+        return new ChunkedProtobufSerializer();
+      case FRONT_CODED:
+        return new FrontCodedSerializer();
+      case LENGTH_PARTITIONED:
+        return new LengthPartitionedSerializer();
+      default:
+        final String message = String.format("Unsupported format [%s]", this);
+        throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Reads a dictionary as this format.  Formats without frequencies give each
+   * term a frequency of zero.  Formats read as a {@link WeightedDictionary}
+   * keep whatever else they built with it, such as the partitions of
+   * {@link #LENGTH_PARTITIONED}.
+   * @param isSorted Whether the dictionary is sorted (saves work if it is).
+   * @param stream Provides the dictionary.
+   * @return Dictionary read from the stream.
+   * @throws Exception If the stream does not hold a dictionary of this format.
+   */
+  public WeightedDictionary deserialize(
+      final boolean isSorted,
+      @NonNull final InputStream stream) throws Exception {
+    final Serializer serializer = serializer(isSorted);
+    return isWeighted || serializer instanceof AbstractWeightedSerializer
+      ? serializer.deserialize(WeightedDictionary.class, stream)
+      : new WeightedDictionary(serializer.deserialize(SortedDawg.class, stream));
+  }
+
+  /**
+   * Writes a dictionary as this format.  Formats without frequencies drop
+   * them.
+   * @param isSorted Whether the dictionary is sorted (saves work if it is).
+   * @param dictionary Dictionary to write.
+   * @param stream Receives the dictionary.
+   * @throws Exception If the dictionary cannot be written.
+   */
+  public void serialize(
+      final boolean isSorted,
+      @NonNull final WeightedDictionary dictionary,
+      @NonNull final OutputStream stream) throws Exception {
+    serializer(isSorted).serialize(
+      isWeighted ? dictionary : dictionary.dictionary(), stream);
+  }
 }
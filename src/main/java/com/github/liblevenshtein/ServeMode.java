@@ -0,0 +1,78 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.Admission;
+import com.github.liblevenshtein.query.QuerySession;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_DICTIONARY;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_ENGINE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_PREFIX;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_QGRAM_DISTANCE;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_RANK;
+import static com.github.liblevenshtein.CommandLineOptions.FLAG_SERVE;
+import static com.github.liblevenshtein.CommandLineOptions.singleDictionary;
+import static com.github.liblevenshtein.CommandLineOptions.unsupported;
+
+/**
+ * Serves an incremental query session over the --dictionary, reading
+ * commands from standard input and printing candidates to standard output.
+ */
+final class ServeMode extends AbstractMode {
+
+  /**
+   * Constructs the --serve mode of a command-line interface.
+   * @param app Command-line interface whose options configure the mode.
+   */
+  ServeMode(final CommandLineInterface app) {
+    super(app);
+  }
+
+  /**
+   * Serves the session until standard input ends.
+   * @throws Exception If the dictionary cannot be read, or the session cannot
+   *   be served.
+   */
+  @Override
+  protected void run() throws Exception {
+    if (!app.cli.hasOption(FLAG_DICTIONARY)) {
+      final String message = String.format(
+        "--%s reads commands from standard input, so it requires a --%s",
+          FLAG_SERVE, FLAG_DICTIONARY);
+      throw new IllegalArgumentException(message);
+    }
+
+    if (app.prefix() || app.rank()) {
+      throw unsupported(FLAG_SERVE, app.prefix() ? FLAG_PREFIX : FLAG_RANK);
+    }
+
+    if (app.cli.hasOption(FLAG_ENGINE) || app.cli.hasOption(FLAG_QGRAM_DISTANCE)) {
+      throw unsupported(FLAG_SERVE,
+        app.cli.hasOption(FLAG_ENGINE) ? FLAG_ENGINE : FLAG_QGRAM_DISTANCE);
+    }
+
+    if (1 < app.dictionaryPaths().size()) {
+      throw singleDictionary(FLAG_SERVE);
+    }
+
+    final SortedDawg dictionary = app.buildDictionary().dictionary();
+    final Admission admission = app.buildAdmission(dictionary);
+    final QueryServer server = new QueryServer()
+      .session(new QuerySession(dictionary, app.algorithm(), app.maxDistance())
+        .filter(app.candidateFilter()))
+      .printers(app::buildCandidatePrinter)
+      .headers(app::buildHeaderPrinter)
+      .admission(admission);
+
+    try (final BufferedReader commands = new BufferedReader(
+          new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        final OutputBuffer output = OutputBuffer.stdout()) {
+      server.serve(commands, output);
+    }
+    app.logAdmission(admission);
+  }
+}
@@ -0,0 +1,271 @@
+package com.github.liblevenshtein;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectArrayMap;
+import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
+import it.unimi.dsi.fastutil.chars.Char2ObjectRBTreeMap;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.FinalDawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+/**
+ * Builds a minimal {@link SortedDawg} from terms given in sorted order, read
+ * straight from a character buffer.
+ *
+ * <p>As with {@link SortedDawg#add(String)}, the nodes of the previous term
+ * that the next term does not share are minimized, deepest first, by replacing
+ * each with an equivalent node already built, if there is one.  By then, the
+ * children of each node are minimized, so two nodes are equivalent exactly
+ * when they are both final or both not, and their edges have the same labels
+ * leading to the very same children.  Unlike {@link DawgNode#equals(Object)},
+ * which compares every node beneath them, this compares only their edges, so
+ * building takes time linear in the size of the terms.</p>
+ *
+ * <p>Nodes hold up to {@link #MAX_ARRAY_EDGES} edges in an array, which is
+ * smaller and faster to build and follow than the tree that
+ * {@link SortedDawg} holds them in, and more in a tree.</p>
+ *
+ * <p>Instances are not thread-safe, and build one dictionary each.</p>
+ */
+public final class SortedDawgBuilder {
+
+  /**
+   * Greatest number of edges a node holds in an array, rather than a tree.
+   */
+  private static final int MAX_ARRAY_EDGES = 8;
+
+  /**
+   * Minimized nodes, by their signature.
+   */
+  private final Map<Signature, DawgNode> minimized = new HashMap<>();
+
+  /**
+   * Nodes along the path of the previous term, from the root.
+   */
+  private DawgNode[] path = new DawgNode[1];
+
+  /**
+   * Previous term.
+   */
+  private char[] previous = new char[0];
+
+  /**
+   * Length of the previous term, or -1 if no term has been added.
+   */
+  private int previousLength = -1;
+
+  /**
+   * Number of non-empty terms added.  As with {@link SortedDawg#add(String)},
+   * the empty term only marks the root final, and is not counted.
+   */
+  private int size = 0;
+
+  /**
+   * Checks that a term follows the previous term.
+   * @param term Holds the term.
+   * @param length Length of the term, from the start of the buffer.
+   * @param common Length of the prefix the term shares with the previous term.
+   * @throws IllegalArgumentException If the term does not follow the previous
+   *   term.
+   */
+  private void checkOrder(final char[] term, final int length, final int common) {
+    if (previousLength >= 0 && (common == length
+        || common < previousLength && term[common] < previous[common])) {
+      final String message = String.format(
+        "Terms must be added in sorted order, but [%s] follows [%s]",
+          new String(term, 0, length), new String(previous, 0, previousLength));
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Adds a term, which must follow every term added before it.
+   * @param term Holds the term.
+   * @param length Length of the term, from the start of the buffer.
+   * @return This {@link SortedDawgBuilder}, for fluency.
+   * @throws IllegalArgumentException If the term does not follow the previous
+   *   term.
+   */
+  public SortedDawgBuilder add(final char[] term, final int length) {
+    int common = 0;
+    final int shared = Math.min(length, Math.max(0, previousLength));
+    while (common < shared && previous[common] == term[common]) {
+      common += 1;
+    }
+    checkOrder(term, length, common);
+
+    if (-1 == previousLength) {
+      path[0] = node(0 == length, new Char2ObjectArrayMap<>());
+    }
+    else {
+      minimize(common);
+    }
+
+    if (path.length <= length) {
+      path = Arrays.copyOf(path, Math.max(length + 1, 2 * path.length));
+    }
+    for (int i = common; i < length; i += 1) {
+      final DawgNode child = node(i + 1 == length, new Char2ObjectArrayMap<>());
+      path[i].addEdge(term[i], child);
+      path[i + 1] = child;
+    }
+
+    if (previous.length < length) {
+      previous = Arrays.copyOf(term, Math.max(length, 2 * previous.length));
+    }
+    else {
+      System.arraycopy(term, common, previous, common, length - common);
+    }
+    previousLength = length;
+    if (0 < length) {
+      size += 1;
+    }
+    return this;
+  }
+
+  /**
+   * Adds a term, which must follow every term added before it.
+   * @param term Term to add.
+   * @return This {@link SortedDawgBuilder}, for fluency.
+   * @throws IllegalArgumentException If the term does not follow the previous
+   *   term.
+   */
+  public SortedDawgBuilder add(final String term) {
+    return add(term.toCharArray(), term.length());
+  }
+
+  /**
+   * Minimizes the remaining nodes and builds the dictionary.
+   * @return Dictionary of the terms added.
+   */
+  public SortedDawg build() {
+    if (-1 == previousLength) {
+      return new SortedDawg();
+    }
+    minimize(0);
+    final SortedDawg dictionary = new SortedDawg(size, compact(path[0]));
+    minimized.clear();
+    return dictionary;
+  }
+
+  /**
+   * Minimizes the nodes of the previous term beneath some depth, deepest
+   * first.
+   * @param depth Depth of the deepest node to keep, which is not minimized.
+   */
+  private void minimize(final int depth) {
+    for (int i = previousLength; i > depth; i -= 1) {
+      final DawgNode node = compact(path[i]);
+      final DawgNode equivalent = minimized.putIfAbsent(new Signature(node), node);
+      if (null != equivalent || node != path[i]) {
+        path[i - 1].addEdge(previous[i - 1], null != equivalent ? equivalent : node);
+      }
+    }
+  }
+
+  /**
+   * Moves the edges of a node with many of them into a tree, as
+   * {@link DawgNode#DawgNode()} holds them, so following one takes time
+   * logarithmic in their number.  Nodes are built with their edges in an
+   * array, in the order of their labels, which is smaller and faster to
+   * follow while there are few of them.
+   * @param node Node whose edges are all added.
+   * @return The node, or a copy of it with its edges in a tree.
+   */
+  private static DawgNode compact(final DawgNode node) {
+    final Char2ObjectMap<DawgNode> edges = node.edges();
+    return edges.size() <= MAX_ARRAY_EDGES
+      ? node
+      : node(node.isFinal(), new Char2ObjectRBTreeMap<>(edges));
+  }
+
+  /**
+   * Builds a node.
+   * @param isFinal Whether the node is final.
+   * @param edges Holds the edges of the node.
+   * @return New node.
+   */
+  private static DawgNode node(final boolean isFinal, final Char2ObjectMap<DawgNode> edges) {
+    return isFinal ? new FinalDawgNode(edges) : new DawgNode(edges);
+  }
+
+  /**
+   * Identifies a node with minimized children by its finality and edges, so
+   * equivalent nodes have equal signatures.
+   */
+  private static final class Signature {
+
+    /**
+     * Whether the node is final.
+     */
+    private final boolean isFinal;
+
+    /**
+     * Labels of the edges of the node, in order.
+     */
+    private final char[] labels;
+
+    /**
+     * Children of the node, in the order of their labels.
+     */
+    private final DawgNode[] children;
+
+    /**
+     * Hash of the signature.
+     */
+    private final int hash;
+
+    /**
+     * Constructs the signature of a node.
+     * @param node Node whose children are minimized.
+     */
+    private Signature(final DawgNode node) {
+      final Char2ObjectMap<DawgNode> edges = node.edges();
+      this.isFinal = node.isFinal();
+      this.labels = new char[edges.size()];
+      this.children = new DawgNode[edges.size()];
+      int i = 0;
+      int h = isFinal ? 1 : 0;
+      for (final Char2ObjectMap.Entry<DawgNode> edge : edges.char2ObjectEntrySet()) {
+        labels[i] = edge.getCharKey();
+        children[i] = edge.getValue();
+        h = 31 * (31 * h + labels[i]) + System.identityHashCode(children[i]);
+        i += 1;
+      }
+      this.hash = h;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object object) {
+      if (!(object instanceof Signature)) {
+        return false;
+      }
+      final Signature other = (Signature) object;
+      if (hash != other.hash || isFinal != other.isFinal
+          || !Arrays.equals(labels, other.labels)) {
+        return false;
+      }
+      for (int i = 0; i < children.length; i += 1) {
+        if (children[i] != other.children[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -1,10 +1,10 @@
 package com.github.liblevenshtein;
 
-import org.apache.commons.lang3.StringEscapeUtils;
-
 import lombok.experimental.ExtensionMethod;
 
 import com.github.liblevenshtein.util.HighlightUtils;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template.Slot;
 
 /**
  * Prints a query term and spelling candidate, with syntax highlighting.
@@ -12,25 +12,40 @@ import com.github.liblevenshtein.util.HighlightUtils;
 @ExtensionMethod(HighlightUtils.class)
 public class StringColorPrinter extends AbstractPrinter {
 
+  /**
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  public StringColorPrinter(final OutputBuffer output) {
+    super(output);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  @SuppressWarnings("unchecked")
-  public void print(
-      final StringBuilder buffer,
-      final String escapedQuery,
-      final Object object) {
-    buffer.setLength(0);
-    final String spellingCandidate = (String) object;
-    final String escapedCandidate =
-      StringEscapeUtils.escapeJava(spellingCandidate);
+  protected StringBuilder layout(final StringBuilder buffer) {
     buffer.mode(HighlightUtils.BOLD);
     highlightTabulator(buffer, "| ");
-    highlightString(buffer, escapedQuery);
+    highlightString(buffer, Slot.QUERY.placeholder());
     highlightOperator(buffer, " ~ ");
-    highlightString(buffer, escapedCandidate);
-    buffer.end();
-    System.out.println(buffer.toString());
+    highlightString(buffer, Slot.CANDIDATE.placeholder());
+    return buffer.end();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected StringBuilder layoutSource(final StringBuilder buffer) {
+    return highlightSource(buffer, Slot.SOURCE.placeholder());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected StringBuilder layoutTruncation(final StringBuilder buffer) {
+    return highlightTruncation(buffer);
   }
 }
@@ -1,33 +1,33 @@
 package com.github.liblevenshtein;
 
-import org.apache.commons.lang3.StringEscapeUtils;
+import com.github.liblevenshtein.util.OutputBuffer;
+import com.github.liblevenshtein.util.Template.Slot;
 
 /**
  * Prints a query term and spelling candidate, without syntax highlighting.
  */
 public class StringPrinter extends AbstractPrinter {
 
+  /**
+   * Constructs a new printer.
+   * @param output Buffers printed messages.
+   */
+  public StringPrinter(final OutputBuffer output) {
+    super(output);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  @SuppressWarnings("unchecked")
-  public void print(
-      final StringBuilder buffer,
-      final String escapedQuery,
-      final Object object) {
-    buffer.setLength(0);
-    final String spellingCandidate = (String) object;
-    final String escapedCandidate =
-      StringEscapeUtils.escapeJava(spellingCandidate);
-    buffer.append("| ")
+  protected StringBuilder layout(final StringBuilder buffer) {
+    return buffer.append("| ")
       .append('\"')
-        .append(escapedQuery)
+        .append(Slot.QUERY.placeholder())
       .append('\"')
       .append(" ~ ")
       .append('\"')
-        .append(escapedCandidate)
+        .append(Slot.CANDIDATE.placeholder())
       .append('\"');
-    System.out.println(buffer.toString());
   }
 }
@@ -0,0 +1,198 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+/**
+ * Serializes {@link WeightedDictionary}s as a compact, binary stream.  After a
+ * magic number and version, the stream holds the number of terms and then
+ * each term in dictionary order, front-coded against the one before it: the
+ * length of their common prefix, the remaining characters, and the term's
+ * frequency.  Every number, including each character, is a variable-length
+ * integer of seven bits per byte, so small frequencies and ASCII characters
+ * take one byte each.
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class WeightedSerializer extends AbstractWeightedSerializer {
+
+  /**
+   * Leading bytes of every weighted dictionary stream.
+   */
+  private static final byte[] MAGIC = {'L', 'L', 'W', 'D'};
+
+  /**
+   * Version of the stream layout.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Bits of a variable-length integer held by each byte.
+   */
+  private static final int VARINT_BITS = 7;
+
+  /**
+   * Masks the bits of a variable-length integer held by each byte.
+   */
+  private static final int VARINT_MASK = 0x7F;
+
+  /**
+   * Marks bytes of a variable-length integer that are followed by more.
+   */
+  private static final int VARINT_MORE = 0x80;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void write(
+      final WeightedDictionary dictionary,
+      final OutputStream stream) throws IOException {
+    final DataOutputStream output =
+      new DataOutputStream(new BufferedOutputStream(stream));
+    output.write(MAGIC);
+    writeVarint(output, VERSION);
+    writeVarint(output, dictionary.size());
+    final StringBuilder previous = new StringBuilder();
+    try {
+      dictionary.terms((term, frequency) -> {
+        try {
+          writeTerm(output, previous, term, frequency);
+        }
+        catch (final IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+    }
+    catch (final UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+    output.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected WeightedDictionary read(final InputStream stream) throws IOException {
+    final DataInputStream input =
+      new DataInputStream(new BufferedInputStream(stream));
+    final byte[] magic = new byte[MAGIC.length];
+    input.readFully(magic);
+    if (!Arrays.equals(MAGIC, magic)) {
+      throw new IOException("Stream is not a weighted dictionary");
+    }
+    final int version = readVarint(input);
+    if (VERSION != version) {
+      final String message = String.format(
+        "Unsupported weighted-dictionary version [%d]", version);
+      throw new IOException(message);
+    }
+
+    final int size = readVarint(input);
+    final int[] frequencies = new int[size];
+    final SortedDawg dictionary = new SortedDawg();
+    char[] term = new char[0];
+    String previous = null;
+    for (int rank = 0; rank < size; rank += 1) {
+      final int common = readVarint(input);
+      final int suffix = readVarint(input);
+      if (null == previous ? common > 0 : common > previous.length()) {
+        throw new IOException("Weighted dictionary is corrupt: bad prefix length");
+      }
+      if (term.length < common + suffix) {
+        term = Arrays.copyOf(term, common + suffix);
+      }
+      for (int i = common; i < common + suffix; i += 1) {
+        term[i] = (char) readVarint(input);
+      }
+      final String current = new String(term, 0, common + suffix);
+      if (null != previous && previous.compareTo(current) >= 0) {
+        throw new IOException("Weighted dictionary is corrupt: terms are not sorted");
+      }
+      dictionary.add(current);
+      frequencies[rank] = readVarint(input);
+      previous = current;
+    }
+    dictionary.finish();
+    return new WeightedDictionary(dictionary, frequencies);
+  }
+
+  /**
+   * Writes a term, front-coded against the one before it, and its frequency.
+   * @param output Receives the term.
+   * @param previous Term written before this one, which becomes this one.
+   * @param term Term to write.
+   * @param frequency Frequency of the term.
+   * @throws IOException If the term cannot be written.
+   */
+  private static void writeTerm(
+      final DataOutputStream output,
+      final StringBuilder previous,
+      final CharSequence term,
+      final int frequency) throws IOException {
+    int common = 0;
+    while (common < previous.length() && common < term.length()
+        && previous.charAt(common) == term.charAt(common)) {
+      common += 1;
+    }
+    writeVarint(output, common);
+    writeVarint(output, term.length() - common);
+    for (int i = common; i < term.length(); i += 1) {
+      writeVarint(output, term.charAt(i));
+    }
+    writeVarint(output, frequency);
+    previous.setLength(common);
+    previous.append(term, common, term.length());
+  }
+
+  /**
+   * Writes a non-negative integer in as few bytes as it needs.
+   * @param output Receives the integer.
+   * @param value Integer to write.
+   * @throws IOException If the integer cannot be written.
+   */
+  private static void writeVarint(final DataOutputStream output, final int value)
+      throws IOException {
+    int remaining = value;
+    while ((remaining & ~VARINT_MASK) != 0) {
+      output.writeByte((remaining & VARINT_MASK) | VARINT_MORE);
+      remaining >>>= VARINT_BITS;
+    }
+    output.writeByte(remaining);
+  }
+
+  /**
+   * Reads a non-negative integer written by
+   * {@link #writeVarint(DataOutputStream, int)}.
+   * @param input Provides the integer.
+   * @return Integer read.
+   * @throws IOException If the integer cannot be read.
+   */
+  private static int readVarint(final DataInputStream input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += VARINT_BITS) {
+      final int b = input.read();
+      if (b < 0) {
+        throw new IOException("Weighted dictionary is truncated");
+      }
+      value |= (b & VARINT_MASK) << shift;
+      if ((b & VARINT_MORE) == 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+    throw new IOException("Weighted dictionary is corrupt: bad integer");
+  }
+}
@@ -0,0 +1,122 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongRBTreeMap;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+/**
+ * Serializes {@link WeightedDictionary}s as UTF-8 text, one term per line,
+ * each followed by a tab and its frequency (the layout of most word-frequency
+ * lists).  Lines without a tab are terms with a frequency of zero, empty lines
+ * are skipped, and the frequencies of repeated terms are summed, so terms may
+ * be listed in any order.  Sums beyond {@link Integer#MAX_VALUE} are clamped
+ * to it.
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class WeightedTextSerializer extends AbstractWeightedSerializer {
+
+  /**
+   * Separates each term from its frequency.
+   */
+  private static final char SEPARATOR = '\t';
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void write(
+      final WeightedDictionary dictionary,
+      final OutputStream stream) throws IOException {
+    final Writer writer = new BufferedWriter(
+      new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+    try {
+      dictionary.terms((term, frequency) -> {
+        try {
+          writer.append(term).append(SEPARATOR)
+            .append(Integer.toString(frequency)).append('\n');
+        }
+        catch (final IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+    }
+    catch (final UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+    writer.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected WeightedDictionary read(final InputStream stream) throws IOException {
+    // Frequencies are summed as longs, which no int-sized list can overflow
+    final Object2LongRBTreeMap<String> frequencies = new Object2LongRBTreeMap<>();
+    final BufferedReader reader = new BufferedReader(
+      new InputStreamReader(stream, StandardCharsets.UTF_8));
+    String line;
+    int lineNumber = 0;
+    while (null != (line = reader.readLine())) {
+      lineNumber += 1;
+      if (!line.isEmpty()) {
+        final int separator = line.lastIndexOf(SEPARATOR);
+        if (-1 == separator) {
+          frequencies.addTo(line, 0);
+        }
+        else {
+          frequencies.addTo(line.substring(0, separator),
+            frequency(line.substring(separator + 1), lineNumber));
+        }
+      }
+    }
+
+    final SortedDawg dictionary = new SortedDawg();
+    final int[] ranked = new int[frequencies.size()];
+    int rank = 0;
+    for (final Object2LongMap.Entry<String> entry : frequencies.object2LongEntrySet()) {
+      dictionary.add(entry.getKey());
+      ranked[rank] = (int) Math.min(Integer.MAX_VALUE, entry.getLongValue());
+      rank += 1;
+    }
+    dictionary.finish();
+    return new WeightedDictionary(dictionary, ranked);
+  }
+
+  /**
+   * Parses the frequency of a term.
+   * @param value Text of the frequency.
+   * @param lineNumber Line holding the frequency, for error messages.
+   * @return Frequency of the term.
+   * @throws IOException If the frequency is not a non-negative integer.
+   */
+  private static int frequency(final String value, final int lineNumber)
+      throws IOException {
+    try {
+      final int frequency = Integer.parseInt(value.trim());
+      if (frequency >= 0) {
+        return frequency;
+      }
+    }
+    catch (final NumberFormatException exception) {
+      // Reported below
+    }
+    final String message = String.format(
+      "Expected a non-negative frequency on line [%d], but found [%s]",
+        lineNumber, value);
+    throw new IOException(message);
+  }
+}
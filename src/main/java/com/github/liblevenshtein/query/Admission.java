@@ -0,0 +1,176 @@
+package com.github.liblevenshtein.query;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides whether, and how, to run each query, according to its cost as
+ * predicted by a {@link CostModel}.  Queries predicted to spend at most some
+ * number of steps are run as they are; the rest are handled according to an
+ * {@link AdmissionPolicy}.
+ *
+ * <p>Instances are thread-safe, and one is meant to be shared by the engines of
+ * every worker, so that queued queries take turns across workers.</p>
+ */
+@Slf4j
+public class Admission {
+
+  /**
+   * Predicts the cost of each query.
+   */
+  private final CostModel model;
+
+  /**
+   * What to do with expensive queries.
+   * -- GETTER --
+   * What to do with expensive queries.
+   * @return What to do with expensive queries.
+   */
+  @Getter
+  private final AdmissionPolicy policy;
+
+  /**
+   * Maximum predicted number of steps of a query that is run as it is.
+   * -- GETTER --
+   * Maximum predicted number of steps of a query that is run as it is.
+   * @return Maximum predicted number of steps of a query that is run as it is.
+   */
+  @Getter
+  private final double maxCost;
+
+  /**
+   * Lets one expensive query run at a time, in the order they arrive.
+   */
+  private final Semaphore queue = new Semaphore(1, true);
+
+  /**
+   * Number of queries run as they are.
+   */
+  private final LongAdder admitted = new LongAdder();
+
+  /**
+   * Number of queries run at a lower distance.
+   */
+  private final LongAdder downgraded = new LongAdder();
+
+  /**
+   * Number of queries run once no other expensive query was.
+   */
+  private final LongAdder queued = new LongAdder();
+
+  /**
+   * Number of queries not run.
+   */
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Constructs a new admission controller.
+   * @param model Predicts the cost of each query.
+   * @param policy What to do with expensive queries.
+   * @param maxCost Maximum predicted number of steps of a query that is run as
+   *   it is.
+   */
+  public Admission(
+      @NonNull final CostModel model,
+      @NonNull final AdmissionPolicy policy,
+      final double maxCost) {
+    this.model = model;
+    this.policy = policy;
+    this.maxCost = maxCost;
+  }
+
+  /**
+   * Runs a query, if it is admitted.
+   * @param term Query term.
+   * @param maxDistance Maximum distance of the query.
+   * @param query Runs the query, at the maximum distance it is given.
+   * @return Whether the query was run in full; if not, its spelling
+   *   candidates (if any) should be marked as truncated.
+   */
+  public boolean admit(
+      @NonNull final String term,
+      final int maxDistance,
+      @NonNull final IntConsumer query) {
+    final double cost = model.work(term.length(), maxDistance);
+    if (cost <= maxCost) {
+      admitted.increment();
+      query.accept(maxDistance);
+      return true;
+    }
+
+    switch (policy) {
+      case DOWNGRADE:
+        for (int distance = maxDistance - 1; distance >= 0; distance -= 1) {
+          if (model.work(term.length(), distance) <= maxCost) {
+            log.debug("Downgrading query [{}] from distance [{}] to [{}], since it is "
+                + "predicted to spend [{}] steps", term, maxDistance, distance, (long) cost);
+            downgraded.increment();
+            query.accept(distance);
+            return false;
+          }
+        }
+        break;
+      case QUEUE:
+        try {
+          queue.acquire();
+        }
+        catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        try {
+          queued.increment();
+          query.accept(maxDistance);
+          return true;
+        }
+        finally {
+          queue.release();
+        }
+      default:
+        break;
+    }
+
+    log.debug("Rejecting query [{}], since it is predicted to spend [{}] steps and "
+        + "find [{}] spelling candidates", term, (long) cost,
+        (long) model.results(term.length(), maxDistance));
+    rejected.increment();
+    return false;
+  }
+
+  /**
+   * Number of queries run as they are.
+   * @return Number of queries run as they are.
+   */
+  public long admitted() {
+    return admitted.sum();
+  }
+
+  /**
+   * Number of queries run at a lower distance.
+   * @return Number of queries run at a lower distance.
+   */
+  public long downgraded() {
+    return downgraded.sum();
+  }
+
+  /**
+   * Number of queries run once no other expensive query was.
+   * @return Number of queries run once no other expensive query was.
+   */
+  public long queued() {
+    return queued.sum();
+  }
+
+  /**
+   * Number of queries not run.
+   * @return Number of queries not run.
+   */
+  public long rejected() {
+    return rejected.sum();
+  }
+}
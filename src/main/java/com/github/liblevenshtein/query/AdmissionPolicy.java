@@ -0,0 +1,24 @@
+package com.github.liblevenshtein.query;
+
+/**
+ * What {@link Admission} does with a query whose predicted cost exceeds its
+ * maximum.
+ */
+public enum AdmissionPolicy {
+
+  /** Answers the query with no spelling candidates, marked as truncated. */
+  REJECT,
+
+  /**
+   * Lowers the maximum distance of the query until its predicted cost is
+   * within the maximum, and marks its spelling candidates as truncated.
+   */
+  DOWNGRADE,
+
+  /**
+   * Answers the query in full, but only once no other expensive query is
+   * running, so expensive queries take turns rather than crowding out cheap
+   * ones.
+   */
+  QUEUE
+}
@@ -0,0 +1,98 @@
+package com.github.liblevenshtein.query;
+
+import lombok.NonNull;
+
+/**
+ * Queries another engine, but only as its {@link Admission} allows.  Queries
+ * that are downgraded or rejected are marked as truncated, once, however many
+ * times the other engine marks them itself.
+ *
+ * <p>Instances are not thread-safe; build one per thread, sharing the
+ * admission controller.</p>
+ */
+public class AdmittedQueryEngine implements QueryEngine {
+
+  /**
+   * Engine queried for admitted queries.
+   */
+  private final QueryEngine engine;
+
+  /**
+   * Decides whether, and how, to run each query.
+   */
+  private final Admission admission;
+
+  /**
+   * Visits the spelling candidates of the current query term.
+   */
+  private CandidateVisitor queryVisitor = null;
+
+  /**
+   * Whether the other engine marked the current query as truncated.
+   */
+  private boolean truncated = false;
+
+  /**
+   * Forwards spelling candidates to {@link #queryVisitor}, holding back whether
+   * they were truncated.
+   */
+  private final CandidateVisitor forwarder = new CandidateVisitor() {
+    @Override
+    public void visit(final CharSequence term, final int distance) {
+      queryVisitor.visit(term, distance);
+    }
+
+    @Override
+    public void source(final String name) {
+      queryVisitor.source(name);
+    }
+
+    @Override
+    public void truncated() {
+      truncated = true;
+    }
+  };
+
+  /**
+   * Constructs a new engine that queries another, as an admission controller
+   * allows.
+   * @param engine Engine queried for admitted queries.
+   * @param admission Decides whether, and how, to run each query.
+   */
+  public AdmittedQueryEngine(
+      @NonNull final QueryEngine engine,
+      @NonNull final Admission admission) {
+    this.engine = engine;
+    this.admission = admission;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int maxDistance() {
+    return engine.maxDistance();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int maxDistance,
+      @NonNull final CandidateVisitor visitor) {
+    queryVisitor = visitor;
+    this.truncated = false;
+    try {
+      final boolean complete = admission.admit(term, maxDistance,
+        distance -> engine.query(term, distance, forwarder));
+      if (!complete || truncated) {
+        visitor.truncated();
+      }
+    }
+    finally {
+      queryVisitor = null;
+    }
+  }
+}
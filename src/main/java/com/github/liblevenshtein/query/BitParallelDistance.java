@@ -0,0 +1,250 @@
+package com.github.liblevenshtein.query;
+
+import it.unimi.dsi.fastutil.chars.Char2LongOpenHashMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Computes the distance between two terms directly, without a dictionary.
+ * When one of the terms fits in a machine word, its standard and transposition
+ * distances are computed bit-parallel, after Myers ("A fast bit-vector
+ * algorithm for approximate string matching based on dynamic programming",
+ * 1999) and Hyyr&ouml; ("Explaining and extending the bit-parallel approximate
+ * string matching algorithm of Myers", 2001): each column of the
+ * dynamic-programming matrix is encoded as the vertical differences between
+ * its cells, one bit per character of one term, and is computed from
+ * the last in a constant number of word operations, so a pair of terms costs
+ * one step per character of the other term rather than one per cell.
+ *
+ * <p>Merge-and-split distances, and pairs whose terms are both longer than a
+ * word, are computed by a {@link DistanceMatrix} instead, across the diagonal
+ * band of cells within the maximum distance.</p>
+ *
+ * <p>Either way, terms whose lengths differ by more than the maximum distance
+ * are rejected without looking at them, and the computation stops as soon as
+ * the distance is known to be beyond the maximum.  Scratch space is kept
+ * between pairs; instances are not thread-safe.</p>
+ */
+public final class BitParallelDistance {
+
+  /**
+   * Longest term whose columns fit in a machine word.
+   */
+  public static final int MAX_WORD_LENGTH = Long.SIZE;
+
+  /**
+   * Number of characters whose match masks are kept in an array, rather than
+   * a hash table.
+   */
+  private static final int DIRECT_CHARS = 256;
+
+  /**
+   * Elementary operations for transforming one term into the other.
+   * -- GETTER --
+   * Elementary operations for transforming one term into the other.
+   * @return Elementary operations for transforming one term into the other.
+   */
+  @Getter
+  private final Algorithm algorithm;
+
+  /**
+   * Whether adjacent characters may be transposed at the cost of one edit.
+   */
+  private final boolean transposition;
+
+  /**
+   * Computes the distances that are not computed bit-parallel.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Positions at which each of the first {@link #DIRECT_CHARS} characters
+   * occurs in the current pattern, one bit per position.
+   */
+  private final long[] directMasks = new long[DIRECT_CHARS];
+
+  /**
+   * Positions at which every other character occurs in the current pattern.
+   */
+  private final Char2LongOpenHashMap masks = new Char2LongOpenHashMap();
+
+  /**
+   * Constructs a new distance for some algorithm.
+   * @param algorithm Elementary operations for transforming one term into the
+   *   other.
+   */
+  public BitParallelDistance(@NonNull final Algorithm algorithm) {
+    this.algorithm = algorithm;
+    this.transposition = Algorithm.TRANSPOSITION == algorithm;
+    this.matrix = new DistanceMatrix(algorithm);
+  }
+
+  /**
+   * Distance between two terms, if it is within some maximum.
+   * @param left One term.
+   * @param right The other term.
+   * @param maxDistance Largest distance of interest.
+   * @return Distance between the terms, or maxDistance + 1 if it is beyond
+   *   maxDistance.
+   */
+  public int between(
+      @NonNull final String left,
+      @NonNull final String right,
+      final int maxDistance) {
+    final String longer = left.length() >= right.length() ? left : right;
+    final String shorter = longer == left ? right : left;
+    // No distance exceeds the length of the longer term, so neither does the
+    // bound, and it cannot overflow
+    final int bound = Math.max(0, Math.min(maxDistance, longer.length()));
+    if (longer.length() - shorter.length() > bound) {
+      return bound + 1;
+    }
+    if (shorter.isEmpty()) {
+      return longer.length();
+    }
+    if (Algorithm.MERGE_AND_SPLIT == algorithm) {
+      return banded(shorter, longer, bound);
+    }
+    // The pattern is encoded in a word and the text is stepped through, so
+    // the longer term is the pattern if it fits
+    if (longer.length() <= MAX_WORD_LENGTH) {
+      return bitParallel(longer, shorter, bound);
+    }
+    if (shorter.length() <= MAX_WORD_LENGTH) {
+      return bitParallel(shorter, longer, bound);
+    }
+    return banded(shorter, longer, bound);
+  }
+
+  /**
+   * Distance between two terms, computed one column of the
+   * dynamic-programming matrix at a time, one bit per cell.
+   * @param pattern Term no longer than {@link #MAX_WORD_LENGTH}, which
+   *   indexes the rows of the matrix.
+   * @param text Other term, which indexes its columns.
+   * @param bound Largest distance of interest.
+   * @return Distance between the terms, or bound + 1 if it is beyond bound.
+   */
+  private int bitParallel(final String pattern, final String text, final int bound) {
+    final int m = pattern.length();
+    final int n = text.length();
+    for (int i = 0; i < m; i += 1) {
+      mask(pattern.charAt(i), 1L << i);
+    }
+
+    final long last = 1L << (m - 1);
+    long positive = -1L;
+    long negative = 0L;
+    long diagonal = 0L;
+    long previousMatches = 0L;
+    int score = m;
+    int j = 0;
+    while (j < n) {
+      final long matches = mask(text.charAt(j));
+      // Cells whose diagonal difference is zero: matches, and the cells they
+      // (or a transposition) carry down the column
+      final long transposed = transposition
+        ? ((~diagonal & matches) << 1) & previousMatches
+        : 0L;
+      diagonal = zeroDiagonal(matches, positive, negative) | transposed;
+      long horizontalPositive = negative | ~(diagonal | positive);
+      long horizontalNegative = diagonal & positive;
+      if (0L != (horizontalPositive & last)) {
+        score += 1;
+      }
+      else if (0L != (horizontalNegative & last)) {
+        score -= 1;
+      }
+      j += 1;
+      // Each remaining character lowers the distance by at most one
+      if (score - (n - j) > bound) {
+        break;
+      }
+      horizontalPositive = (horizontalPositive << 1) | 1L;
+      horizontalNegative <<= 1;
+      positive = horizontalNegative | ~(diagonal | horizontalPositive);
+      negative = horizontalPositive & diagonal;
+      previousMatches = matches;
+    }
+
+    clearMasks(pattern);
+    return j < n || score > bound ? bound + 1 : score;
+  }
+
+  /**
+   * Cells of a column whose diagonal difference is zero, without
+   * transpositions: matches, and the cells they carry down the column.
+   * @param matches Positions at which the character of the column occurs in
+   *   the pattern.
+   * @param positive Cells of the last column whose vertical difference is
+   *   positive.
+   * @param negative Cells of the last column whose vertical difference is
+   *   negative.
+   * @return Cells of the column whose diagonal difference is zero.
+   */
+  private static long zeroDiagonal(final long matches, final long positive, final long negative) {
+    final long carried = ((matches & positive) + positive) ^ positive;
+    return carried | matches | negative;
+  }
+
+  /**
+   * Distance between two terms, computed one row of the dynamic-programming
+   * matrix at a time, across the diagonal band within the bound.
+   * @param query Term that indexes the cells of each row.
+   * @param path Term that indexes the rows.
+   * @param bound Largest distance of interest.
+   * @return Distance between the terms, or bound + 1 if it is beyond bound.
+   */
+  private int banded(final String query, final String path, final int bound) {
+    matrix.prepare(query, bound);
+    matrix.ensureDepth(path.length());
+    for (int depth = 1; depth <= path.length(); depth += 1) {
+      if (matrix.nextRow(depth, path.charAt(depth - 1)) > bound) {
+        return bound + 1;
+      }
+    }
+    return Math.min(matrix.distance(path.length()), bound + 1);
+  }
+
+  /**
+   * Clears the match masks of the characters of a pattern, for the next.
+   * @param pattern Pattern whose masks are cleared.
+   */
+  private void clearMasks(final String pattern) {
+    for (int i = 0; i < pattern.length(); i += 1) {
+      final char c = pattern.charAt(i);
+      if (c < DIRECT_CHARS) {
+        directMasks[c] = 0L;
+      }
+    }
+    if (!masks.isEmpty()) {
+      masks.clear();
+    }
+  }
+
+  /**
+   * Adds a position to the match mask of a character of the pattern.
+   * @param c Character of the pattern.
+   * @param position Bit of its position.
+   */
+  private void mask(final char c, final long position) {
+    if (c < DIRECT_CHARS) {
+      directMasks[c] |= position;
+    }
+    else {
+      masks.put(c, masks.get(c) | position);
+    }
+  }
+
+  /**
+   * Match mask of a character of the text.
+   * @param c Character of the text.
+   * @return Positions at which it occurs in the pattern.
+   */
+  private long mask(final char c) {
+    return c < DIRECT_CHARS ? directMasks[c] : masks.get(c);
+  }
+}
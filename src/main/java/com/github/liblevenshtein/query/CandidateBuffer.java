@@ -0,0 +1,138 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Spelling candidates found by a depth-first traversal, held back-to-back in
+ * one array until the traversal ends, so they may be visited in the same
+ * order as the transducers of
+ * {@link com.github.liblevenshtein.transducer.factory.TransducerBuilder} would
+ * generate them: by length, then by the order they were found.
+ *
+ * <p>All scratch space is kept between queries, so once it has grown to fit
+ * the most spelling candidates of any query, collecting them does not
+ * allocate.  Instances are not thread-safe.</p>
+ */
+final class CandidateBuffer {
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Exposes spelling candidates to visitors.
+   */
+  private final CharArraySequence candidate = new CharArraySequence();
+
+  /**
+   * Characters of the spelling candidates found so far, back-to-back.
+   */
+  private char[] arena = new char[INITIAL_CAPACITY];
+
+  /**
+   * Number of characters in {@link #arena}.
+   */
+  private int arenaLength = 0;
+
+  /**
+   * Offsets of the spelling candidates, within {@link #arena}.
+   */
+  private int[] offsets = new int[INITIAL_CAPACITY];
+
+  /**
+   * Distances of the spelling candidates.
+   */
+  private int[] distances = new int[INITIAL_CAPACITY];
+
+  /**
+   * Lengths of the spelling candidates.
+   */
+  private int[] lengths = new int[INITIAL_CAPACITY];
+
+  /**
+   * Number of spelling candidates found so far.
+   */
+  private int candidates = 0;
+
+  /**
+   * Length of the longest spelling candidate found so far.
+   */
+  private int maxLength = 0;
+
+  /**
+   * Indices of the spelling candidates, in the order they are visited.
+   */
+  private int[] order = new int[INITIAL_CAPACITY];
+
+  /**
+   * Histogram of spelling-candidate lengths, for ordering them.
+   */
+  private int[] counts = new int[INITIAL_CAPACITY];
+
+  /**
+   * Discards the spelling candidates of the previous query.
+   */
+  void clear() {
+    arenaLength = 0;
+    candidates = 0;
+    maxLength = 0;
+  }
+
+  /**
+   * Records a spelling candidate.
+   * @param path Holds the spelling candidate, from its start.
+   * @param length Length of the spelling candidate.
+   * @param distance Distance between the query term and spelling candidate.
+   */
+  void collect(final char[] path, final int length, final int distance) {
+    if (arena.length < arenaLength + length) {
+      arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaLength + length));
+    }
+    if (offsets.length == candidates) {
+      final int capacity = candidates << 1;
+      offsets = Arrays.copyOf(offsets, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      distances = Arrays.copyOf(distances, capacity);
+    }
+    System.arraycopy(path, 0, arena, arenaLength, length);
+    offsets[candidates] = arenaLength;
+    lengths[candidates] = length;
+    distances[candidates] = distance;
+    arenaLength += length;
+    candidates += 1;
+    maxLength = Math.max(maxLength, length);
+  }
+
+  /**
+   * Visits the spelling candidates, ordered by length and then by the order
+   * they were found (stable counting sort).
+   * @param visitor Visits each spelling candidate.
+   */
+  void visit(final CandidateVisitor visitor) {
+    if (counts.length < maxLength + 2) {
+      counts = new int[maxLength + 2];
+    }
+    Arrays.fill(counts, 0, maxLength + 2, 0);
+    for (int k = 0; k < candidates; k += 1) {
+      counts[lengths[k] + 1] += 1;
+    }
+    for (int length = 1; length <= maxLength + 1; length += 1) {
+      counts[length] += counts[length - 1];
+    }
+    if (order.length < candidates) {
+      order = new int[offsets.length];
+    }
+    for (int k = 0; k < candidates; k += 1) {
+      order[counts[lengths[k]]] = k;
+      counts[lengths[k]] += 1;
+    }
+    for (int j = 0; j < candidates; j += 1) {
+      final int k = order[j];
+      candidate.set(arena, offsets[k], lengths[k]);
+      visitor.visit(candidate, distances[k]);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.github.liblevenshtein.query;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * Constraints that spelling candidates must satisfy besides their distance:
+ * bounds on their length, a prefix they must begin with, and a glob pattern
+ * they must match.  Query engines apply the constraints while they traverse
+ * the dictionary, label by label, so branches that cannot lead to an accepted
+ * spelling candidate are pruned rather than generated and thrown away.
+ *
+ * <p>The filter is stepped along a path from the root of the dictionary: it
+ * starts in {@link #start()}, each label is read with
+ * {@link #step(int, int, char)}, which returns {@link #REJECT} once no
+ * extension of the path can be accepted, and {@link #accepts(int, int)} tells
+ * whether the path itself is accepted.</p>
+ *
+ * <p>Instances are not thread-safe, since their patterns are not; build one
+ * per thread.</p>
+ */
+@Setter
+public class CandidateFilter {
+
+  /**
+   * State of paths none of whose extensions may be accepted.
+   */
+  public static final int REJECT = Glob.DEAD;
+
+  /**
+   * Minimum length of spelling candidates.
+   * -- GETTER --
+   * Minimum length of spelling candidates.
+   * @return Minimum length of spelling candidates.
+   */
+  @Getter
+  private int minLength = 0;
+
+  /**
+   * Maximum length of spelling candidates.
+   */
+  private int maxLength = Integer.MAX_VALUE;
+
+  /**
+   * Prefix spelling candidates must begin with.
+   */
+  @NonNull
+  private String prefix = "";
+
+  /**
+   * Pattern spelling candidates must match, or null to match any.
+   */
+  private Glob pattern = null;
+
+  /**
+   * Whether the filter constrains spelling candidates at all.
+   * @return Whether some spelling candidate may be rejected.
+   */
+  public boolean isConstrained() {
+    return minLength > 0
+      || maxLength < Integer.MAX_VALUE
+      || !prefix.isEmpty()
+      || null != pattern;
+  }
+
+  /**
+   * State of the empty path.
+   * @return State of the empty path.
+   */
+  public int start() {
+    return null == pattern ? 0 : pattern.start();
+  }
+
+  /**
+   * State of a path after extending it by a label.
+   * @param state State of the path.
+   * @param depth Length of the path, before it is extended.
+   * @param label Label extending the path.
+   * @return State of the extended path, or {@link #REJECT} if neither it nor
+   *   any of its extensions may be accepted.
+   */
+  public int step(final int state, final int depth, final char label) {
+    if (depth >= maxLength
+        || depth < prefix.length() && label != prefix.charAt(depth)) {
+      return REJECT;
+    }
+    return null == pattern ? state : pattern.step(state, label);
+  }
+
+  /**
+   * Whether a path is accepted as a spelling candidate.
+   * @param state State of the path.
+   * @param length Length of the path.
+   * @return Whether the path is accepted.
+   */
+  public boolean accepts(final int state, final int length) {
+    return REJECT != state
+      && length >= Math.max(minLength, prefix.length())
+      && (null == pattern || pattern.accepts(state));
+  }
+
+  /**
+   * Whether a spelling candidate is accepted.
+   * @param candidate Spelling candidate.
+   * @return Whether the spelling candidate is accepted.
+   */
+  public boolean accepts(@NonNull final CharSequence candidate) {
+    int state = start();
+    for (int i = 0; i < candidate.length() && REJECT != state; i += 1) {
+      state = step(state, i, candidate.charAt(i));
+    }
+    return accepts(state, candidate.length());
+  }
+}
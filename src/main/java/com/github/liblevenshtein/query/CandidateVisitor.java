@@ -0,0 +1,34 @@
+package com.github.liblevenshtein.query;
+
+/**
+ * Functional interface for methods that visit spelling candidates, without
+ * requiring them to be boxed as objects.
+ */
+@FunctionalInterface
+public interface CandidateVisitor {
+
+  /**
+   * Visits a spelling candidate.
+   * @param term Spelling candidate.  It is only valid for the duration of the
+   *   call, so implementations must copy it if they need to keep it.
+   * @param distance Distance between the query term and spelling candidate.
+   */
+  void visit(CharSequence term, int distance);
+
+  /**
+   * Specifies the dictionary whose spelling candidates are visited next.  Query
+   * engines over several dictionaries call this before visiting the spelling
+   * candidates of each; engines over one never do.
+   * @param name Name of the dictionary.
+   */
+  default void source(final String name) {
+  }
+
+  /**
+   * Specifies that the query was cut short by its {@link QueryBudget}, so the
+   * spelling candidates visited are only those found before it ran out.
+   * Query engines call this after visiting them.
+   */
+  default void truncated() {
+  }
+}
@@ -0,0 +1,176 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Queries a cascade of dictionaries, such as a small domain glossary backed by
+ * a large, general dictionary.  The dictionaries are consulted in order, and
+ * each is consulted only while those before it have found fewer than some
+ * number of spelling candidates for the query term; by default, only when
+ * they have found none.
+ *
+ * <p>The engine of each dictionary is built the first time the dictionary is
+ * consulted, so a dictionary that is never fallen through to is never loaded
+ * (when its engines are built from a lazily-loaded dictionary).  Before
+ * visiting the spelling candidates of a dictionary, the visitor is told its
+ * name, with {@link CandidateVisitor#source(String)}.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread, sharing the
+ * dictionaries behind their engines.</p>
+ */
+public class CascadeQueryEngine implements QueryEngine {
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Number of spelling candidates that must be found before the rest of the
+   * cascade is skipped.
+   * -- GETTER --
+   * Number of spelling candidates that must be found before the rest of the
+   * cascade is skipped.
+   * @return Number of spelling candidates that must be found before the rest
+   *   of the cascade is skipped.
+   */
+  @Getter
+  private final int minCandidates;
+
+  /**
+   * Name of each dictionary, in the order they are consulted.
+   */
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Builds the engine of each dictionary.
+   */
+  private final List<Supplier<QueryEngine>> builders = new ArrayList<>();
+
+  /**
+   * Engine of each dictionary, or null until it is first consulted.
+   */
+  private final List<QueryEngine> engines = new ArrayList<>();
+
+  /**
+   * Visits the spelling candidates of the current query term.
+   */
+  private CandidateVisitor queryVisitor = null;
+
+  /**
+   * Number of spelling candidates found for the current query term.
+   */
+  private int found = 0;
+
+  /**
+   * Whether the query of any dictionary was cut short, for the current query
+   * term.
+   */
+  private boolean truncated = false;
+
+  /**
+   * Counts the spelling candidates of each dictionary as it passes them on,
+   * and notes whether its query was cut short.
+   */
+  private final CandidateVisitor counter = new CandidateVisitor() {
+    @Override
+    public void visit(final CharSequence term, final int distance) {
+      found += 1;
+      queryVisitor.visit(term, distance);
+    }
+
+    @Override
+    public void truncated() {
+      truncated = true;
+    }
+  };
+
+  /**
+   * Constructs a new, empty cascade.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   * @param minCandidates Number of spelling candidates that must be found
+   *   before the rest of the cascade is skipped.
+   * @throws IllegalArgumentException If minCandidates is not positive.
+   */
+  public CascadeQueryEngine(final int maxDistance, final int minCandidates) {
+    if (minCandidates < 1) {
+      final String message = String.format(
+        "Expected a positive number of spelling candidates, but received [%d]",
+          minCandidates);
+      throw new IllegalArgumentException(message);
+    }
+    this.maxDistance = maxDistance;
+    this.minCandidates = minCandidates;
+  }
+
+  /**
+   * Appends a dictionary to the cascade.
+   * @param name Name of the dictionary, with which its spelling candidates
+   *   are tagged.
+   * @param engine Builds the engine of the dictionary, the first time it is
+   *   consulted.
+   * @return This {@link CascadeQueryEngine}, for fluency.
+   */
+  public CascadeQueryEngine tier(
+      @NonNull final String name,
+      @NonNull final Supplier<QueryEngine> engine) {
+    names.add(name);
+    builders.add(engine);
+    engines.add(null);
+    return this;
+  }
+
+  /**
+   * Number of dictionaries in the cascade.
+   * @return Number of dictionaries in the cascade.
+   */
+  public int tiers() {
+    return names.size();
+  }
+
+  /**
+   * Visits the spelling candidates of a query term from each dictionary in
+   * turn, until enough of them have been found.
+   * @param term Query term.
+   * @param distance Maximum distance between the query term and spelling
+   *   candidates.
+   * @param visitor Visits each spelling candidate.
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    queryVisitor = visitor;
+    this.found = 0;
+    this.truncated = false;
+    try {
+      for (int i = 0; i < names.size() && found < minCandidates; i += 1) {
+        QueryEngine engine = engines.get(i);
+        if (null == engine) {
+          engine = builders.get(i).get();
+          engines.set(i, engine);
+        }
+        visitor.source(names.get(i));
+        engine.query(term, distance, counter);
+      }
+      if (truncated) {
+        visitor.truncated();
+      }
+    }
+    finally {
+      queryVisitor = null;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Iterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Predicts how expensive a query will be before it runs: how many steps of its
+ * {@link QueryBudget} it will spend, and how many spelling candidates it will
+ * find.
+ *
+ * <p>The prediction follows a query down the dictionary's
+ * {@link DictionaryProfile}.  At each depth, the prefixes still within the
+ * maximum distance are counted by the number of edits they have spent: of the
+ * children of each, the one labelled by the query term's next character
+ * spends no edit, and the rest spend one.  Query terms are assumed to be near
+ * terms of the dictionary, so that child is assumed to exist wherever the
+ * prefix has any children at all.  Insertions and deletions shift which
+ * character a prefix is aligned with, so a prefix that has spent e edits may
+ * be aligned along 2e + 1 diagonals; transpositions and merges give
+ * mismatched children further ways to survive.  Each
+ * surviving prefix spends one step for each of its children, and is a
+ * spelling candidate if it is a term whose distance, counting the rest of the
+ * query term as deleted, is within the maximum.</p>
+ *
+ * <p>Since the profile only knows mean branching factors, the predicted work
+ * is then scaled by the ratio of the steps actually spent by a few sample
+ * queries to the steps predicted for them; see
+ * {@link #calibrate(SortedDawg, int, int)}.</p>
+ *
+ * <p>Instances are thread-safe once calibrated.</p>
+ */
+public class CostModel {
+
+  /**
+   * Default, maximum number of sample queries for calibration.
+   */
+  public static final int DEFAULT_SAMPLES = 32;
+
+  /**
+   * Weight of the mismatched children of the standard distance.
+   */
+  private static final double STANDARD_WEIGHT = 1.0;
+
+  /**
+   * Weight of the mismatched children of the distance with transpositions.
+   */
+  private static final double TRANSPOSITION_WEIGHT = 1.25;
+
+  /**
+   * Weight of the mismatched children of the distance with merges and splits.
+   */
+  private static final double MERGE_AND_SPLIT_WEIGHT = 1.5;
+
+  /**
+   * Shape of the dictionary.
+   */
+  private final DictionaryProfile profile;
+
+  /**
+   * Elementary operations for transforming query terms into spelling
+   * candidates.
+   */
+  private final Algorithm algorithm;
+
+  /**
+   * Relative weight of the mismatched children of each prefix, according to
+   * the algorithm.
+   */
+  private final double mismatchWeight;
+
+  /**
+   * Ratio of actual to predicted steps, measured by calibration.
+   * -- GETTER --
+   * Ratio of actual to predicted steps, measured by calibration.
+   * @return Ratio of actual to predicted steps.
+   */
+  @Getter
+  private double scale = 1.0;
+
+  /**
+   * Constructs an uncalibrated model of the queries of a dictionary.
+   * @param profile Shape of the dictionary.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   */
+  public CostModel(
+      @NonNull final DictionaryProfile profile,
+      @NonNull final Algorithm algorithm) {
+    this.profile = profile;
+    this.algorithm = algorithm;
+    switch (algorithm) {
+      case TRANSPOSITION:
+        this.mismatchWeight = TRANSPOSITION_WEIGHT;
+        break;
+      case MERGE_AND_SPLIT:
+        this.mismatchWeight = MERGE_AND_SPLIT_WEIGHT;
+        break;
+      default:
+        this.mismatchWeight = STANDARD_WEIGHT;
+        break;
+    }
+  }
+
+  /**
+   * Profiles a dictionary and calibrates a model of its queries.
+   * @param dictionary Dictionary to model.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Maximum distance of the sample queries.
+   * @return Calibrated model of the queries of the dictionary.
+   */
+  public static CostModel of(
+      @NonNull final SortedDawg dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance) {
+    return new CostModel(DictionaryProfile.of(dictionary), algorithm)
+      .calibrate(dictionary, maxDistance, DEFAULT_SAMPLES);
+  }
+
+  /**
+   * Scales the model to match a dictionary's engine, by querying it for some
+   * of its own terms, spread evenly across it, and comparing the steps each
+   * spends with those predicted.
+   * @param dictionary Dictionary the model was profiled from.
+   * @param maxDistance Maximum distance of the sample queries.
+   * @param samples Maximum number of sample queries.
+   * @return This {@link CostModel}, for fluency.
+   */
+  public CostModel calibrate(
+      @NonNull final SortedDawg dictionary,
+      final int maxDistance,
+      final int samples) {
+    final QueryBudget budget = new QueryBudget();
+    final DawgQueryEngine engine =
+      new DawgQueryEngine(dictionary, algorithm, maxDistance).budget(budget);
+    final CandidateVisitor ignore = (term, distance) -> { };
+    final int stride = Math.max(1, dictionary.size() / Math.max(1, samples));
+
+    double actual = 0.0;
+    double predicted = 0.0;
+    final Iterator<String> terms = dictionary.iterator();
+    for (int i = 0; terms.hasNext(); i += 1) {
+      final String term = terms.next();
+      if (0 == i % stride) {
+        engine.query(term, ignore);
+        actual += budget.steps();
+        predicted += predict(term.length(), maxDistance, false);
+      }
+    }
+
+    scale = 0.0 < predicted && 0.0 < actual ? actual / predicted : 1.0;
+    return this;
+  }
+
+  /**
+   * Predicts the number of steps a query will spend.
+   * @param length Length of the query term.
+   * @param maxDistance Maximum distance of the query.
+   * @return Predicted number of steps.
+   */
+  public double work(final int length, final int maxDistance) {
+    return scale * predict(length, maxDistance, false);
+  }
+
+  /**
+   * Predicts the number of spelling candidates a query will find.
+   * @param length Length of the query term.
+   * @param maxDistance Maximum distance of the query.
+   * @return Predicted number of spelling candidates.
+   */
+  public double results(final int length, final int maxDistance) {
+    return predict(length, maxDistance, true);
+  }
+
+  /**
+   * Follows a query down the profile of the dictionary.
+   * @param length Length of the query term.
+   * @param maxDistance Maximum distance of the query.
+   * @param results Whether to count spelling candidates, rather than steps.
+   * @return Predicted number of steps or spelling candidates.
+   */
+  private double predict(final int length, final int maxDistance, final boolean results) {
+    if (maxDistance < 0) {
+      return 0.0;
+    }
+
+    // survivors[e] = expected prefixes at the current depth that spent e edits
+    double[] survivors = new double[maxDistance + 1];
+    survivors[0] = 1.0;
+
+    double total = 0.0;
+    final int maxDepth = Math.min(profile.maxLength(), length + maxDistance);
+    double[] next = new double[maxDistance + 1];
+    for (int depth = 0; depth <= maxDepth; depth += 1) {
+      final long prefixes = profile.prefixes(depth);
+      final double branching = profile.branching(depth);
+      double reached = 0.0;
+      for (int edits = 0; edits <= maxDistance; edits += 1) {
+        reached += survivors[edits] * (2 * edits + 1);
+      }
+      final double bound = Math.min(1.0, prefixes / Math.max(reached, Double.MIN_NORMAL));
+
+      if (results) {
+        final double finals = (double) profile.terms(depth) / prefixes;
+        final int slack = maxDistance - Math.max(0, length - depth);
+        for (int edits = 0; edits <= slack; edits += 1) {
+          total += bound * survivors[edits] * finals;
+        }
+      }
+      else {
+        total += bound * reached * branching;
+      }
+
+      final double matched = depth < length ? Math.min(1.0, branching) : 0.0;
+      final double mismatched = (branching - matched) * mismatchWeight;
+      next[0] = bound * survivors[0] * matched;
+      for (int edits = 1; edits <= maxDistance; edits += 1) {
+        next[edits] = bound * (survivors[edits] * matched + survivors[edits - 1] * mismatched);
+      }
+      final double[] swap = survivors;
+      survivors = next;
+      next = swap;
+    }
+    return total;
+  }
+}
@@ -0,0 +1,176 @@
+package com.github.liblevenshtein.query;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Queries a {@link SortedDawg} by walking it depth-first, while maintaining one
+ * row of the dynamic-programming matrix of distances between the query term
+ * and each prefix of the dictionary.  Subtrees whose rows exceed the maximum
+ * distance are pruned, as are subtrees none of whose terms satisfy the
+ * engine's {@link CandidateFilter}.
+ *
+ * <p>All scratch space is kept between queries, so once it has grown to fit
+ * the longest query, querying does not allocate per spelling candidate.
+ * Spelling candidates are visited in the same order as the transducers of
+ * {@link com.github.liblevenshtein.transducer.factory.TransducerBuilder} would
+ * generate them: by length, then by dictionary order.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.</p>
+ */
+public class DawgQueryEngine implements QueryEngine {
+
+  /**
+   * Root of the dictionary.
+   */
+  private final DawgNode root;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link DawgQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link DawgQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Heights of the dictionary's subtrees, for pruning those whose terms are
+   * all too short.
+   */
+  private final SubtreeHeights heights = new SubtreeHeights();
+
+  /**
+   * Maximum distance of the current query.
+   */
+  private int queryDistance = 0;
+
+  /**
+   * Distances between the query term and each prefix of the current path.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Spelling candidates of the current query.
+   */
+  private final CandidateBuffer candidates = new CandidateBuffer();
+
+  /**
+   * Constructs a new engine for querying a dictionary.
+   * @param dictionary Dictionary to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   */
+  public DawgQueryEngine(
+      @NonNull final SortedDawg dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance) {
+    this.root = dictionary.root();
+    this.matrix = new DistanceMatrix(algorithm);
+    this.maxDistance = maxDistance;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    prepare(term, distance);
+    budget.start();
+    if (distance >= 0) {
+      traverse(root, 0, filter.start());
+    }
+    candidates.visit(visitor);
+    if (budget.exhausted()) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Resets the scratch space for a new query, growing it as needed.
+   * @param query Query term.
+   * @param distance Maximum distance of the query.
+   */
+  private void prepare(final String query, final int distance) {
+    matrix.prepare(query, distance);
+    queryDistance = distance;
+    candidates.clear();
+  }
+
+  /**
+   * Visits the subtree under a dictionary node, collecting the spelling
+   * candidates it contains.
+   * @param node Dictionary node whose subtree is visited.
+   * @param depth Length of the path from the root to node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   */
+  private void traverse(final DawgNode node, final int depth, final int state) {
+    final int nextDepth = depth + 1;
+    matrix.ensureDepth(nextDepth);
+    final CharIterator labels = node.labels();
+    while (labels.hasNext() && budget.spend()) {
+      final char label = labels.nextChar();
+      final int nextState = filter.step(state, depth, label);
+      if (CandidateFilter.REJECT != nextState
+          && matrix.nextRow(nextDepth, label) <= queryDistance) {
+        final DawgNode child = node.transition(label);
+        if (heights.reaches(child, nextDepth, filter.minLength())) {
+          collect(child.isFinal(), nextDepth, nextState);
+          traverse(child, nextDepth, nextState);
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the path to a dictionary node as a spelling candidate, if the
+   * node ends a term within the distance of the query that the filter
+   * accepts.
+   * @param isFinal Whether the node ends a term.
+   * @param depth Length of the path from the root to the node.
+   * @param state State of {@link #filter} after the path from the root to the
+   *   node.
+   */
+  private void collect(final boolean isFinal, final int depth, final int state) {
+    final int distance = matrix.distance(depth);
+    if (isFinal && distance <= queryDistance && filter.accepts(state, depth)) {
+      candidates.collect(matrix.path(), depth, distance);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+/**
+ * Shape of a dictionary, as seen by a query walking it: how many distinct
+ * prefixes it has at each depth, and how many of them are terms.  The ratio of prefixes at consecutive depths is the
+ * mean branching factor of the dictionary at that depth.
+ *
+ * <p>The profile is measured once, when the dictionary is loaded, by sweeping
+ * the DAWG level by level.  Each level holds the distinct nodes at that depth
+ * and the number of paths that reach them, so shared suffixes are only swept
+ * once per depth rather than once per term.</p>
+ */
+public final class DictionaryProfile {
+
+  /**
+   * Initial number of depths measured, which grows as needed.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Number of distinct prefixes of each length; the empty prefix is the one
+   * of length zero.
+   */
+  private final long[] prefixes;
+
+  /**
+   * Number of terms of each length.
+   */
+  private final long[] terms;
+
+  /**
+   * Constructs a profile from its measurements.
+   * @param prefixes Number of distinct prefixes of each length.
+   * @param terms Number of terms of each length.
+   */
+  private DictionaryProfile(final long[] prefixes, final long[] terms) {
+    this.prefixes = prefixes;
+    this.terms = terms;
+  }
+
+  /**
+   * Measures the profile of a dictionary.
+   * @param dictionary Dictionary to measure.
+   * @return Profile of the dictionary.
+   */
+  public static DictionaryProfile of(@NonNull final SortedDawg dictionary) {
+    long[] prefixes = new long[INITIAL_CAPACITY];
+    long[] terms = new long[INITIAL_CAPACITY];
+
+    Reference2LongOpenHashMap<DawgNode> level = new Reference2LongOpenHashMap<>();
+    level.put(dictionary.root(), 1L);
+    int depth = 0;
+    while (!level.isEmpty()) {
+      if (prefixes.length == depth) {
+        prefixes = Arrays.copyOf(prefixes, depth << 1);
+        terms = Arrays.copyOf(terms, depth << 1);
+      }
+      final Reference2LongOpenHashMap<DawgNode> next = new Reference2LongOpenHashMap<>();
+      for (final Reference2LongMap.Entry<DawgNode> entry : level.reference2LongEntrySet()) {
+        final DawgNode node = entry.getKey();
+        final long paths = entry.getLongValue();
+        prefixes[depth] += paths;
+        if (node.isFinal()) {
+          terms[depth] += paths;
+        }
+        final CharIterator labels = node.labels();
+        while (labels.hasNext()) {
+          next.addTo(node.transition(labels.nextChar()), paths);
+        }
+      }
+      level = next;
+      depth += 1;
+    }
+
+    return new DictionaryProfile(
+      Arrays.copyOf(prefixes, depth),
+      Arrays.copyOf(terms, depth));
+  }
+
+  /**
+   * Length of the longest term in the dictionary.
+   * @return Length of the longest term, or zero if the dictionary is empty.
+   */
+  public int maxLength() {
+    return prefixes.length - 1;
+  }
+
+  /**
+   * Number of distinct prefixes of some length.
+   * @param length Length of the prefixes.
+   * @return Number of distinct prefixes of that length.
+   */
+  public long prefixes(final int length) {
+    return length < prefixes.length ? prefixes[length] : 0L;
+  }
+
+  /**
+   * Number of terms of some length.
+   * @param length Length of the terms.
+   * @return Number of terms of that length.
+   */
+  public long terms(final int length) {
+    return length < terms.length ? terms[length] : 0L;
+  }
+
+  /**
+   * Mean number of children of the prefixes of some length.
+   * @param length Length of the prefixes.
+   * @return Mean branching factor at that depth, or zero if there are no
+   *   prefixes of that length.
+   */
+  public double branching(final int length) {
+    final long parents = prefixes(length);
+    return 0L == parents ? 0.0 : (double) prefixes(length + 1) / parents;
+  }
+}
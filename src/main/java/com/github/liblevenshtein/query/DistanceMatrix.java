@@ -0,0 +1,244 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Dynamic-programming matrix of distances between a query term and each prefix
+ * of a path through a dictionary, with one row for each depth of the path.
+ * Rows are computed as the path is extended, and reused as it is backtracked,
+ * so walking a dictionary depth-first costs one row per visited node.
+ *
+ * <p>The minimum distance in a row never decreases as the path is extended, so
+ * it bounds the distance of every term that has the path as a prefix.  Only
+ * distances within some bound are of interest, and a cell further than the
+ * bound from the diagonal of the matrix is always beyond it, so each row is
+ * computed only across the diagonal band of cells that may be within the
+ * bound (Ukkonen's cut-off).  Cells within the bound are exact; any value
+ * beyond the bound only means that the true distance is beyond it, too.</p>
+ *
+ * <p>All scratch space is kept between queries; instances are not
+ * thread-safe.</p>
+ */
+final class DistanceMatrix {
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Whether adjacent characters may be transposed at the cost of one edit.
+   */
+  private final boolean transposition;
+
+  /**
+   * Whether two characters may be merged into one, or one split into two, at
+   * the cost of one edit.
+   */
+  private final boolean mergeAndSplit;
+
+  /**
+   * Characters of the current query term.
+   */
+  private char[] term = new char[INITIAL_CAPACITY];
+
+  /**
+   * Length of the current query term.
+   */
+  private int termLength = 0;
+
+  /**
+   * Largest distance of interest for the current query term.
+   */
+  private int bound = 0;
+
+  /**
+   * Rows of the distance matrix, one for each depth of the current path.
+   */
+  private int[][] rows = new int[0][];
+
+  /**
+   * Labels along the current path from the root.
+   */
+  private char[] path = new char[INITIAL_CAPACITY];
+
+  /**
+   * Constructs a new matrix for some algorithm.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   */
+  DistanceMatrix(final Algorithm algorithm) {
+    this.transposition = Algorithm.TRANSPOSITION == algorithm;
+    this.mergeAndSplit = Algorithm.MERGE_AND_SPLIT == algorithm;
+  }
+
+  /**
+   * Resets the matrix for a new query term, growing it as needed.
+   * @param query Query term.
+   * @param maxDistance Largest distance of interest for the query term.
+   */
+  void prepare(final String query, final int maxDistance) {
+    termLength = query.length();
+    bound = Math.max(0, maxDistance);
+    if (term.length < termLength) {
+      term = new char[termLength];
+    }
+    query.getChars(0, termLength, term, 0);
+
+    if (rows.length == 0 || rows[0].length <= termLength) {
+      final int width = Math.max(termLength + 1, INITIAL_CAPACITY);
+      for (int depth = 0; depth < rows.length; depth += 1) {
+        rows[depth] = new int[width];
+      }
+      if (rows.length == 0) {
+        rows = new int[][] {new int[width]};
+      }
+    }
+
+    final int[] initialRow = rows[0];
+    for (int i = 0; i <= termLength; i += 1) {
+      initialRow[i] = i;
+    }
+  }
+
+  /**
+   * Labels along the current path from the root.  The array is replaced as it
+   * grows, so it must be fetched again after {@link #ensureDepth(int)}.
+   * @return Labels along the current path from the root.
+   */
+  char[] path() {
+    return path;
+  }
+
+  /**
+   * Distance between the query term and the current path.
+   * @param depth Length of the current path.
+   * @return Distance between the query term and the current path, or a
+   *   distance beyond the bound if it is beyond the bound.
+   */
+  int distance(final int depth) {
+    return depth + bound < termLength
+      ? bound + 1
+      : rows[depth][termLength];
+  }
+
+  /**
+   * Computes the row of the matrix for the current path, extended by one
+   * label.  Cells outside the band are left as they were, except the two
+   * bordering it, which are set beyond the bound so the rows below may read
+   * them.
+   * @param depth Length of the extended path.
+   * @param label Label extending the current path.
+   * @return Minimum distance in the row, which bounds the distance of every
+   *   term that has the extended path as a prefix.  This is beyond the bound
+   *   if no cell is within it.
+   */
+  int nextRow(final int depth, final char label) {
+    path[depth - 1] = label;
+    final int[] row = rows[depth];
+    final int[] prev = rows[depth - 1];
+    final int[] prevPrev = depth > 1 ? rows[depth - 2] : null;
+    final int beyond = bound + 1;
+    final int lo = Math.max(1, depth - bound);
+    final int hi = Math.min(termLength, depth + bound);
+    row[0] = depth;
+    int min = lo > 1 ? beyond : depth;
+    if (lo > hi) {
+      return min;
+    }
+    if (lo > 1) {
+      row[lo - 1] = beyond;
+    }
+    if (hi < termLength) {
+      row[hi + 1] = beyond;
+    }
+    for (int i = lo; i <= hi; i += 1) {
+      final char c = term[i - 1];
+      int distance = prev[i - 1] + (c == label ? 0 : 1);
+      distance = Math.min(distance, prev[i] + 1);
+      distance = Math.min(distance, row[i - 1] + 1);
+      if (transposition || mergeAndSplit) {
+        distance = Math.min(distance, extendedCost(depth, i, label, prev, prevPrev));
+      }
+      row[i] = distance;
+      min = Math.min(min, distance);
+    }
+    return min;
+  }
+
+  /**
+   * Cost of a cell of a row by the operations of the algorithm beyond
+   * insertion, deletion and substitution: transposition, or merge and split.
+   * @param depth Length of the extended path.
+   * @param i Column of the cell.
+   * @param label Label extending the current path.
+   * @param prev Row of the current path.
+   * @param prevPrev Row of the current path without its last label, or null
+   *   if the current path is empty.
+   * @return Cost of the cell by those operations, or {@link Integer#MAX_VALUE}
+   *   if none of them applies.
+   */
+  private int extendedCost(
+      final int depth,
+      final int i,
+      final char label,
+      final int[] prev,
+      final int[] prevPrev) {
+    if (transposition) {
+      return i > 1 && null != prevPrev && term[i - 1] == path[depth - 2] && term[i - 2] == label
+        ? prevPrev[i - 2] + 1
+        : Integer.MAX_VALUE;
+    }
+    int cost = Integer.MAX_VALUE;
+    if (i > 1) {
+      cost = prev[i - 2] + 1;
+    }
+    if (null != prevPrev) {
+      cost = Math.min(cost, prevPrev[i - 1] + 1);
+    }
+    return cost;
+  }
+
+  /**
+   * Least distance of any term of some length that has the current path as a
+   * prefix.  Every edit changes the length of a term by at most one, so
+   * completing a cell of the current row costs at least the difference
+   * between the lengths of what remains of the term and of the query term.
+   * This is tighter than the minimum of the row when the length of the terms
+   * is known, as it is within a partition of {@link LengthPartitionedDawg}.
+   * @param depth Length of the current path.
+   * @param length Length of the terms that have the path as a prefix.
+   * @return Least distance of any such term, or a distance beyond the bound if
+   *   it is beyond the bound.
+   */
+  int lowerBound(final int depth, final int length) {
+    final int[] row = rows[depth];
+    final int remaining = length - depth;
+    final int hi = Math.min(termLength, depth + bound);
+    int min = bound + 1;
+    for (int i = Math.max(0, depth - bound); i <= hi; i += 1) {
+      min = Math.min(min, row[i] + Math.abs(remaining - (termLength - i)));
+    }
+    return min;
+  }
+
+  /**
+   * Grows the scratch space for paths, so it fits a path of some length.
+   * @param depth Length of the path.
+   */
+  void ensureDepth(final int depth) {
+    if (rows.length <= depth) {
+      final int width = rows[0].length;
+      final int previousDepth = rows.length;
+      rows = Arrays.copyOf(rows, Math.max(depth + 1, previousDepth << 1));
+      for (int i = previousDepth; i < rows.length; i += 1) {
+        rows[i] = new int[width];
+      }
+    }
+    if (path.length < depth) {
+      path = Arrays.copyOf(path, Math.max(depth, path.length << 1));
+    }
+  }
+}
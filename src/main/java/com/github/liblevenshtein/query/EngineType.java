@@ -0,0 +1,31 @@
+package com.github.liblevenshtein.query;
+
+/**
+ * How a dictionary is held in memory and walked while it is queried.
+ */
+public enum EngineType {
+
+  /** Walks the nodes of the dictionary itself, with {@link DawgQueryEngine}. */
+  DAWG,
+
+  /**
+   * Packs the dictionary into primitive arrays once it is loaded, and walks
+   * those with {@link PackedQueryEngine}, which takes less memory and follows
+   * fewer pointers.
+   */
+  PACKED,
+
+  /**
+   * Indexes every string within the maximum distance, in deletions, of each
+   * term, and answers queries by looking up those of the query term, with
+   * {@link SymmetricDeletionQueryEngine}.
+   */
+  SYMMETRIC_DELETION,
+
+  /**
+   * Partitions the dictionary by term length, and walks only the partitions
+   * whose lengths are within the maximum distance of the query term's, with
+   * {@link PartitionedQueryEngine}.
+   */
+  PARTITIONED
+}
@@ -0,0 +1,268 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Queries the union of several independent dictionaries, such as one of each
+ * tenant and one shared by all, without merging them.  Each query term is
+ * sent to every dictionary at once, in parallel, and their spelling
+ * candidates are merged once all have answered: the candidates of each
+ * dictionary are visited in the order it found them, after the visitor is
+ * told its name with {@link CandidateVisitor#source(String)}, and candidates
+ * already visited from an earlier dictionary are skipped.
+ *
+ * <p>The first dictionary is queried on the calling thread and the rest on
+ * the executor, and the time each takes is recorded to its
+ * {@link QueryLatency}, so a slow dictionary may be told apart.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread, sharing the
+ * executor, dictionaries and latencies.</p>
+ */
+public class FanOutQueryEngine implements QueryEngine {
+
+  /**
+   * Queries every dictionary but the first.
+   */
+  private final ExecutorService executor;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Name of each dictionary, in the order their candidates are merged.
+   */
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Engine of each dictionary.
+   */
+  private final List<QueryEngine> engines = new ArrayList<>();
+
+  /**
+   * Records the time taken to query each dictionary.
+   */
+  private final List<QueryLatency> latencies = new ArrayList<>();
+
+  /**
+   * Collects the spelling candidates of each dictionary for the current query
+   * term.
+   */
+  private final List<Candidates> candidates = new ArrayList<>();
+
+  /**
+   * Pending queries of each dictionary but the first.
+   */
+  private final List<Future<?>> pending = new ArrayList<>();
+
+  /**
+   * Spelling candidates visited so far for the current query term.
+   */
+  private final ObjectOpenHashSet<String> visited = new ObjectOpenHashSet<>();
+
+  /**
+   * Constructs a new union of no dictionaries.
+   * @param executor Queries every dictionary but the first.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   */
+  public FanOutQueryEngine(
+      @NonNull final ExecutorService executor,
+      final int maxDistance) {
+    this.executor = executor;
+    this.maxDistance = maxDistance;
+  }
+
+  /**
+   * Adds a dictionary to the union.
+   * @param name Name of the dictionary, with which its spelling candidates
+   *   are tagged.
+   * @param engine Engine of the dictionary.
+   * @param latency Records the time taken to query the dictionary.
+   * @return This {@link FanOutQueryEngine}, for fluency.
+   */
+  public FanOutQueryEngine source(
+      @NonNull final String name,
+      @NonNull final QueryEngine engine,
+      @NonNull final QueryLatency latency) {
+    names.add(name);
+    engines.add(engine);
+    latencies.add(latency);
+    candidates.add(new Candidates());
+    return this;
+  }
+
+  /**
+   * Number of dictionaries in the union.
+   * @return Number of dictionaries in the union.
+   */
+  public int sources() {
+    return names.size();
+  }
+
+  /**
+   * Visits the spelling candidates of a query term from every dictionary,
+   * each candidate once.
+   * @param term Query term.
+   * @param distance Maximum distance between the query term and spelling
+   *   candidates.
+   * @param visitor Visits each spelling candidate.
+   * @throws IllegalStateException If any dictionary cannot be queried.
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    if (names.isEmpty()) {
+      return;
+    }
+
+    pending.clear();
+    try {
+      for (int i = 1; i < names.size(); i += 1) {
+        final int source = i;
+        pending.add(executor.submit(() -> collect(source, term, distance)));
+      }
+      collect(0, term, distance);
+    }
+    finally {
+      // Every query must finish before its candidates are reused
+      await(term);
+    }
+
+    visited.clear();
+    boolean truncated = false;
+    for (int i = 0; i < names.size(); i += 1) {
+      final Candidates found = candidates.get(i);
+      visitor.source(names.get(i));
+      for (int j = 0; j < found.terms.size(); j += 1) {
+        final String candidate = found.terms.get(j);
+        if (visited.add(candidate)) {
+          visitor.visit(candidate, found.distances.getInt(j));
+        }
+      }
+      truncated |= found.truncated;
+    }
+    if (truncated) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Collects the spelling candidates of one dictionary, timing the query.
+   * @param source Index of the dictionary.
+   * @param term Query term.
+   * @param distance Maximum distance between the query term and spelling
+   *   candidates.
+   */
+  private void collect(final int source, final String term, final int distance) {
+    final Candidates found = candidates.get(source);
+    found.clear();
+    final long start = System.nanoTime();
+    engines.get(source).query(term, distance, found);
+    latencies.get(source).record(System.nanoTime() - start);
+  }
+
+  /**
+   * Waits for the pending queries of every dictionary but the first.
+   * @param term Query term.
+   * @throws IllegalStateException If any of them failed, or the wait was
+   *   interrupted, in which case those still pending are cancelled.
+   */
+  private void await(final String term) {
+    try {
+      IllegalStateException failure = null;
+      for (int i = 0; i < pending.size(); i += 1) {
+        try {
+          pending.get(i).get();
+        }
+        catch (final ExecutionException exception) {
+          if (null == failure) {
+            final String message = String.format(
+              "Cannot query dictionary [%s] for [%s]", names.get(i + 1), term);
+            failure = new IllegalStateException(message, exception.getCause());
+          }
+        }
+      }
+      if (null != failure) {
+        throw failure;
+      }
+    }
+    catch (final InterruptedException exception) {
+      for (final Future<?> query : pending) {
+        query.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      final String message = String.format(
+        "Interrupted while querying the dictionaries for [%s]", term);
+      throw new IllegalStateException(message, exception);
+    }
+    finally {
+      pending.clear();
+    }
+  }
+
+  /**
+   * Spelling candidates of one dictionary, in the order they were found.
+   */
+  private static final class Candidates implements CandidateVisitor {
+
+    /**
+     * Each spelling candidate.
+     */
+    private final List<String> terms = new ArrayList<>();
+
+    /**
+     * Distance of each spelling candidate from the query term.
+     */
+    private final IntArrayList distances = new IntArrayList();
+
+    /**
+     * Whether the query was cut short.
+     */
+    private boolean truncated = false;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visit(final CharSequence term, final int distance) {
+      terms.add(term.toString());
+      distances.add(distance);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void truncated() {
+      truncated = true;
+    }
+
+    /**
+     * Forgets every spelling candidate.
+     */
+    private void clear() {
+      terms.clear();
+      distances.clear();
+      truncated = false;
+    }
+  }
+}
@@ -0,0 +1,359 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.chars.CharArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Glob pattern compiled to an automaton that is stepped one character at a
+ * time, so it may be intersected with a dictionary while it is traversed.
+ * Patterns are made of:
+ *
+ * <ul>
+ *   <li>{@code *}, which matches any sequence of characters,</li>
+ *   <li>{@code ?}, which matches any one character,</li>
+ *   <li>{@code [abc]} and {@code [a-z]}, which match any one character of the
+ *     class, and {@code [!abc]} or {@code [^abc]}, which match any one
+ *     character outside it,</li>
+ *   <li>{@code \c}, which matches the character c, literally, and</li>
+ *   <li>any other character, which matches itself.</li>
+ * </ul>
+ *
+ * <p>The automaton is the subset construction of the pattern's positions,
+ * determinized lazily: each state and transition is built the first time it
+ * is reached, and reused afterwards.  States from which no string can match
+ * are never built; stepping into one returns {@link #DEAD}.</p>
+ *
+ * <p>Instances are not thread-safe; compile one per thread.</p>
+ */
+public final class Glob {
+
+  /**
+   * State from which no string matches the pattern.
+   */
+  public static final int DEAD = -1;
+
+  /**
+   * Marks transitions that have not been built, yet.
+   */
+  private static final int UNKNOWN = -2;
+
+  /**
+   * Elements of the pattern that match any sequence of characters.
+   */
+  private static final byte STAR = 0;
+
+  /**
+   * Elements of the pattern that match one character of a class.
+   */
+  private static final byte CLASS = 1;
+
+  /**
+   * Elements of the pattern that match one character outside a class.
+   */
+  private static final byte NEGATED_CLASS = 2;
+
+  /**
+   * Pattern this automaton was compiled from.
+   * -- GETTER --
+   * Pattern this automaton was compiled from.
+   * @return Pattern this automaton was compiled from.
+   */
+  @Getter
+  private final String pattern;
+
+  /**
+   * Kind of each element of the pattern.
+   */
+  private final byte[] kinds;
+
+  /**
+   * Inclusive ranges of each character class, as back-to-back pairs of their
+   * lower and upper bounds.
+   */
+  private final char[][] ranges;
+
+  /**
+   * Pattern positions of each state of the automaton.
+   */
+  private final List<BitSet> states = new ArrayList<>();
+
+  /**
+   * Whether each state of the automaton accepts.
+   */
+  private final BitSet accepting = new BitSet();
+
+  /**
+   * Identifies states by their pattern positions.
+   */
+  private final Object2IntOpenHashMap<BitSet> stateIds = new Object2IntOpenHashMap<>();
+
+  /**
+   * Transitions built so far, keyed by state and character.
+   */
+  private final Long2IntOpenHashMap transitions = new Long2IntOpenHashMap();
+
+  /**
+   * Compiles a glob pattern.
+   * @param pattern Glob pattern.
+   * @throws IllegalArgumentException If the pattern has an unterminated
+   *   character class or escape.
+   */
+  public Glob(@NonNull final String pattern) {
+    this.pattern = pattern;
+    final List<Byte> elementKinds = new ArrayList<>();
+    final List<char[]> elementRanges = new ArrayList<>();
+    int i = 0;
+    while (i < pattern.length()) {
+      final char c = pattern.charAt(i);
+      i += 1;
+      switch (c) {
+        case '*':
+          // Consecutive stars match the same strings as one
+          if (elementKinds.isEmpty() || STAR != elementKinds.get(elementKinds.size() - 1)) {
+            elementKinds.add(STAR);
+            elementRanges.add(null);
+          }
+          break;
+        case '?':
+          elementKinds.add(NEGATED_CLASS);
+          elementRanges.add(new char[0]);
+          break;
+        case '[':
+          i = parseClass(pattern, i, elementKinds, elementRanges);
+          break;
+        case '\\':
+          if (i == pattern.length()) {
+            throw invalid(pattern, "it ends with an unterminated escape");
+          }
+          elementKinds.add(CLASS);
+          elementRanges.add(new char[] {pattern.charAt(i), pattern.charAt(i)});
+          i += 1;
+          break;
+        default:
+          elementKinds.add(CLASS);
+          elementRanges.add(new char[] {c, c});
+          break;
+      }
+    }
+
+    this.kinds = new byte[elementKinds.size()];
+    for (int k = 0; k < kinds.length; k += 1) {
+      kinds[k] = elementKinds.get(k);
+    }
+    this.ranges = elementRanges.toArray(new char[elementRanges.size()][]);
+    this.stateIds.defaultReturnValue(DEAD);
+    this.transitions.defaultReturnValue(UNKNOWN);
+
+    final BitSet initial = new BitSet(kinds.length + 1);
+    initial.set(0);
+    intern(close(initial));
+  }
+
+  /**
+   * Initial state of the automaton, before any character has been read.
+   * @return Initial state of the automaton.
+   */
+  public int start() {
+    return 0;
+  }
+
+  /**
+   * State of the automaton after reading a character.
+   * @param state State before reading the character.
+   * @param c Character to read.
+   * @return State after reading the character, or {@link #DEAD} if no string
+   *   with the characters read so far matches the pattern.
+   */
+  public int step(final int state, final char c) {
+    final long key = ((long) state << Character.SIZE) | c;
+    int next = transitions.get(key);
+    if (UNKNOWN == next) {
+      final BitSet positions = states.get(state);
+      final BitSet nextPositions = new BitSet(kinds.length + 1);
+      for (int k = positions.nextSetBit(0);
+          k >= 0 && k < kinds.length;
+          k = positions.nextSetBit(k + 1)) {
+        if (STAR == kinds[k]) {
+          nextPositions.set(k);
+        }
+        else if (inClass(ranges[k], c) == (CLASS == kinds[k])) {
+          nextPositions.set(k + 1);
+        }
+      }
+      next = nextPositions.isEmpty() ? DEAD : intern(close(nextPositions));
+      transitions.put(key, next);
+    }
+    return next;
+  }
+
+  /**
+   * Whether the characters read to reach a state match the pattern.
+   * @param state State of the automaton.
+   * @return Whether the state accepts.
+   */
+  public boolean accepts(final int state) {
+    return DEAD != state && accepting.get(state);
+  }
+
+  /**
+   * Whether a string matches the pattern.
+   * @param string String to match.
+   * @return Whether the string matches the pattern.
+   */
+  public boolean matches(@NonNull final CharSequence string) {
+    int state = start();
+    for (int i = 0; i < string.length() && DEAD != state; i += 1) {
+      state = step(state, string.charAt(i));
+    }
+    return accepts(state);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  /**
+   * Identifies the state of a set of pattern positions, building it if needed.
+   * @param positions Pattern positions of the state.
+   * @return State of the pattern positions.
+   */
+  private int intern(final BitSet positions) {
+    int state = stateIds.getInt(positions);
+    if (DEAD == state) {
+      state = states.size();
+      states.add(positions);
+      stateIds.put(positions, state);
+      if (positions.get(kinds.length)) {
+        accepting.set(state);
+      }
+    }
+    return state;
+  }
+
+  /**
+   * Adds the positions following stars, which match the empty string.
+   * @param positions Pattern positions to close.
+   * @return positions, for fluency.
+   */
+  private BitSet close(final BitSet positions) {
+    for (int k = positions.nextSetBit(0);
+        k >= 0 && k < kinds.length;
+        k = positions.nextSetBit(k + 1)) {
+      if (STAR == kinds[k]) {
+        positions.set(k + 1);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Whether a character is within the ranges of a class.
+   * @param classRanges Inclusive ranges of the class.
+   * @param c Character to test.
+   * @return Whether c is within one of the ranges.
+   */
+  private static boolean inClass(final char[] classRanges, final char c) {
+    for (int i = 0; i < classRanges.length; i += 2) {
+      if (classRanges[i] <= c && c <= classRanges[i + 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Parses a character class, whose opening bracket has been read.
+   * @param pattern Glob pattern.
+   * @param start Index of the first character after the opening bracket.
+   * @param elementKinds Collects the kind of the class.
+   * @param elementRanges Collects the ranges of the class.
+   * @return Index of the first character after the closing bracket.
+   */
+  private static int parseClass(
+      final String pattern,
+      final int start,
+      final List<Byte> elementKinds,
+      final List<char[]> elementRanges) {
+    int i = start;
+    boolean negated = false;
+    if (i < pattern.length() && ('!' == pattern.charAt(i) || '^' == pattern.charAt(i))) {
+      negated = true;
+      i += 1;
+    }
+    final CharArrayList classRanges = new CharArrayList();
+    // A closing bracket first in the class is a member of it
+    boolean first = true;
+    while (i < pattern.length() && (first || ']' != pattern.charAt(i))) {
+      first = false;
+      i = parseRange(pattern, i, classRanges);
+    }
+    if (i == pattern.length()) {
+      throw invalid(pattern, "it has an unterminated character class");
+    }
+    elementKinds.add(negated ? NEGATED_CLASS : CLASS);
+    elementRanges.add(classRanges.toCharArray());
+    return i + 1;
+  }
+
+  /**
+   * Parses a member of a character class: a character, or a range of them.
+   * @param pattern Glob pattern.
+   * @param start Index of the first character of the member.
+   * @param classRanges Collects the range of the member.
+   * @return Index of the first character after the member.
+   */
+  private static int parseRange(
+      final String pattern,
+      final int start,
+      final CharArrayList classRanges) {
+    int i = unescape(pattern, start);
+    final char lower = pattern.charAt(i);
+    i += 1;
+    char upper = lower;
+    if (i + 1 < pattern.length() && '-' == pattern.charAt(i) && ']' != pattern.charAt(i + 1)) {
+      i = unescape(pattern, i + 1);
+      upper = pattern.charAt(i);
+      i += 1;
+      if (upper < lower) {
+        throw invalid(pattern, String.format("range [%c-%c] is reversed", lower, upper));
+      }
+    }
+    classRanges.add(lower);
+    classRanges.add(upper);
+    return i;
+  }
+
+  /**
+   * Skips the backslash that escapes a character of a class, if there is one.
+   * @param pattern Glob pattern.
+   * @param i Index of a character of the class.
+   * @return Index of the character, once any backslash is skipped.
+   */
+  private static int unescape(final String pattern, final int i) {
+    return '\\' == pattern.charAt(i) && i + 1 < pattern.length() ? i + 1 : i;
+  }
+
+  /**
+   * Describes an invalid pattern.
+   * @param pattern Invalid pattern.
+   * @param reason Why the pattern is invalid.
+   * @return Exception describing the invalid pattern.
+   */
+  private static IllegalArgumentException invalid(final String pattern, final String reason) {
+    final String message = String.format(
+      "Invalid glob pattern [%s]: %s", pattern, reason);
+    return new IllegalArgumentException(message);
+  }
+}
@@ -0,0 +1,108 @@
+package com.github.liblevenshtein.query;
+
+import java.util.function.Function;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Queries whichever of many dictionaries each query term names, as in
+ * {@code NAME:TERM}, such as the dictionaries of many tenants.  Dictionaries
+ * are requested by name for every query term, so whatever hosts them decides
+ * which stay resident, and the visitor is told the name with
+ * {@link CandidateVisitor#source(String)} before visiting the spelling
+ * candidates of TERM.
+ *
+ * <p>The engine of the most recent dictionary is reused while consecutive
+ * query terms name it, so it stays reachable until another is queried.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread, sharing whatever
+ * hosts the dictionaries.</p>
+ */
+public class HostedQueryEngine implements QueryEngine {
+
+  /**
+   * Separates the name of the dictionary from the term to query it for.
+   */
+  public static final char SEPARATOR = ':';
+
+  /**
+   * Requests dictionaries by name.
+   */
+  private final Function<String, WeightedDictionary> dictionaries;
+
+  /**
+   * Builds the engine of a dictionary.
+   */
+  private final Function<WeightedDictionary, QueryEngine> engines;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Most recently queried dictionary, or null before the first query.
+   */
+  private WeightedDictionary dictionary = null;
+
+  /**
+   * Engine of the most recently queried dictionary.
+   */
+  private QueryEngine engine = null;
+
+  /**
+   * Constructs a new engine over hosted dictionaries.
+   * @param dictionaries Requests dictionaries by name.
+   * @param engines Builds the engine of a dictionary.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   */
+  public HostedQueryEngine(
+      @NonNull final Function<String, WeightedDictionary> dictionaries,
+      @NonNull final Function<WeightedDictionary, QueryEngine> engines,
+      final int maxDistance) {
+    this.dictionaries = dictionaries;
+    this.engines = engines;
+    this.maxDistance = maxDistance;
+  }
+
+  /**
+   * Visits each spelling candidate for a query term, from the dictionary it
+   * names.
+   * @param term Query term, as {@code NAME:TERM}.
+   * @param distance Maximum distance between the query term and spelling
+   *   candidates.
+   * @param visitor Visits each spelling candidate.
+   * @throws IllegalArgumentException If the query term does not name a
+   *   dictionary.
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    final int separator = term.indexOf(SEPARATOR);
+    if (separator < 0) {
+      final String message = String.format(
+        "Expected a query term of the form NAME%cTERM, but received [%s]",
+          SEPARATOR, term);
+      throw new IllegalArgumentException(message);
+    }
+
+    final String name = term.substring(0, separator);
+    final WeightedDictionary requested = dictionaries.apply(name);
+    if (requested != dictionary) {
+      engine = engines.apply(requested);
+      dictionary = requested;
+    }
+
+    visitor.source(name);
+    engine.query(term.substring(separator + 1), distance, visitor);
+  }
+}
@@ -0,0 +1,148 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.fastutil.chars.CharArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import lombok.NonNull;
+
+import com.github.liblevenshtein.SortedDawgBuilder;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+/**
+ * Terms of a dictionary, partitioned by length into one {@link SortedDawg}
+ * per length.  Every edit changes the length of a term by at most one, so the
+ * spelling candidates within distance d of a query term of length n all have
+ * lengths from n - d to n + d, and the partitions of every other length need
+ * not be visited at all.  See {@link PartitionedQueryEngine}.
+ *
+ * <p>The partitions are indexed by length, and each holds its terms in
+ * dictionary order.  Instances are immutable, and safe to share between
+ * threads.</p>
+ */
+public final class LengthPartitionedDawg {
+
+  /**
+   * Terms of each length, or null where there are none.
+   */
+  private final SortedDawg[] partitions;
+
+  /**
+   * Number of terms across every partition.
+   */
+  private final int size;
+
+  /**
+   * Partitions the terms of a dictionary by length.
+   * @param dictionary Dictionary to partition.
+   */
+  public LengthPartitionedDawg(@NonNull final SortedDawg dictionary) {
+    final List<CharArrayList> terms = new ArrayList<>();
+    final IntArrayList counts = new IntArrayList();
+    // The terms arrive in dictionary order, so those of each length do, too
+    new WeightedDictionary(dictionary).terms((term, frequency) -> {
+      while (terms.size() <= term.length()) {
+        terms.add(new CharArrayList());
+        counts.add(0);
+      }
+      final CharArrayList partition = terms.get(term.length());
+      for (int i = 0; i < term.length(); i += 1) {
+        partition.add(term.charAt(i));
+      }
+      counts.set(term.length(), counts.getInt(term.length()) + 1);
+    });
+    final char[][] arenas = new char[terms.size()][];
+    for (int length = 0; length < arenas.length; length += 1) {
+      arenas[length] = terms.get(length).toCharArray();
+    }
+    this.partitions = build(arenas, counts.toIntArray());
+    this.size = WeightedDictionary.size(dictionary);
+  }
+
+  /**
+   * Builds the partitions of terms that have already been grouped by length,
+   * such as those read from a file.
+   * @param terms Terms of each length, indexed by length, back-to-back in
+   *   dictionary order, or null where there are none.
+   * @param sizes Number of terms of each length, indexed by length.
+   * @throws IllegalArgumentException If the terms of any length are not in
+   *   dictionary order.
+   */
+  public LengthPartitionedDawg(@NonNull final char[][] terms, @NonNull final int[] sizes) {
+    this.partitions = build(terms, sizes);
+    int count = 0;
+    for (final SortedDawg partition : partitions) {
+      count += null == partition ? 0 : WeightedDictionary.size(partition);
+    }
+    this.size = count;
+  }
+
+  /**
+   * Builds the partition of each length, concurrently, as each is independent
+   * of the others.
+   * @param terms Terms of each length, back-to-back in dictionary order.
+   * @param sizes Number of terms of each length.
+   * @return Partition of each length, or null where there are no terms.
+   */
+  private static SortedDawg[] build(final char[][] terms, final int[] sizes) {
+    final SortedDawg[] partitions = new SortedDawg[Math.min(terms.length, sizes.length)];
+    IntStream.range(0, partitions.length).parallel().forEach(length -> {
+      if (null != terms[length] && sizes[length] > 0) {
+        final SortedDawgBuilder builder = new SortedDawgBuilder();
+        final char[] term = new char[length];
+        for (int rank = 0; rank < sizes[length]; rank += 1) {
+          System.arraycopy(terms[length], rank * length, term, 0, length);
+          builder.add(term, length);
+        }
+        partitions[length] = builder.build();
+      }
+    });
+    return partitions;
+  }
+
+  /**
+   * Number of terms across every partition.
+   * @return Number of terms in the dictionary.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Greatest length of any term, or -1 if there are none.
+   * @return Length of the longest term.
+   */
+  public int maxLength() {
+    int length = partitions.length - 1;
+    while (length >= 0 && null == partitions[length]) {
+      length -= 1;
+    }
+    return length;
+  }
+
+  /**
+   * Number of partitions that hold any terms.
+   * @return Number of non-empty partitions.
+   */
+  public int partitions() {
+    int count = 0;
+    for (final SortedDawg partition : partitions) {
+      if (null != partition) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Terms of some length.
+   * @param length Length of the terms.
+   * @return Terms of the length, or null if there are none.
+   */
+  public SortedDawg partition(final int length) {
+    return length >= 0 && length < partitions.length ? partitions[length] : null;
+  }
+}
@@ -0,0 +1,103 @@
+package com.github.liblevenshtein.query;
+
+import lombok.NonNull;
+
+/**
+ * Queries another engine, recording each query in a {@link QueryMeter}: the
+ * time it took, the number of spelling candidates it found and whether it was
+ * cut short.  This costs two reads of the clock and a few uncontended
+ * increments per query, nothing per candidate beyond a forwarded call.
+ *
+ * <p>Instances are not thread-safe; build one per thread, sharing the
+ * meter.</p>
+ */
+public class MeteredQueryEngine implements QueryEngine {
+
+  /**
+   * Engine whose queries are recorded.
+   */
+  private final QueryEngine engine;
+
+  /**
+   * Records each query.
+   */
+  private final QueryMeter meter;
+
+  /**
+   * Visits the spelling candidates of the current query term.
+   */
+  private CandidateVisitor queryVisitor = null;
+
+  /**
+   * Number of spelling candidates of the current query term.
+   */
+  private int found = 0;
+
+  /**
+   * Whether the current query was cut short.
+   */
+  private boolean truncated = false;
+
+  /**
+   * Forwards spelling candidates to {@link #queryVisitor}, counting them.
+   */
+  private final CandidateVisitor forwarder = new CandidateVisitor() {
+    @Override
+    public void visit(final CharSequence term, final int distance) {
+      found += 1;
+      queryVisitor.visit(term, distance);
+    }
+
+    @Override
+    public void source(final String name) {
+      queryVisitor.source(name);
+    }
+
+    @Override
+    public void truncated() {
+      truncated = true;
+      queryVisitor.truncated();
+    }
+  };
+
+  /**
+   * Constructs a new engine that records the queries of another.
+   * @param engine Engine whose queries are recorded.
+   * @param meter Records each query.
+   */
+  public MeteredQueryEngine(
+      @NonNull final QueryEngine engine,
+      @NonNull final QueryMeter meter) {
+    this.engine = engine;
+    this.meter = meter;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int maxDistance() {
+    return engine.maxDistance();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    queryVisitor = visitor;
+    this.found = 0;
+    this.truncated = false;
+    final long start = System.nanoTime();
+    try {
+      engine.query(term, distance, forwarder);
+    }
+    finally {
+      meter.record(System.nanoTime() - start, found, truncated);
+      queryVisitor = null;
+    }
+  }
+}
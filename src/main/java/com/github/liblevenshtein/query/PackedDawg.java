@@ -0,0 +1,295 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+/**
+ * A {@link SortedDawg} packed into primitive arrays, as a compressed sparse
+ * row (CSR) graph: nodes are numbered, and the edges of each node are stored
+ * contiguously, in the order of their labels, as one array of labels and a
+ * parallel array of the numbers of the nodes they lead to.  The edges of node
+ * n are those from {@link #edgesStart(int)} to {@link #edgesEnd(int)}.
+ *
+ * <p>A {@link DawgNode} is an object with a map of its edges, and each edge an
+ * entry of that map, so following an edge means following several pointers to
+ * objects strewn across the heap.  Here, there are no per-node or per-edge
+ * objects: the labels of a node's edges share cache lines, and nodes are
+ * numbered depth-first, so the children of a node usually follow it closely.
+ * The length of the longest path beneath each node is computed as the
+ * dictionary is packed, for pruning subtrees whose terms are all too
+ * short.</p>
+ *
+ * <p>Instances are immutable, and safe to share between threads.</p>
+ */
+public final class PackedDawg {
+
+  /**
+   * Number of the root node.
+   */
+  public static final int ROOT = 0;
+
+  /**
+   * Bytes of the header of each array.
+   */
+  private static final int ARRAY_HEADER_BYTES = 16;
+
+  /**
+   * Bits in each word of {@link #finals}.
+   */
+  private static final int WORD_BITS = Long.SIZE;
+
+  /**
+   * Index of the first edge of each node, followed by the number of edges.
+   */
+  private final int[] edgeOffsets;
+
+  /**
+   * Label of each edge.
+   */
+  private final char[] labels;
+
+  /**
+   * Number of the node each edge leads to.
+   */
+  private final int[] targets;
+
+  /**
+   * Whether each node is final, as a bit set.
+   */
+  private final long[] finals;
+
+  /**
+   * Length of the longest path from each node to a final node beneath it.
+   */
+  private final int[] heights;
+
+  /**
+   * Number of terms in the dictionary.
+   * -- GETTER --
+   * Number of terms in the dictionary.
+   * @return Number of terms in the dictionary.
+   */
+  @Getter
+  private final int size;
+
+  /**
+   * Packs a dictionary.  The dictionary is not modified, and later changes to
+   * it are not reflected here.
+   * @param dictionary Dictionary to pack.
+   */
+  public PackedDawg(@NonNull final SortedDawg dictionary) {
+    final Reference2IntOpenHashMap<DawgNode> ids = new Reference2IntOpenHashMap<>();
+    final List<DawgNode> nodes = number(dictionary.root(), ids);
+    int edges = 0;
+    for (final DawgNode node : nodes) {
+      edges += node.edges().size();
+    }
+
+    this.edgeOffsets = new int[nodes.size() + 1];
+    this.labels = new char[edges];
+    this.targets = new int[edges];
+    this.finals = new long[(nodes.size() + WORD_BITS - 1) / WORD_BITS];
+    int edge = 0;
+    for (int id = 0; id < nodes.size(); id += 1) {
+      final DawgNode node = nodes.get(id);
+      edgeOffsets[id] = edge;
+      if (node.isFinal()) {
+        finals[id / WORD_BITS] |= 1L << (id % WORD_BITS);
+      }
+      for (final char label : sortedLabels(node)) {
+        labels[edge] = label;
+        targets[edge] = ids.getInt(node.transition(label));
+        edge += 1;
+      }
+    }
+    edgeOffsets[nodes.size()] = edge;
+
+    this.heights = new int[nodes.size()];
+    Arrays.fill(heights, -1);
+    for (int id = nodes.size() - 1; id >= 0; id -= 1) {
+      measure(id);
+    }
+    this.size = WeightedDictionary.size(dictionary);
+  }
+
+  /**
+   * Number of nodes in the dictionary.
+   * @return Number of nodes.
+   */
+  public int nodes() {
+    return heights.length;
+  }
+
+  /**
+   * Number of edges in the dictionary.
+   * @return Number of edges.
+   */
+  public int edges() {
+    return labels.length;
+  }
+
+  /**
+   * Index of the first edge of a node.
+   * @param node Number of the node.
+   * @return Index of the node's first edge.
+   */
+  public int edgesStart(final int node) {
+    return edgeOffsets[node];
+  }
+
+  /**
+   * Index just past the last edge of a node.
+   * @param node Number of the node.
+   * @return Index just past the node's last edge.
+   */
+  public int edgesEnd(final int node) {
+    return edgeOffsets[node + 1];
+  }
+
+  /**
+   * Label of an edge.
+   * @param edge Index of the edge.
+   * @return Label of the edge.
+   */
+  public char label(final int edge) {
+    return labels[edge];
+  }
+
+  /**
+   * Node an edge leads to.
+   * @param edge Index of the edge.
+   * @return Number of the node the edge leads to.
+   */
+  public int target(final int edge) {
+    return targets[edge];
+  }
+
+  /**
+   * Whether a node ends a term.
+   * @param node Number of the node.
+   * @return Whether the node is final.
+   */
+  public boolean isFinal(final int node) {
+    return 0L != (finals[node / WORD_BITS] & 1L << (node % WORD_BITS));
+  }
+
+  /**
+   * Length of the longest path from a node to a final node beneath it.
+   * @param node Number of the node.
+   * @return Height of the subtree under the node.
+   */
+  public int height(final int node) {
+    return heights[node];
+  }
+
+  /**
+   * Follows the edge of a node with some label.
+   * @param node Number of the node.
+   * @param label Label of the edge.
+   * @return Number of the node the edge leads to, or -1 if the node has no
+   *   edge with the label.
+   */
+  public int transition(final int node, final char label) {
+    final int edge = Arrays.binarySearch(labels, edgeOffsets[node], edgeOffsets[node + 1], label);
+    return edge >= 0 ? targets[edge] : -1;
+  }
+
+  /**
+   * Whether the dictionary contains a term.
+   * @param term Term to look up.
+   * @return Whether the dictionary contains the term.
+   */
+  public boolean contains(@NonNull final CharSequence term) {
+    int node = ROOT;
+    for (int i = 0; i < term.length() && node >= 0; i += 1) {
+      node = transition(node, term.charAt(i));
+    }
+    return node >= 0 && isFinal(node);
+  }
+
+  /**
+   * Bytes of heap held by the arrays of this dictionary, including their
+   * headers.
+   * @return Size of this dictionary, in bytes.
+   */
+  public long sizeInBytes() {
+    return (long) Integer.BYTES * (edgeOffsets.length + targets.length + heights.length)
+      + (long) Character.BYTES * labels.length
+      + (long) Long.BYTES * finals.length
+      + 5L * ARRAY_HEADER_BYTES;
+  }
+
+  /**
+   * Measures the height of a node, and of the nodes beneath it that have not
+   * been measured.
+   * @param node Number of the node.
+   * @return Height of the subtree under the node.
+   */
+  private int measure(final int node) {
+    if (heights[node] < 0) {
+      int height = 0;
+      for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge += 1) {
+        height = Math.max(height, 1 + measure(targets[edge]));
+      }
+      heights[node] = height;
+    }
+    return heights[node];
+  }
+
+  /**
+   * Numbers the nodes beneath a root depth-first, visiting the children of
+   * each node in the order of their labels.
+   * @param root Root of the dictionary.
+   * @param ids Receives the number of each node.
+   * @return Nodes, by number.
+   */
+  private static List<DawgNode> number(
+      final DawgNode root,
+      final Reference2IntOpenHashMap<DawgNode> ids) {
+    final List<DawgNode> nodes = new ArrayList<>();
+    final Deque<DawgNode> pending = new ArrayDeque<>();
+    pending.push(root);
+    while (!pending.isEmpty()) {
+      final DawgNode node = pending.pop();
+      if (!ids.containsKey(node)) {
+        ids.put(node, nodes.size());
+        nodes.add(node);
+        final char[] labels = sortedLabels(node);
+        for (int i = labels.length - 1; i >= 0; i -= 1) {
+          final DawgNode child = node.transition(labels[i]);
+          if (!ids.containsKey(child)) {
+            pending.push(child);
+          }
+        }
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * Labels of the edges of a node, in ascending order.
+   * @param node Dictionary node.
+   * @return Labels of the node's edges.
+   */
+  private static char[] sortedLabels(final DawgNode node) {
+    final char[] labels = new char[node.edges().size()];
+    final CharIterator iter = node.labels();
+    for (int i = 0; i < labels.length; i += 1) {
+      labels[i] = iter.nextChar();
+    }
+    Arrays.sort(labels);
+    return labels;
+  }
+}
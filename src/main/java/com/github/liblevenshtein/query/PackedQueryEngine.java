@@ -0,0 +1,159 @@
+package com.github.liblevenshtein.query;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Queries a {@link PackedDawg} by walking it depth-first, exactly as
+ * {@link DawgQueryEngine} walks a
+ * {@link com.github.liblevenshtein.collection.dictionary.SortedDawg}, so both
+ * find the same spelling candidates and visit them in the same order.  Each
+ * node's edges are scanned in place, as consecutive elements of the packed
+ * arrays, and the heights that prune subtrees whose terms are all too short
+ * were measured when the dictionary was packed, so querying neither follows
+ * pointers between objects nor looks anything up in a hash table.
+ *
+ * <p>All scratch space is kept between queries, so once it has grown to fit
+ * the longest query, querying does not allocate per spelling candidate.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.  The dictionary may
+ * be shared by any number of them.</p>
+ */
+public class PackedQueryEngine implements QueryEngine {
+
+  /**
+   * Dictionary to query.
+   */
+  private final PackedDawg dictionary;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link PackedQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link PackedQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Maximum distance of the current query.
+   */
+  private int queryDistance = 0;
+
+  /**
+   * Distances between the query term and each prefix of the current path.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Spelling candidates of the current query.
+   */
+  private final CandidateBuffer candidates = new CandidateBuffer();
+
+  /**
+   * Constructs a new engine for querying a dictionary.
+   * @param dictionary Dictionary to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   */
+  public PackedQueryEngine(
+      @NonNull final PackedDawg dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance) {
+    this.dictionary = dictionary;
+    this.matrix = new DistanceMatrix(algorithm);
+    this.maxDistance = maxDistance;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    matrix.prepare(term, distance);
+    queryDistance = distance;
+    candidates.clear();
+    budget.start();
+    if (distance >= 0) {
+      traverse(PackedDawg.ROOT, 0, filter.start());
+    }
+    candidates.visit(visitor);
+    if (budget.exhausted()) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Visits the subtree under a dictionary node, collecting the spelling
+   * candidates it contains.
+   * @param node Number of the dictionary node whose subtree is visited.
+   * @param depth Length of the path from the root to node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   */
+  private void traverse(final int node, final int depth, final int state) {
+    final int nextDepth = depth + 1;
+    final int minLength = filter.minLength();
+    matrix.ensureDepth(nextDepth);
+    final int end = dictionary.edgesEnd(node);
+    for (int edge = dictionary.edgesStart(node); edge < end && budget.spend(); edge += 1) {
+      final char label = dictionary.label(edge);
+      final int nextState = filter.step(state, depth, label);
+      if (CandidateFilter.REJECT != nextState
+          && matrix.nextRow(nextDepth, label) <= queryDistance) {
+        final int child = dictionary.target(edge);
+        if (nextDepth >= minLength || nextDepth + dictionary.height(child) >= minLength) {
+          collect(dictionary.isFinal(child), nextDepth, nextState);
+          traverse(child, nextDepth, nextState);
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the path to a dictionary node as a spelling candidate, if the
+   * node ends a term within the distance of the query that the filter
+   * accepts.
+   * @param isFinal Whether the node ends a term.
+   * @param depth Length of the path from the root to the node.
+   * @param state State of {@link #filter} after the path from the root to the
+   *   node.
+   */
+  private void collect(final boolean isFinal, final int depth, final int state) {
+    final int distance = matrix.distance(depth);
+    if (isFinal && distance <= queryDistance && filter.accepts(state, depth)) {
+      candidates.collect(matrix.path(), depth, distance);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.github.liblevenshtein.query;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Queries a {@link LengthPartitionedDawg} by walking only the partitions whose
+ * terms may be within the maximum distance of the query term: those whose
+ * lengths are within the distance of its length.  Each is walked depth-first,
+ * like {@link DawgQueryEngine} walks a whole dictionary, but as every term of
+ * a partition has the same length, a subtree is also pruned once the
+ * difference between what remains of its terms and of the query term is
+ * beyond the distance, not only once its row of the distance matrix is (see
+ * {@link DistanceMatrix#lowerBound(int, int)}).  Very short and very long
+ * query terms gain the most, as few terms are near their lengths.
+ *
+ * <p>The partitions are walked in ascending order of length, and each in
+ * dictionary order, so spelling candidates are visited as they are found, in
+ * the same order as the other engines visit them: by length, then by
+ * dictionary order.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.  The partitions may
+ * be shared by any number of them.</p>
+ */
+public class PartitionedQueryEngine implements QueryEngine {
+
+  /**
+   * Dictionary to query.
+   */
+  private final LengthPartitionedDawg dictionary;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link PartitionedQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link PartitionedQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Maximum distance of the current query.
+   */
+  private int queryDistance = 0;
+
+  /**
+   * Length of the terms of the partition being walked.
+   */
+  private int length = 0;
+
+  /**
+   * Distances between the query term and each prefix of the current path.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Exposes spelling candidates to the visitor.
+   */
+  private final CharArraySequence candidate = new CharArraySequence();
+
+  /**
+   * Receives the spelling candidates of the current query.
+   */
+  private CandidateVisitor queryVisitor = null;
+
+  /**
+   * Constructs a new engine for querying a partitioned dictionary.
+   * @param dictionary Dictionary to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   */
+  public PartitionedQueryEngine(
+      @NonNull final LengthPartitionedDawg dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance) {
+    this.dictionary = dictionary;
+    this.matrix = new DistanceMatrix(algorithm);
+    this.maxDistance = maxDistance;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    matrix.prepare(term, distance);
+    queryDistance = distance;
+    budget.start();
+    queryVisitor = visitor;
+    try {
+      final int minLength = Math.max(1, Math.max(filter.minLength(), term.length() - distance));
+      final int maxLength = Math.min(dictionary.maxLength(), term.length() + distance);
+      for (length = minLength; length <= maxLength && !budget.exhausted(); length += 1) {
+        final SortedDawg partition = dictionary.partition(length);
+        if (null != partition) {
+          traverse(partition.root(), 0, filter.start());
+        }
+      }
+    }
+    finally {
+      queryVisitor = null;
+    }
+    if (budget.exhausted()) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Visits the subtree under a node of the current partition, visiting the
+   * spelling candidates it contains.
+   * @param node Dictionary node whose subtree is visited.
+   * @param depth Length of the path from the root to node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   */
+  private void traverse(final DawgNode node, final int depth, final int state) {
+    final int nextDepth = depth + 1;
+    matrix.ensureDepth(nextDepth);
+    final CharIterator labels = node.labels();
+    while (labels.hasNext() && budget.spend()) {
+      final char label = labels.nextChar();
+      final int nextState = filter.step(state, depth, label);
+      if (CandidateFilter.REJECT != nextState
+          && matrix.nextRow(nextDepth, label) <= queryDistance
+          && matrix.lowerBound(nextDepth, length) <= queryDistance) {
+        final DawgNode child = node.transition(label);
+        if (nextDepth < length) {
+          traverse(child, nextDepth, nextState);
+        }
+        else {
+          collect(child.isFinal(), nextDepth, nextState);
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the path to a dictionary node as a spelling candidate, if the
+   * node ends a term within the distance of the query that the filter
+   * accepts.
+   * @param isFinal Whether the node ends a term.
+   * @param depth Length of the path from the root to the node.
+   * @param state State of {@link #filter} after the path from the root to the
+   *   node.
+   */
+  private void collect(final boolean isFinal, final int depth, final int state) {
+    final int distance = matrix.distance(depth);
+    if (isFinal && distance <= queryDistance && filter.accepts(state, depth)) {
+      queryVisitor.visit(candidate.set(matrix.path(), 0, depth), distance);
+    }
+  }
+}
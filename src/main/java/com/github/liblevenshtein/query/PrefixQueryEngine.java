@@ -0,0 +1,278 @@
+package com.github.liblevenshtein.query;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Completes partially-typed, possibly-misspelled query terms.  A term is a
+ * completion of the query term if one of its prefixes is within the maximum
+ * distance of the query term; its distance is that of its nearest prefix.
+ *
+ * <p>Completions are visited by distance and then in dictionary order, as they
+ * are found, and the traversal stops as soon as enough completions have been
+ * visited.  The dictionary is walked once per distance, from the nearest: a
+ * subtree is searched with the distance matrix only while the minimum of its
+ * rows is within the distance, after which every term in it either completes
+ * a prefix at the distance, and is enumerated without the matrix, or is
+ * pruned.  So the work for a query is bounded by the region of the dictionary
+ * near the query term plus the completions actually visited, regardless of
+ * the size of the dictionary.</p>
+ *
+ * <p>Completions must also satisfy the engine's {@link CandidateFilter}, which
+ * prunes subtrees none of whose terms satisfy it from both the search and the
+ * enumeration.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.</p>
+ */
+public class PrefixQueryEngine implements QueryEngine {
+
+  /**
+   * Root of the dictionary.
+   */
+  private final DawgNode root;
+
+  /**
+   * Default, maximum distance between query terms and the prefixes of their
+   * completions.
+   * -- GETTER --
+   * Default, maximum distance between query terms and the prefixes of their
+   * completions.
+   * @return Default, maximum distance between query terms and the prefixes of
+   *   their completions.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Maximum number of completions to visit for each query term.
+   * -- GETTER --
+   * Maximum number of completions to visit for each query term.
+   * @return Maximum number of completions to visit for each query term.
+   */
+  @Getter
+  private final int completionLimit;
+
+  /**
+   * Distances between the query term and each prefix of the current path.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Constraints completions must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints completions must satisfy besides their distance.
+   * @param filter Constraints completions must satisfy besides their distance.
+   * @return This {@link PrefixQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link PrefixQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Heights of the dictionary's subtrees, for pruning those whose terms are
+   * all too short.
+   */
+  private final SubtreeHeights heights = new SubtreeHeights();
+
+  /**
+   * Exposes completions to visitors.
+   */
+  private final CharArraySequence completion = new CharArraySequence();
+
+  /**
+   * Visits the completions of the current query.
+   */
+  private CandidateVisitor queryVisitor = null;
+
+  /**
+   * Distance of the completions being searched for.
+   */
+  private int tier = 0;
+
+  /**
+   * Number of completions that may still be visited for the current query.
+   */
+  private int remaining = 0;
+
+  /**
+   * Constructs a new engine for completing query terms from a dictionary.
+   * @param dictionary Dictionary of completions.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   prefixes of completions.
+   * @param maxDistance Default, maximum distance between query terms and the
+   *   prefixes of their completions.
+   * @param completionLimit Maximum number of completions to visit for each
+   *   query term.
+   */
+  public PrefixQueryEngine(
+      @NonNull final SortedDawg dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance,
+      final int completionLimit) {
+    if (completionLimit < 1) {
+      final String message = String.format(
+        "Expected a positive completion limit, but received [%d]",
+          completionLimit);
+      throw new IllegalArgumentException(message);
+    }
+    this.root = dictionary.root();
+    this.matrix = new DistanceMatrix(algorithm);
+    this.maxDistance = maxDistance;
+    this.completionLimit = completionLimit;
+  }
+
+  /**
+   * Visits the completions of a query term, nearest first, up to the
+   * completion limit.  Each completion is visited with the distance between
+   * the query term and its nearest prefix.
+   * @param term Query term.
+   * @param distance Maximum distance between the query term and the
+   *   prefixes of completions.
+   * @param visitor Visits each completion.
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    matrix.prepare(term, distance);
+    queryVisitor = visitor;
+    this.remaining = completionLimit;
+    try {
+      budget.start();
+      for (tier = 0; tier <= distance && remaining > 0 && !budget.exhausted(); tier += 1) {
+        search(root, 0, term.length(), filter.start());
+      }
+      if (budget.exhausted()) {
+        visitor.truncated();
+      }
+    }
+    finally {
+      queryVisitor = null;
+    }
+  }
+
+  /**
+   * Searches the subtree under a dictionary node for completions at the
+   * current tier's distance.
+   * @param node Dictionary node whose subtree is searched.
+   * @param depth Length of the path from the root to node.
+   * @param nearest Distance between the query term and the nearest prefix of
+   *   the path from the root to node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   */
+  private void search(
+      final DawgNode node,
+      final int depth,
+      final int nearest,
+      final int state) {
+    final int nextDepth = depth + 1;
+    matrix.ensureDepth(nextDepth);
+    final CharIterator labels = node.labels();
+    while (labels.hasNext() && remaining > 0 && budget.spend()) {
+      final char label = labels.nextChar();
+      final int nextState = filter.step(state, depth, label);
+      if (CandidateFilter.REJECT != nextState) {
+        if (matrix.nextRow(nextDepth, label) <= tier) {
+          descend(node.transition(label), nextDepth,
+            Math.min(nearest, matrix.distance(nextDepth)), nextState);
+        }
+        else if (nearest == tier) {
+          // No longer prefix can be nearer, so the subtree completes the path
+          complete(node.transition(label), nextDepth, nextState);
+        }
+      }
+    }
+  }
+
+  /**
+   * Searches the subtree under a child on the path, visiting the child if it
+   * ends a completion at the current tier's distance.
+   * @param child Dictionary node at the end of the path.
+   * @param depth Length of the path from the root to child.
+   * @param nearest Distance between the query term and the nearest prefix of
+   *   the path from the root to child.
+   * @param state State of {@link #filter} after the path from the root to
+   *   child.
+   */
+  private void descend(
+      final DawgNode child,
+      final int depth,
+      final int nearest,
+      final int state) {
+    // Completions nearer than this tier were visited by an earlier one
+    if (nearest >= tier && heights.reaches(child, depth, filter.minLength())) {
+      if (nearest == tier && child.isFinal() && filter.accepts(state, depth)) {
+        visit(depth);
+      }
+      search(child, depth, nearest, state);
+    }
+  }
+
+  /**
+   * Visits the terms in the subtree under a child on the path, and the child
+   * itself, as completions of the path.
+   * @param child Dictionary node at the end of the path.
+   * @param depth Length of the path from the root to child.
+   * @param state State of {@link #filter} after the path from the root to
+   *   child.
+   */
+  private void complete(final DawgNode child, final int depth, final int state) {
+    if (heights.reaches(child, depth, filter.minLength())) {
+      if (child.isFinal() && filter.accepts(state, depth)) {
+        visit(depth);
+      }
+      enumerate(child, depth, state);
+    }
+  }
+
+  /**
+   * Visits every term in the subtree under a dictionary node that satisfies
+   * the filter, in dictionary order, until the completion limit is reached.
+   * @param node Dictionary node whose subtree is enumerated.
+   * @param depth Length of the path from the root to node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   */
+  private void enumerate(final DawgNode node, final int depth, final int state) {
+    final int nextDepth = depth + 1;
+    matrix.ensureDepth(nextDepth);
+    final CharIterator labels = node.labels();
+    while (labels.hasNext() && remaining > 0 && budget.spend()) {
+      final char label = labels.nextChar();
+      final int nextState = filter.step(state, depth, label);
+      if (CandidateFilter.REJECT != nextState) {
+        matrix.path()[depth] = label;
+        complete(node.transition(label), nextDepth, nextState);
+      }
+    }
+  }
+
+  /**
+   * Visits the current path as a completion at the current tier's distance.
+   * @param length Length of the current path.
+   */
+  private void visit(final int length) {
+    completion.set(matrix.path(), 0, length);
+    queryVisitor.visit(completion, tier);
+    remaining -= 1;
+  }
+}
@@ -0,0 +1,230 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.chars.CharArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+/**
+ * Inverted index of the q-grams of every term of a dictionary: each string of
+ * q consecutive characters of a term, mapped to the terms it occurs in.  One
+ * edit destroys at most q of the q-grams of a term (q + 1 for a transposition,
+ * merge or split), so terms within distance d of each other share most of
+ * their q-grams, and those that share too few need not be compared at all
+ * (count filtering).  See {@link QGramQueryEngine}.
+ *
+ * <p>Everything is kept in primitive arrays: the distinct q-grams, each packed
+ * into a long, in ascending order; the offsets of their postings; and the
+ * postings themselves, which are the ranks of the terms in dictionary order,
+ * ascending, with a term repeated once for each time the q-gram occurs in it.
+ * The terms are kept back-to-back in one array of characters, for
+ * verification.</p>
+ *
+ * <p>Instances are immutable, and safe to share between threads.</p>
+ */
+public final class QGramIndex {
+
+  /**
+   * Length of the q-grams of a default index.
+   */
+  public static final int DEFAULT_Q = 2;
+
+  /**
+   * Greatest length of q-grams, as many characters as fit in a long.
+   */
+  public static final int MAX_Q = Long.SIZE / Character.SIZE;
+
+  /**
+   * Bytes of the header of each array.
+   */
+  private static final int ARRAY_HEADER_BYTES = 16;
+
+  /**
+   * Length of the q-grams.
+   * -- GETTER --
+   * Length of the q-grams.
+   * @return Length of the q-grams.
+   */
+  @Getter
+  private final int q;
+
+  /**
+   * Characters of the terms, back-to-back, in dictionary order.
+   */
+  private final char[] chars;
+
+  /**
+   * Offset of each term in {@link #chars}, followed by the number of
+   * characters.
+   */
+  private final int[] termOffsets;
+
+  /**
+   * Distinct q-grams of the terms, in ascending order.
+   */
+  private final long[] grams;
+
+  /**
+   * Offset of the postings of each q-gram, followed by the number of postings.
+   */
+  private final int[] gramOffsets;
+
+  /**
+   * Numbers of the terms each q-gram occurs in, once per occurrence, in
+   * ascending order.
+   */
+  private final int[] postings;
+
+  /**
+   * Builds the index of a dictionary.
+   * @param dictionary Dictionary to index.
+   * @param q Length of the q-grams.
+   * @throws IllegalArgumentException If q is not from 1 to {@link #MAX_Q}.
+   */
+  public QGramIndex(@NonNull final SortedDawg dictionary, final int q) {
+    if (q < 1 || q > MAX_Q) {
+      final String message = String.format(
+        "Expected a q-gram length from 1 to %d, but received [%d]", MAX_Q, q);
+      throw new IllegalArgumentException(message);
+    }
+
+    final CharArrayList terms = new CharArrayList();
+    final IntArrayList offsets = new IntArrayList(dictionary.size() + 1);
+    new WeightedDictionary(dictionary).terms((term, frequency) -> {
+      offsets.add(terms.size());
+      for (int i = 0; i < term.length(); i += 1) {
+        terms.add(term.charAt(i));
+      }
+    });
+    offsets.add(terms.size());
+    this.q = q;
+    this.chars = terms.toCharArray();
+    this.termOffsets = offsets.toIntArray();
+
+    // Counts the postings of each q-gram, then lays them out in gram order
+    final Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+    for (int id = 0; id < size(); id += 1) {
+      for (int i = termOffsets[id]; i + q <= termOffsets[id + 1]; i += 1) {
+        counts.addTo(gram(chars, i, q), 1);
+      }
+    }
+    this.grams = counts.keySet().toLongArray();
+    Arrays.sort(grams);
+    this.gramOffsets = new int[grams.length + 1];
+    final Long2IntOpenHashMap cursors = new Long2IntOpenHashMap(grams.length);
+    for (int g = 0; g < grams.length; g += 1) {
+      gramOffsets[g + 1] = gramOffsets[g] + counts.get(grams[g]);
+      cursors.put(grams[g], gramOffsets[g]);
+    }
+
+    this.postings = new int[gramOffsets[grams.length]];
+    for (int id = 0; id < size(); id += 1) {
+      for (int i = termOffsets[id]; i + q <= termOffsets[id + 1]; i += 1) {
+        postings[cursors.addTo(gram(chars, i, q), 1)] = id;
+      }
+    }
+  }
+
+  /**
+   * Number of terms in the dictionary.
+   * @return Number of terms in the dictionary.
+   */
+  public int size() {
+    return termOffsets.length - 1;
+  }
+
+  /**
+   * Number of distinct q-grams in the dictionary.
+   * @return Number of distinct q-grams.
+   */
+  public int grams() {
+    return grams.length;
+  }
+
+  /**
+   * Bytes of heap held by the arrays of this index, including their headers.
+   * @return Size of this index, in bytes.
+   */
+  public long sizeInBytes() {
+    return (long) Character.BYTES * chars.length
+      + (long) Integer.BYTES * (termOffsets.length + gramOffsets.length + postings.length)
+      + (long) Long.BYTES * grams.length
+      + 5L * ARRAY_HEADER_BYTES;
+  }
+
+  /**
+   * Length of a term.
+   * @param term Number of the term.
+   * @return Length of the term.
+   */
+  int length(final int term) {
+    return termOffsets[term + 1] - termOffsets[term];
+  }
+
+  /**
+   * Copies a term into a buffer.
+   * @param term Number of the term.
+   * @param buffer Receives the term; it must fit it.
+   */
+  void term(final int term, final char[] buffer) {
+    System.arraycopy(chars, termOffsets[term], buffer, 0, length(term));
+  }
+
+  /**
+   * Looks up a q-gram.
+   * @param gram Q-gram, packed by {@link #gram(char[], int, int)}.
+   * @return Number of the q-gram, or -1 if no term has it.
+   */
+  int find(final long gram) {
+    final int g = Arrays.binarySearch(grams, gram);
+    return g >= 0 ? g : -1;
+  }
+
+  /**
+   * Offset of the first posting of a q-gram.
+   * @param gram Number of the q-gram.
+   * @return Offset of the q-gram's first posting.
+   */
+  int postingsStart(final int gram) {
+    return gramOffsets[gram];
+  }
+
+  /**
+   * Offset just past the last posting of a q-gram.
+   * @param gram Number of the q-gram.
+   * @return Offset just past the q-gram's last posting.
+   */
+  int postingsEnd(final int gram) {
+    return gramOffsets[gram + 1];
+  }
+
+  /**
+   * Number of a term in the postings.
+   * @param posting Offset within the postings.
+   * @return Number of the term.
+   */
+  int posting(final int posting) {
+    return postings[posting];
+  }
+
+  /**
+   * Packs the q-gram at some offset of a term into a long.
+   * @param term Holds the term.
+   * @param offset Offset of the q-gram.
+   * @param q Length of the q-gram.
+   * @return Packed q-gram.
+   */
+  static long gram(final char[] term, final int offset, final int q) {
+    long gram = 0L;
+    for (int i = offset; i < offset + q; i += 1) {
+      gram = (gram << Character.SIZE) | term[i];
+    }
+    return gram;
+  }
+}
@@ -0,0 +1,323 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Answers queries with large distances over long terms from a
+ * {@link QGramIndex}, and passes every other query to another engine.  The
+ * automaton search of a dictionary fans out across most of it as the distance
+ * grows, but a term of length n has n - q + 1 q-grams, and one edit destroys at
+ * most q of them (q + 1 for a transposition, merge or split), so any term
+ * within distance d of the query term shares at least
+ * max(n, m) - q + 1 - d * q of its q-grams, where m is the term's length.
+ * While that bound is positive, the terms that may be within the distance are
+ * found by merging the postings of the query term's q-grams, counting those
+ * each term shares (count filtering), and skipping those whose length is
+ * further than d from n (length filtering).  The few that remain are verified
+ * with an exact, bounded distance computation, in dictionary order (see
+ * {@link TermVerifier}).
+ *
+ * <p>Queries are answered from the index if their distance is at least
+ * {@link #minDistance(int)}, their term is at least {@link #minLength(int)}
+ * long, and the bound is positive for their term, so the index prunes; others
+ * go to the fallback engine.  Either way, they print the same spelling
+ * candidates, in the same order: by length, then by dictionary order.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.  The index may be
+ * shared by any number of them.</p>
+ */
+public class QGramQueryEngine implements QueryEngine {
+
+  /**
+   * Default, least distance of the queries answered from the index.
+   */
+  public static final int DEFAULT_MIN_DISTANCE = 3;
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Index to query.
+   */
+  private final QGramIndex index;
+
+  /**
+   * Engine for the queries the index does not answer.
+   */
+  private final QueryEngine fallback;
+
+  /**
+   * Most q-grams of a term one edit may destroy.
+   */
+  private final int gramsPerEdit;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Least distance of the queries answered from the index.
+   * -- SETTER --
+   * Least distance of the queries answered from the index.
+   * @param minDistance Least distance of the queries answered from the index.
+   * @return This {@link QGramQueryEngine}, for fluency.
+   */
+  @Setter
+  private int minDistance = DEFAULT_MIN_DISTANCE;
+
+  /**
+   * Least length of the query terms answered from the index.
+   * -- SETTER --
+   * Least length of the query terms answered from the index.
+   * @param minLength Least length of the query terms answered from the index.
+   * @return This {@link QGramQueryEngine}, for fluency.
+   */
+  @Setter
+  private int minLength = 0;
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link QGramQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link QGramQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Computes the distance between the query term and each term that passes
+   * the filters.
+   */
+  private final TermVerifier verifier;
+
+  /**
+   * Spelling candidates of the current query.
+   */
+  private final CandidateBuffer candidates = new CandidateBuffer();
+
+  /**
+   * Number of q-grams each term shares with the current query term.
+   */
+  private final int[] counts;
+
+  /**
+   * Terms that share any q-gram with the current query term, and then those
+   * that pass the filters.
+   */
+  private final IntArrayList found = new IntArrayList();
+
+  /**
+   * Characters of the current query term.
+   */
+  private char[] query = new char[INITIAL_CAPACITY];
+
+  /**
+   * Q-grams of the current query term, in ascending order.
+   */
+  private long[] grams = new long[INITIAL_CAPACITY];
+
+  /**
+   * Exposes terms to {@link #filter}.
+   */
+  private final CharArraySequence sequence = new CharArraySequence();
+
+  /**
+   * Constructs a new engine for querying an index.
+   * @param index Index to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   * @param fallback Engine for the queries the index does not answer, over the
+   *   same dictionary, with the same algorithm.
+   */
+  public QGramQueryEngine(
+      @NonNull final QGramIndex index,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance,
+      @NonNull final QueryEngine fallback) {
+    this.index = index;
+    this.fallback = fallback;
+    this.gramsPerEdit = Algorithm.STANDARD == algorithm ? index.q() : index.q() + 1;
+    this.verifier = new TermVerifier(algorithm);
+    this.maxDistance = maxDistance;
+    this.counts = new int[index.size()];
+  }
+
+  /**
+   * Whether the index answers queries of some length and distance.
+   * @param length Length of the query term.
+   * @param distance Maximum distance of the query.
+   * @return Whether the index answers the query.
+   */
+  public boolean answers(final int length, final int distance) {
+    return distance >= Math.max(0, minDistance)
+      && length >= minLength
+      && sharedGrams(length, distance) > 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    if (!answers(term.length(), distance)) {
+      fallback.query(term, distance, visitor);
+      return;
+    }
+    candidates.clear();
+    budget.start();
+    verifier.prepare(term, distance);
+    count(term);
+    select(term.length(), distance);
+    verify(distance);
+    candidates.visit(visitor);
+    if (budget.exhausted()) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Least number of q-grams terms within some distance of each other share.
+   * @param length Length of the longer term.
+   * @param distance Distance between the terms.
+   * @return Least number of q-grams they share, which may be negative.
+   */
+  private int sharedGrams(final int length, final int distance) {
+    return length - index.q() + 1 - distance * gramsPerEdit;
+  }
+
+  /**
+   * Counts the q-grams each term shares with the query term, by merging the
+   * postings of the query term's q-grams.  A q-gram that occurs c times in the
+   * query term and r times in a term is shared min(c, r) times.
+   * @param queryTerm Query term.
+   */
+  private void count(final String queryTerm) {
+    final int length = queryTerm.length();
+    if (query.length < length) {
+      query = new char[Math.max(length, query.length << 1)];
+    }
+    queryTerm.getChars(0, length, query, 0);
+    final int numGrams = length - index.q() + 1;
+    if (grams.length < numGrams) {
+      grams = new long[Math.max(numGrams, grams.length << 1)];
+    }
+    for (int i = 0; i < numGrams; i += 1) {
+      grams[i] = QGramIndex.gram(query, i, index.q());
+    }
+    Arrays.sort(grams, 0, numGrams);
+
+    found.clear();
+    int i = 0;
+    while (i < numGrams && budget.spend()) {
+      int j = i + 1;
+      while (j < numGrams && grams[j] == grams[i]) {
+        j += 1;
+      }
+      final int gram = index.find(grams[i]);
+      if (gram >= 0) {
+        count(gram, j - i);
+      }
+      i = j;
+    }
+  }
+
+  /**
+   * Counts one q-gram of the query term for each term it occurs in.
+   * @param gram Number of the q-gram in the index.
+   * @param occurrences Number of times it occurs in the query term.
+   */
+  private void count(final int gram, final int occurrences) {
+    final int end = index.postingsEnd(gram);
+    int posting = index.postingsStart(gram);
+    while (posting < end) {
+      final int id = index.posting(posting);
+      int run = 1;
+      while (posting + run < end && index.posting(posting + run) == id) {
+        run += 1;
+      }
+      if (0 == counts[id]) {
+        found.add(id);
+      }
+      counts[id] += Math.min(occurrences, run);
+      posting += run;
+    }
+  }
+
+  /**
+   * Keeps the terms whose lengths are within the distance of the query
+   * term's, and that share enough q-grams with it, in dictionary order.  The
+   * counts are reset for the next query.
+   * @param length Length of the query term.
+   * @param distance Maximum distance of the query.
+   */
+  private void select(final int length, final int distance) {
+    int kept = 0;
+    for (int k = 0; k < found.size(); k += 1) {
+      final int id = found.getInt(k);
+      final int termLength = index.length(id);
+      if (Math.abs(termLength - length) <= distance
+          && counts[id] >= sharedGrams(Math.max(length, termLength), distance)) {
+        found.set(kept, id);
+        kept += 1;
+      }
+      counts[id] = 0;
+    }
+    found.size(kept);
+    IntArrays.quickSort(found.elements(), 0, kept);
+  }
+
+  /**
+   * Computes the distance between the query term and each term kept,
+   * collecting those within the maximum distance that satisfy the filter.
+   * @param distance Maximum distance of the query.
+   */
+  private void verify(final int distance) {
+    for (int k = 0; k < found.size() && budget.spend(); k += 1) {
+      final int id = found.getInt(k);
+      final int length = index.length(id);
+      final char[] term = verifier.buffer(length);
+      index.term(id, term);
+      final int termDistance = verifier.distance(length);
+      if (termDistance <= distance && filter.accepts(sequence.set(term, 0, length))) {
+        candidates.collect(term, length, termDistance);
+      }
+    }
+  }
+}
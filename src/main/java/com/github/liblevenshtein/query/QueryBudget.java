@@ -0,0 +1,156 @@
+package com.github.liblevenshtein.query;
+
+/**
+ * Bounds the work of each query, so a few pathological query terms (long
+ * ones, at a large distance, with an expensive algorithm) cannot hold up the
+ * rest.  Query engines {@link #spend()} one step for each dictionary node they
+ * expand, and stop expanding nodes once the budget is exhausted, visiting the
+ * spelling candidates found so far and then {@link CandidateVisitor#truncated()}.
+ *
+ * <p>A query is exhausted after a maximum number of steps, after a maximum
+ * time, or at a deadline shared by every query, whichever comes first.  Once
+ * the deadline has passed, queries are exhausted before their first step, so a
+ * batch that runs out of time degrades to empty, truncated results rather than
+ * running on.  The clock is only read every {@link #CLOCK_INTERVAL} steps, so
+ * time limits are enforced to within that many steps.</p>
+ *
+ * <p>Instances are not thread-safe; build one per engine.</p>
+ */
+public class QueryBudget {
+
+  /**
+   * Number of steps between reads of the clock, which is a power of two.
+   */
+  public static final int CLOCK_INTERVAL = 1 << 10;
+
+  /**
+   * Maximum number of steps of each query.
+   */
+  private long maxSteps = Long.MAX_VALUE;
+
+  /**
+   * Maximum time of each query, in nanoseconds.
+   */
+  private long maxNanos = Long.MAX_VALUE;
+
+  /**
+   * Time, on {@link System#nanoTime()}, at which every query is exhausted.
+   */
+  private long deadline = 0L;
+
+  /**
+   * Whether there is a {@link #deadline}.
+   */
+  private boolean hasDeadline = false;
+
+  /**
+   * Number of steps spent by the current query.
+   */
+  private long steps = 0L;
+
+  /**
+   * Time, on {@link System#nanoTime()}, at which the current query started.
+   */
+  private long started = 0L;
+
+  /**
+   * Time the current query may take, in nanoseconds.
+   */
+  private long allowedNanos = Long.MAX_VALUE;
+
+  /**
+   * Whether the current query has exhausted its budget.
+   */
+  private boolean exhausted = false;
+
+  /**
+   * Limits the number of steps of each query.
+   * @param limit Maximum number of steps of each query.
+   * @return This {@link QueryBudget}, for fluency.
+   */
+  public QueryBudget maxSteps(final long limit) {
+    this.maxSteps = limit;
+    return this;
+  }
+
+  /**
+   * Limits the time of each query.
+   * @param limit Maximum time of each query, in nanoseconds.
+   * @return This {@link QueryBudget}, for fluency.
+   */
+  public QueryBudget maxNanos(final long limit) {
+    this.maxNanos = limit;
+    return this;
+  }
+
+  /**
+   * Sets a deadline for every query.
+   * @param nanoTime Time, on {@link System#nanoTime()}, at which every query
+   *   is exhausted.
+   * @return This {@link QueryBudget}, for fluency.
+   */
+  public QueryBudget deadline(final long nanoTime) {
+    this.deadline = nanoTime;
+    this.hasDeadline = true;
+    return this;
+  }
+
+  /**
+   * Starts the budget of a new query.
+   * @return This {@link QueryBudget}, for fluency.
+   */
+  public QueryBudget start() {
+    steps = 0L;
+    exhausted = false;
+    allowedNanos = maxNanos;
+    if (hasDeadline || Long.MAX_VALUE != maxNanos) {
+      started = System.nanoTime();
+      if (hasDeadline) {
+        allowedNanos = Math.min(allowedNanos, deadline - started);
+      }
+      exhausted = allowedNanos <= 0L;
+    }
+    return this;
+  }
+
+  /**
+   * Spends one step of the current query.
+   * @return Whether the step could be spent; once it cannot, the query is
+   *   exhausted and no further steps can be.
+   */
+  public boolean spend() {
+    if (exhausted) {
+      return false;
+    }
+    steps += 1L;
+    if (steps > maxSteps || 0L == (steps & (CLOCK_INTERVAL - 1)) && outOfTime()) {
+      exhausted = true;
+    }
+    return !exhausted;
+  }
+
+  /**
+   * Whether the current query has run out of time.
+   * @return Whether the current query has run out of time.
+   */
+  private boolean outOfTime() {
+    return Long.MAX_VALUE != allowedNanos && System.nanoTime() - started >= allowedNanos;
+  }
+
+  /**
+   * Number of steps spent by the current query, including the one that
+   * exhausted it, if any.
+   * @return Number of steps spent by the current query.
+   */
+  public long steps() {
+    return steps;
+  }
+
+  /**
+   * Whether the current query has exhausted its budget.
+   * @return Whether the current query was cut short.
+   */
+  public boolean exhausted() {
+    return exhausted;
+  }
+}
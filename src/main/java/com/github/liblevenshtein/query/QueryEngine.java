@@ -0,0 +1,33 @@
+package com.github.liblevenshtein.query;
+
+/**
+ * Queries a dictionary for spelling candidates.
+ */
+public interface QueryEngine {
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  int maxDistance();
+
+  /**
+   * Visits each spelling candidate for a query term.
+   * @param term Query term.
+   * @param maxDistance Maximum distance between the query term and spelling
+   *   candidates.
+   * @param visitor Visits each spelling candidate.
+   */
+  void query(String term, int maxDistance, CandidateVisitor visitor);
+
+  /**
+   * Visits each spelling candidate for a query term, within the default
+   * maximum distance.
+   * @param term Query term.
+   * @param visitor Visits each spelling candidate.
+   */
+  default void query(final String term, final CandidateVisitor visitor) {
+    query(term, maxDistance(), visitor);
+  }
+}
@@ -0,0 +1,175 @@
+package com.github.liblevenshtein.query;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Summarizes the time taken to query some dictionary, across every thread
+ * that queries it.  Recording is contention-free, so one summary may be shared
+ * by the engines of every worker.
+ *
+ * <p>Times are also counted in a histogram of log-linear buckets: each power
+ * of two is split into {@link #SUB_BUCKETS} buckets of equal width, so
+ * percentiles are accurate to within an eighth of their magnitude, whatever
+ * it is, while the histogram stays a fixed size.</p>
+ */
+public class QueryLatency {
+
+  /**
+   * Number of buckets each power of two is split into, which is a power of
+   * two.
+   */
+  static final int SUB_BUCKETS = 8;
+
+  /**
+   * Number of bits that index the buckets within a power of two.
+   */
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+  /**
+   * Number of buckets, enough for every non-negative long.
+   */
+  private static final int BUCKETS =
+    (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  /**
+   * Number of queries recorded.
+   */
+  private final LongAdder queries = new LongAdder();
+
+  /**
+   * Total time taken by the queries, in nanoseconds.
+   */
+  private final LongAdder totalNanos = new LongAdder();
+
+  /**
+   * Longest time taken by any query, in nanoseconds.
+   */
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+  /**
+   * Number of queries that took a time within each bucket.
+   */
+  private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+  /**
+   * Constructs an empty summary.
+   */
+  public QueryLatency() {
+    for (int i = 0; i < BUCKETS; i += 1) {
+      histogram[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records the time taken by a query.
+   * @param nanos Time taken by the query, in nanoseconds.
+   */
+  public void record(final long nanos) {
+    queries.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    histogram[bucket(Math.max(0L, nanos))].increment();
+  }
+
+  /**
+   * Number of queries recorded.
+   * @return Number of queries recorded.
+   */
+  public long queries() {
+    return queries.sum();
+  }
+
+  /**
+   * Total time taken by the queries.
+   * @return Total time taken by the queries, in nanoseconds.
+   */
+  public long totalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * Mean time taken by the queries.
+   * @return Mean time taken by the queries, in nanoseconds, or zero if none
+   *   have been recorded.
+   */
+  public long meanNanos() {
+    final long count = queries();
+    return 0 == count ? 0L : totalNanos() / count;
+  }
+
+  /**
+   * Longest time taken by any query.
+   * @return Longest time taken by any query, in nanoseconds.
+   */
+  public long maxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Time within which some fraction of the queries were answered.  Queries
+   * recorded while the histogram is read may or may not be counted.
+   * @param fraction Fraction of the queries, between 0 and 1 (e.g. 0.99 for
+   *   the 99th percentile).
+   * @return Upper bound of the bucket holding the percentile, but no more than
+   *   {@link #maxNanos()}, in nanoseconds, or zero if no queries have been
+   *   recorded.
+   */
+  public long percentileNanos(final double fraction) {
+    if (!(0.0 <= fraction && fraction <= 1.0)) {
+      final String message = String.format(
+        "Expected a fraction between 0 and 1, but received [%f]", fraction);
+      throw new IllegalArgumentException(message);
+    }
+
+    final long[] counts = new long[BUCKETS];
+    long total = 0L;
+    for (int i = 0; i < BUCKETS; i += 1) {
+      counts[i] = histogram[i].sum();
+      total += counts[i];
+    }
+
+    if (0L == total) {
+      return 0L;
+    }
+
+    final long rank = Math.max(1L, (long) Math.ceil(fraction * total));
+    long seen = 0L;
+    for (int i = 0; i < BUCKETS; i += 1) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(maxNanos(), upperBound(i));
+      }
+    }
+    return maxNanos();
+  }
+
+  /**
+   * Bucket of a time.
+   * @param nanos Non-negative time, in nanoseconds.
+   * @return Index of the bucket holding the time.
+   */
+  static int bucket(final long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    }
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    final int offset = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + offset;
+  }
+
+  /**
+   * Greatest time held by a bucket.
+   * @param bucket Index of the bucket.
+   * @return Greatest time held by the bucket, in nanoseconds.
+   */
+  static long upperBound(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = bucket / SUB_BUCKETS - 1;
+    final long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowerBound + (1L << shift) - 1L;
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.liblevenshtein.query;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Counts the queries answered by some engines, the spelling candidates they
+ * found and the time they took, across every thread that queries them.
+ * Recording is contention-free, so one meter may be shared by the engines of
+ * every worker, and read while they run.
+ */
+public class QueryMeter {
+
+  /**
+   * Time taken by the queries.
+   * -- GETTER --
+   * Time taken by the queries.
+   * @return Time taken by the queries.
+   */
+  @Getter
+  private final QueryLatency latency = new QueryLatency();
+
+  /**
+   * Number of spelling candidates found.
+   */
+  private final LongAdder candidates = new LongAdder();
+
+  /**
+   * Number of queries cut short.
+   */
+  private final LongAdder truncated = new LongAdder();
+
+  /**
+   * Records a query.
+   * @param nanos Time taken by the query, in nanoseconds.
+   * @param found Number of spelling candidates the query found.
+   * @param cutShort Whether the query was cut short.
+   */
+  public void record(final long nanos, final int found, final boolean cutShort) {
+    latency.record(nanos);
+    candidates.add(found);
+    if (cutShort) {
+      truncated.increment();
+    }
+  }
+
+  /**
+   * Number of queries answered.
+   * @return Number of queries answered.
+   */
+  public long queries() {
+    return latency.queries();
+  }
+
+  /**
+   * Number of spelling candidates found.
+   * @return Number of spelling candidates found.
+   */
+  public long candidates() {
+    return candidates.sum();
+  }
+
+  /**
+   * Number of queries cut short.
+   * @return Number of queries cut short.
+   */
+  public long truncated() {
+    return truncated.sum();
+  }
+}
@@ -0,0 +1,647 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Query term that is edited one keystroke at a time, such as the text of a
+ * search box, whose spelling candidates are maintained incrementally.
+ *
+ * <p>For each prefix of the query term, the session keeps a frontier of every
+ * path through the dictionary within the maximum distance of that prefix,
+ * along with its distance.  Appending a character derives the next frontier
+ * from the last one (and, for transpositions and merges, the one before it),
+ * and deleting characters just discards the frontiers of the deleted
+ * prefixes, so the cost of an edit is proportional to the frontiers it
+ * touches rather than to the length of the query term.  Paths are interned in
+ * an arena as they are first reached, and kept until the session is cleared,
+ * so retyping a deleted character revisits the same paths without expanding
+ * the dictionary again.  Replacing the query term with one that shares no
+ * prefix with it clears the session first, so a long-lived session holds only
+ * the paths reached since its query term last changed completely.</p>
+ *
+ * <p>Spelling candidates are the final paths of the last frontier, and are
+ * visited in the same order as {@link DawgQueryEngine} would visit them: by
+ * length, then by dictionary order.  Those rejected by the session's
+ * {@link CandidateFilter} are skipped before they are visited; the frontiers
+ * themselves are not filtered, since later edits may bring other paths into
+ * them.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+public class QuerySession {
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Marks paths whose children have not been interned, yet.
+   */
+  private static final int UNEXPANDED = -1;
+
+  /**
+   * Interned path of the root of the dictionary.
+   */
+  private static final int ROOT = 0;
+
+  /**
+   * Root of the dictionary.
+   */
+  private final DawgNode root;
+
+  /**
+   * Whether adjacent characters may be transposed at the cost of one edit.
+   */
+  private final boolean transposition;
+
+  /**
+   * Whether two characters may be merged into one, or one split into two, at
+   * the cost of one edit.
+   */
+  private final boolean mergeAndSplit;
+
+  /**
+   * Maximum distance between the query term and spelling candidates.
+   * -- GETTER --
+   * Maximum distance between the query term and spelling candidates.
+   * @return Maximum distance between the query term and spelling candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Exposes spelling candidates to visitors.
+   */
+  private final CharArraySequence candidate = new CharArraySequence();
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link QuerySession}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Orders spelling candidates by length, then by dictionary order.
+   */
+  private final CandidateOrder candidateOrder = new CandidateOrder();
+
+  /**
+   * Number of interned paths.
+   */
+  private int paths = 0;
+
+  /**
+   * Interned path that each path extends by one label.
+   */
+  private int[] parents = new int[INITIAL_CAPACITY];
+
+  /**
+   * Last label of each interned path.
+   */
+  private char[] labels = new char[INITIAL_CAPACITY];
+
+  /**
+   * Length of each interned path.
+   */
+  private int[] depths = new int[INITIAL_CAPACITY];
+
+  /**
+   * Dictionary node at the end of each interned path.
+   */
+  private DawgNode[] nodes = new DawgNode[INITIAL_CAPACITY];
+
+  /**
+   * First child of each interned path, whose children are interned
+   * contiguously in dictionary order, or {@link #UNEXPANDED}.
+   */
+  private int[] firstChildren = new int[INITIAL_CAPACITY];
+
+  /**
+   * Number of children of each interned path.
+   */
+  private int[] childCounts = new int[INITIAL_CAPACITY];
+
+  /**
+   * Frontier each interned path was last added to, for deduplicating paths
+   * within a frontier.
+   */
+  private int[] stamps = new int[INITIAL_CAPACITY];
+
+  /**
+   * Index of each interned path within the frontier it was last added to.
+   */
+  private int[] slots = new int[INITIAL_CAPACITY];
+
+  /**
+   * Number of frontiers built so far, which identifies the one being built.
+   */
+  private int generation = 0;
+
+  /**
+   * Characters of the query term.
+   */
+  private char[] term = new char[INITIAL_CAPACITY];
+
+  /**
+   * Length of the query term.
+   * -- GETTER --
+   * Length of the query term.
+   * @return Length of the query term.
+   */
+  @Getter
+  private int length = 0;
+
+  /**
+   * Start of the frontier of each prefix of the query term, within
+   * {@link #entries}, followed by the end of the last frontier.
+   */
+  private int[] levels = new int[INITIAL_CAPACITY];
+
+  /**
+   * Interned paths of the frontiers, back-to-back.
+   */
+  private int[] entries = new int[INITIAL_CAPACITY];
+
+  /**
+   * Distances between the prefixes of the query term and the paths of their
+   * frontiers.
+   */
+  private int[] distances = new int[INITIAL_CAPACITY];
+
+  /**
+   * Characters of the spelling candidates, back-to-back.
+   */
+  private char[] arena = new char[INITIAL_CAPACITY];
+
+  /**
+   * Offsets of the spelling candidates, within {@link #arena}.
+   */
+  private int[] offsets = new int[INITIAL_CAPACITY];
+
+  /**
+   * Lengths of the spelling candidates.
+   */
+  private int[] lengths = new int[INITIAL_CAPACITY];
+
+  /**
+   * Distances of the spelling candidates.
+   */
+  private int[] candidateDistances = new int[INITIAL_CAPACITY];
+
+  /**
+   * Indices of the spelling candidates, in the order they are visited.
+   */
+  private int[] order = new int[INITIAL_CAPACITY];
+
+  /**
+   * Constructs a new session with an empty query term.
+   * @param dictionary Dictionary to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Maximum distance between the query term and spelling
+   *   candidates.
+   */
+  public QuerySession(
+      @NonNull final SortedDawg dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance) {
+    if (maxDistance < 0) {
+      final String message = String.format(
+        "Expected a non-negative, maximum distance, but received [%d]",
+          maxDistance);
+      throw new IllegalArgumentException(message);
+    }
+    this.root = dictionary.root();
+    this.transposition = Algorithm.TRANSPOSITION == algorithm;
+    this.mergeAndSplit = Algorithm.MERGE_AND_SPLIT == algorithm;
+    this.maxDistance = maxDistance;
+    clear();
+  }
+
+  /**
+   * Query term of this session.
+   * @return Query term of this session.
+   */
+  public String term() {
+    return new String(term, 0, length);
+  }
+
+  /**
+   * Empties the query term, and discards every interned path.
+   * @return This {@link QuerySession}, for fluency.
+   */
+  public QuerySession clear() {
+    Arrays.fill(nodes, 0, paths, null);
+    paths = 0;
+    length = 0;
+    intern(ROOT, '\0', 0, root);
+    generation += 1;
+    levels[0] = 0;
+    levels[1] = 0;
+    offer(ROOT, 0);
+    close(0);
+    return this;
+  }
+
+  /**
+   * Appends a character to the query term.
+   * @param c Character to append.
+   * @return This {@link QuerySession}, for fluency.
+   */
+  public QuerySession append(final char c) {
+    if (term.length == length) {
+      term = Arrays.copyOf(term, length << 1);
+    }
+    if (levels.length <= length + 2) {
+      levels = Arrays.copyOf(levels, levels.length << 1);
+    }
+    term[length] = c;
+    length += 1;
+
+    final int previous = length - 1;
+    final int next = levels[length];
+    generation += 1;
+    levels[length + 1] = next;
+
+    advance(levels[previous], next, c);
+    if (previous > 0 && (transposition || mergeAndSplit)) {
+      transposeOrMerge(levels[previous - 1], levels[previous], c, term[previous - 1]);
+    }
+    if (mergeAndSplit) {
+      split(levels[previous], next);
+    }
+
+    close(next);
+    return this;
+  }
+
+  /**
+   * Appends characters to the query term, one at a time.
+   * @param chars Characters to append.
+   * @return This {@link QuerySession}, for fluency.
+   */
+  public QuerySession append(@NonNull final CharSequence chars) {
+    for (int i = 0; i < chars.length(); i += 1) {
+      append(chars.charAt(i));
+    }
+    return this;
+  }
+
+  /**
+   * Adds the paths one insertion, match or substitution from the paths of the
+   * last frontier to the frontier being built.
+   * @param start Start of the last frontier, within {@link #entries}.
+   * @param end End of the last frontier, within {@link #entries}.
+   * @param c Character appended to the query term.
+   */
+  private void advance(final int start, final int end, final char c) {
+    for (int k = start; k < end; k += 1) {
+      final int path = entries[k];
+      final int distance = distances[k];
+      if (distance < maxDistance) {
+        offer(path, distance + 1);
+      }
+      expand(path);
+      for (int child = firstChildren[path], last = child + childCounts[path];
+          child < last; child += 1) {
+        offer(child, distance + (labels[child] == c ? 0 : 1));
+      }
+    }
+  }
+
+  /**
+   * Adds the paths one transposition, or one merge, from the paths of the
+   * frontier before last to the frontier being built.
+   * @param start Start of the frontier before last, within {@link #entries}.
+   * @param end End of the frontier before last, within {@link #entries}.
+   * @param c Character appended to the query term.
+   * @param b Character before it in the query term.
+   */
+  private void transposeOrMerge(final int start, final int end, final char c, final char b) {
+    for (int k = start; k < end; k += 1) {
+      if (distances[k] < maxDistance) {
+        if (transposition) {
+          transpose(entries[k], distances[k] + 1, c, b);
+        }
+        else {
+          offerChildren(entries[k], distances[k] + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the paths one split from the paths of the last frontier to the
+   * frontier being built.
+   * @param start Start of the last frontier, within {@link #entries}.
+   * @param end End of the last frontier, within {@link #entries}.
+   */
+  private void split(final int start, final int end) {
+    for (int k = start; k < end; k += 1) {
+      if (distances[k] < maxDistance) {
+        final int path = entries[k];
+        for (int child = firstChildren[path], last = child + childCounts[path];
+            child < last; child += 1) {
+          offerChildren(child, distances[k] + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes characters from the end of the query term.
+   * @param count Number of characters to delete.
+   * @return This {@link QuerySession}, for fluency.
+   */
+  public QuerySession delete(final int count) {
+    if (count < 0 || count > length) {
+      final String message = String.format(
+        "Cannot delete [%d] characters from a query term of length [%d]",
+          count, length);
+      throw new IllegalArgumentException(message);
+    }
+    length -= count;
+    return this;
+  }
+
+  /**
+   * Edits the query term into another, by deleting the characters after their
+   * common prefix and appending the rest of the other term.  If they share no
+   * prefix, the session is cleared instead, discarding the interned paths of
+   * the old term rather than keeping them for the life of the session.
+   * @param other Term to edit the query term into.
+   * @return This {@link QuerySession}, for fluency.
+   */
+  public QuerySession edit(@NonNull final CharSequence other) {
+    int common = 0;
+    final int limit = Math.min(length, other.length());
+    while (common < limit && term[common] == other.charAt(common)) {
+      common += 1;
+    }
+    if (0 == common) {
+      clear();
+    }
+    else {
+      delete(length - common);
+    }
+    for (int i = common; i < other.length(); i += 1) {
+      append(other.charAt(i));
+    }
+    return this;
+  }
+
+  /**
+   * Number of interned paths, which the memory of the session is proportional
+   * to.
+   * @return Number of interned paths.
+   */
+  int paths() {
+    return paths;
+  }
+
+  /**
+   * Visits each spelling candidate of the query term.
+   * @param visitor Visits each spelling candidate.
+   */
+  public void candidates(@NonNull final CandidateVisitor visitor) {
+    candidates(maxDistance, visitor);
+  }
+
+  /**
+   * Visits each spelling candidate of the query term within a distance, which
+   * may be lower than the session's maximum distance.
+   * @param distance Maximum distance between the query term and spelling
+   *   candidates.
+   * @param visitor Visits each spelling candidate.
+   */
+  public void candidates(final int distance, @NonNull final CandidateVisitor visitor) {
+    int candidates = 0;
+    int arenaLength = 0;
+    for (int k = levels[length]; k < levels[length + 1]; k += 1) {
+      final int path = entries[k];
+      final int depth = depths[path];
+      if (depth > 0 && distances[k] <= distance && nodes[path].isFinal()) {
+        if (offsets.length == candidates) {
+          final int capacity = candidates << 1;
+          offsets = Arrays.copyOf(offsets, capacity);
+          lengths = Arrays.copyOf(lengths, capacity);
+          candidateDistances = Arrays.copyOf(candidateDistances, capacity);
+          order = Arrays.copyOf(order, capacity);
+        }
+        if (arena.length < arenaLength + depth) {
+          arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaLength + depth));
+        }
+        int i = arenaLength + depth;
+        for (int p = path; ROOT != p; p = parents[p]) {
+          i -= 1;
+          arena[i] = labels[p];
+        }
+        if (filter.accepts(candidate.set(arena, arenaLength, depth))) {
+          offsets[candidates] = arenaLength;
+          lengths[candidates] = depth;
+          candidateDistances[candidates] = distances[k];
+          order[candidates] = candidates;
+          arenaLength += depth;
+          candidates += 1;
+        }
+      }
+    }
+
+    IntArrays.quickSort(order, 0, candidates, candidateOrder);
+    for (int j = 0; j < candidates; j += 1) {
+      final int c = order[j];
+      candidate.set(arena, offsets[c], lengths[c]);
+      visitor.visit(candidate, candidateDistances[c]);
+    }
+  }
+
+  /**
+   * Interns a path.
+   * @param parent Interned path the path extends by one label.
+   * @param label Last label of the path.
+   * @param depth Length of the path.
+   * @param node Dictionary node at the end of the path.
+   */
+  private void intern(
+      final int parent,
+      final char label,
+      final int depth,
+      final DawgNode node) {
+    if (parents.length == paths) {
+      final int capacity = paths << 1;
+      parents = Arrays.copyOf(parents, capacity);
+      labels = Arrays.copyOf(labels, capacity);
+      depths = Arrays.copyOf(depths, capacity);
+      nodes = Arrays.copyOf(nodes, capacity);
+      firstChildren = Arrays.copyOf(firstChildren, capacity);
+      childCounts = Arrays.copyOf(childCounts, capacity);
+      stamps = Arrays.copyOf(stamps, capacity);
+      slots = Arrays.copyOf(slots, capacity);
+    }
+    parents[paths] = parent;
+    labels[paths] = label;
+    depths[paths] = depth;
+    nodes[paths] = node;
+    firstChildren[paths] = UNEXPANDED;
+    childCounts[paths] = 0;
+    stamps[paths] = 0;
+    paths += 1;
+  }
+
+  /**
+   * Interns the children of a path, unless they already are.
+   * @param path Interned path whose children are interned.
+   */
+  private void expand(final int path) {
+    if (UNEXPANDED != firstChildren[path]) {
+      return;
+    }
+    final DawgNode node = nodes[path];
+    final int depth = depths[path] + 1;
+    final int firstChild = paths;
+    final CharIterator iter = node.labels();
+    while (iter.hasNext()) {
+      final char label = iter.nextChar();
+      intern(path, label, depth, node.transition(label));
+    }
+    firstChildren[path] = firstChild;
+    childCounts[path] = paths - firstChild;
+  }
+
+  /**
+   * Adds a path to the frontier being built, or lowers its distance if it was
+   * already added.
+   * @param path Interned path to add.
+   * @param distance Distance between the path and the prefix of the frontier.
+   */
+  private void offer(final int path, final int distance) {
+    if (distance > maxDistance) {
+      return;
+    }
+    if (generation == stamps[path]) {
+      final int slot = slots[path];
+      if (distance < distances[slot]) {
+        distances[slot] = distance;
+      }
+      return;
+    }
+    final int end = levels[length + 1];
+    if (entries.length == end) {
+      entries = Arrays.copyOf(entries, end << 1);
+      distances = Arrays.copyOf(distances, end << 1);
+    }
+    stamps[path] = generation;
+    slots[path] = end;
+    entries[end] = path;
+    distances[end] = distance;
+    levels[length + 1] = end + 1;
+  }
+
+  /**
+   * Adds every child of a path to the frontier being built.
+   * @param path Interned path whose children are added.
+   * @param distance Distance between the children and the prefix of the
+   *   frontier.
+   */
+  private void offerChildren(final int path, final int distance) {
+    expand(path);
+    for (int child = firstChildren[path], end = child + childCounts[path];
+        child < end; child += 1) {
+      offer(child, distance);
+    }
+  }
+
+  /**
+   * Adds the paths that extend a path by two labels, which are the last two
+   * characters of the prefix of the frontier being built, transposed.
+   * @param path Interned path that is extended.
+   * @param distance Distance between the extended paths and the prefix of the
+   *   frontier.
+   * @param first First label of the extension, which is the last character of
+   *   the prefix.
+   * @param second Second label of the extension, which is the next-to-last
+   *   character of the prefix.
+   */
+  private void transpose(
+      final int path,
+      final int distance,
+      final char first,
+      final char second) {
+    expand(path);
+    for (int child = firstChildren[path], end = child + childCounts[path];
+        child < end; child += 1) {
+      if (first == labels[child]) {
+        expand(child);
+        for (int grandchild = firstChildren[child],
+            last = grandchild + childCounts[child];
+            grandchild < last; grandchild += 1) {
+          if (second == labels[grandchild]) {
+            offer(grandchild, distance);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the frontier being built under insertions: each path within the
+   * maximum distance implies its children, one edit further.
+   * @param start Start of the frontier being built, within {@link #entries}.
+   */
+  private void close(final int start) {
+    for (int distance = 0; distance < maxDistance; distance += 1) {
+      for (int k = start; k < levels[length + 1]; k += 1) {
+        if (distance == distances[k]) {
+          offerChildren(entries[k], distance + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Orders spelling candidates by length, then by dictionary order.
+   */
+  private final class CandidateOrder extends AbstractIntComparator {
+
+    /**
+     * Version of the serialized form of this comparator.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(final int a, final int b) {
+      if (lengths[a] != lengths[b]) {
+        return Integer.compare(lengths[a], lengths[b]);
+      }
+      for (int i = offsets[a], j = offsets[b], end = i + lengths[a]; i < end; i += 1, j += 1) {
+        if (arena[i] != arena[j]) {
+          return Character.compare(arena[i], arena[j]);
+        }
+      }
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,508 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Queries a {@link WeightedDictionary} for its most frequent spelling
+ * candidates.  Spelling candidates are visited by distance, then from the most
+ * frequent, then in dictionary order, up to the candidate limit.
+ *
+ * <p>The dictionary is walked once, branch and bound.  The children of each
+ * node are searched best-first: from the nearest, as bounded by the minimum of
+ * their rows of the distance matrix, then from the one whose subtree holds the
+ * most frequent term, as bounded by a range-maximum query over its ranks.
+ * Once the limit's worth of spelling candidates have been found, a subtree
+ * whose bounds cannot beat the worst of them is pruned, along with its
+ * remaining siblings, so top-N queries stop as soon as the near, frequent
+ * region around the query term has been searched.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.</p>
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class RankedQueryEngine implements QueryEngine {
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Dictionary to query.
+   */
+  private final WeightedDictionary dictionary;
+
+  /**
+   * Root of the dictionary.
+   */
+  private final DawgNode root;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Maximum number of spelling candidates to visit for each query term.
+   * -- GETTER --
+   * Maximum number of spelling candidates to visit for each query term.
+   * @return Maximum number of spelling candidates to visit for each query
+   *   term.
+   */
+  @Getter
+  private final int candidateLimit;
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link RankedQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link RankedQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Heights of the dictionary's subtrees, for pruning those whose terms are
+   * all too short.
+   */
+  private final SubtreeHeights heights = new SubtreeHeights();
+
+  /**
+   * Distances between the query term and each prefix of the current path.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Exposes spelling candidates to visitors.
+   */
+  private final CharArraySequence candidate = new CharArraySequence();
+
+  /**
+   * Receives the characters of each spelling candidate as it is visited.
+   */
+  private final char[] spelling;
+
+  /**
+   * Maximum distance of the current query.
+   */
+  private int queryDistance = 0;
+
+  /**
+   * Distances of the best spelling candidates found so far, as a binary heap
+   * whose root is the worst of them.
+   */
+  private int[] heapDistances = new int[INITIAL_CAPACITY];
+
+  /**
+   * Ranks of the spelling candidates in {@link #heapDistances}.
+   */
+  private int[] heapRanks = new int[INITIAL_CAPACITY];
+
+  /**
+   * Frequencies of the spelling candidates in {@link #heapDistances}.
+   */
+  private int[] heapFrequencies = new int[INITIAL_CAPACITY];
+
+  /**
+   * Number of spelling candidates in the heap.
+   */
+  private int heapSize = 0;
+
+  /**
+   * Labels of the children of the node being searched at each depth.
+   */
+  private char[][] childLabels = new char[0][];
+
+  /**
+   * Ranks of the first terms under the children at each depth.
+   */
+  private int[][] childRanks = new int[0][];
+
+  /**
+   * Minimum distances under the children at each depth.
+   */
+  private int[][] childDistances = new int[0][];
+
+  /**
+   * States of {@link #filter} after the children at each depth.
+   */
+  private int[][] childStates = new int[0][];
+
+  /**
+   * Highest frequencies under the children at each depth.
+   */
+  private int[][] childBounds = new int[0][];
+
+  /**
+   * Order in which the children at each depth are searched.
+   */
+  private int[][] childOrder = new int[0][];
+
+  /**
+   * Constructs a new engine for ranking the spelling candidates of a
+   * dictionary.
+   * @param dictionary Dictionary to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   * @param candidateLimit Maximum number of spelling candidates to visit for
+   *   each query term.
+   */
+  public RankedQueryEngine(
+      @NonNull final WeightedDictionary dictionary,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance,
+      final int candidateLimit) {
+    if (candidateLimit < 1) {
+      final String message = String.format(
+        "Expected a positive candidate limit, but received [%d]",
+          candidateLimit);
+      throw new IllegalArgumentException(message);
+    }
+    this.dictionary = dictionary.index();
+    this.root = dictionary.dictionary().root();
+    this.matrix = new DistanceMatrix(algorithm);
+    this.maxDistance = maxDistance;
+    this.candidateLimit = candidateLimit;
+    this.spelling = new char[heights.of(root)];
+  }
+
+  /**
+   * Visits the most frequent spelling candidates of a query term, nearest
+   * first, up to the candidate limit.
+   * @param term Query term.
+   * @param distance Maximum distance between the query term and spelling
+   *   candidates.
+   * @param visitor Visits each spelling candidate.
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    matrix.prepare(term, distance);
+    queryDistance = distance;
+    heapSize = 0;
+    budget.start();
+    search(root, 0, 0, filter.start());
+    visitCandidates(visitor);
+    if (budget.exhausted()) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Searches the subtree under a dictionary node for spelling candidates,
+   * best-first.
+   * @param node Dictionary node whose subtree is searched.
+   * @param depth Length of the path from the root to node.
+   * @param rank Rank of the first term under node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   */
+  private void search(
+      final DawgNode node,
+      final int depth,
+      final int rank,
+      final int state) {
+    final int nextDepth = depth + 1;
+    matrix.ensureDepth(nextDepth);
+    final int children = gatherChildren(node, depth, rank, state);
+    final char[] labels = childLabels[depth];
+    final int[] distances = childDistances[depth];
+    final int[] ranks = childRanks[depth];
+    final int[] states = childStates[depth];
+    final int[] bounds = childBounds[depth];
+    final int[] order = childOrder[depth];
+    for (int j = 0; j < children && budget.spend(); j += 1) {
+      final int i = order[j];
+      // The children are ordered by their bounds, so once one cannot improve
+      // on the spelling candidates found so far, none of the rest can
+      if (!mayImprove(distances[i], bounds[i], ranks[i])) {
+        return;
+      }
+      final char label = labels[i];
+      // Siblings share the row of their depth, so it is computed again
+      matrix.nextRow(nextDepth, label);
+      final DawgNode child = node.transition(label);
+      if (heights.reaches(child, nextDepth, filter.minLength())) {
+        final int distance = matrix.distance(nextDepth);
+        if (child.isFinal()
+            && distance <= queryDistance
+            && filter.accepts(states[i], nextDepth)) {
+          offer(distance, ranks[i], dictionary.frequency(ranks[i]));
+        }
+        search(child, nextDepth, ranks[i], states[i]);
+      }
+    }
+  }
+
+  /**
+   * Gathers the children of a dictionary node that may lead to better
+   * spelling candidates than the worst found so far into the scratch space of
+   * its depth, along with their bounds, and orders them from the nearest, then
+   * the most frequent (stably, so ties stay in dictionary order).  Children
+   * beyond the distance are skipped before their range-maximum queries, since
+   * they are by far the most numerous.
+   * @param node Dictionary node.
+   * @param depth Length of the path from the root to node.
+   * @param rank Rank of the first term under node.
+   * @param state State of {@link #filter} after the path from the root to node.
+   * @return Number of children gathered.
+   */
+  private int gatherChildren(
+      final DawgNode node,
+      final int depth,
+      final int rank,
+      final int state) {
+    ensureChildDepth(depth);
+    final int nextDepth = depth + 1;
+    final int distanceBound = heapSize < candidateLimit ? queryDistance : heapDistances[0];
+    final int[] offsets = dictionary.childOffsets(node);
+    int children = 0;
+    int k = 0;
+    final CharIterator iter = node.labels();
+    while (iter.hasNext()) {
+      final char label = iter.nextChar();
+      final int childRank = rank + offsets[k];
+      final int count = offsets[k + 1] - offsets[k];
+      k += 1;
+      final int nextState = filter.step(state, depth, label);
+      if (CandidateFilter.REJECT != nextState) {
+        final int distance = matrix.nextRow(nextDepth, label);
+        if (distance <= distanceBound) {
+          ensureChildCapacity(depth, children + 1);
+          childLabels[depth][children] = label;
+          childDistances[depth][children] = distance;
+          childRanks[depth][children] = childRank;
+          childStates[depth][children] = nextState;
+          childBounds[depth][children] = dictionary.maxFrequency(childRank, childRank + count);
+          children += 1;
+        }
+      }
+    }
+    orderChildren(depth, children);
+    return children;
+  }
+
+  /**
+   * Orders the children gathered at a depth from the nearest, then the most
+   * frequent, stably.
+   * @param depth Length of the path from the root to their parent.
+   * @param children Number of children gathered.
+   */
+  private void orderChildren(final int depth, final int children) {
+    final int[] distances = childDistances[depth];
+    final int[] bounds = childBounds[depth];
+    final int[] order = childOrder[depth];
+    for (int i = 0; i < children; i += 1) {
+      int j = i;
+      while (j > 0 && (distances[order[j - 1]] > distances[i]
+          || distances[order[j - 1]] == distances[i] && bounds[order[j - 1]] < bounds[i])) {
+        order[j] = order[j - 1];
+        j -= 1;
+      }
+      order[j] = i;
+    }
+  }
+
+  /**
+   * Whether a subtree may hold a spelling candidate better than the worst one
+   * found so far.
+   * @param distance Lowest distance in the subtree.
+   * @param bound Highest frequency in the subtree.
+   * @param rank Rank of the first term in the subtree.
+   * @return Whether the subtree should be searched.
+   */
+  private boolean mayImprove(final int distance, final int bound, final int rank) {
+    return heapSize < candidateLimit || better(distance, bound, rank, 0);
+  }
+
+  /**
+   * Whether a spelling candidate ranks above one in the heap: it is nearer, or
+   * as near but more frequent, or as near and frequent but earlier in
+   * dictionary order.
+   * @param distance Distance of the spelling candidate.
+   * @param frequency Frequency of the spelling candidate.
+   * @param rank Rank of the spelling candidate.
+   * @param i Index of a spelling candidate in the heap.
+   * @return Whether the spelling candidate ranks above the one at i.
+   */
+  private boolean better(final int distance, final int frequency, final int rank, final int i) {
+    if (distance != heapDistances[i]) {
+      return distance < heapDistances[i];
+    }
+    if (frequency != heapFrequencies[i]) {
+      return frequency > heapFrequencies[i];
+    }
+    return rank < heapRanks[i];
+  }
+
+  /**
+   * Whether one spelling candidate in the heap ranks below another.
+   * @param i Index of one spelling candidate in the heap.
+   * @param j Index of another spelling candidate in the heap.
+   * @return Whether the spelling candidate at i ranks below the one at j.
+   */
+  private boolean worse(final int i, final int j) {
+    return better(heapDistances[j], heapFrequencies[j], heapRanks[j], i);
+  }
+
+  /**
+   * Keeps a spelling candidate if it is among the best found so far.
+   * @param distance Distance of the spelling candidate.
+   * @param rank Rank of the spelling candidate.
+   * @param frequency Frequency of the spelling candidate.
+   */
+  private void offer(final int distance, final int rank, final int frequency) {
+    if (heapSize < candidateLimit) {
+      if (heapRanks.length == heapSize) {
+        heapDistances = Arrays.copyOf(heapDistances, heapSize << 1);
+        heapRanks = Arrays.copyOf(heapRanks, heapSize << 1);
+        heapFrequencies = Arrays.copyOf(heapFrequencies, heapSize << 1);
+      }
+      heapDistances[heapSize] = distance;
+      heapRanks[heapSize] = rank;
+      heapFrequencies[heapSize] = frequency;
+      int i = heapSize;
+      heapSize += 1;
+      while (i > 0 && worse(i, (i - 1) >> 1)) {
+        swap(i, (i - 1) >> 1);
+        i = (i - 1) >> 1;
+      }
+    }
+    else if (better(distance, frequency, rank, 0)) {
+      heapDistances[0] = distance;
+      heapRanks[0] = rank;
+      heapFrequencies[0] = frequency;
+      siftDown(0, heapSize);
+    }
+  }
+
+  /**
+   * Restores the heap property below an element of the heap.
+   * @param start Index of the element.
+   * @param size Number of elements in the heap.
+   */
+  private void siftDown(final int start, final int size) {
+    int i = start;
+    int child = (i << 1) + 1;
+    while (child < size) {
+      if (child + 1 < size && worse(child + 1, child)) {
+        child += 1;
+      }
+      if (!worse(child, i)) {
+        return;
+      }
+      swap(i, child);
+      i = child;
+      child = (i << 1) + 1;
+    }
+  }
+
+  /**
+   * Swaps two elements of the heap.
+   * @param i Index of one element.
+   * @param j Index of the other element.
+   */
+  private void swap(final int i, final int j) {
+    final int distance = heapDistances[i];
+    heapDistances[i] = heapDistances[j];
+    heapDistances[j] = distance;
+    final int rank = heapRanks[i];
+    heapRanks[i] = heapRanks[j];
+    heapRanks[j] = rank;
+    final int frequency = heapFrequencies[i];
+    heapFrequencies[i] = heapFrequencies[j];
+    heapFrequencies[j] = frequency;
+  }
+
+  /**
+   * Visits the spelling candidates found, from the best.  Sorting the heap in
+   * place, by repeatedly moving its worst element to the end, leaves them in
+   * that order.
+   * @param visitor Visits each spelling candidate.
+   */
+  private void visitCandidates(final CandidateVisitor visitor) {
+    for (int size = heapSize - 1; size > 0; size -= 1) {
+      swap(0, size);
+      siftDown(0, size);
+    }
+    for (int i = 0; i < heapSize; i += 1) {
+      final int length = dictionary.term(heapRanks[i], spelling);
+      candidate.set(spelling, 0, length);
+      visitor.visit(candidate, heapDistances[i]);
+    }
+  }
+
+  /**
+   * Grows the scratch space for children, so it covers some depth.
+   * @param depth Depth of the children's parent.
+   */
+  private void ensureChildDepth(final int depth) {
+    if (childLabels.length <= depth) {
+      final int previousDepth = childLabels.length;
+      final int length = Math.max(depth + 1, previousDepth << 1);
+      childLabels = Arrays.copyOf(childLabels, length);
+      childDistances = Arrays.copyOf(childDistances, length);
+      childRanks = Arrays.copyOf(childRanks, length);
+      childStates = Arrays.copyOf(childStates, length);
+      childBounds = Arrays.copyOf(childBounds, length);
+      childOrder = Arrays.copyOf(childOrder, length);
+      for (int i = previousDepth; i < length; i += 1) {
+        childLabels[i] = new char[INITIAL_CAPACITY];
+        childDistances[i] = new int[INITIAL_CAPACITY];
+        childRanks[i] = new int[INITIAL_CAPACITY];
+        childStates[i] = new int[INITIAL_CAPACITY];
+        childBounds[i] = new int[INITIAL_CAPACITY];
+        childOrder[i] = new int[INITIAL_CAPACITY];
+      }
+    }
+  }
+
+  /**
+   * Grows the scratch space for children at some depth, so it fits some
+   * number of them.
+   * @param depth Depth of the children's parent.
+   * @param children Number of children.
+   */
+  private void ensureChildCapacity(final int depth, final int children) {
+    if (childLabels[depth].length < children) {
+      final int length = childLabels[depth].length << 1;
+      childLabels[depth] = Arrays.copyOf(childLabels[depth], length);
+      childDistances[depth] = Arrays.copyOf(childDistances[depth], length);
+      childRanks[depth] = Arrays.copyOf(childRanks[depth], length);
+      childStates[depth] = Arrays.copyOf(childStates[depth], length);
+      childBounds[depth] = Arrays.copyOf(childBounds[depth], length);
+      childOrder[depth] = Arrays.copyOf(childOrder[depth], length);
+    }
+  }
+}
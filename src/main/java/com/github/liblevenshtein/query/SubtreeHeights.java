@@ -0,0 +1,59 @@
+package com.github.liblevenshtein.query;
+
+import it.unimi.dsi.fastutil.chars.CharIterator;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+
+/**
+ * Length of the longest path below each node of a dictionary, which bounds the
+ * length of every term that extends the path to the node.  Heights are
+ * computed the first time they are needed and memoized, so shared suffixes of
+ * the dictionary are measured once.
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+final class SubtreeHeights {
+
+  /**
+   * Memoized height of each node measured so far.
+   */
+  private final Reference2IntOpenHashMap<DawgNode> heights =
+    new Reference2IntOpenHashMap<>();
+
+  /**
+   * Constructs an empty memo of heights.
+   */
+  SubtreeHeights() {
+    heights.defaultReturnValue(-1);
+  }
+
+  /**
+   * Whether some term through a dictionary node is at least a given length.
+   * @param node Dictionary node.
+   * @param depth Length of the path from the root to node.
+   * @param length Minimum length of the term.
+   * @return Whether the subtree under node may hold long-enough terms.
+   */
+  boolean reaches(final DawgNode node, final int depth, final int length) {
+    return depth >= length || depth + of(node) >= length;
+  }
+
+  /**
+   * Length of the longest path from a node to a final node below it.
+   * @param node Dictionary node.
+   * @return Height of the subtree under node.
+   */
+  int of(final DawgNode node) {
+    int height = heights.getInt(node);
+    if (height < 0) {
+      height = 0;
+      final CharIterator labels = node.labels();
+      while (labels.hasNext()) {
+        height = Math.max(height, 1 + of(node.transition(labels.nextChar())));
+      }
+      heights.put(node, height);
+    }
+    return height;
+  }
+}
@@ -0,0 +1,678 @@
+package com.github.liblevenshtein.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.chars.CharArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+/**
+ * Index of the deletion neighborhood of every term of a dictionary: each
+ * string obtained by deleting up to {@link #maxDistance()} characters from a
+ * term, mapped to the terms it was obtained from.  Two terms within distance
+ * d of each other, by the standard or transposition distance, are each within
+ * d deletions of some common string, so the terms within d of a query term are
+ * among those indexed under the query term's own deletions, and finding them
+ * takes a few hash probes rather than a walk of the dictionary.
+ *
+ * <p>Deletions are keyed by a 64-bit hash, in an open-addressing table of
+ * primitive arrays: one of keys, with zero marking empty slots, and one of the
+ * offsets of each slot's terms in a third array of term numbers, which are the
+ * ranks of the terms in dictionary order.  The terms themselves are kept
+ * back-to-back in one array of characters.  Hashes may collide, so whatever
+ * the index finds must be verified.  There are no per-entry objects, so the
+ * index may be {@link #write(Path) written} to a file and
+ * {@link #read(Path) mapped} back from it without being rebuilt: a mapped index
+ * is queried straight from the page cache, off the heap.</p>
+ *
+ * <p>Terms of length n have about n^d / d! deletions each, so the index grows
+ * quickly with d and suits small distances over short terms.</p>
+ *
+ * <p>Instances are immutable, and safe to share between threads.</p>
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public final class SymmetricDeletionIndex {
+
+  /**
+   * Greatest number of deletions an index may be built for.
+   */
+  public static final int MAX_DISTANCE = 2;
+
+  /**
+   * Leading bytes of every index file.
+   */
+  private static final byte[] MAGIC = {'L', 'L', 'S', 'D'};
+
+  /**
+   * Version of the file layout.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Bytes of the file header, which is padded to a multiple of 8 bytes.
+   */
+  private static final int HEADER_BYTES = 48;
+
+  /**
+   * Bytes each section of the file is padded to a multiple of.
+   */
+  private static final int ALIGNMENT = Long.BYTES;
+
+  /**
+   * Order of the bytes of each number in the file.
+   */
+  private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  /**
+   * Key of empty slots, which no hash is mapped to.
+   */
+  private static final long EMPTY = 0L;
+
+  /**
+   * Multiplier of the 64-bit FNV-1a hash.
+   */
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * Initial value of the 64-bit FNV-1a hash.
+   */
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+  /**
+   * Mixes the bits of hashes, to spread them across slots.
+   */
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  /**
+   * Greatest number of deletions indexed for each term.
+   * -- GETTER --
+   * Greatest number of deletions indexed for each term, which is the greatest
+   * distance the index answers queries for.
+   * @return Greatest number of deletions indexed for each term.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Number of terms in the dictionary.
+   * -- GETTER --
+   * Number of terms in the dictionary.
+   * @return Number of terms in the dictionary.
+   */
+  @Getter
+  private final int size;
+
+  /**
+   * Hash of the terms of the dictionary, in order, which identifies the
+   * dictionary the index was built from.
+   * -- GETTER --
+   * Hash of the terms of the dictionary, in order, which identifies the
+   * dictionary the index was built from.
+   * @return Hash of the terms of the dictionary.
+   */
+  @Getter
+  private final long fingerprint;
+
+  /**
+   * Characters of the terms, back-to-back, in dictionary order.
+   */
+  private final CharBuffer chars;
+
+  /**
+   * Offset of each term in {@link #chars}, followed by the number of
+   * characters.
+   */
+  private final IntBuffer termOffsets;
+
+  /**
+   * Key of each slot, or {@link #EMPTY}.
+   */
+  private final LongBuffer keys;
+
+  /**
+   * Offset of the terms of each slot in {@link #postings}, followed by the
+   * number of postings.
+   */
+  private final IntBuffer slotOffsets;
+
+  /**
+   * Numbers of the terms under each key, in ascending order.
+   */
+  private final IntBuffer postings;
+
+  /**
+   * Masks hashes to slots.
+   */
+  private final int mask;
+
+  /**
+   * Builds the index of a dictionary.
+   * @param dictionary Dictionary to index.
+   * @param maxDistance Greatest number of deletions to index for each term.
+   * @throws IllegalArgumentException If maxDistance is negative or beyond
+   *   {@link #MAX_DISTANCE}.
+   */
+  public SymmetricDeletionIndex(@NonNull final SortedDawg dictionary, final int maxDistance) {
+    if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+      final String message = String.format(
+        "Expected a distance from 0 to %d, but received [%d]", MAX_DISTANCE, maxDistance);
+      throw new IllegalArgumentException(message);
+    }
+
+    final CharArrayList terms = new CharArrayList();
+    final IntArrayList offsets = new IntArrayList(dictionary.size() + 1);
+    final long[] hash = {FNV_OFFSET};
+    new WeightedDictionary(dictionary).terms((term, frequency) -> {
+      offsets.add(terms.size());
+      for (int i = 0; i < term.length(); i += 1) {
+        terms.add(term.charAt(i));
+      }
+      hash[0] = mix(hash[0], term);
+    });
+    offsets.add(terms.size());
+
+    final char[] termChars = terms.toCharArray();
+    final int[] termOffsetArray = offsets.toIntArray();
+    final int numTerms = termOffsetArray.length - 1;
+
+    // Counts the terms under each key, then sizes the table to them
+    final Long2IntOpenHashMap counts = countKeys(termChars, termOffsetArray, maxDistance);
+    int capacity = 1;
+    while (capacity < 2 * counts.size()) {
+      capacity <<= 1;
+    }
+    final long[] keyArray = new long[capacity];
+    final int[] slotCounts = slotOffsets(counts, keyArray);
+
+    // Files each term under its keys, in ascending order of terms
+    final int[] postingArray =
+      postings(termChars, termOffsetArray, maxDistance, keyArray, slotCounts);
+
+    this.maxDistance = maxDistance;
+    this.size = numTerms;
+    this.fingerprint = hash[0];
+    this.chars = CharBuffer.wrap(termChars);
+    this.termOffsets = IntBuffer.wrap(termOffsetArray);
+    this.keys = LongBuffer.wrap(keyArray);
+    this.slotOffsets = IntBuffer.wrap(slotCounts);
+    this.postings = IntBuffer.wrap(postingArray);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Constructs an index from its parts, as they are mapped from a file.
+   * @param header Header of the file.
+   * @param buffer Contents of the file.
+   * @throws IOException If the parts do not fit the file.
+   */
+  private SymmetricDeletionIndex(final ByteBuffer header, final ByteBuffer buffer)
+      throws IOException {
+    this.maxDistance = header.getInt();
+    this.size = header.getInt();
+    this.fingerprint = header.getLong();
+    final int numChars = header.getInt();
+    final int capacity = header.getInt();
+    final int numPostings = header.getInt();
+    final boolean counted = Math.min(Math.min(size, numChars), numPostings) >= 0;
+    final boolean hashed = capacity > 0 && Integer.bitCount(capacity) == 1;
+    if (maxDistance < 0 || maxDistance > MAX_DISTANCE || !counted || !hashed) {
+      throw corrupt("bad header");
+    }
+
+    int offset = HEADER_BYTES;
+    this.chars = section(buffer, offset, numChars, Character.BYTES).asCharBuffer();
+    offset = next(offset, numChars, Character.BYTES);
+    this.termOffsets = section(buffer, offset, size + 1, Integer.BYTES).asIntBuffer();
+    offset = next(offset, size + 1, Integer.BYTES);
+    this.keys = section(buffer, offset, capacity, Long.BYTES).asLongBuffer();
+    offset = next(offset, capacity, Long.BYTES);
+    this.slotOffsets = section(buffer, offset, capacity + 1, Integer.BYTES).asIntBuffer();
+    offset = next(offset, capacity + 1, Integer.BYTES);
+    this.postings = section(buffer, offset, numPostings, Integer.BYTES).asIntBuffer();
+    this.mask = capacity - 1;
+
+    if (termOffsets.get(size) != numChars || slotOffsets.get(capacity) != numPostings) {
+      throw corrupt("bad section lengths");
+    }
+  }
+
+  /**
+   * Maps an index from a file written by {@link #write(Path)}.  The index is
+   * read straight from the mapped file, which must not be changed while it is
+   * in use.
+   * @param path File of the index.
+   * @return Index in the file.
+   * @throws IOException If the file cannot be read or is not an index.
+   */
+  public static SymmetricDeletionIndex read(@NonNull final Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+        throw corrupt("bad file length");
+      }
+      final ByteBuffer buffer = channel
+        .map(FileChannel.MapMode.READ_ONLY, 0L, channel.size())
+        .order(ORDER);
+      final ByteBuffer header = buffer.duplicate().order(ORDER);
+      final byte[] magic = new byte[MAGIC.length];
+      header.get(magic);
+      if (!Arrays.equals(MAGIC, magic)) {
+        throw new IOException("File is not a symmetric-deletion index");
+      }
+      final int version = header.getInt();
+      if (VERSION != version) {
+        final String message = String.format(
+          "Unsupported symmetric-deletion index version [%d]", version);
+        throw new IOException(message);
+      }
+      return new SymmetricDeletionIndex(header, buffer);
+    }
+  }
+
+  /**
+   * Writes this index to a file, for {@link #read(Path)} to map.  The index is
+   * written to a temporary file beside it, which is then moved over it, so a
+   * process that has mapped the file never observes it truncated.
+   * @param path File to write, which is replaced if it exists.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(@NonNull final Path path) throws IOException {
+    final Path tmp = Files.createTempFile(
+      path.toAbsolutePath().getParent(), "." + path.getFileName(), ".tmp");
+    try {
+      writeTo(tmp);
+      try {
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (final AtomicMoveNotSupportedException exception) {
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Writes this index to a new file.
+   * @param path File to write, which is empty.
+   * @throws IOException If the file cannot be written.
+   */
+  private void writeTo(final Path path) throws IOException {
+    final int capacity = keys.capacity();
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+    header.put(MAGIC)
+      .putInt(VERSION)
+      .putInt(maxDistance)
+      .putInt(size)
+      .putLong(fingerprint)
+      .putInt(chars.capacity())
+      .putInt(capacity)
+      .putInt(postings.capacity());
+    header.clear();
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      writeFully(channel, header);
+      final ByteBuffer charBytes = allocate(chars.capacity(), Character.BYTES);
+      charBytes.asCharBuffer().put(chars.duplicate());
+      writeFully(channel, charBytes);
+      final ByteBuffer offsetBytes = allocate(size + 1, Integer.BYTES);
+      offsetBytes.asIntBuffer().put(termOffsets.duplicate());
+      writeFully(channel, offsetBytes);
+      final ByteBuffer keyBytes = allocate(capacity, Long.BYTES);
+      keyBytes.asLongBuffer().put(keys.duplicate());
+      writeFully(channel, keyBytes);
+      final ByteBuffer slotBytes = allocate(capacity + 1, Integer.BYTES);
+      slotBytes.asIntBuffer().put(slotOffsets.duplicate());
+      writeFully(channel, slotBytes);
+      final ByteBuffer postingBytes = allocate(postings.capacity(), Integer.BYTES);
+      postingBytes.asIntBuffer().put(postings.duplicate());
+      writeFully(channel, postingBytes);
+    }
+  }
+
+  /**
+   * Whether this index was built from a dictionary.
+   * @param dictionary Dictionary that may have been indexed.
+   * @return Whether this index was built from the dictionary's terms.
+   */
+  public boolean indexes(@NonNull final WeightedDictionary dictionary) {
+    if (dictionary.size() != size) {
+      return false;
+    }
+    final long[] hash = {FNV_OFFSET};
+    dictionary.terms((term, frequency) -> hash[0] = mix(hash[0], term));
+    return hash[0] == fingerprint;
+  }
+
+  /**
+   * Bytes held by the arrays of this index, whether on the heap or mapped.
+   * @return Size of this index, in bytes.
+   */
+  public long sizeInBytes() {
+    return (long) Character.BYTES * chars.capacity()
+      + (long) Integer.BYTES * (termOffsets.capacity() + slotOffsets.capacity()
+        + postings.capacity())
+      + (long) Long.BYTES * keys.capacity();
+  }
+
+  /**
+   * Length of a term.
+   * @param term Number of the term.
+   * @return Length of the term.
+   */
+  int length(final int term) {
+    return termOffsets.get(term + 1) - termOffsets.get(term);
+  }
+
+  /**
+   * Copies a term into a buffer.
+   * @param term Number of the term.
+   * @param buffer Receives the term; it must fit it.
+   */
+  void term(final int term, final char[] buffer) {
+    final int offset = termOffsets.get(term);
+    final int length = termOffsets.get(term + 1) - offset;
+    for (int i = 0; i < length; i += 1) {
+      buffer[i] = chars.get(offset + i);
+    }
+  }
+
+  /**
+   * Slot of a key, or of the empty slot it would go in.
+   * @param key Key to look up.
+   * @return Slot of the key.
+   */
+  int slot(final long key) {
+    int slot = spread(key) & mask;
+    while (EMPTY != keys.get(slot) && key != keys.get(slot)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Offset of the first term under a slot, within the postings.
+   * @param slot Slot of a key.
+   * @return Offset of the slot's first term.
+   */
+  int postingsStart(final int slot) {
+    return slotOffsets.get(slot);
+  }
+
+  /**
+   * Offset just past the last term under a slot, within the postings.
+   * @param slot Slot of a key.
+   * @return Offset just past the slot's last term.
+   */
+  int postingsEnd(final int slot) {
+    return slotOffsets.get(slot + 1);
+  }
+
+  /**
+   * Number of a term in the postings.
+   * @param posting Offset within the postings.
+   * @return Number of the term.
+   */
+  int posting(final int posting) {
+    return postings.get(posting);
+  }
+
+  /**
+   * Hashes of the strings obtained by deleting up to some number of
+   * characters from a term, including the term itself.
+   * @param term Holds the term.
+   * @param from Offset of the term.
+   * @param to Offset just past the term.
+   * @param deletions Greatest number of characters to delete.
+   * @param keys Receives the hashes, once each; it is cleared first.
+   */
+  static void neighborhood(
+      final char[] term,
+      final int from,
+      final int to,
+      final int deletions,
+      final LongOpenHashSet keys) {
+    keys.clear();
+    final int length = to - from;
+    keys.add(key(term, from, to, -1, -1));
+    if (deletions >= 1) {
+      for (int i = 0; i < length; i += 1) {
+        keys.add(key(term, from, to, from + i, -1));
+        if (deletions >= 2) {
+          for (int j = i + 1; j < length; j += 1) {
+            keys.add(key(term, from, to, from + i, from + j));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Hashes a term with up to two characters deleted.
+   * @param term Holds the term.
+   * @param from Offset of the term.
+   * @param to Offset just past the term.
+   * @param skip Offset of a deleted character, or -1.
+   * @param skipAlso Offset of another deleted character, or -1.
+   * @return Hash of the remaining characters, which is never {@link #EMPTY}.
+   */
+  private static long key(
+      final char[] term,
+      final int from,
+      final int to,
+      final int skip,
+      final int skipAlso) {
+    long hash = FNV_OFFSET;
+    for (int i = from; i < to; i += 1) {
+      if (i != skip && i != skipAlso) {
+        hash = (hash ^ term[i]) * FNV_PRIME;
+      }
+    }
+    return EMPTY == hash ? 1L : hash;
+  }
+
+  /**
+   * Extends the hash of a sequence of terms with another term.
+   * @param hash Hash of the terms before it.
+   * @param term Term to hash.
+   * @return Hash of the terms.
+   */
+  private static long mix(final long hash, final CharSequence term) {
+    long mixed = hash;
+    for (int i = 0; i < term.length(); i += 1) {
+      mixed = (mixed ^ term.charAt(i)) * FNV_PRIME;
+    }
+    return (mixed ^ Character.MAX_VALUE) * FNV_PRIME;
+  }
+
+  /**
+   * Spreads the bits of a hash across an int.
+   * @param key Hash to spread.
+   * @return Spread hash.
+   */
+  private static int spread(final long key) {
+    final long mixed = key * GOLDEN_GAMMA;
+    return (int) (mixed ^ (mixed >>> Integer.SIZE));
+  }
+
+  /**
+   * Counts the terms filed under each key.
+   * @param termChars Terms of the index, back-to-back.
+   * @param termOffsetArray Offset of each term, followed by the end of the last.
+   * @param maxDistance Greatest number of deletions to index for each term.
+   * @return Number of terms filed under each key.
+   */
+  private static Long2IntOpenHashMap countKeys(
+      final char[] termChars,
+      final int[] termOffsetArray,
+      final int maxDistance) {
+    final Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+    final LongOpenHashSet deletions = new LongOpenHashSet();
+    for (int id = 0; id + 1 < termOffsetArray.length; id += 1) {
+      neighborhood(termChars, termOffsetArray[id], termOffsetArray[id + 1], maxDistance, deletions);
+      final LongIterator iter = deletions.iterator();
+      while (iter.hasNext()) {
+        counts.addTo(iter.nextLong(), 1);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Files the keys of the index in its table, and lays out the postings of
+   * each slot back-to-back.
+   * @param counts Number of terms filed under each key.
+   * @param keyArray Receives the key of each slot.
+   * @return Offset of the postings of each slot, followed by the number of
+   *   postings.
+   */
+  private static int[] slotOffsets(final Long2IntOpenHashMap counts, final long[] keyArray) {
+    final int capacity = keyArray.length;
+    final int[] slotCounts = new int[capacity + 1];
+    for (final Long2IntOpenHashMap.Entry entry : counts.long2IntEntrySet()) {
+      final int slot = probe(keyArray, capacity - 1, entry.getLongKey());
+      keyArray[slot] = entry.getLongKey();
+      slotCounts[slot] = entry.getIntValue();
+    }
+    int total = 0;
+    for (int slot = 0; slot <= capacity; slot += 1) {
+      final int count = slotCounts[slot];
+      slotCounts[slot] = total;
+      total += count;
+    }
+    return slotCounts;
+  }
+
+  /**
+   * Files each term under its keys, in ascending order of terms.
+   * @param termChars Terms of the index, back-to-back.
+   * @param termOffsetArray Offset of each term, followed by the end of the last.
+   * @param maxDistance Greatest number of deletions to index for each term.
+   * @param keyArray Key of each slot.
+   * @param slotCounts Offset of the postings of each slot, followed by the
+   *   number of postings.
+   * @return Rank of each term filed under each slot.
+   */
+  private static int[] postings(
+      final char[] termChars,
+      final int[] termOffsetArray,
+      final int maxDistance,
+      final long[] keyArray,
+      final int[] slotCounts) {
+    final int capacity = keyArray.length;
+    final int[] postingArray = new int[slotCounts[capacity]];
+    final int[] cursors = Arrays.copyOf(slotCounts, capacity);
+    final LongOpenHashSet deletions = new LongOpenHashSet();
+    for (int id = 0; id + 1 < termOffsetArray.length; id += 1) {
+      neighborhood(termChars, termOffsetArray[id], termOffsetArray[id + 1], maxDistance, deletions);
+      final LongIterator iter = deletions.iterator();
+      while (iter.hasNext()) {
+        final int slot = probe(keyArray, capacity - 1, iter.nextLong());
+        postingArray[cursors[slot]] = id;
+        cursors[slot] += 1;
+      }
+    }
+    return postingArray;
+  }
+
+  /**
+   * Slot of a key, or of the empty slot it would go in, while building.
+   * @param keys Key of each slot.
+   * @param mask Masks hashes to slots.
+   * @param key Key to look up.
+   * @return Slot of the key.
+   */
+  private static int probe(final long[] keys, final int mask, final long key) {
+    int slot = spread(key) & mask;
+    while (EMPTY != keys[slot] && key != keys[slot]) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Allocates a buffer for a section of the file, padded to the alignment.
+   * @param elements Number of elements in the section.
+   * @param bytes Bytes of each element.
+   * @return Buffer for the section.
+   */
+  private static ByteBuffer allocate(final int elements, final int bytes) {
+    return ByteBuffer.allocate(next(0, elements, bytes)).order(ORDER);
+  }
+
+  /**
+   * Offset of the section after another.
+   * @param offset Offset of the section.
+   * @param elements Number of elements in the section.
+   * @param bytes Bytes of each element.
+   * @return Offset of the next section.
+   */
+  private static int next(final int offset, final int elements, final int bytes) {
+    final long end = offset + (long) elements * bytes;
+    return (int) ((end + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT);
+  }
+
+  /**
+   * Slices a section out of the file.
+   * @param buffer Contents of the file.
+   * @param offset Offset of the section.
+   * @param elements Number of elements in the section.
+   * @param bytes Bytes of each element.
+   * @return Section of the file.
+   * @throws IOException If the section does not fit the file.
+   */
+  private static ByteBuffer section(
+      final ByteBuffer buffer,
+      final int offset,
+      final int elements,
+      final int bytes) throws IOException {
+    final long end = offset + (long) elements * bytes;
+    if (end > buffer.capacity()) {
+      throw corrupt("truncated");
+    }
+    final ByteBuffer section = buffer.duplicate();
+    section.position(offset).limit((int) end);
+    return section.slice().order(ORDER);
+  }
+
+  /**
+   * Writes a whole buffer to a channel.
+   * @param channel Channel to write to.
+   * @param buffer Buffer to write.
+   * @throws IOException If the buffer cannot be written.
+   */
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Signals a corrupt file.
+   * @param reason What is wrong with the file.
+   * @return Exception to throw.
+   */
+  private static IOException corrupt(final String reason) {
+    return new IOException("Symmetric-deletion index is corrupt: " + reason);
+  }
+}
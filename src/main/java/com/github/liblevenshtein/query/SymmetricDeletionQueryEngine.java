@@ -0,0 +1,243 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Queries a {@link SymmetricDeletionIndex}: the query term's own deletions are
+ * looked up in the index, and each term found under them, once, is verified
+ * by computing its distance from the query term, within the maximum distance.
+ * Terms are verified in dictionary order, so each shares a prefix with the one
+ * before it, and the rows of the distance matrix for that prefix are reused
+ * (see {@link TermVerifier}).
+ * Spelling candidates are visited in the same order as {@link DawgQueryEngine}
+ * visits them: by length, then by dictionary order.
+ *
+ * <p>Merges and splits cost one edit but two deletions, so the index cannot
+ * find every term within a {@link Algorithm#MERGE_AND_SPLIT} distance, and that
+ * algorithm is not supported.  Neither are distances beyond those the index was
+ * built for.</p>
+ *
+ * <p>Instances are not thread-safe; build one per thread.  The index may be
+ * shared by any number of them.</p>
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class SymmetricDeletionQueryEngine implements QueryEngine {
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Index to query.
+   */
+  private final SymmetricDeletionIndex index;
+
+  /**
+   * Default, maximum distance between query terms and spelling candidates.
+   * -- GETTER --
+   * Default, maximum distance between query terms and spelling candidates.
+   * @return Default, maximum distance between query terms and spelling
+   *   candidates.
+   */
+  @Getter
+  private final int maxDistance;
+
+  /**
+   * Constraints spelling candidates must satisfy besides their distance.
+   * -- SETTER --
+   * Constraints spelling candidates must satisfy besides their distance.
+   * @param filter Constraints spelling candidates must satisfy besides their
+   *   distance.
+   * @return This {@link SymmetricDeletionQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private CandidateFilter filter = new CandidateFilter();
+
+  /**
+   * Bounds the work of each query.
+   * -- SETTER --
+   * Bounds the work of each query.
+   * @param budget Bounds the work of each query.
+   * @return This {@link SymmetricDeletionQueryEngine}, for fluency.
+   */
+  @Setter
+  @NonNull
+  private QueryBudget budget = new QueryBudget();
+
+  /**
+   * Computes the distance between the query term and each term found.
+   */
+  private final TermVerifier verifier;
+
+  /**
+   * Spelling candidates of the current query.
+   */
+  private final CandidateBuffer candidates = new CandidateBuffer();
+
+  /**
+   * Hashes of the deletions of the current query term.
+   */
+  private final LongOpenHashSet deletions = new LongOpenHashSet();
+
+  /**
+   * Numbers of the terms found under the deletions, to be verified.
+   */
+  private final IntArrayList found = new IntArrayList();
+
+  /**
+   * Query that last found each term, so each is verified once.
+   */
+  private final int[] stamps;
+
+  /**
+   * Number of the current query.
+   */
+  private int stamp = 0;
+
+  /**
+   * Characters of the current query term.
+   */
+  private char[] query = new char[INITIAL_CAPACITY];
+
+  /**
+   * Exposes terms to {@link #filter}.
+   */
+  private final CharArraySequence sequence = new CharArraySequence();
+
+  /**
+   * Constructs a new engine for querying an index.
+   * @param index Index to query.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   * @param maxDistance Default, maximum distance between query terms and
+   *   spelling candidates.
+   * @throws IllegalArgumentException If the algorithm is
+   *   {@link Algorithm#MERGE_AND_SPLIT}, or maxDistance is beyond the
+   *   distance the index was built for.
+   */
+  public SymmetricDeletionQueryEngine(
+      @NonNull final SymmetricDeletionIndex index,
+      @NonNull final Algorithm algorithm,
+      final int maxDistance) {
+    if (Algorithm.MERGE_AND_SPLIT == algorithm) {
+      final String message = String.format(
+        "Symmetric-deletion indices do not support the [%s] algorithm", algorithm);
+      throw new IllegalArgumentException(message);
+    }
+    checkDistance(index, maxDistance);
+    this.index = index;
+    this.verifier = new TermVerifier(algorithm);
+    this.maxDistance = maxDistance;
+    this.stamps = new int[index.size()];
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If maxDistance is beyond the distance the
+   *   index was built for.
+   */
+  @Override
+  public void query(
+      @NonNull final String term,
+      final int distance,
+      @NonNull final CandidateVisitor visitor) {
+    checkDistance(index, distance);
+    candidates.clear();
+    budget.start();
+    if (distance >= 0) {
+      verifier.prepare(term, distance);
+      lookUp(term, distance);
+      verify(distance);
+    }
+    candidates.visit(visitor);
+    if (budget.exhausted()) {
+      visitor.truncated();
+    }
+  }
+
+  /**
+   * Finds the terms indexed under the deletions of the query term, whose
+   * lengths are within the distance of its length, in dictionary order.
+   * @param queryTerm Query term.
+   * @param distance Maximum distance of the query.
+   */
+  private void lookUp(final String queryTerm, final int distance) {
+    final int length = queryTerm.length();
+    if (query.length < length) {
+      query = new char[Math.max(length, query.length << 1)];
+    }
+    queryTerm.getChars(0, length, query, 0);
+
+    stamp += 1;
+    if (0 == stamp) {
+      Arrays.fill(stamps, 0);
+      stamp = 1;
+    }
+    found.clear();
+    SymmetricDeletionIndex.neighborhood(query, 0, length, distance, deletions);
+    final LongIterator keys = deletions.iterator();
+    while (keys.hasNext() && budget.spend()) {
+      final int slot = index.slot(keys.nextLong());
+      final int end = index.postingsEnd(slot);
+      for (int posting = index.postingsStart(slot); posting < end; posting += 1) {
+        final int id = index.posting(posting);
+        if (stamp != stamps[id]) {
+          stamps[id] = stamp;
+          // Like the DAWG engines, this never spells the empty term
+          if (0 < index.length(id) && Math.abs(index.length(id) - length) <= distance) {
+            found.add(id);
+          }
+        }
+      }
+    }
+    IntArrays.quickSort(found.elements(), 0, found.size());
+  }
+
+  /**
+   * Computes the distance between the query term and each term found,
+   * collecting those within the maximum distance that satisfy the filter.
+   * @param distance Maximum distance of the query.
+   */
+  private void verify(final int distance) {
+    for (int i = 0; i < found.size() && budget.spend(); i += 1) {
+      final int id = found.getInt(i);
+      final int length = index.length(id);
+      final char[] term = verifier.buffer(length);
+      index.term(id, term);
+      final int termDistance = verifier.distance(length);
+      if (termDistance <= distance && filter.accepts(sequence.set(term, 0, length))) {
+        candidates.collect(term, length, termDistance);
+      }
+    }
+  }
+
+  /**
+   * Checks that an index answers queries within some distance.
+   * @param index Index to query.
+   * @param maxDistance Maximum distance of the queries.
+   * @throws IllegalArgumentException If maxDistance is beyond the distance the
+   *   index was built for.
+   */
+  private static void checkDistance(final SymmetricDeletionIndex index, final int maxDistance) {
+    if (maxDistance > index.maxDistance()) {
+      final String message = String.format(
+        "Symmetric-deletion index answers queries within distance [%d], not [%d]",
+          index.maxDistance(), maxDistance);
+      throw new IllegalArgumentException(message);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.github.liblevenshtein.query;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Computes the exact distance between a query term and each of a sequence of
+ * terms, within the maximum distance of the query, for engines that find
+ * their spelling candidates in an index and must verify them.  Terms verified
+ * in dictionary order each share a prefix with the one before it, and the
+ * rows of the distance matrix for that prefix are reused rather than
+ * recomputed; a term is abandoned as soon as a row of its matrix is beyond
+ * the maximum distance.
+ *
+ * <p>All scratch space is kept between queries; instances are not
+ * thread-safe.</p>
+ */
+final class TermVerifier {
+
+  /**
+   * Initial capacity of the scratch space, in elements.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Distances between the query term and each prefix of the term being
+   * verified.
+   */
+  private final DistanceMatrix matrix;
+
+  /**
+   * Maximum distance of the current query.
+   */
+  private int maxDistance = 0;
+
+  /**
+   * Number of rows of {@link #matrix} computed for the last term verified,
+   * which the next term may reuse as far as it shares a prefix with it.
+   */
+  private int computed = 0;
+
+  /**
+   * Characters of the term being verified.
+   */
+  private char[] term = new char[INITIAL_CAPACITY];
+
+  /**
+   * Constructs a new verifier for some algorithm.
+   * @param algorithm Elementary operations for transforming query terms into
+   *   spelling candidates.
+   */
+  TermVerifier(final Algorithm algorithm) {
+    this.matrix = new DistanceMatrix(algorithm);
+  }
+
+  /**
+   * Resets the verifier for a new query term.
+   * @param query Query term.
+   * @param distance Maximum distance of the query.
+   */
+  void prepare(final String query, final int distance) {
+    matrix.prepare(query, distance);
+    maxDistance = distance;
+    computed = 0;
+  }
+
+  /**
+   * Buffer to copy the next term to verify into.  The array is replaced as it
+   * grows, so it must be fetched again for each term.
+   * @param length Length of the term.
+   * @return Buffer that fits the term.
+   */
+  char[] buffer(final int length) {
+    if (term.length < length) {
+      term = new char[Math.max(length, term.length << 1)];
+    }
+    return term;
+  }
+
+  /**
+   * Distance between the query term and the term copied into
+   * {@link #buffer(int)}.
+   * @param length Length of the term.
+   * @return Distance between the query term and the term, or a distance
+   *   beyond the maximum if it is beyond the maximum.
+   */
+  int distance(final int length) {
+    matrix.ensureDepth(length);
+    final char[] path = matrix.path();
+    int depth = 0;
+    while (depth < computed && depth < length && path[depth] == term[depth]) {
+      depth += 1;
+    }
+    while (depth < length) {
+      depth += 1;
+      if (matrix.nextRow(depth, term[depth - 1]) > maxDistance) {
+        computed = depth;
+        return maxDistance + 1;
+      }
+    }
+    computed = depth;
+    return matrix.distance(length);
+  }
+}
@@ -0,0 +1,478 @@
+package com.github.liblevenshtein.query;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.chars.CharArrayList;
+import it.unimi.dsi.fastutil.chars.CharIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.util.CharArraySequence;
+
+/**
+ * Dictionary whose terms have frequencies, for ranking spelling candidates.
+ *
+ * <p>A DAWG shares the nodes of common suffixes, so frequencies cannot be
+ * attached to its nodes.  Instead, each term is identified by its rank in
+ * dictionary order, which a traversal derives from the number of terms under
+ * each node it passes, and the frequencies are kept in an array indexed by
+ * rank.  The terms under any path have consecutive ranks, so the highest
+ * frequency among them is a range-maximum query, which bounds what a subtree
+ * may contribute to a ranking before it is searched.</p>
+ *
+ * <p>The indices behind ranks and range maxima are built the first time
+ * {@link #index()} is called; call it from each thread before using them.</p>
+ */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
+public class WeightedDictionary implements Serializable {
+
+  /**
+   * Version of the serialized form of this dictionary.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Number of frequencies summarized by each range maximum.
+   */
+  private static final int BLOCK_SIZE = 64;
+
+  /**
+   * Terms of the dictionary.
+   * -- GETTER --
+   * Terms of the dictionary.
+   * @return Terms of the dictionary.
+   */
+  @Getter
+  private final SortedDawg dictionary;
+
+  /**
+   * Frequency of each term, by rank.
+   */
+  private final int[] frequencies;
+
+  /**
+   * Number of terms under each dictionary node that precede each of its
+   * children, in label order, followed by the number under the node itself,
+   * or null until indexed.
+   */
+  private transient Reference2ObjectOpenHashMap<DawgNode, int[]> childOffsets = null;
+
+  /**
+   * Implicit segment tree over the highest frequency of each block of
+   * {@link #BLOCK_SIZE} ranks, whose leaves start at {@link #leaves}.
+   */
+  private transient int[] blockMaxima = null;
+
+  /**
+   * Index of the first leaf of {@link #blockMaxima}.
+   */
+  private transient int leaves = 0;
+
+  /**
+   * Highest frequency from the start of each rank's block through the rank.
+   */
+  private transient int[] prefixMaxima = null;
+
+  /**
+   * Highest frequency from each rank through the end of its block.
+   */
+  private transient int[] suffixMaxima = null;
+
+  /**
+   * Terms of the dictionary, packed into primitive arrays, or null until
+   * packed.
+   */
+  private transient PackedDawg packed = null;
+
+  /**
+   * Index of the deletion neighborhoods of the terms, or null until indexed.
+   */
+  private transient SymmetricDeletionIndex deletionIndex = null;
+
+  /**
+   * Index of the q-grams of the terms, or null until indexed.
+   */
+  private transient QGramIndex qgramIndex = null;
+
+  /**
+   * Terms of the dictionary, partitioned by length, or null until
+   * partitioned.
+   */
+  private transient LengthPartitionedDawg partitioned = null;
+
+  /**
+   * Constructs a dictionary whose terms all have a frequency of zero, so
+   * rankings fall back to dictionary order.
+   * @param dictionary Terms of the dictionary.
+   */
+  public WeightedDictionary(@NonNull final SortedDawg dictionary) {
+    this(dictionary, new int[size(dictionary)]);
+  }
+
+  /**
+   * Constructs a dictionary of terms with frequencies.
+   * @param dictionary Terms of the dictionary.
+   * @param frequencies Frequency of each term, in dictionary order.
+   * @throws IllegalArgumentException If there is not exactly one non-negative
+   *   frequency for each term.
+   */
+  public WeightedDictionary(
+      @NonNull final SortedDawg dictionary,
+      @NonNull final int[] frequencies) {
+    if (frequencies.length != size(dictionary)) {
+      final String message = String.format(
+        "Expected [%d] frequencies, one for each term, but received [%d]",
+          size(dictionary), frequencies.length);
+      throw new IllegalArgumentException(message);
+    }
+    for (int rank = 0; rank < frequencies.length; rank += 1) {
+      if (frequencies[rank] < 0) {
+        final String message = String.format(
+          "Expected non-negative frequencies, but term [%d] has [%d]",
+            rank, frequencies[rank]);
+        throw new IllegalArgumentException(message);
+      }
+    }
+    this.dictionary = dictionary;
+    this.frequencies = frequencies;
+  }
+
+  /**
+   * Number of terms in a dictionary, including the empty term.
+   * {@link SortedDawg#size()} does not count the empty term, which only marks
+   * the root final, but it has a rank like any other.
+   * @param dictionary Terms of the dictionary.
+   * @return Number of terms in the dictionary.
+   */
+  public static int size(@NonNull final SortedDawg dictionary) {
+    return dictionary.size() + (dictionary.root().isFinal() ? 1 : 0);
+  }
+
+  /**
+   * Number of terms in the dictionary.
+   * @return Number of terms in the dictionary.
+   */
+  public int size() {
+    return frequencies.length;
+  }
+
+  /**
+   * Frequency of a term.
+   * @param rank Rank of the term, in dictionary order.
+   * @return Frequency of the term.
+   */
+  public int frequency(final int rank) {
+    return frequencies[rank];
+  }
+
+  /**
+   * Visits each term and its frequency, in dictionary order.
+   * @param visitor Visits each term.
+   */
+  public void terms(@NonNull final TermVisitor visitor) {
+    terms(dictionary.root(), new char[0], 0, new int[1], new CharArraySequence(), visitor);
+  }
+
+  /**
+   * Visits each term under a dictionary node, in dictionary order.
+   * @param node Dictionary node.
+   * @param path Labels along the path from the root to node.
+   * @param depth Length of the path from the root to node.
+   * @param rank Rank of the next term to visit.
+   * @param term Exposes terms to the visitor.
+   * @param visitor Visits each term.
+   * @return Labels along the path, which may have been replaced as it grew.
+   */
+  private char[] terms(
+      final DawgNode node,
+      final char[] path,
+      final int depth,
+      final int[] rank,
+      final CharArraySequence term,
+      final TermVisitor visitor) {
+    char[] labels = path;
+    if (node.isFinal()) {
+      visitor.visit(term.set(labels, 0, depth), frequencies[rank[0]]);
+      rank[0] += 1;
+    }
+    final CharIterator iter = node.labels();
+    while (iter.hasNext()) {
+      final char label = iter.nextChar();
+      if (labels.length == depth) {
+        labels = Arrays.copyOf(labels, Math.max(BLOCK_SIZE, depth << 1));
+      }
+      labels[depth] = label;
+      labels = terms(node.transition(label), labels, depth + 1, rank, term, visitor);
+    }
+    return labels;
+  }
+
+  /**
+   * Builds the indices behind ranks and range maxima, if they have not been
+   * built.  Synchronizing on the dictionary publishes them to the calling
+   * thread.
+   * @return This {@link WeightedDictionary}, for fluency.
+   */
+  public synchronized WeightedDictionary index() {
+    if (null == childOffsets) {
+      final Reference2ObjectOpenHashMap<DawgNode, int[]> offsets =
+        new Reference2ObjectOpenHashMap<>();
+      count(dictionary.root(), offsets);
+
+      final int blocks = Math.max(1, (frequencies.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+      int width = 1;
+      while (width < blocks) {
+        width <<= 1;
+      }
+      final int[] maxima = new int[width << 1];
+      for (int rank = 0; rank < frequencies.length; rank += 1) {
+        final int leaf = width + rank / BLOCK_SIZE;
+        maxima[leaf] = Math.max(maxima[leaf], frequencies[rank]);
+      }
+      for (int node = width - 1; node > 0; node -= 1) {
+        maxima[node] = Math.max(maxima[node << 1], maxima[(node << 1) + 1]);
+      }
+
+      final int[] prefixes = new int[frequencies.length];
+      final int[] suffixes = new int[frequencies.length];
+      for (int rank = 0; rank < frequencies.length; rank += 1) {
+        prefixes[rank] = rank % BLOCK_SIZE == 0
+          ? frequencies[rank]
+          : Math.max(prefixes[rank - 1], frequencies[rank]);
+      }
+      for (int rank = frequencies.length - 1; rank >= 0; rank -= 1) {
+        suffixes[rank] = rank % BLOCK_SIZE == BLOCK_SIZE - 1 || rank == frequencies.length - 1
+          ? frequencies[rank]
+          : Math.max(suffixes[rank + 1], frequencies[rank]);
+      }
+
+      this.prefixMaxima = prefixes;
+      this.suffixMaxima = suffixes;
+      this.leaves = width;
+      this.blockMaxima = maxima;
+      this.childOffsets = offsets;
+    }
+    return this;
+  }
+
+  /**
+   * Terms of the dictionary, packed into primitive arrays for
+   * {@link PackedQueryEngine}.  They are packed the first time this is
+   * called, and shared by every caller after that.
+   * @return Terms of the dictionary, packed.
+   */
+  public synchronized PackedDawg packed() {
+    if (null == packed) {
+      packed = new PackedDawg(dictionary);
+    }
+    return packed;
+  }
+
+  /**
+   * Index of the deletion neighborhoods of the terms, for
+   * {@link SymmetricDeletionQueryEngine}.  It is built the first time this is
+   * called, or whenever a greater distance is asked for than it was built
+   * for, and shared by every caller after that.
+   * @param maxDistance Greatest distance the index must answer queries for.
+   * @return Index of the terms of the dictionary.
+   */
+  public synchronized SymmetricDeletionIndex deletionIndex(final int maxDistance) {
+    if (null == deletionIndex || deletionIndex.maxDistance() < maxDistance) {
+      deletionIndex = new SymmetricDeletionIndex(dictionary, maxDistance);
+    }
+    return deletionIndex;
+  }
+
+  /**
+   * Shares an index of the deletion neighborhoods of the terms, such as one
+   * mapped from a file, with every caller of {@link #deletionIndex(int)}.
+   * Whether it was built from this dictionary may be checked with
+   * {@link SymmetricDeletionIndex#indexes(WeightedDictionary)}.
+   * @param index Index of the terms of this dictionary.
+   * @return This {@link WeightedDictionary}, for fluency.
+   * @throws IllegalArgumentException If the index has a different number of
+   *   terms than this dictionary.
+   */
+  public synchronized WeightedDictionary deletionIndex(
+      @NonNull final SymmetricDeletionIndex index) {
+    if (index.size() != size()) {
+      final String message = String.format(
+        "Expected an index of [%d] terms, but it has [%d]", size(), index.size());
+      throw new IllegalArgumentException(message);
+    }
+    this.deletionIndex = index;
+    return this;
+  }
+
+  /**
+   * Index of the q-grams of the terms, for {@link QGramQueryEngine}.  It is
+   * built the first time this is called, and shared by every caller after
+   * that.
+   * @return Index of the terms of the dictionary.
+   */
+  public synchronized QGramIndex qgramIndex() {
+    if (null == qgramIndex) {
+      qgramIndex = new QGramIndex(dictionary, QGramIndex.DEFAULT_Q);
+    }
+    return qgramIndex;
+  }
+
+  /**
+   * Terms of the dictionary, partitioned by length for
+   * {@link PartitionedQueryEngine}.  They are partitioned the first time this
+   * is called, and shared by every caller after that.
+   * @return Terms of the dictionary, partitioned by length.
+   */
+  public synchronized LengthPartitionedDawg partitioned() {
+    if (null == partitioned) {
+      partitioned = new LengthPartitionedDawg(dictionary);
+    }
+    return partitioned;
+  }
+
+  /**
+   * Shares partitions of the terms that have already been built, such as
+   * those read from a file, with every caller of {@link #partitioned()}.
+   * @param partitions Terms of this dictionary, partitioned by length.
+   * @return This {@link WeightedDictionary}, for fluency.
+   * @throws IllegalArgumentException If the partitions have a different number
+   *   of terms than this dictionary.
+   */
+  public synchronized WeightedDictionary partitioned(
+      @NonNull final LengthPartitionedDawg partitions) {
+    if (partitions.size() != size()) {
+      final String message = String.format(
+        "Expected partitions of [%d] terms, but they have [%d]", size(), partitions.size());
+      throw new IllegalArgumentException(message);
+    }
+    this.partitioned = partitions;
+    return this;
+  }
+
+  /**
+   * Number of terms under a dictionary node that precede each of its children,
+   * in the order of {@link DawgNode#labels()}, including the one ending at the
+   * node, followed by the number of terms under the node.  The terms under
+   * child i therefore have ranks from the node's first rank plus offsets[i] to
+   * its first rank plus offsets[i + 1].  Requires {@link #index()}.
+   * @param node Dictionary node.
+   * @return Offsets of the ranks of node's children; they must not be modified.
+   */
+  int[] childOffsets(final DawgNode node) {
+    return childOffsets.get(node);
+  }
+
+  /**
+   * Highest frequency among a range of ranks.  Requires {@link #index()}.
+   * @param from First rank of the range, inclusive.
+   * @param to Last rank of the range, exclusive.
+   * @return Highest frequency among the ranks, or -1 if there are none.
+   */
+  int maxFrequency(final int from, final int to) {
+    if (from >= to) {
+      return -1;
+    }
+    final int firstBlock = from / BLOCK_SIZE;
+    final int lastBlock = (to - 1) / BLOCK_SIZE;
+    if (firstBlock == lastBlock) {
+      int max = frequencies[from];
+      for (int rank = from + 1; rank < to; rank += 1) {
+        max = Math.max(max, frequencies[rank]);
+      }
+      return max;
+    }
+    // The partial blocks at either end come from the in-block maxima, and the
+    // whole blocks between them from the segment tree
+    int max = Math.max(suffixMaxima[from], prefixMaxima[to - 1]);
+    int lo = leaves + firstBlock + 1;
+    int hi = leaves + lastBlock;
+    while (lo < hi) {
+      if ((lo & 1) == 1) {
+        max = Math.max(max, blockMaxima[lo]);
+        lo += 1;
+      }
+      if ((hi & 1) == 1) {
+        hi -= 1;
+        max = Math.max(max, blockMaxima[hi]);
+      }
+      lo >>= 1;
+      hi >>= 1;
+    }
+    return max;
+  }
+
+  /**
+   * Spells the term of some rank.  Requires {@link #index()}.
+   * @param rank Rank of the term, in dictionary order.
+   * @param buffer Receives the characters of the term; it must fit them.
+   * @return Length of the term.
+   */
+  int term(final int rank, final char[] buffer) {
+    DawgNode node = dictionary.root();
+    int remaining = rank;
+    int length = 0;
+    while (!node.isFinal() || remaining > 0) {
+      final int[] offsets = childOffsets.get(node);
+      final CharIterator labels = node.labels();
+      int child = 0;
+      char label = labels.nextChar();
+      while (remaining >= offsets[child + 1]) {
+        child += 1;
+        label = labels.nextChar();
+      }
+      remaining -= offsets[child];
+      buffer[length] = label;
+      length += 1;
+      node = node.transition(label);
+    }
+    return length;
+  }
+
+  /**
+   * Counts the terms under a dictionary node and its children, memoizing the
+   * offsets of shared nodes.
+   * @param node Dictionary node.
+   * @param offsets Memoized offsets of each node's children.
+   * @return Number of terms under node.
+   */
+  private static int count(
+      final DawgNode node,
+      final Reference2ObjectOpenHashMap<DawgNode, int[]> offsets) {
+    int[] nodeOffsets = offsets.get(node);
+    if (null == nodeOffsets) {
+      final CharArrayList labels = new CharArrayList();
+      final CharIterator iter = node.labels();
+      while (iter.hasNext()) {
+        labels.add(iter.nextChar());
+      }
+      nodeOffsets = new int[labels.size() + 1];
+      int count = node.isFinal() ? 1 : 0;
+      for (int i = 0; i < labels.size(); i += 1) {
+        nodeOffsets[i] = count;
+        count += count(node.transition(labels.getChar(i)), offsets);
+      }
+      nodeOffsets[labels.size()] = count;
+      offsets.put(node, nodeOffsets);
+    }
+    return nodeOffsets[nodeOffsets.length - 1];
+  }
+
+  /**
+   * Visits the terms of a {@link WeightedDictionary}.
+   */
+  @FunctionalInterface
+  public interface TermVisitor {
+
+    /**
+     * Visits a term.  The term is only valid during the call.
+     * @param term Term of the dictionary.
+     * @param frequency Frequency of the term.
+     */
+    void visit(CharSequence term, int frequency);
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * Engines that query dictionaries for spelling candidates.
+ */
+package com.github.liblevenshtein.query;
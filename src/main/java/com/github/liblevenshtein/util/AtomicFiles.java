@@ -0,0 +1,61 @@
+package com.github.liblevenshtein.util;
+
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes files atomically, by writing a temporary file beside each and then
+ * moving the temporary file over it.  Readers never observe a partial file,
+ * and a write that fails or is interrupted leaves the old file, if any, as it
+ * was.
+ */
+public final class AtomicFiles {
+
+  /**
+   * Utility class.
+   */
+  private AtomicFiles() {
+  }
+
+  /**
+   * Writes a file atomically.
+   * @param target File to write.
+   * @param writer Writes the content of the file.
+   * @throws Exception If the file cannot be written.
+   */
+  public static void write(final Path target, final StreamWriter writer) throws Exception {
+    final Path tmp = Files.createTempFile(
+      target.toAbsolutePath().getParent(), "." + target.getFileName(), ".tmp");
+    try {
+      try (final OutputStream stream = Files.newOutputStream(tmp)) {
+        writer.write(stream);
+      }
+      try {
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (final AtomicMoveNotSupportedException exception) {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Writes content to a stream.
+   */
+  @FunctionalInterface
+  public interface StreamWriter {
+
+    /**
+     * Writes content to the stream.
+     * @param stream Stream to write.
+     * @throws Exception If the content cannot be written.
+     */
+    void write(OutputStream stream) throws Exception;
+  }
+}
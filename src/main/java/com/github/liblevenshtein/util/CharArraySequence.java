@@ -0,0 +1,83 @@
+package com.github.liblevenshtein.util;
+
+/**
+ * Mutable {@link CharSequence} view over a region of a char array.  It lets
+ * callers expose reusable buffers as character sequences without copying them
+ * into new strings.
+ */
+public class CharArraySequence implements CharSequence {
+
+  /**
+   * Characters of the sequence, and possibly others.
+   */
+  private char[] chars = new char[0];
+
+  /**
+   * Index of the first character of the sequence, within {@link #chars}.
+   */
+  private int offset = 0;
+
+  /**
+   * Number of characters in the sequence.
+   */
+  private int length = 0;
+
+  /**
+   * Points this sequence at a region of a char array.  The array is not
+   * copied, so changes to it are visible through this sequence.
+   * @param array Characters of the sequence, and possibly others.
+   * @param start Index of the first character of the sequence.
+   * @param count Number of characters in the sequence.
+   * @return This {@link CharArraySequence}, for fluency.
+   */
+  public CharArraySequence set(final char[] array, final int start, final int count) {
+    if (start < 0 || count < 0 || start + count > array.length) {
+      final String message = String.format(
+        "Region [%d, %d) is out of bounds for an array of length [%d]",
+          start, start + count, array.length);
+      throw new IndexOutOfBoundsException(message);
+    }
+    this.chars = array;
+    this.offset = start;
+    this.length = count;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public char charAt(final int index) {
+    if (index < 0 || index >= length) {
+      final String message = String.format(
+        "Index [%d] is out of bounds for a sequence of length [%d]",
+          index, length);
+      throw new IndexOutOfBoundsException(message);
+    }
+    return chars[offset + index];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CharSequence subSequence(final int start, final int end) {
+    return toString().substring(start, end);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return new String(chars, offset, length);
+  }
+}
@@ -0,0 +1,337 @@
+package com.github.liblevenshtein.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.NonNull;
+
+/**
+ * Reusable byte buffer for printing messages.  Text is encoded directly into
+ * the buffer, which is drained to its channel whenever it fills, so printing
+ * does not allocate intermediate strings.
+ */
+public class OutputBuffer implements Flushable, Closeable {
+
+  /**
+   * Default capacity of the buffer, in bytes.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * Capacity of the direct buffers used for writing files, in bytes.  Files
+   * are written without copying through the heap, so larger buffers mean fewer
+   * system calls.
+   */
+  public static final int FILE_CAPACITY = 1 << 20;
+
+  /**
+   * Bytes of the platform's line separator.
+   */
+  private static final byte[] LINE_SEPARATOR =
+    System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * Uppercase, hexadecimal digits.
+   */
+  private static final byte[] HEX_DIGITS =
+    "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * Number of bytes needed for the longest, escaped character.
+   */
+  private static final int MAX_ESCAPE_LENGTH = 6;
+
+  /**
+   * Number of bytes needed for the longest, decimal integer.
+   */
+  private static final int MAX_INTEGER_LENGTH = 11;
+
+  /**
+   * Channel to drain the buffer to.
+   */
+  private final WritableByteChannel channel;
+
+  /**
+   * Holds bytes until they are drained to {@link #channel}.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * Whether closing this buffer closes its channel.
+   */
+  private final boolean closesChannel;
+
+  /**
+   * Scratch space for encoding integers.
+   */
+  private final byte[] digits = new byte[MAX_INTEGER_LENGTH];
+
+  /**
+   * Constructs a new buffer that drains to a channel, and closes the channel
+   * when it is closed.
+   * @param channel Channel to drain the buffer to.
+   * @param capacity Capacity of the buffer, in bytes.
+   */
+  public OutputBuffer(@NonNull final WritableByteChannel channel, final int capacity) {
+    this(channel, allocate(capacity, false), true);
+  }
+
+  /**
+   * Constructs a new buffer that drains to a channel.
+   * @param channel Channel to drain the buffer to.
+   * @param buffer Holds bytes until they are drained to the channel.
+   * @param closesChannel Whether closing this buffer closes its channel.
+   */
+  private OutputBuffer(
+      final WritableByteChannel channel,
+      final ByteBuffer buffer,
+      final boolean closesChannel) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.closesChannel = closesChannel;
+  }
+
+  /**
+   * Constructs a new buffer that drains to standard output.  Closing the
+   * buffer flushes it, but leaves standard output open.
+   * @return New buffer that drains to standard output.
+   */
+  public static OutputBuffer stdout() {
+    return new OutputBuffer(
+      Channels.newChannel(System.out),
+      allocate(DEFAULT_CAPACITY, false),
+      false);
+  }
+
+  /**
+   * Constructs a new buffer that drains to a file, replacing any existing
+   * file.  Uncompressed files are written through a {@link FileChannel} from a
+   * direct buffer.
+   * @param path File to write.
+   * @param gzip Whether to compress the file with GZIP, as it is written.
+   * @return New buffer that drains to the file.
+   * @throws IOException If the file cannot be opened.
+   */
+  public static OutputBuffer open(@NonNull final Path path, final boolean gzip)
+      throws IOException {
+    final FileChannel file = FileChannel.open(path,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.WRITE);
+    if (!gzip) {
+      return new OutputBuffer(file, allocate(FILE_CAPACITY, true), true);
+    }
+    try {
+      final GZIPOutputStream stream =
+        new GZIPOutputStream(Channels.newOutputStream(file), DEFAULT_CAPACITY);
+      return new OutputBuffer(
+        Channels.newChannel(stream),
+        allocate(DEFAULT_CAPACITY, false),
+        true);
+    }
+    catch (final IOException exception) {
+      file.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Allocates a buffer.
+   * @param capacity Capacity of the buffer, in bytes.
+   * @param direct Whether to allocate the buffer outside the heap.
+   * @return New buffer.
+   */
+  private static ByteBuffer allocate(final int capacity, final boolean direct) {
+    if (capacity < MAX_INTEGER_LENGTH) {
+      final String message = String.format(
+        "Expected a capacity of at least [%d] bytes, but received [%d]",
+          MAX_INTEGER_LENGTH, capacity);
+      throw new IllegalArgumentException(message);
+    }
+    return direct
+      ? ByteBuffer.allocateDirect(capacity)
+      : ByteBuffer.allocate(capacity);
+  }
+
+  /**
+   * Appends a byte.
+   * @param value Byte to append.
+   * @return This {@link OutputBuffer}, for fluency.
+   */
+  public OutputBuffer put(final byte value) {
+    reserve(1);
+    buffer.put(value);
+    return this;
+  }
+
+  /**
+   * Appends some bytes.
+   * @param bytes Bytes to append.
+   * @return This {@link OutputBuffer}, for fluency.
+   */
+  public OutputBuffer put(final byte[] bytes) {
+    int offset = 0;
+    while (offset < bytes.length) {
+      reserve(1);
+      final int length = Math.min(buffer.remaining(), bytes.length - offset);
+      buffer.put(bytes, offset, length);
+      offset += length;
+    }
+    return this;
+  }
+
+  /**
+   * Appends text consisting only of ASCII characters (such as Java-escaped
+   * text and terminal escape codes), one byte per character.
+   * @param text ASCII text to append.
+   * @return This {@link OutputBuffer}, for fluency.
+   */
+  public OutputBuffer putAscii(final CharSequence text) {
+    for (int i = 0; i < text.length(); i += 1) {
+      reserve(1);
+      buffer.put((byte) text.charAt(i));
+    }
+    return this;
+  }
+
+  /**
+   * Appends text escaped according to the rules of Java string literals,
+   * exactly as {@link org.apache.commons.lang3.StringEscapeUtils#escapeJava}
+   * would escape it.  Escaped text is pure ASCII.
+   * @param text Text to escape and append.
+   * @return This {@link OutputBuffer}, for fluency.
+   */
+  @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+  public OutputBuffer putEscaped(final CharSequence text) {
+    for (int i = 0; i < text.length(); i += 1) {
+      reserve(MAX_ESCAPE_LENGTH);
+      final char c = text.charAt(i);
+      switch (c) {
+        case '"':
+          buffer.put((byte) '\\').put((byte) '"');
+          break;
+        case '\\':
+          buffer.put((byte) '\\').put((byte) '\\');
+          break;
+        case '\b':
+          buffer.put((byte) '\\').put((byte) 'b');
+          break;
+        case '\n':
+          buffer.put((byte) '\\').put((byte) 'n');
+          break;
+        case '\t':
+          buffer.put((byte) '\\').put((byte) 't');
+          break;
+        case '\f':
+          buffer.put((byte) '\\').put((byte) 'f');
+          break;
+        case '\r':
+          buffer.put((byte) '\\').put((byte) 'r');
+          break;
+        default:
+          if (c < ' ' || c > 0x7f) {
+            buffer.put((byte) '\\').put((byte) 'u')
+              .put(HEX_DIGITS[(c >>> 12) & 0xf])
+              .put(HEX_DIGITS[(c >>> 8) & 0xf])
+              .put(HEX_DIGITS[(c >>> 4) & 0xf])
+              .put(HEX_DIGITS[c & 0xf]);
+          }
+          else {
+            buffer.put((byte) c);
+          }
+          break;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Appends the decimal representation of an integer.
+   * @param value Integer to append.
+   * @return This {@link OutputBuffer}, for fluency.
+   */
+  public OutputBuffer putInt(final int value) {
+    reserve(MAX_INTEGER_LENGTH);
+    long remainder = Math.abs((long) value);
+    int i = digits.length;
+    do {
+      i -= 1;
+      digits[i] = (byte) ('0' + remainder % 10);
+      remainder /= 10;
+    }
+    while (0 != remainder);
+    if (value < 0) {
+      buffer.put((byte) '-');
+    }
+    buffer.put(digits, i, digits.length - i);
+    return this;
+  }
+
+  /**
+   * Appends the platform's line separator.
+   * @return This {@link OutputBuffer}, for fluency.
+   */
+  public OutputBuffer newline() {
+    return put(LINE_SEPARATOR);
+  }
+
+  /**
+   * Drains the buffer to its channel.
+   * @throws IOException If the channel cannot be written.
+   */
+  @Override
+  public void flush() throws IOException {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    finally {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Drains the buffer to its channel, and closes the channel if this buffer
+   * owns it.
+   * @throws IOException If the channel cannot be written or closed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    }
+    finally {
+      if (closesChannel) {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Ensures the buffer has room for some number of bytes, draining it if it
+   * does not.
+   * @param length Number of bytes to make room for.
+   */
+  private void reserve(final int length) {
+    if (buffer.remaining() < length) {
+      try {
+        flush();
+      }
+      catch (final IOException exception) {
+        throw new UncheckedIOException("Failed to drain the output buffer", exception);
+      }
+    }
+  }
+}
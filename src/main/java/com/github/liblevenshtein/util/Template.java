@@ -0,0 +1,187 @@
+package com.github.liblevenshtein.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Precompiled layout of a printed message.  A layout is fixed text (including
+ * any terminal escape codes) interrupted by slots for the query term, spelling
+ * candidate, distance and source dictionary.  The fixed text is encoded once, when the layout is
+ * compiled, so rendering a message only copies bytes and fills its slots.
+ */
+public final class Template {
+
+  /**
+   * Marks the start of a slot's placeholder within a layout.
+   */
+  private static final char PLACEHOLDER_MARKER = 0;
+
+  /**
+   * Slots that may be filled when a template is rendered.
+   */
+  public enum Slot {
+
+    /** Java-escaped, query term, inserted as-is. */
+    QUERY,
+
+    /** Spelling candidate, which is Java-escaped as it is inserted. */
+    CANDIDATE,
+
+    /** Distance between the query term and spelling candidate. */
+    DISTANCE,
+
+    /** Name of the dictionary the spelling candidate comes from, which must be bound. */
+    SOURCE;
+
+    /**
+     * Placeholder for this slot within layouts.
+     * -- GETTER --
+     * Placeholder for this slot within layouts.
+     * @return Placeholder for this slot within layouts.
+     */
+    @Getter
+    private final String placeholder =
+      new String(new char[] {PLACEHOLDER_MARKER, (char) ('0' + ordinal())});
+  }
+
+  /**
+   * Fixed text of the template, where the text at index {@code i} precedes the
+   * slot at index {@code i}, and the last text follows every slot.
+   */
+  private final byte[][] texts;
+
+  /**
+   * Slots of the template, in the order they are rendered.
+   */
+  private final Slot[] slots;
+
+  /**
+   * Constructs a new template.
+   * @param texts Fixed text of the template.
+   * @param slots Slots of the template.
+   */
+  private Template(final byte[][] texts, final Slot[] slots) {
+    this.texts = texts;
+    this.slots = slots;
+  }
+
+  /**
+   * Compiles a layout into a template.  Slots are marked in the layout by their
+   * {@link Slot#placeholder() placeholders}.
+   * @param layout Layout to compile.
+   * @return Template of the layout.
+   */
+  public static Template compile(@NonNull final CharSequence layout) {
+    final List<byte[]> texts = new ArrayList<>();
+    final List<Slot> slots = new ArrayList<>();
+    final StringBuilder text = new StringBuilder(layout.length());
+    for (int i = 0; i < layout.length(); i += 1) {
+      final char c = layout.charAt(i);
+      if (PLACEHOLDER_MARKER == c) {
+        i += 1;
+        texts.add(text.toString().getBytes(StandardCharsets.UTF_8));
+        slots.add(Slot.values()[layout.charAt(i) - '0']);
+        text.setLength(0);
+      }
+      else {
+        text.append(c);
+      }
+    }
+    texts.add(text.toString().getBytes(StandardCharsets.UTF_8));
+    return new Template(
+      texts.toArray(new byte[texts.size()][]),
+      slots.toArray(new Slot[slots.size()]));
+  }
+
+  /**
+   * Binds the query-term slots of this template.  Messages are rendered for
+   * many spelling candidates of each query term, so binding the query term
+   * once saves filling it for each candidate.
+   * @param escapedQuery Java-escaped, query term.
+   * @return New template with the query term in place of its query-term slots.
+   */
+  public Template bind(@NonNull final String escapedQuery) {
+    return bind(Slot.QUERY, escapedQuery);
+  }
+
+  /**
+   * Binds the slots of this template of some kind to fixed text.
+   * @param slot Kind of slots to bind.
+   * @param text Text to put in place of the slots, as-is.
+   * @return New template with the text in place of the slots.
+   */
+  public Template bind(@NonNull final Slot slot, @NonNull final String text) {
+    final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    final List<byte[]> boundTexts = new ArrayList<>(texts.length);
+    final List<Slot> boundSlots = new ArrayList<>(slots.length);
+    byte[] boundText = texts[0];
+    for (int i = 0; i < slots.length; i += 1) {
+      if (slot == slots[i]) {
+        boundText = concat(boundText, bytes, texts[i + 1]);
+      }
+      else {
+        boundTexts.add(boundText);
+        boundSlots.add(slots[i]);
+        boundText = texts[i + 1];
+      }
+    }
+    boundTexts.add(boundText);
+    return new Template(
+      boundTexts.toArray(new byte[boundTexts.size()][]),
+      boundSlots.toArray(new Slot[boundSlots.size()]));
+  }
+
+  /**
+   * Renders this template into a buffer.
+   * @param output Buffers printed messages.
+   * @param escapedQuery Java-escaped, query term.
+   * @param candidate Spelling candidate.
+   * @param distance Distance between the query term and spelling candidate.
+   */
+  public void render(
+      final OutputBuffer output,
+      final CharSequence escapedQuery,
+      final CharSequence candidate,
+      final int distance) {
+    for (int i = 0; i < slots.length; i += 1) {
+      output.put(texts[i]);
+      switch (slots[i]) {
+        case QUERY:
+          output.putAscii(escapedQuery);
+          break;
+        case CANDIDATE:
+          output.putEscaped(candidate);
+          break;
+        case DISTANCE:
+          output.putInt(distance);
+          break;
+        default:
+          final String message = String.format("Unsupported slot [%s]", slots[i]);
+          throw new IllegalStateException(message);
+      }
+    }
+    output.put(texts[slots.length]);
+  }
+
+  /**
+   * Concatenates three byte arrays.
+   * @param first First byte array.
+   * @param second Second byte array.
+   * @param third Third byte array.
+   * @return New byte array with the bytes of all three.
+   */
+  private static byte[] concat(
+      final byte[] first,
+      final byte[] second,
+      final byte[] third) {
+    final byte[] bytes = Arrays.copyOf(first, first.length + second.length + third.length);
+    System.arraycopy(second, 0, bytes, first.length, second.length);
+    System.arraycopy(third, 0, bytes, first.length + second.length, third.length);
+    return bytes;
+  }
+}
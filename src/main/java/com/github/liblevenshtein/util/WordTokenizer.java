@@ -0,0 +1,214 @@
+package com.github.liblevenshtein.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.ObjLongConsumer;
+
+import lombok.NonNull;
+
+/**
+ * Splits a stream of UTF-8 text into words, reporting the byte offset at which
+ * each begins.  A word is a run of letters, possibly joined by apostrophes,
+ * straight or curly (e.g. "don't"); everything else separates words.  The
+ * stream is decoded block by block, so texts of any size are tokenized in
+ * constant memory, and malformed bytes simply separate words.
+ */
+public final class WordTokenizer {
+
+  /**
+   * Number of bytes read from the stream at a time.
+   */
+  private static final int BLOCK_BYTES = 1 << 16;
+
+  /**
+   * Joins letters within a word.
+   */
+  private static final int APOSTROPHE = '\'';
+
+  /**
+   * Joins letters within a word, as typeset (U+2019, the right single
+   * quotation mark).
+   */
+  private static final int CURLY_APOSTROPHE = 0x2019;
+
+  /**
+   * Marks the continuation bytes of multi-byte sequences.
+   */
+  private static final int CONTINUATION_MASK = 0xC0;
+
+  /**
+   * Value of continuation bytes, under their mask.
+   */
+  private static final int CONTINUATION = 0x80;
+
+  /**
+   * Bits of each continuation byte that hold the code point.
+   */
+  private static final int CONTINUATION_BITS = 0x3F;
+
+  /**
+   * Number of bits of the code point held by each continuation byte.
+   */
+  private static final int CONTINUATION_SHIFT = 6;
+
+  /**
+   * Visits each word and the byte offset at which it begins.
+   */
+  private final ObjLongConsumer<String> visitor;
+
+  /**
+   * Holds the characters of the current word.
+   */
+  private final StringBuilder word = new StringBuilder();
+
+  /**
+   * Byte offset at which the current word begins.
+   */
+  private long wordOffset = 0L;
+
+  /**
+   * Number of trailing apostrophes of the current word, which are dropped if
+   * no letter follows them.
+   */
+  private int apostrophes = 0;
+
+  /**
+   * Code point being decoded, from the bytes read so far.
+   */
+  private int codePoint = 0;
+
+  /**
+   * Number of continuation bytes of the code point not yet read.
+   */
+  private int pending = 0;
+
+  /**
+   * Byte offset of the code point being decoded.
+   */
+  private long codePointOffset = 0L;
+
+  /**
+   * Constructs a tokenizer.
+   * @param visitor Visits each word and the byte offset at which it begins.
+   */
+  private WordTokenizer(final ObjLongConsumer<String> visitor) {
+    this.visitor = visitor;
+  }
+
+  /**
+   * Splits a stream into words.
+   * @param stream UTF-8 text to split, which is read to its end but not closed.
+   * @param visitor Visits each word, in order, and the byte offset at which it
+   *   begins.
+   * @return Number of bytes read from the stream.
+   * @throws IOException If the stream cannot be read.
+   */
+  public static long tokenize(
+      @NonNull final InputStream stream,
+      @NonNull final ObjLongConsumer<String> visitor) throws IOException {
+    return new WordTokenizer(visitor).read(stream);
+  }
+
+  /**
+   * Decodes a stream, splitting it into words.
+   * @param stream UTF-8 text to split.
+   * @return Number of bytes read from the stream.
+   * @throws IOException If the stream cannot be read.
+   */
+  private long read(final InputStream stream) throws IOException {
+    final byte[] block = new byte[BLOCK_BYTES];
+    long offset = 0L;
+    for (int length = stream.read(block); -1 != length; length = stream.read(block)) {
+      for (int i = 0; i < length; i += 1) {
+        decode(block[i] & 0xFF, offset + i);
+      }
+      offset += length;
+    }
+    end();
+    return offset;
+  }
+
+  /**
+   * Decodes a continuation byte of the current code point, accepting the code
+   * point once it is complete.
+   * @param value Unsigned value of the byte.
+   */
+  private void continueCodePoint(final int value) {
+    codePoint = codePoint << CONTINUATION_SHIFT | value & CONTINUATION_BITS;
+    pending -= 1;
+    if (0 == pending) {
+      accept(codePoint, codePointOffset);
+    }
+  }
+
+  /**
+   * Decodes the next byte of the stream.
+   * @param value Unsigned value of the byte.
+   * @param offset Byte offset of the byte.
+   */
+  private void decode(final int value, final long offset) {
+    if (0 < pending) {
+      if (CONTINUATION == (value & CONTINUATION_MASK)) {
+        continueCodePoint(value);
+        return;
+      }
+      // Malformed sequences separate words
+      pending = 0;
+      end();
+    }
+
+    codePointOffset = offset;
+    if (value < CONTINUATION) {
+      accept(value, offset);
+    }
+    else if (0xC0 == (value & 0xE0)) {
+      codePoint = value & 0x1F;
+      pending = 1;
+    }
+    else if (0xE0 == (value & 0xF0)) {
+      codePoint = value & 0x0F;
+      pending = 2;
+    }
+    else if (0xF0 == (value & 0xF8)) {
+      codePoint = value & 0x07;
+      pending = 3;
+    }
+    else {
+      end();
+    }
+  }
+
+  /**
+   * Adds a code point to the current word, or ends it.
+   * @param decoded Decoded code point.
+   * @param offset Byte offset of the code point.
+   */
+  private void accept(final int decoded, final long offset) {
+    if (Character.isLetter(decoded)) {
+      if (0 == word.length()) {
+        wordOffset = offset;
+      }
+      word.appendCodePoint(decoded);
+      apostrophes = 0;
+    }
+    else if ((APOSTROPHE == decoded || CURLY_APOSTROPHE == decoded) && 0 < word.length()) {
+      word.append((char) decoded);
+      apostrophes += 1;
+    }
+    else {
+      end();
+    }
+  }
+
+  /**
+   * Ends the current word, if any, and visits it.
+   */
+  private void end() {
+    if (0 < word.length()) {
+      word.setLength(word.length() - apostrophes);
+      visitor.accept(word.toString(), wordOffset);
+      word.setLength(0);
+      apostrophes = 0;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.QueryTests;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class BulkConverterTest {
+
+  private static final List<String> EN_TERMS = Arrays.asList("bar", "baz", "foo");
+
+  private static final List<String> FR_TERMS = Arrays.asList("chat", "chien");
+
+  @Test
+  public void testConvertSkipsUpToDateTargets() throws Exception {
+    final Path sourceDirectory = sourceDirectory();
+    final Path targetDirectory = Files.createTempDirectory("bulk-targets-");
+    try {
+      final BulkConverter converter = new BulkConverter()
+        .sourceFormat(SerializationFormat.PLAIN_TEXT)
+        .isSorted(true)
+        .targetFormats(Arrays.asList(SerializationFormat.PROTOBUF, SerializationFormat.BYTECODE))
+        .targetDirectory(targetDirectory)
+        .threads(2)
+        .memoryBudget(1);
+
+      final List<Path> sources = BulkConverter.sources(sourceDirectory);
+      assertThat(sources).hasSize(2);
+      assertThat(converter.convert(sources)).isEqualTo(4);
+
+      final Path target = targetDirectory.resolve("en.protobuf.bytes");
+      assertThat(target).isEqualTo(
+        converter.target(sourceDirectory.resolve("en.txt"), SerializationFormat.PROTOBUF));
+      final SortedDawg dictionary = SerializationFormat.PROTOBUF.serializer(true)
+        .deserialize(SortedDawg.class, target);
+      assertThat(dictionary).containsExactlyElementsOf(EN_TERMS);
+
+      assertThat(converter.convert(sources)).isEqualTo(0);
+
+      Files.write(sourceDirectory.resolve("fr.txt"),
+        Arrays.asList("chat", "chien", "oiseau"), StandardCharsets.UTF_8);
+      assertThat(converter.convert(sources)).isEqualTo(2);
+    }
+    finally {
+      QueryTests.delete(sourceDirectory);
+      QueryTests.delete(targetDirectory);
+    }
+  }
+
+  @Test
+  public void testRejectsTargetsAmongTheSources() throws Exception {
+    final Path sourceDirectory = sourceDirectory();
+    try {
+      final List<Path> sources = BulkConverter.sources(sourceDirectory);
+      assertThatThrownBy(() -> new BulkConverter()
+          .targetDirectory(sourceDirectory.resolve("targets").resolve(".."))
+          .convert(sources))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("is the directory of dictionary");
+
+      final Path targetDirectory = sourceDirectory.resolve("targets");
+      assertThat(new BulkConverter()
+          .targetDirectory(targetDirectory)
+          .convert(sources))
+        .isEqualTo(sources.size());
+      assertThat(BulkConverter.sources(sourceDirectory)).isEqualTo(sources);
+    }
+    finally {
+      QueryTests.delete(sourceDirectory);
+    }
+  }
+
+  @Test
+  public void testSourcesFromManifest() throws IOException {
+    final Path sourceDirectory = sourceDirectory();
+    try {
+      final Path manifest = sourceDirectory.resolve("manifest");
+      Files.write(manifest, Arrays.asList("# comment", "", "fr.txt"), StandardCharsets.UTF_8);
+      assertThat(BulkConverter.sources(manifest))
+        .containsExactly(sourceDirectory.toAbsolutePath().resolve("fr.txt"));
+    }
+    finally {
+      QueryTests.delete(sourceDirectory);
+    }
+  }
+
+  private Path sourceDirectory() throws IOException {
+    final Path sourceDirectory = Files.createTempDirectory("bulk-sources-");
+    Files.write(sourceDirectory.resolve("en.txt"), EN_TERMS, StandardCharsets.UTF_8);
+    Files.write(sourceDirectory.resolve("fr.txt"), FR_TERMS, StandardCharsets.UTF_8);
+    return sourceDirectory;
+  }
+}
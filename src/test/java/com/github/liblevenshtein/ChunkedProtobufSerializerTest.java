@@ -0,0 +1,148 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.google.protobuf.CodedOutputStream;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class ChunkedProtobufSerializerTest {
+
+  @Test
+  public void testRoundTripsDictionariesOfManyBlocks() throws Exception {
+    final SortedSet<String> terms = new TreeSet<>();
+    final Random random = new Random(42L);
+    while (terms.size() < 20_000) {
+      final char[] term = new char[1 + random.nextInt(12)];
+      for (int i = 0; i < term.length; i += 1) {
+        term[i] = (char) ('a' + random.nextInt(26));
+      }
+      terms.add(new String(term));
+    }
+    terms.add("\351t\351");
+    final SortedDawg dictionary = new SortedDawg(terms);
+
+    final byte[] bytes = new ChunkedProtobufSerializer(1).serialize(dictionary);
+    for (final int threads : new int[] {1, 4}) {
+      final SortedDawg copy =
+        new ChunkedProtobufSerializer(threads).deserialize(SortedDawg.class, bytes);
+      assertThat(copy.size()).isEqualTo(terms.size());
+      assertThat(new ArrayList<>(copy)).isEqualTo(new ArrayList<>(dictionary));
+      assertThat(copy).containsExactlyInAnyOrderElementsOf(terms);
+      assertThat(copy.contains("\351t\351")).isTrue();
+      assertThat(copy.contains("\351t")).isFalse();
+    }
+  }
+
+  @Test
+  public void testRoundTripsEmptyAndWeightedDictionaries() throws Exception {
+    final SerializationFormat format = SerializationFormat.CHUNKED_PROTOBUF;
+    final ByteArrayOutputStream empty = new ByteArrayOutputStream();
+    format.serialize(true, new WeightedDictionary(new SortedDawg()), empty);
+    assertThat(format.deserialize(true, new ByteArrayInputStream(empty.toByteArray()))
+        .dictionary()).isEmpty();
+
+    final ByteArrayOutputStream weighted = new ByteArrayOutputStream();
+    format.serialize(true, new WeightedDictionary(
+      new SortedDawg(Arrays.asList("bar", "foo")), new int[] {2, 1}), weighted);
+    final WeightedDictionary copy =
+      format.deserialize(true, new ByteArrayInputStream(weighted.toByteArray()));
+    assertThat(copy.dictionary()).containsExactly("bar", "foo");
+    assertThat(copy.frequency(0)).isZero();
+  }
+
+  @Test
+  public void testIsRecognizedAdaptively() throws Exception {
+    final SortedDawg dictionary = new SortedDawg(Arrays.asList("he", "ten", "the", "then"));
+    final byte[] bytes = new ChunkedProtobufSerializer().serialize(dictionary);
+
+    // Each format tried before CHUNKED_PROTOBUF must reject the stream, and
+    // CHUNKED_PROTOBUF must reject the streams of the formats after it
+    final List<SerializationFormat> after = new ArrayList<>();
+    boolean before = true;
+    for (final SerializationFormat format : SerializationFormat.values()) {
+      if (SerializationFormat.CHUNKED_PROTOBUF == format) {
+        before = false;
+      }
+      else if (before) {
+        assertThatThrownBy(() -> format.deserialize(false, new ByteArrayInputStream(bytes)))
+          .as("Deserializing a CHUNKED_PROTOBUF stream as %s", format)
+          .isNotNull();
+      }
+      else {
+        after.add(format);
+      }
+    }
+    for (final SerializationFormat format : after) {
+      final ByteArrayOutputStream other = new ByteArrayOutputStream();
+      format.serialize(true, new WeightedDictionary(dictionary), other);
+      assertThatThrownBy(() -> SerializationFormat.CHUNKED_PROTOBUF
+          .deserialize(false, new ByteArrayInputStream(other.toByteArray())))
+        .as("Deserializing a %s stream as CHUNKED_PROTOBUF", format)
+        .isNotNull();
+    }
+
+    final WeightedDictionary loaded = new DictionaryLoader()
+      .loadWeighted(() -> new ByteArrayInputStream(bytes));
+    assertThat(loaded.dictionary()).containsExactly("he", "ten", "the", "then");
+  }
+
+  @Test
+  public void testRejectsCorruptStreams() throws Exception {
+    final byte[] bytes = new ChunkedProtobufSerializer()
+      .serialize(new SortedDawg(Arrays.asList("bar", "baz", "foo")));
+    final ChunkedProtobufSerializer serializer = new ChunkedProtobufSerializer();
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class,
+        Arrays.copyOf(bytes, bytes.length - 1)))
+      .hasMessageContaining("corrupt");
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class,
+        "foo\nbar\n".getBytes(StandardCharsets.UTF_8)))
+      .hasMessageContaining("not a chunked dictionary");
+    assertThatThrownBy(() -> serializer.deserialize(WeightedDictionary.class, bytes))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testRejectsCorruptIndexesBeforeAllocating() throws Exception {
+    // Magic number, version, number of terms, then the number of nodes and of
+    // nodes per block, whose blocks would never fit in the stream
+    final int[][] indexes = {
+      {Integer.MAX_VALUE, 1},
+      {Integer.MAX_VALUE, Integer.MAX_VALUE},
+      {4, 8},
+      {4, 1},
+    };
+    final ChunkedProtobufSerializer serializer = new ChunkedProtobufSerializer();
+    for (final int[] index : indexes) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+      output.writeRawBytes(new byte[] {'L', 'L', 'C', 'P'});
+      output.writeUInt32NoTag(1);
+      output.writeUInt32NoTag(1);
+      output.writeUInt32NoTag(index[0]);
+      output.writeUInt32NoTag(index[1]);
+      output.writeRawBytes(new byte[] {1, 0, 0, 0});
+      output.flush();
+      assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class, bytes.toByteArray()))
+        .as("Deserializing an index of [%d] nodes in blocks of [%d]", index[0], index[1])
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("bad index");
+    }
+  }
+}
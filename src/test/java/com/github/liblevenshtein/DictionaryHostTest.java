@@ -0,0 +1,135 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.query.QueryTests;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class DictionaryHostTest {
+
+  @Test
+  public void testConcurrentRequestsShareOneLoad() throws Exception {
+    final Path directory = directory();
+    final ExecutorService workers = Executors.newFixedThreadPool(8);
+    try {
+      final DictionaryHost host = host(directory, 1);
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Callable<WeightedDictionary>> requests = new ArrayList<>();
+      for (int i = 0; i < 8; i += 1) {
+        requests.add(() -> {
+          start.await();
+          return host.dictionary("en.txt");
+        });
+      }
+      final List<Future<WeightedDictionary>> responses = new ArrayList<>();
+      for (final Callable<WeightedDictionary> request : requests) {
+        responses.add(workers.submit(request));
+      }
+      start.countDown();
+
+      final WeightedDictionary dictionary = responses.get(0).get();
+      for (final Future<WeightedDictionary> response : responses) {
+        assertThat(response.get()).isSameAs(dictionary);
+      }
+      assertThat(dictionary.dictionary()).containsExactly("bar", "baz", "foo");
+      assertThat(host.loads()).isEqualTo(1L);
+      assertThat(host.hits()).isEqualTo(7L);
+    }
+    finally {
+      workers.shutdownNow();
+      QueryTests.delete(directory);
+    }
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyRequested() throws Exception {
+    final Path directory = directory();
+    try {
+      // Pads each dictionary until it is estimated at a third of a mebibyte
+      final List<String> padding = new ArrayList<>();
+      final long paddingBytes = BulkConverter.MEBIBYTE / 3 / BulkConverter.HEAP_BYTES_PER_SOURCE_BYTE;
+      for (int i = 0; i < paddingBytes; i += "zz00000\n".length()) {
+        padding.add(String.format("zz%05d", i));
+      }
+      for (final String name : Arrays.asList("en.txt", "fr.txt", "de.txt")) {
+        Files.write(directory.resolve(name), padding, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+      }
+
+      final DictionaryHost host = host(directory, 1);
+      final WeightedDictionary en = host.dictionary("en.txt");
+      host.dictionary("fr.txt");
+      assertThat(host.dictionary("en.txt")).isSameAs(en);
+      assertThat(host.resident()).containsExactly("fr.txt", "en.txt");
+
+      host.dictionary("de.txt");
+      assertThat(host.resident()).containsExactly("en.txt", "de.txt");
+      assertThat(host.evictions()).isEqualTo(1L);
+
+      assertThat(host.dictionary("en.txt")).isSameAs(en);
+      host.dictionary("fr.txt");
+      assertThat(host.resident()).containsExactly("en.txt", "fr.txt");
+      assertThat(host.loads()).isEqualTo(4L);
+      assertThat(host.hits()).isEqualTo(2L);
+      assertThat(host.footprint()).isLessThanOrEqualTo(BulkConverter.MEBIBYTE);
+    }
+    finally {
+      QueryTests.delete(directory);
+    }
+  }
+
+  @Test
+  public void testRejectsNamesOutsideDirectory() throws Exception {
+    final Path directory = directory();
+    try {
+      final DictionaryHost host = host(directory, 1);
+      for (final String name : Arrays.asList("", ".", "..", "../en.txt", "sub/en.txt")) {
+        assertThatThrownBy(() -> host.dictionary(name))
+          .isInstanceOf(IllegalArgumentException.class);
+      }
+      assertThatThrownBy(() -> host.dictionary("missing.txt"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("missing.txt");
+      assertThat(host.resident()).isEmpty();
+    }
+    finally {
+      QueryTests.delete(directory);
+    }
+  }
+
+  private DictionaryHost host(final Path directory, final long memoryBudget) {
+    return new DictionaryHost()
+      .directory(directory)
+      .sourceFormat(SerializationFormat.PLAIN_TEXT)
+      .memoryBudget(memoryBudget);
+  }
+
+  private Path directory() throws IOException {
+    final Path directory = Files.createTempDirectory("hosted-");
+    Files.write(directory.resolve("en.txt"),
+      Arrays.asList("bar", "baz", "foo"), StandardCharsets.UTF_8);
+    Files.write(directory.resolve("fr.txt"),
+      Arrays.asList("chat", "chien"), StandardCharsets.UTF_8);
+    Files.write(directory.resolve("de.txt"),
+      Collections.singletonList("hund"), StandardCharsets.UTF_8);
+    return directory;
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class DictionaryInspectorTest {
+
+  private static final SortedDawg DICTIONARY =
+    new SortedDawg(Arrays.asList("he", "ten", "the", "then", "thorax"));
+
+  @Test
+  public void testCountsTheShapeOfTheDictionary() throws Exception {
+    final String report = inspect(new DictionaryInspector());
+    assertThat(report)
+      .containsPattern("(?m)^\\| Terms +5$")
+      .containsPattern("(?m)^\\| Nodes +10$")
+      .containsPattern("(?m)^\\| Final nodes +2$")
+      .containsPattern("(?m)^\\| Edges +12$")
+      .containsPattern("(?m)^\\| Alphabet +8$")
+      .containsPattern("(?m)^\\| Longest term +6$")
+      .containsPattern("(?m)^\\| Prefixes \\(trie nodes\\) +13$");
+  }
+
+  @Test
+  public void testTabulatesFanOutAndDepth() throws Exception {
+    final String report = inspect(new DictionaryInspector());
+    assertThat(report)
+      // fan-out, nodes
+      .containsPattern("(?m)^\\| 0 +1$")
+      .containsPattern("(?m)^\\| 1 +6$")
+      .containsPattern("(?m)^\\| 2 +3$")
+      // depth, prefixes, terms
+      .containsPattern("(?m)^\\| 3 +3 +2$")
+      .containsPattern("(?m)^\\| 6 +1 +1$");
+  }
+
+  @Test
+  public void testReportsOnlyTheGivenFormats() throws Exception {
+    final String report = inspect(new DictionaryInspector()
+      .formats(Collections.singletonList(SerializationFormat.PLAIN_TEXT)));
+    assertThat(report)
+      .containsPattern("(?m)^\\| PLAIN_TEXT +23 ")
+      .doesNotContain("PROTOBUF");
+  }
+
+  private String inspect(final DictionaryInspector inspector) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 64)) {
+      inspector.inspect(new WeightedDictionary(DICTIONARY), 23L, output);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.google.common.base.Joiner;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.DawgQueryEngine;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class DocumentCheckerTest {
+
+  private static final SortedDawg DICTIONARY =
+    new SortedDawg(Arrays.asList("he", "ten", "the", "then", "thorax"));
+
+  @Test
+  public void testPrintsUnknownWordsAtTheirOffsets() throws Exception {
+    final DocumentChecker checker = checker().includeDistance(true);
+    assertThat(check(checker, "The theh, ten  zzz. Thorax thn")).isEqualTo(Joiner.on('\n').join(
+      "+-------------------------------------------------------------------------------",
+      "| Unknown Words in Document: \"doc.txt\"",
+      "+-------------------------------------------------------------------------------",
+      "| 4 \"theh\" ~ \"the\" [1], \"then\" [1]",
+      "| 15 \"zzz\"",
+      "| 27 \"thn\" ~ \"ten\" [1], \"the\" [1], \"then\" [1]",
+      ""));
+  }
+
+  @Test
+  public void testKeepsWordsInOrderAcrossChunksAndWorkers() throws Exception {
+    final StringBuilder document = new StringBuilder();
+    final StringBuilder expected = new StringBuilder();
+    long offset = 0L;
+    for (int i = 0; i < 20_000; i += 1) {
+      final String word = 0 == i % 7 ? "thn" : "then";
+      if (0 == i % 7) {
+        expected.append("| ").append(offset).append(" \"thn\" ~ \"ten\", \"the\", \"then\"\n");
+      }
+      document.append(word).append(' ');
+      offset += word.length() + 1;
+    }
+
+    final String report = check(checker().threads(4).cacheSize(1), document.toString());
+    assertThat(report).endsWith("-\n" + expected);
+  }
+
+  private DocumentChecker checker() {
+    return new DocumentChecker()
+      .dictionary(DICTIONARY)
+      .engines(() -> new DawgQueryEngine(DICTIONARY, Algorithm.STANDARD, 1));
+  }
+
+  private String check(final DocumentChecker checker, final String document) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 64)) {
+      checker.check("doc.txt",
+        new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), output);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,102 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:avoidescapedunicodecharacters"})
+public class FrontCodedSerializerTest {
+
+  @Test
+  public void testRoundTripsDictionariesOfManyBlocks() throws Exception {
+    final SortedSet<String> terms = new TreeSet<>();
+    final Random random = new Random(7L);
+    while (terms.size() < 5_000) {
+      final char[] term = new char[1 + random.nextInt(10)];
+      for (int i = 0; i < term.length; i += 1) {
+        term[i] = (char) ('a' + random.nextInt(6));
+      }
+      terms.add(new String(term));
+    }
+    terms.addAll(Arrays.asList("", "b\351", "b\351b\351", "\u4e2d\u6587"));
+    final SortedDawg dictionary = new SortedDawg(terms);
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    SerializationFormat.FRONT_CODED.serialize(true, new WeightedDictionary(dictionary), bytes);
+    final SortedDawg copy = SerializationFormat.FRONT_CODED
+      .deserialize(true, new ByteArrayInputStream(bytes.toByteArray())).dictionary();
+    assertThat(copy).containsExactlyInAnyOrderElementsOf(terms);
+    assertThat(new ArrayList<>(copy)).isEqualTo(new ArrayList<>(dictionary));
+
+    final ByteArrayOutputStream text = new ByteArrayOutputStream();
+    SerializationFormat.PLAIN_TEXT.serialize(true, new WeightedDictionary(dictionary), text);
+    assertThat(bytes.size()).isLessThan(text.size());
+  }
+
+  @Test
+  public void testRoundTripsEmptyDictionaries() throws Exception {
+    final byte[] bytes = new FrontCodedSerializer().serialize(new SortedDawg());
+    assertThat(new FrontCodedSerializer().deserialize(SortedDawg.class, bytes)).isEmpty();
+  }
+
+  @Test
+  public void testIsRecognizedAdaptively() throws Exception {
+    final SortedDawg dictionary = new SortedDawg(Arrays.asList("he", "ten", "the", "then"));
+    final byte[] bytes = new FrontCodedSerializer().serialize(dictionary);
+
+    // Each format tried before FRONT_CODED must reject the stream, rather than
+    // mistaking it for one of its own
+    for (final SerializationFormat format : SerializationFormat.values()) {
+      if (SerializationFormat.FRONT_CODED == format) {
+        break;
+      }
+      assertThatThrownBy(() -> format.deserialize(false, new ByteArrayInputStream(bytes)))
+        .as("Deserializing a FRONT_CODED stream as %s", format)
+        .isNotNull();
+    }
+
+    final WeightedDictionary loaded = new DictionaryLoader()
+      .loadWeighted(() -> new ByteArrayInputStream(bytes));
+    assertThat(loaded.dictionary()).containsExactlyInAnyOrder("he", "ten", "the", "then");
+  }
+
+  @Test
+  public void testRejectsCorruptStreams() throws Exception {
+    final FrontCodedSerializer serializer = new FrontCodedSerializer();
+    final byte[] bytes = serializer.serialize(new SortedDawg(Arrays.asList("bar", "baz", "foo")));
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class,
+        Arrays.copyOf(bytes, bytes.length - 1)))
+      .isNotNull();
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class,
+        "foo\nbar\n".getBytes(StandardCharsets.UTF_8)))
+      .hasMessageContaining("not a front-coded dictionary");
+
+    // Swaps the first characters of "bar" and "foo", which are written in full
+    // and with no common prefix, so the terms are out of order
+    final List<Integer> swapped = new ArrayList<>();
+    for (int i = 0; i < bytes.length; i += 1) {
+      if ('b' == bytes[i] && swapped.isEmpty() || 'f' == bytes[i]) {
+        swapped.add(i);
+      }
+    }
+    final byte[] unsorted = bytes.clone();
+    unsorted[swapped.get(0)] = 'f';
+    unsorted[swapped.get(1)] = 'b';
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class, unsorted))
+      .hasMessageContaining("not sorted");
+  }
+}
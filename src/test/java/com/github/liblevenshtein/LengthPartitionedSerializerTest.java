@@ -0,0 +1,121 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.LengthPartitionedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:avoidescapedunicodecharacters"})
+public class LengthPartitionedSerializerTest {
+
+  @Test
+  public void testRoundTripsDictionariesAndTheirPartitions() throws Exception {
+    final SortedSet<String> terms = new TreeSet<>();
+    final Random random = new Random(7L);
+    while (terms.size() < 5_000) {
+      final char[] term = new char[1 + random.nextInt(10)];
+      for (int i = 0; i < term.length; i += 1) {
+        term[i] = (char) ('a' + random.nextInt(6));
+      }
+      terms.add(new String(term));
+    }
+    terms.addAll(Arrays.asList("", "b\351", "b\351b\351", "\u4e2d\u6587"));
+    final SortedDawg dictionary = new SortedDawg(terms);
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    SerializationFormat.LENGTH_PARTITIONED.serialize(true, new WeightedDictionary(dictionary), bytes);
+    final WeightedDictionary copy = SerializationFormat.LENGTH_PARTITIONED
+      .deserialize(true, new ByteArrayInputStream(bytes.toByteArray()));
+    assertThat(new ArrayList<>(copy.dictionary())).isEqualTo(new ArrayList<>(dictionary));
+
+    final LengthPartitionedDawg partitioned = copy.partitioned();
+    assertThat(partitioned.size()).isEqualTo(terms.size());
+    assertThat(partitioned.maxLength()).isEqualTo(10);
+    for (int length = 0; length <= partitioned.maxLength(); length += 1) {
+      final SortedDawg partition = partitioned.partition(length);
+      final int expected = length;
+      final String[] ofLength =
+        terms.stream().filter(term -> term.length() == expected).toArray(String[]::new);
+      if (0 == ofLength.length) {
+        assertThat(partition).isNull();
+      }
+      else {
+        assertThat(partition).containsExactly(ofLength);
+      }
+    }
+
+    final ByteArrayOutputStream text = new ByteArrayOutputStream();
+    SerializationFormat.PLAIN_TEXT.serialize(true, new WeightedDictionary(dictionary), text);
+    assertThat(bytes.size()).isLessThan(text.size());
+  }
+
+  @Test
+  public void testRoundTripsEmptyDictionaries() throws Exception {
+    final byte[] bytes = new LengthPartitionedSerializer().serialize(new SortedDawg());
+    final WeightedDictionary copy =
+      new LengthPartitionedSerializer().deserialize(WeightedDictionary.class, bytes);
+    assertThat(copy.dictionary()).isEmpty();
+    assertThat(copy.partitioned().partitions()).isZero();
+  }
+
+  @Test
+  public void testIsRecognizedAdaptively() throws Exception {
+    final SortedDawg dictionary = new SortedDawg(Arrays.asList("he", "ten", "the", "then"));
+    final byte[] bytes = new LengthPartitionedSerializer().serialize(dictionary);
+
+    // Each format tried before LENGTH_PARTITIONED must reject the stream,
+    // rather than mistaking it for one of its own
+    for (final SerializationFormat format : SerializationFormat.values()) {
+      if (SerializationFormat.LENGTH_PARTITIONED == format) {
+        break;
+      }
+      assertThatThrownBy(() -> format.deserialize(false, new ByteArrayInputStream(bytes)))
+        .as("Deserializing a LENGTH_PARTITIONED stream as %s", format)
+        .isNotNull();
+    }
+
+    final WeightedDictionary loaded = new DictionaryLoader()
+      .loadWeighted(() -> new ByteArrayInputStream(bytes));
+    assertThat(loaded.dictionary()).containsExactlyInAnyOrder("he", "ten", "the", "then");
+    assertThat(loaded.partitioned().partition(3)).containsExactly("ten", "the");
+  }
+
+  @Test
+  public void testRejectsCorruptStreams() throws Exception {
+    final LengthPartitionedSerializer serializer = new LengthPartitionedSerializer();
+    final byte[] bytes = serializer.serialize(new SortedDawg(Arrays.asList("bar", "foo")));
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class,
+        Arrays.copyOf(bytes, bytes.length - 1)))
+      .isNotNull();
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class,
+        "foo\nbar\n".getBytes(StandardCharsets.UTF_8)))
+      .hasMessageContaining("not a length-partitioned dictionary");
+
+    // Swaps the first characters of "bar" and "foo", which share no prefix
+    // and are written in full, so the terms are out of order
+    final byte[] unsorted = bytes.clone();
+    for (int i = 0; i < unsorted.length; i += 1) {
+      if ('b' == bytes[i]) {
+        unsorted[i] = 'f';
+      }
+      else if ('f' == bytes[i]) {
+        unsorted[i] = 'b';
+      }
+    }
+    assertThatThrownBy(() -> serializer.deserialize(SortedDawg.class, unsorted))
+      .hasMessageContaining("not sorted");
+  }
+}
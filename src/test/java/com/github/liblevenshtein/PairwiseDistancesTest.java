@@ -0,0 +1,70 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.base.Joiner;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class PairwiseDistancesTest {
+
+  @Test
+  public void testPrintsTheDistanceOfEachPair() throws Exception {
+    final String pairs = Joiner.on('\n').join("the\tthe", "the\tteh", "thorax\tthe", "\tten", "");
+    assertThat(compute(new PairwiseDistances(), pairs)).isEqualTo(Joiner.on('\n').join(
+      "the\tthe\t0",
+      "the\tteh\t2",
+      "thorax\tthe\t4",
+      "\tten\t3",
+      ""));
+    assertThat(compute(new PairwiseDistances()
+        .algorithm(Algorithm.TRANSPOSITION)
+        .maxDistance(2), pairs)).isEqualTo(Joiner.on('\n').join(
+      "the\tthe\t0",
+      "the\tteh\t1",
+      "thorax\tthe\t>2",
+      "\tten\t>2",
+      ""));
+  }
+
+  @Test
+  public void testKeepsPairsInOrderAcrossChunksAndWorkers() throws Exception {
+    final StringBuilder pairs = new StringBuilder();
+    final StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 20_000; i += 1) {
+      final String term = Integer.toString(i);
+      pairs.append(term).append('\t').append(term).append("x\n");
+      expected.append(term).append('\t').append(term).append("x\t1\n");
+    }
+    assertThat(compute(new PairwiseDistances().threads(4), pairs.toString()))
+      .isEqualTo(expected.toString());
+  }
+
+  @Test
+  public void testRejectsLinesThatAreNotPairs() {
+    assertThatThrownBy(() -> compute(new PairwiseDistances(), "the\tthe\nthe\n"))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("line [2] of [pairs.tsv]");
+    assertThatThrownBy(() -> compute(new PairwiseDistances(), "the\tthe\tthe\n"))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private String compute(final PairwiseDistances distances, final String pairs) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 64)) {
+      distances.compute("pairs.tsv",
+        new ByteArrayInputStream(pairs.getBytes(StandardCharsets.UTF_8)), output);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
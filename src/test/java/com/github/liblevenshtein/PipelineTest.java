@@ -0,0 +1,64 @@
+package com.github.liblevenshtein;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class PipelineTest {
+
+  @Test
+  public void testRunsIndependentStagesConcurrently() throws Exception {
+    final CountDownLatch both = new CountDownLatch(2);
+    try (final Pipeline pipeline = new Pipeline()) {
+      final CompletableFuture<String> load = pipeline.start("load", () -> {
+        both.countDown();
+        assertThat(both.await(10L, TimeUnit.SECONDS)).isTrue();
+        return "dictionary";
+      });
+      final CompletableFuture<String> read = pipeline.start("read", () -> {
+        both.countDown();
+        assertThat(both.await(10L, TimeUnit.SECONDS)).isTrue();
+        return "terms";
+      });
+      final CompletableFuture<String> query =
+        pipeline.then("query", load, dictionary -> dictionary + ":" + Pipeline.join(read));
+      final CompletableFuture<Integer> serialize =
+        pipeline.then("serialize", load, String::length);
+      pipeline.await();
+      assertThat(query.get()).isEqualTo("dictionary:terms");
+      assertThat(serialize.get()).isEqualTo(10);
+    }
+  }
+
+  @Test
+  public void testRethrowsTheFirstFailureAndSkipsItsDependents() throws Exception {
+    final AtomicBoolean ran = new AtomicBoolean(false);
+    try (final Pipeline pipeline = new Pipeline()) {
+      final CompletableFuture<String> load = pipeline.start("load", () -> {
+        throw new IOException("cannot load");
+      });
+      final CompletableFuture<Void> query = pipeline.then("query", load, dictionary -> {
+        ran.set(true);
+        return null;
+      });
+      pipeline.start("read", () -> {
+        throw new IllegalArgumentException("cannot read");
+      });
+      assertThatThrownBy(pipeline::await)
+        .isInstanceOf(IOException.class)
+        .hasMessage("cannot load");
+      assertThatThrownBy(() -> Pipeline.join(query))
+        .isInstanceOf(IOException.class)
+        .hasMessage("cannot load");
+    }
+    assertThat(ran).isFalse();
+  }
+}
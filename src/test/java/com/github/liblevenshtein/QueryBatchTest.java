@@ -0,0 +1,75 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.DawgQueryEngine;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class QueryBatchTest {
+
+  private static final List<String> TERMS =
+    Arrays.asList("bar", "baz", "foo", "qux");
+
+  private static final List<String> QUERY_TERMS =
+    Arrays.asList("bat", "fob", "quux", "ba", "zzz");
+
+  @Test
+  public void testShard() {
+    assertThat(QueryBatch.shard(Paths.get("out", "results.txt.gz"), 0))
+      .isEqualTo(Paths.get("out", "results-0.txt.gz"));
+    assertThat(QueryBatch.shard(Paths.get("results"), 3))
+      .isEqualTo(Paths.get("results-3"));
+    assertThat(QueryBatch.shard(Paths.get(".results.txt"), 1))
+      .isEqualTo(Paths.get(".results-1.txt"));
+  }
+
+  @Test
+  public void testShardsConcatenateToSerialOutput() throws Exception {
+    final QueryBatch batch = batch();
+
+    final ByteArrayOutputStream serial = new ByteArrayOutputStream();
+    try (final OutputBuffer output = new OutputBuffer(Channels.newChannel(serial), 64)) {
+      batch.run(QUERY_TERMS, output);
+    }
+
+    final List<ByteArrayOutputStream> shards = new ArrayList<>();
+    final List<OutputBuffer> outputs = new ArrayList<>();
+    for (int i = 0; i < 3; i += 1) {
+      final ByteArrayOutputStream shard = new ByteArrayOutputStream();
+      shards.add(shard);
+      outputs.add(new OutputBuffer(Channels.newChannel(shard), 64));
+    }
+    batch.run(QUERY_TERMS, outputs);
+
+    final StringBuilder concatenated = new StringBuilder();
+    for (int i = 0; i < shards.size(); i += 1) {
+      outputs.get(i).close();
+      assertThat(shards.get(i).size()).isPositive();
+      concatenated.append(new String(shards.get(i).toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    assertThat(concatenated.toString())
+      .isEqualTo(new String(serial.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  private QueryBatch batch() {
+    final SortedDawg dictionary = new SortedDawg(TERMS);
+    return new QueryBatch()
+      .engines(() -> new DawgQueryEngine(dictionary, Algorithm.TRANSPOSITION, 2))
+      .printers(CandidatePrinter::new)
+      .headers(HeaderPrinter::new);
+  }
+}
@@ -0,0 +1,42 @@
+package com.github.liblevenshtein;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class QueryMetricsTest {
+
+  @Test
+  public void testExposesAttributesWhileRegistered() throws Exception {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName name = new ObjectName(QueryMetrics.OBJECT_NAME);
+
+    try (final QueryMetrics metrics = new QueryMetrics().register()) {
+      assertThat(server.isRegistered(name)).isTrue();
+
+      metrics.loaded(3L, 2_000_000L);
+      metrics.meter().record(10_000L, 4, false);
+      metrics.meter().record(30_000L, 0, true);
+
+      assertThat(server.getAttribute(name, "Queries")).isEqualTo(2L);
+      assertThat(server.getAttribute(name, "Candidates")).isEqualTo(4L);
+      assertThat(server.getAttribute(name, "TruncatedQueries")).isEqualTo(1L);
+      assertThat(server.getAttribute(name, "MeanLatencyMicros")).isEqualTo(20L);
+      assertThat(server.getAttribute(name, "MaxLatencyMicros")).isEqualTo(30L);
+      assertThat((Long) server.getAttribute(name, "MedianLatencyMicros")).isBetween(10L, 11L);
+      assertThat(server.getAttribute(name, "P99LatencyMicros")).isEqualTo(30L);
+      assertThat(server.getAttribute(name, "Dictionaries")).isEqualTo(1L);
+      assertThat(server.getAttribute(name, "DictionaryTerms")).isEqualTo(3L);
+      assertThat(server.getAttribute(name, "DictionaryLoadMillis")).isEqualTo(2L);
+      assertThat(server.getAttribute(name, "CacheHits")).isEqualTo(0L);
+      assertThat((Double) server.getAttribute(name, "QueriesPerSecond")).isNotNegative();
+    }
+
+    assertThat(server.isRegistered(name)).isFalse();
+  }
+}
@@ -0,0 +1,74 @@
+package com.github.liblevenshtein;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.google.common.base.Joiner;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.QuerySession;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.util.OutputBuffer;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class QueryServerTest {
+
+  private static final Joiner NEWLINES = Joiner.on(System.lineSeparator());
+
+  @Test
+  public void testServesEachEdit() throws Exception {
+    final SortedDawg dictionary =
+      new SortedDawg(Arrays.asList("bar", "baz", "foo", "qux"));
+    final QueryServer server = new QueryServer()
+      .session(new QuerySession(dictionary, Algorithm.TRANSPOSITION, 1))
+      .printers(CandidatePrinter::new)
+      .headers(output -> escapedQuery -> output.putAscii("# ").putAscii(escapedQuery).newline());
+
+    final String commands = NEWLINES.join(
+      "+ba",
+      "+r",
+      "-",
+      "-2",
+      "=fo\\157",
+      "!",
+      "?");
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 64)) {
+      server.serve(new BufferedReader(new StringReader(commands)), output);
+    }
+
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8))
+      .isEqualTo(NEWLINES.join(
+        "# ba",
+        "| d(\"ba\", \"bar\") = [1]",
+        "| d(\"ba\", \"baz\") = [1]",
+        "",
+        "# bar",
+        "| d(\"bar\", \"bar\") = [0]",
+        "| d(\"bar\", \"baz\") = [1]",
+        "",
+        "# ba",
+        "| d(\"ba\", \"bar\") = [1]",
+        "| d(\"ba\", \"baz\") = [1]",
+        "",
+        "# ",
+        "",
+        "# foo",
+        "| d(\"foo\", \"foo\") = [0]",
+        "",
+        "",
+        "# foo",
+        "| d(\"foo\", \"foo\") = [0]",
+        "",
+        ""));
+  }
+}
@@ -0,0 +1,81 @@
+package com.github.liblevenshtein;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class QueryShardTest {
+
+  @Test
+  public void testParsesShards() {
+    final QueryShard shard = QueryShard.parse("2/4");
+    assertThat(shard.index()).isEqualTo(2);
+    assertThat(shard.count()).isEqualTo(4);
+    assertThat(shard).hasToString("2/4");
+    for (final String spec : Arrays.asList("4/4", "-1/4", "0/0", "1", "a/b", "1/")) {
+      assertThatThrownBy(() -> QueryShard.parse(spec))
+        .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  public void testHashesTermsIntoDisjointShards() {
+    final List<String> terms = new ArrayList<>();
+    for (int i = 0; i < 1000; i += 1) {
+      terms.add("term" + i);
+    }
+
+    final List<String> union = new ArrayList<>();
+    for (int i = 0; i < 3; i += 1) {
+      final List<String> selected = new QueryShard(i, 3).select(terms);
+      assertThat(selected).hasSizeBetween(250, 420);
+      union.addAll(selected);
+    }
+    assertThat(union).hasSameSizeAs(terms).containsExactlyInAnyOrderElementsOf(terms);
+    assertThat(QueryShard.ALL.select(terms)).isSameAs(terms);
+  }
+
+  @Test
+  public void testSplitsFilesIntoContiguousRanges() throws Exception {
+    final List<String> lines = Arrays.asList(
+      "he", "", "ten", "the\r", "then", "thorax", "a-rather-long-term-spanning-ranges", "x");
+    final Path file = Files.createTempFile("queries-", ".txt");
+    try {
+      Files.write(file, lines, StandardCharsets.UTF_8);
+      final List<String> terms = Arrays.asList(
+        "he", "ten", "the", "then", "thorax", "a-rather-long-term-spanning-ranges", "x");
+      assertThat(QueryShard.ALL.read(file)).isEqualTo(terms);
+
+      for (int count = 2; count <= 12; count += 1) {
+        final List<String> union = new ArrayList<>();
+        for (int i = 0; i < count; i += 1) {
+          union.addAll(new QueryShard(i, count).read(file));
+        }
+        assertThat(union).as("%d shards", count).isEqualTo(terms);
+      }
+
+      Files.write(file, new byte[0]);
+      assertThat(new QueryShard(1, 2).read(file)).isEmpty();
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testNamesOutputsAfterShards() {
+    final Path path = Paths.get("results.txt.gz");
+    assertThat(QueryShard.ALL.output(path)).isEqualTo(path);
+    assertThat(new QueryShard(3, 4).output(path)).isEqualTo(Paths.get("results-3.txt.gz"));
+  }
+}
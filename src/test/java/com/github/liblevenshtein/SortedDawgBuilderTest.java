@@ -0,0 +1,94 @@
+package com.github.liblevenshtein;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.DawgNode;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class SortedDawgBuilderTest {
+
+  @Test
+  public void testBuildsTheSameMinimalDawgAsSortedDawg() {
+    final SortedSet<String> terms = new TreeSet<>();
+    final Random random = new Random(11L);
+    while (terms.size() < 3_000) {
+      final char[] term = new char[1 + random.nextInt(8)];
+      for (int i = 0; i < term.length; i += 1) {
+        term[i] = (char) ('a' + random.nextInt(5));
+      }
+      terms.add(new String(term));
+    }
+
+    final SortedDawgBuilder builder = new SortedDawgBuilder();
+    for (final String term : terms) {
+      builder.add(term);
+    }
+    final SortedDawg built = builder.build();
+    final SortedDawg expected = new SortedDawg(terms);
+
+    assertThat(built.size()).isEqualTo(terms.size());
+    assertThat(built).containsExactlyInAnyOrderElementsOf(terms);
+    assertThat(built.contains("abcde")).isEqualTo(terms.contains("abcde"));
+    assertThat(built.contains("")).isFalse();
+    assertThat(nodes(built.root())).isEqualTo(nodes(expected.root()));
+  }
+
+  @Test
+  public void testBuildsEmptyDictionariesAndEmptyTerms() {
+    assertThat(new SortedDawgBuilder().build()).isEmpty();
+    final SortedDawg built = new SortedDawgBuilder().add("").add("a").add("ab").build();
+    assertThat(built).containsExactlyInAnyOrder("", "a", "ab");
+    assertThat(built.size()).isEqualTo(new SortedDawg(Arrays.asList("", "a", "ab")).size());
+    assertThat(built.contains("b")).isFalse();
+  }
+
+  @Test
+  public void testReadsTermsStraightFromBuffers() {
+    final char[] buffer = "then".toCharArray();
+    final SortedDawgBuilder builder = new SortedDawgBuilder()
+      .add(buffer, 2)
+      .add(buffer, 3)
+      .add(buffer, 4);
+    assertThat(builder.build()).containsExactlyInAnyOrder("th", "the", "then");
+  }
+
+  @Test
+  public void testRejectsUnsortedTerms() {
+    for (final String[] terms : Arrays.asList(
+        new String[] {"b", "a"}, new String[] {"ab", "a"}, new String[] {"a", "a"})) {
+      final SortedDawgBuilder builder = new SortedDawgBuilder().add(terms[0]);
+      assertThatThrownBy(() -> builder.add(terms[1]))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("sorted order");
+    }
+  }
+
+  private static int nodes(final DawgNode root) {
+    final Set<DawgNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Deque<DawgNode> pending = new ArrayDeque<>();
+    seen.add(root);
+    pending.add(root);
+    while (!pending.isEmpty()) {
+      for (final DawgNode child : pending.poll().edges().values()) {
+        if (seen.add(child)) {
+          pending.add(child);
+        }
+      }
+    }
+    return seen.size();
+  }
+}
@@ -0,0 +1,107 @@
+package com.github.liblevenshtein;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.query.WeightedDictionary;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class WeightedSerializerTest {
+
+  @DataProvider(name = "formats")
+  public Object[][] formats() {
+    return new Object[][] {
+      {SerializationFormat.WEIGHTED},
+      {SerializationFormat.WEIGHTED_TEXT},
+    };
+  }
+
+  @Test(dataProvider = "formats")
+  public void testRoundTripsFrequencies(final SerializationFormat format) throws Exception {
+    final WeightedDictionary dictionary = new WeightedDictionary(
+      new SortedDawg(Arrays.asList("", "a", "ab", "abc", "b\351", "zz")),
+      new int[] {3, 7, 1_000_000, 0, 128, Integer.MAX_VALUE});
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    format.serialize(false, dictionary, bytes);
+    final WeightedDictionary copy =
+      format.deserialize(false, new ByteArrayInputStream(bytes.toByteArray()));
+
+    assertThat(entries(copy)).isEqualTo(entries(dictionary));
+  }
+
+  @Test(dataProvider = "formats")
+  public void testServesBareDictionaries(final SerializationFormat format) throws Exception {
+    final SortedDawg dictionary = new SortedDawg(Arrays.asList("bar", "baz", "foo"));
+    final byte[] bytes = format.serializer(false).serialize(dictionary);
+    assertThat(format.serializer(false).deserialize(SortedDawg.class, bytes))
+      .containsExactly("bar", "baz", "foo");
+  }
+
+  @Test
+  public void testIsRecognizedAdaptively() throws Exception {
+    final WeightedDictionary dictionary = new WeightedDictionary(
+      new SortedDawg(Arrays.asList("bar", "foo")), new int[] {2, 1});
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    SerializationFormat.WEIGHTED.serialize(false, dictionary, bytes);
+
+    // Each format tried before WEIGHTED must reject the stream, rather than
+    // mistaking it for one of its own
+    for (final SerializationFormat format : SerializationFormat.values()) {
+      if (SerializationFormat.WEIGHTED == format) {
+        break;
+      }
+      assertThatThrownBy(() -> format.deserialize(false,
+          new ByteArrayInputStream(bytes.toByteArray())))
+        .as("Deserializing a WEIGHTED stream as %s", format)
+        .isNotNull();
+    }
+  }
+
+  @Test
+  public void testReadsUnsortedFrequencyLists() throws Exception {
+    final byte[] text = "foo\t3\nbar\t5\n\nbaz\nfoo\t4\n".getBytes(StandardCharsets.UTF_8);
+    final WeightedDictionary dictionary = SerializationFormat.WEIGHTED_TEXT
+      .deserialize(false, new ByteArrayInputStream(text));
+    assertThat(entries(dictionary)).containsExactly("bar=5", "baz=0", "foo=7");
+  }
+
+  @Test
+  public void testClampsSummedFrequencies() throws Exception {
+    final String max = Integer.toString(Integer.MAX_VALUE);
+    final byte[] text = ("foo\t" + max + "\nbar\t1\nfoo\t" + max + "\nfoo\t1\n")
+      .getBytes(StandardCharsets.UTF_8);
+    final WeightedDictionary dictionary = SerializationFormat.WEIGHTED_TEXT
+      .deserialize(false, new ByteArrayInputStream(text));
+    assertThat(entries(dictionary)).containsExactly("bar=1", "foo=" + max);
+  }
+
+  @Test
+  public void testRejectsOtherStreams() {
+    final byte[] text = "foo\nbar\n".getBytes(StandardCharsets.UTF_8);
+    assertThatThrownBy(() -> SerializationFormat.WEIGHTED
+      .deserialize(false, new ByteArrayInputStream(text)))
+      .hasMessageContaining("not a weighted dictionary");
+    final byte[] badFrequency = "foo\tmany\n".getBytes(StandardCharsets.UTF_8);
+    assertThatThrownBy(() -> SerializationFormat.WEIGHTED_TEXT
+      .deserialize(false, new ByteArrayInputStream(badFrequency)))
+      .hasMessageContaining("line [1]");
+  }
+
+  private List<String> entries(final WeightedDictionary dictionary) {
+    final List<String> entries = new ArrayList<>();
+    dictionary.terms((term, frequency) -> entries.add(term.toString() + '=' + frequency));
+    return entries;
+  }
+}
@@ -0,0 +1,93 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class AdmissionTest {
+
+  private static final CostModel MODEL =
+    CostModel.of(CostModelTest.DICTIONARY, Algorithm.STANDARD, 1);
+
+  // Admits queries of four characters at distance 1, but not at distance 2
+  private static final double MAX_COST = MODEL.work(4, 1);
+
+  @Test
+  public void testAdmitsCheapQueries() {
+    for (final AdmissionPolicy policy : AdmissionPolicy.values()) {
+      final Admission admission = new Admission(MODEL, policy, MAX_COST);
+      final List<Integer> distances = new ArrayList<>();
+      assertThat(admission.admit("abcd", 1, distances::add)).isTrue();
+      assertThat(admission.admit("abcd", 0, distances::add)).isTrue();
+      assertThat(distances).containsExactly(1, 0);
+      assertThat(admission.admitted()).isEqualTo(2L);
+    }
+  }
+
+  @Test
+  public void testRejectsExpensiveQueries() {
+    final Admission admission = new Admission(MODEL, AdmissionPolicy.REJECT, MAX_COST);
+    final List<Integer> distances = new ArrayList<>();
+    assertThat(admission.admit("abcd", 2, distances::add)).isFalse();
+    assertThat(distances).isEmpty();
+    assertThat(admission.rejected()).isEqualTo(1L);
+  }
+
+  @Test
+  public void testDowngradesExpensiveQueries() {
+    final Admission admission = new Admission(MODEL, AdmissionPolicy.DOWNGRADE, MAX_COST);
+    final List<Integer> distances = new ArrayList<>();
+    assertThat(admission.admit("abcd", 3, distances::add)).isFalse();
+    assertThat(distances).containsExactly(1);
+    assertThat(admission.downgraded()).isEqualTo(1L);
+
+    final Admission strict = new Admission(MODEL, AdmissionPolicy.DOWNGRADE, 0.0);
+    assertThat(strict.admit("abcd", 1, distances::add)).isFalse();
+    assertThat(distances).containsExactly(1);
+    assertThat(strict.rejected()).isEqualTo(1L);
+  }
+
+  @Test(timeOut = 10_000L)
+  public void testQueuesExpensiveQueries() throws Exception {
+    final Admission admission = new Admission(MODEL, AdmissionPolicy.QUEUE, MAX_COST);
+    final CountDownLatch running = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch second = new CountDownLatch(1);
+
+    final Thread first = new Thread(() -> admission.admit("abcd", 2, distance -> {
+      running.countDown();
+      try {
+        release.await();
+      }
+      catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    first.start();
+    running.await();
+
+    final Thread queued = new Thread(() -> admission.admit("dcba", 2, distance -> second.countDown()));
+    queued.start();
+
+    // Cheap queries are not held up by the expensive one
+    final List<Integer> distances = new ArrayList<>();
+    assertThat(admission.admit("abcd", 1, distances::add)).isTrue();
+    assertThat(distances).containsExactly(1);
+
+    assertThat(second.await(100L, TimeUnit.MILLISECONDS)).isFalse();
+    release.countDown();
+    assertThat(second.await(5L, TimeUnit.SECONDS)).isTrue();
+    first.join();
+    queued.join();
+    assertThat(admission.queued()).isEqualTo(2L);
+    assertThat(admission.admitted()).isEqualTo(1L);
+  }
+}
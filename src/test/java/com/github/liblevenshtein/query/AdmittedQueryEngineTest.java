@@ -0,0 +1,62 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class AdmittedQueryEngineTest {
+
+  private static final CostModel MODEL =
+    CostModel.of(CostModelTest.DICTIONARY, Algorithm.STANDARD, 1);
+
+  @Test
+  public void testQueriesAdmittedTerms() {
+    final AdmittedQueryEngine engine = engine(AdmissionPolicy.REJECT, MODEL.work(4, 2));
+    assertThat(engine.maxDistance()).isEqualTo(2);
+    assertThat(query(engine, "abcd", 0)).containsExactly("abcd:0");
+    assertThat(query(engine, "abcd", 2)).doesNotContain("<truncated>").contains("abcd:0", "ab:2");
+  }
+
+  @Test
+  public void testMarksRejectedAndDowngradedTermsOnce() {
+    final double maxCost = MODEL.work(4, 0);
+    assertThat(query(engine(AdmissionPolicy.REJECT, maxCost), "abcd", 2))
+      .containsExactly("<truncated>");
+    assertThat(query(engine(AdmissionPolicy.DOWNGRADE, maxCost), "abcd", 2))
+      .containsExactly("abcd:0", "<truncated>");
+
+    final AdmittedQueryEngine truncating = new AdmittedQueryEngine(
+      new DawgQueryEngine(CostModelTest.DICTIONARY, Algorithm.STANDARD, 2)
+        .budget(new QueryBudget().maxSteps(1L)),
+      new Admission(MODEL, AdmissionPolicy.DOWNGRADE, maxCost));
+    assertThat(query(truncating, "abcd", 2)).containsExactly("<truncated>");
+  }
+
+  private AdmittedQueryEngine engine(final AdmissionPolicy policy, final double maxCost) {
+    return new AdmittedQueryEngine(
+      new DawgQueryEngine(CostModelTest.DICTIONARY, Algorithm.STANDARD, 2),
+      new Admission(MODEL, policy, maxCost));
+  }
+
+  private List<String> query(final QueryEngine engine, final String term, final int maxDistance) {
+    final List<String> visited = new ArrayList<>();
+    engine.query(term, maxDistance, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        visited.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void truncated() {
+        visited.add("<truncated>");
+      }
+    });
+    return visited;
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.liblevenshtein.query;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:avoidescapedunicodecharacters"})
+public class BitParallelDistanceTest {
+
+  // Mixes characters whose masks are kept in the array with some kept in the
+  // hash table
+  private static final String ALPHABET = "abcd\u00e9\u4e2d";
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithDawgQueryEngine(final Algorithm algorithm) {
+    final Random random = new Random(0xB17L);
+    final BitParallelDistance distance = new BitParallelDistance(algorithm);
+    for (int i = 0; i < 2_000; i += 1) {
+      // Pairs of every kind: short terms, terms either side of the length of
+      // a word, and long terms, both similar and unrelated
+      final int kind = i % 4;
+      final String left = 0 == kind
+        ? QueryTests.randomTerm(random, ALPHABET, 1, 10)
+        : QueryTests.randomTerm(random, ALPHABET, 1 == kind ? 62 : 60, 1 == kind ? 67 : 70);
+      final String right = 3 == kind ? QueryTests.randomTerm(random, ALPHABET, 60, 70) : edit(random, left);
+      for (int maxDistance = 0; maxDistance <= 4; maxDistance += 1) {
+        assertThat(distance.between(left, right, maxDistance))
+          .as("%s distance between [%s] and [%s] within [%d]", algorithm, left, right, maxDistance)
+          .isEqualTo(expected(algorithm, left, right, maxDistance));
+      }
+      if (0 == kind) {
+        assertThat(distance.between(left, right, Integer.MAX_VALUE))
+          .as("%s distance between [%s] and [%s]", algorithm, left, right)
+          .isEqualTo(expected(algorithm, left, right, Math.max(left.length(), right.length())));
+      }
+    }
+  }
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testMeasuresEmptyTerms(final Algorithm algorithm) {
+    final BitParallelDistance distance = new BitParallelDistance(algorithm);
+    assertThat(distance.between("", "", 0)).isZero();
+    assertThat(distance.between("", "abc", Integer.MAX_VALUE)).isEqualTo(3);
+    assertThat(distance.between("abc", "", 2)).isEqualTo(3);
+  }
+
+  @Test
+  public void testCountsEachAlgorithmsOperations() {
+    assertThat(new BitParallelDistance(Algorithm.STANDARD).between("abcd", "bacd", 5))
+      .isEqualTo(2);
+    assertThat(new BitParallelDistance(Algorithm.TRANSPOSITION).between("abcd", "bacd", 5))
+      .isEqualTo(1);
+    assertThat(new BitParallelDistance(Algorithm.MERGE_AND_SPLIT).between("rn", "m", 5))
+      .isEqualTo(1);
+    assertThat(new BitParallelDistance(Algorithm.STANDARD).between("rn", "m", 5))
+      .isEqualTo(2);
+  }
+
+  private int expected(
+      final Algorithm algorithm,
+      final String left,
+      final String right,
+      final int maxDistance) {
+    final int[] found = {maxDistance + 1};
+    new DawgQueryEngine(new SortedDawg(Collections.singletonList(right)), algorithm, maxDistance)
+      .query(left, (candidate, distance) -> found[0] = distance);
+    return found[0];
+  }
+
+  private String edit(final Random random, final String term) {
+    final StringBuilder edited = new StringBuilder(term);
+    for (int edits = random.nextInt(5); edits > 0 && edited.length() > 1; edits -= 1) {
+      final int i = random.nextInt(edited.length() - 1);
+      switch (random.nextInt(4)) {
+        case 0:
+          edited.deleteCharAt(i);
+          break;
+        case 1:
+          edited.insert(i, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+          break;
+        case 2:
+          edited.setCharAt(i, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+          break;
+        default:
+          final char c = edited.charAt(i);
+          edited.setCharAt(i, edited.charAt(i + 1));
+          edited.setCharAt(i + 1, c);
+          break;
+      }
+    }
+    return edited.toString();
+  }
+}
@@ -0,0 +1,128 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class CandidateFilterTest {
+
+  @DataProvider(name = "filters")
+  public Object[][] filters() {
+    final List<Supplier<CandidateFilter>> filters = new ArrayList<>();
+    filters.add(() -> new CandidateFilter().minLength(5));
+    filters.add(() -> new CandidateFilter().maxLength(3));
+    filters.add(() -> new CandidateFilter().minLength(3).maxLength(4));
+    filters.add(() -> new CandidateFilter().prefix("ab"));
+    filters.add(() -> new CandidateFilter().pattern(new Glob("*[ae]")));
+    filters.add(() -> new CandidateFilter().pattern(new Glob("?b*c?")));
+    filters.add(() -> new CandidateFilter()
+      .prefix("c")
+      .minLength(2)
+      .pattern(new Glob("*[!d]")));
+
+    final Algorithm[] algorithms = Algorithm.values();
+    final Object[][] parameters = new Object[algorithms.length * filters.size()][];
+    int i = 0;
+    for (final Algorithm algorithm : algorithms) {
+      for (final Supplier<CandidateFilter> filter : filters) {
+        parameters[i] = new Object[] {algorithm, filter};
+        i += 1;
+      }
+    }
+    return parameters;
+  }
+
+  @Test(dataProvider = "filters")
+  public void testAgreesWithPostFiltering(
+      final Algorithm algorithm,
+      final Supplier<CandidateFilter> filters) {
+    final Random random = new Random(0x5EEDL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 400) {
+      terms.add(QueryTests.randomTerm(random, 1, 8));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final CandidateFilter filter = filters.get();
+
+    for (int maxDistance = 0; maxDistance <= 2; maxDistance += 1) {
+      final QueryEngine unfiltered =
+        new DawgQueryEngine(dictionary, algorithm, maxDistance);
+      final QueryEngine filtered =
+        new DawgQueryEngine(dictionary, algorithm, maxDistance)
+          .filter(filters.get());
+      final QueryEngine unfilteredCompletions =
+        new PrefixQueryEngine(dictionary, algorithm, maxDistance, Integer.MAX_VALUE);
+      final QueryEngine filteredCompletions =
+        new PrefixQueryEngine(dictionary, algorithm, maxDistance, Integer.MAX_VALUE)
+          .filter(filters.get());
+      final QuerySession session =
+        new QuerySession(dictionary, algorithm, maxDistance)
+          .filter(filters.get());
+
+      for (int i = 0; i < 30; i += 1) {
+        final String term = QueryTests.randomTerm(random, 0, 7);
+        assertThat(candidates(filtered, term))
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(accepted(filter, candidates(unfiltered, term)));
+        assertThat(candidates(filteredCompletions, term))
+          .as("%s completions of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(accepted(filter, candidates(unfilteredCompletions, term)));
+        session.edit(term);
+        assertThat(candidates(session))
+          .as("%s session candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(accepted(filter, candidates(unfiltered, term)));
+      }
+    }
+  }
+
+  @Test
+  public void testAcceptsCandidates() {
+    final CandidateFilter filter = new CandidateFilter()
+      .prefix("sp")
+      .maxLength(8)
+      .pattern(new Glob("*ing"));
+    assertThat(filter.isConstrained()).isTrue();
+    assertThat(filter.accepts("spelling")).isTrue();
+    assertThat(filter.accepts("sp")).isFalse();
+    assertThat(filter.accepts("spellings")).isFalse();
+    assertThat(filter.accepts("speaking")).isTrue();
+    assertThat(filter.accepts("spelunking")).isFalse();
+    assertThat(new CandidateFilter().isConstrained()).isFalse();
+  }
+
+  private List<String> accepted(final CandidateFilter filter, final List<String> candidates) {
+    final List<String> accepted = new ArrayList<>();
+    for (final String candidate : candidates) {
+      if (filter.accepts(candidate.substring(0, candidate.lastIndexOf(':')))) {
+        accepted.add(candidate);
+      }
+    }
+    return accepted;
+  }
+
+  private List<String> candidates(final QuerySession session) {
+    final List<String> candidates = new ArrayList<>();
+    session.candidates((candidate, distance) ->
+      candidates.add(candidate.toString() + ':' + distance));
+    return candidates;
+  }
+
+  private List<String> candidates(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, (candidate, distance) ->
+      candidates.add(candidate.toString() + ':' + distance));
+    return candidates;
+  }
+}
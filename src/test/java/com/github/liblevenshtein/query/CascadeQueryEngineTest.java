@@ -0,0 +1,111 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class CascadeQueryEngineTest {
+
+  private final List<String> built = new ArrayList<>();
+
+  @BeforeMethod
+  public void setUp() {
+    built.clear();
+  }
+
+  @Test
+  public void testFallsThroughOnlyOnMiss() {
+    final CascadeQueryEngine engine = new CascadeQueryEngine(1, 1)
+      .tier("glossary", engine("glossary", "thenar", "thorax"))
+      .tier("general", engine("general", "he", "the", "then"));
+
+    assertThat(query(engine, "thorx")).containsExactly("<glossary>", "thorax:1");
+    assertThat(built).containsExactly("glossary");
+
+    assertThat(query(engine, "thn"))
+      .containsExactly("<glossary>", "<general>", "the:1", "then:1");
+    assertThat(query(engine, "qqq")).containsExactly("<glossary>", "<general>");
+    assertThat(built).containsExactly("glossary", "general");
+  }
+
+  @Test
+  public void testFallsThroughOnTooFewCandidates() {
+    final CascadeQueryEngine engine = new CascadeQueryEngine(1, 2)
+      .tier("glossary", engine("glossary", "thenar", "thorax"))
+      .tier("general", engine("general", "then", "thorn"))
+      .tier("fallback", engine("fallback", "the"));
+
+    assertThat(query(engine, "thenr"))
+      .containsExactly("<glossary>", "thenar:1", "<general>", "then:1");
+    assertThat(query(engine, "thenar", 0)).containsExactly(
+      "<glossary>", "thenar:0", "<general>", "<fallback>");
+    assertThat(built).containsExactly("glossary", "general", "fallback");
+    assertThat(engine.tiers()).isEqualTo(3);
+  }
+
+  @Test
+  public void testPassesTruncationOnOnce() {
+    final CascadeQueryEngine engine = new CascadeQueryEngine(1, 1)
+      .tier("glossary", () -> truncated("thenar", "thorax"))
+      .tier("general", () -> truncated("the", "then"));
+
+    assertThat(query(engine, "thn"))
+      .containsExactly("<glossary>", "<general>", "<truncated>");
+  }
+
+  @Test
+  public void testRejectsNonPositiveMinimum() {
+    assertThatThrownBy(() -> new CascadeQueryEngine(2, 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Supplier<QueryEngine> engine(
+      final String name,
+      final String... terms) {
+    return () -> {
+      built.add(name);
+      return new DawgQueryEngine(new SortedDawg(Arrays.asList(terms)), Algorithm.STANDARD, 1);
+    };
+  }
+
+  private QueryEngine truncated(final String... terms) {
+    return new DawgQueryEngine(new SortedDawg(Arrays.asList(terms)), Algorithm.STANDARD, 1)
+      .budget(new QueryBudget().maxSteps(1L));
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    return query(engine, term, engine.maxDistance());
+  }
+
+  private List<String> query(final QueryEngine engine, final String term, final int maxDistance) {
+    final List<String> visited = new ArrayList<>();
+    engine.query(term, maxDistance, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        visited.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void source(final String name) {
+        visited.add('<' + name + '>');
+      }
+
+      @Override
+      public void truncated() {
+        visited.add("<truncated>");
+      }
+    });
+    return visited;
+  }
+}
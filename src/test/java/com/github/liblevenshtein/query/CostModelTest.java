@@ -0,0 +1,90 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+public class CostModelTest {
+
+  // Every term of one to four letters over a five-letter alphabet
+  static final SortedDawg DICTIONARY = dictionary("abcde", 4);
+
+  @Test
+  public void testProfilesDictionary() {
+    final DictionaryProfile profile = DictionaryProfile.of(new SortedDawg(
+      Arrays.asList("he", "ten", "the", "then", "thorax")));
+    assertThat(profile.maxLength()).isEqualTo(6);
+    assertThat(new long[] {
+      profile.prefixes(0), profile.prefixes(1), profile.prefixes(2), profile.prefixes(3),
+      profile.prefixes(4), profile.prefixes(5), profile.prefixes(6), profile.prefixes(7),
+    }).containsExactly(1L, 2L, 3L, 3L, 2L, 1L, 1L, 0L);
+    assertThat(new long[] {
+      profile.terms(0), profile.terms(1), profile.terms(2), profile.terms(3),
+      profile.terms(4), profile.terms(5), profile.terms(6),
+    }).containsExactly(0L, 0L, 1L, 2L, 1L, 0L, 1L);
+    assertThat(profile.branching(0)).isEqualTo(2.0);
+    assertThat(profile.branching(6)).isEqualTo(0.0);
+  }
+
+  @Test
+  public void testPredictsGrowthWithDistanceAndAlgorithm() {
+    final DictionaryProfile profile = DictionaryProfile.of(DICTIONARY);
+    final CostModel standard = new CostModel(profile, Algorithm.STANDARD);
+    final CostModel mergeAndSplit = new CostModel(profile, Algorithm.MERGE_AND_SPLIT);
+
+    assertThat(standard.work(4, 0)).isLessThan(standard.work(4, 1));
+    assertThat(standard.work(4, 1)).isLessThan(standard.work(4, 2));
+    assertThat(standard.work(4, 1)).isLessThan(mergeAndSplit.work(4, 1));
+    assertThat(standard.work(4, -1)).isEqualTo(0.0);
+
+    // At distance 0, exactly one term of each length up to 4 matches
+    assertThat(standard.results(3, 0)).isEqualTo(1.0, within(1e-9));
+    assertThat(standard.results(3, 1)).isGreaterThan(standard.results(3, 0));
+  }
+
+  @Test
+  public void testCalibratesToActualSteps() {
+    final List<String> terms = new ArrayList<>(DICTIONARY);
+    final CostModel model = new CostModel(DictionaryProfile.of(DICTIONARY), Algorithm.STANDARD)
+      .calibrate(DICTIONARY, 1, terms.size());
+
+    final QueryBudget budget = new QueryBudget();
+    final DawgQueryEngine engine =
+      new DawgQueryEngine(DICTIONARY, Algorithm.STANDARD, 1).budget(budget);
+    double actual = 0.0;
+    double predicted = 0.0;
+    for (final String term : terms) {
+      engine.query(term, (candidate, distance) -> { });
+      actual += budget.steps();
+      predicted += model.work(term.length(), 1);
+    }
+    assertThat(model.scale()).isPositive();
+    assertThat(predicted).isEqualTo(actual, within(actual * 1e-9));
+  }
+
+  static SortedDawg dictionary(final String alphabet, final int maxLength) {
+    final List<String> terms = new ArrayList<>();
+    List<String> level = Collections.singletonList("");
+    for (int length = 1; length <= maxLength; length += 1) {
+      final List<String> next = new ArrayList<>();
+      for (final String prefix : level) {
+        for (final char c : alphabet.toCharArray()) {
+          next.add(prefix + c);
+        }
+      }
+      terms.addAll(next);
+      level = next;
+    }
+    Collections.sort(terms);
+    return new SortedDawg(terms);
+  }
+}
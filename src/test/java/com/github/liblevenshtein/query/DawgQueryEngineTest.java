@@ -0,0 +1,55 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.transducer.Candidate;
+import com.github.liblevenshtein.transducer.ITransducer;
+import com.github.liblevenshtein.transducer.factory.TransducerBuilder;
+
+public class DawgQueryEngineTest {
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithTransducer(final Algorithm algorithm) {
+    final Random random = new Random(0xBADC0FFEEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 500) {
+      terms.add(QueryTests.randomTerm(random, 1, 8));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+
+    for (int maxDistance = 0; maxDistance <= 3; maxDistance += 1) {
+      final ITransducer<Candidate> transducer = new TransducerBuilder()
+        .algorithm(algorithm)
+        .defaultMaxDistance(maxDistance)
+        .includeDistance(true)
+        .dictionary(dictionary, true)
+        .build();
+      final DawgQueryEngine engine =
+        new DawgQueryEngine(dictionary, algorithm, maxDistance);
+
+      for (int i = 0; i < 50; i += 1) {
+        final String term = QueryTests.randomTerm(random, 0, 9);
+        final List<String> expected = new ArrayList<>();
+        for (final Candidate candidate : transducer.transduce(term)) {
+          expected.add(candidate.term() + ':' + candidate.distance());
+        }
+        final List<String> actual = new ArrayList<>();
+        engine.query(term, (candidate, distance) ->
+          actual.add(candidate.toString() + ':' + distance));
+        assertThat(actual)
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(expected);
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class FanOutQueryEngineTest {
+
+  private ExecutorService executor;
+
+  @BeforeClass
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testMergesUnionWithoutDuplicates() {
+    final QueryLatency tenant = new QueryLatency();
+    final QueryLatency shared = new QueryLatency();
+    final QueryLatency fallback = new QueryLatency();
+    final FanOutQueryEngine engine = new FanOutQueryEngine(executor, 1)
+      .source("tenant", engine("then", "thenar"), tenant)
+      .source("shared", engine("he", "the", "then"), shared)
+      .source("fallback", engine("then", "thin"), fallback);
+
+    assertThat(query(engine, "thn")).containsExactly(
+      "<tenant>", "then:1", "<shared>", "the:1", "<fallback>", "thin:1");
+    assertThat(query(engine, "qqq"))
+      .containsExactly("<tenant>", "<shared>", "<fallback>");
+    assertThat(query(engine, "thenar", 0))
+      .containsExactly("<tenant>", "thenar:0", "<shared>", "<fallback>");
+
+    assertThat(engine.sources()).isEqualTo(3);
+    for (final QueryLatency latency : Arrays.asList(tenant, shared, fallback)) {
+      assertThat(latency.queries()).isEqualTo(3L);
+      assertThat(latency.maxNanos()).isBetween(latency.meanNanos(), latency.totalNanos());
+    }
+  }
+
+  @Test
+  public void testReportsFailingSource() {
+    final FanOutQueryEngine engine = new FanOutQueryEngine(executor, 1)
+      .source("tenant", engine("then"), new QueryLatency())
+      .source("broken", new QueryEngine() {
+        @Override
+        public int maxDistance() {
+          return 1;
+        }
+
+        @Override
+        public void query(final String term, final int maxDistance, final CandidateVisitor visitor) {
+          throw new IllegalArgumentException("corrupt");
+        }
+      }, new QueryLatency());
+
+    assertThatThrownBy(() -> query(engine, "thn"))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("broken")
+      .hasRootCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testRecordsLatencies() {
+    final QueryLatency latency = new QueryLatency();
+    assertThat(latency.meanNanos()).isEqualTo(0L);
+    latency.record(10L);
+    latency.record(30L);
+    assertThat(latency.queries()).isEqualTo(2L);
+    assertThat(latency.totalNanos()).isEqualTo(40L);
+    assertThat(latency.meanNanos()).isEqualTo(20L);
+    assertThat(latency.maxNanos()).isEqualTo(30L);
+  }
+
+  private QueryEngine engine(final String... terms) {
+    return new DawgQueryEngine(new SortedDawg(Arrays.asList(terms)), Algorithm.STANDARD, 1);
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    return query(engine, term, engine.maxDistance());
+  }
+
+  private List<String> query(final QueryEngine engine, final String term, final int maxDistance) {
+    final List<String> visited = new ArrayList<>();
+    engine.query(term, maxDistance, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        visited.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void source(final String name) {
+        visited.add('<' + name + '>');
+      }
+    });
+    return visited;
+  }
+}
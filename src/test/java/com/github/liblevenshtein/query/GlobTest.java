@@ -0,0 +1,72 @@
+package com.github.liblevenshtein.query;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class GlobTest {
+
+  @DataProvider(name = "matches")
+  public Object[][] matches() {
+    return new Object[][] {
+      {"", "", true},
+      {"", "a", false},
+      {"abc", "abc", true},
+      {"abc", "abd", false},
+      {"abc", "ab", false},
+      {"a*", "a", true},
+      {"a*", "abcd", true},
+      {"a*", "ba", false},
+      {"*a*b", "xaxb", true},
+      {"*a*b", "xaxbx", false},
+      {"a**b", "ab", true},
+      {"a?c", "abc", true},
+      {"a?c", "ac", false},
+      {"[a-c]x", "bx", true},
+      {"[a-c]x", "dx", false},
+      {"[!a-c]x", "dx", true},
+      {"[^a-c]x", "ax", false},
+      {"[]a]", "]", true},
+      {"[a-]", "-", true},
+      {"\\*", "*", true},
+      {"\\*", "a", false},
+      {"*ing", "spelling", true},
+      {"*ing", "spellings", false},
+    };
+  }
+
+  @Test(dataProvider = "matches")
+  public void testMatches(final String pattern, final String string, final boolean expected) {
+    assertThat(new Glob(pattern).matches(string))
+      .as("[%s] matches [%s]", pattern, string)
+      .isEqualTo(expected);
+  }
+
+  @Test
+  public void testReusesStates() {
+    final Glob glob = new Glob("*ab");
+    assertThat(glob.step(glob.step(glob.start(), 'x'), 'x'))
+      .isEqualTo(glob.start());
+    assertThat(glob.step(glob.start(), 'b')).isEqualTo(glob.start());
+  }
+
+  @Test
+  public void testStepsIntoDeadState() {
+    final Glob glob = new Glob("ab*");
+    assertThat(glob.step(glob.start(), 'b')).isEqualTo(Glob.DEAD);
+    assertThat(glob.accepts(Glob.DEAD)).isFalse();
+  }
+
+  @Test
+  public void testRejectsInvalidPatterns() {
+    assertThatThrownBy(() -> new Glob("[ab"))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new Glob("ab\\"))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new Glob("[z-a]"))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
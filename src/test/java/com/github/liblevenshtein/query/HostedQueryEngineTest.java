@@ -0,0 +1,72 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class HostedQueryEngineTest {
+
+  @Test
+  public void testQueriesNamedDictionary() {
+    final Map<String, WeightedDictionary> dictionaries = new HashMap<>();
+    dictionaries.put("en", dictionary("the", "then", "thin"));
+    dictionaries.put("fr", dictionary("tea", "thon"));
+    final List<WeightedDictionary> built = new ArrayList<>();
+    final HostedQueryEngine engine = new HostedQueryEngine(
+      dictionaries::get,
+      dictionary -> {
+        built.add(dictionary);
+        return new DawgQueryEngine(dictionary.dictionary(), Algorithm.STANDARD, 1);
+      },
+      1);
+
+    assertThat(query(engine, "en:thn")).containsExactly("<en>", "the:1", "then:1", "thin:1");
+    assertThat(query(engine, "en:then")).containsExactly("<en>", "the:1", "then:0", "thin:1");
+    assertThat(query(engine, "fr:thn")).containsExactly("<fr>", "thon:1");
+    assertThat(query(engine, "en:x:y")).containsExactly("<en>");
+    assertThat(built).containsExactly(
+      dictionaries.get("en"), dictionaries.get("fr"), dictionaries.get("en"));
+  }
+
+  @Test
+  public void testRejectsUnqualifiedTerms() {
+    final HostedQueryEngine engine = new HostedQueryEngine(
+      name -> dictionary("the"),
+      dictionary -> new DawgQueryEngine(dictionary.dictionary(), Algorithm.STANDARD, 1),
+      1);
+    assertThatThrownBy(() -> query(engine, "the"))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("NAME:TERM");
+  }
+
+  private WeightedDictionary dictionary(final String... terms) {
+    return new WeightedDictionary(new SortedDawg(Arrays.asList(terms)));
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    final List<String> visited = new ArrayList<>();
+    engine.query(term, engine.maxDistance(), new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        visited.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void source(final String name) {
+        visited.add('<' + name + '>');
+      }
+    });
+    return visited;
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class MeteredQueryEngineTest {
+
+  @Test
+  public void testRecordsEachQuery() {
+    final QueryMeter meter = new QueryMeter();
+    final MeteredQueryEngine engine = new MeteredQueryEngine(
+      new DawgQueryEngine(CostModelTest.DICTIONARY, Algorithm.STANDARD, 1), meter);
+    assertThat(engine.maxDistance()).isEqualTo(1);
+
+    final List<String> visited = new ArrayList<>();
+    final CandidateVisitor visitor = (term, distance) -> visited.add(term.toString());
+    engine.query("abcd", visitor);
+    engine.query("zzzzzz", 0, visitor);
+
+    assertThat(meter.queries()).isEqualTo(2L);
+    assertThat(meter.candidates()).isEqualTo(visited.size()).isPositive();
+    assertThat(meter.truncated()).isEqualTo(0L);
+    assertThat(meter.latency().maxNanos()).isPositive();
+  }
+
+  @Test
+  public void testForwardsAndCountsTruncation() {
+    final QueryMeter meter = new QueryMeter();
+    final MeteredQueryEngine engine = new MeteredQueryEngine(
+      new DawgQueryEngine(CostModelTest.DICTIONARY, Algorithm.STANDARD, 2)
+        .budget(new QueryBudget().maxSteps(1L)), meter);
+
+    final List<String> visited = new ArrayList<>();
+    engine.query("abcd", new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence term, final int distance) {
+        visited.add(term.toString());
+      }
+
+      @Override
+      public void truncated() {
+        visited.add("<truncated>");
+      }
+    });
+
+    assertThat(visited).endsWith("<truncated>");
+    assertThat(meter.truncated()).isEqualTo(1L);
+  }
+}
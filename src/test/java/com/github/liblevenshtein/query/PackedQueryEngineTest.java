@@ -0,0 +1,117 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.SortedDawgBuilder;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:classdataabstractioncoupling"})
+public class PackedQueryEngineTest {
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithDawgQueryEngine(final Algorithm algorithm) {
+    final Random random = new Random(0xFACADEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 500) {
+      terms.add(QueryTests.randomTerm(random, 1, 8));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final PackedDawg packed = new PackedDawg(dictionary);
+
+    for (int maxDistance = 0; maxDistance <= 3; maxDistance += 1) {
+      final QueryEngine expected = new DawgQueryEngine(dictionary, algorithm, maxDistance);
+      final QueryEngine actual = new PackedQueryEngine(packed, algorithm, maxDistance);
+      final QueryEngine expectedFiltered = new DawgQueryEngine(dictionary, algorithm, maxDistance)
+        .filter(new CandidateFilter().minLength(4).pattern(new Glob("*[!e]")));
+      final QueryEngine actualFiltered = new PackedQueryEngine(packed, algorithm, maxDistance)
+        .filter(new CandidateFilter().minLength(4).pattern(new Glob("*[!e]")));
+
+      for (int i = 0; i < 50; i += 1) {
+        final String term = QueryTests.randomTerm(random, 0, 9);
+        assertThat(query(actual, term))
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expected, term));
+        assertThat(query(actualFiltered, term))
+          .as("%s filtered candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expectedFiltered, term));
+      }
+    }
+  }
+
+  @Test
+  public void testSpendsTheSameBudgetAsDawgQueryEngine() {
+    final SortedDawg dictionary = CostModelTest.DICTIONARY;
+    final PackedQueryEngine engine =
+      new PackedQueryEngine(new PackedDawg(dictionary), Algorithm.STANDARD, 1);
+    final DawgQueryEngine oracle = new DawgQueryEngine(dictionary, Algorithm.STANDARD, 1);
+    for (long steps = 1L; steps <= 12L; steps += 1L) {
+      engine.budget(new QueryBudget().maxSteps(steps));
+      oracle.budget(new QueryBudget().maxSteps(steps));
+      assertThat(query(engine, "thn")).isEqualTo(query(oracle, "thn"));
+    }
+  }
+
+  @Test
+  public void testPacksEveryNodeOnce() {
+    final Set<String> terms = new TreeSet<>();
+    final Random random = new Random(3L);
+    while (terms.size() < 2_000) {
+      terms.add(QueryTests.randomTerm(random, 1, 10));
+    }
+    final SortedDawgBuilder builder = new SortedDawgBuilder();
+    for (final String term : terms) {
+      builder.add(term);
+    }
+    final PackedDawg packed = new PackedDawg(builder.build());
+    final PackedDawg unpacked = new PackedDawg(new SortedDawg(terms));
+
+    assertThat(packed.size()).isEqualTo(terms.size());
+    assertThat(packed.nodes()).isEqualTo(unpacked.nodes());
+    assertThat(packed.edges()).isEqualTo(unpacked.edges());
+    assertThat(packed.edgesEnd(packed.nodes() - 1)).isEqualTo(packed.edges());
+    for (final String term : terms) {
+      assertThat(packed.contains(term)).as("contains [%s]", term).isTrue();
+      assertThat(packed.contains(term + 'f')).as("contains [%sf]", term).isFalse();
+    }
+    assertThat(packed.contains("")).isFalse();
+    assertThat(packed.height(PackedDawg.ROOT)).isEqualTo(10);
+
+    for (int node = 0; node < packed.nodes(); node += 1) {
+      for (int edge = packed.edgesStart(node) + 1; edge < packed.edgesEnd(node); edge += 1) {
+        assertThat(packed.label(edge)).isGreaterThan(packed.label(edge - 1));
+      }
+    }
+  }
+
+  @Test
+  public void testIsPackedOnceForEveryEngine() {
+    final WeightedDictionary dictionary = new WeightedDictionary(CostModelTest.DICTIONARY);
+    assertThat(dictionary.packed()).isSameAs(dictionary.packed());
+    assertThat(new PackedDawg(new SortedDawg()).contains("")).isFalse();
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        candidates.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void truncated() {
+        candidates.add("<truncated>");
+      }
+    });
+    return candidates;
+  }
+}
@@ -0,0 +1,101 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:classdataabstractioncoupling"})
+public class PartitionedQueryEngineTest {
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithDawgQueryEngine(final Algorithm algorithm) {
+    final Random random = new Random(0xFACADEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 1_000) {
+      terms.add(QueryTests.randomTerm(random, 1, 12));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final LengthPartitionedDawg partitioned = new LengthPartitionedDawg(dictionary);
+
+    for (int maxDistance = 0; maxDistance <= 3; maxDistance += 1) {
+      final QueryEngine expected = new DawgQueryEngine(dictionary, algorithm, maxDistance);
+      final QueryEngine actual = new PartitionedQueryEngine(partitioned, algorithm, maxDistance);
+      final CandidateFilter filter = new CandidateFilter().minLength(4).pattern(new Glob("*[!e]"));
+      final QueryEngine expectedFiltered =
+        new DawgQueryEngine(dictionary, algorithm, maxDistance).filter(filter);
+      final QueryEngine actualFiltered =
+        new PartitionedQueryEngine(partitioned, algorithm, maxDistance).filter(filter);
+
+      for (int i = 0; i < 50; i += 1) {
+        final String term = QueryTests.randomTerm(random, 0, 14);
+        assertThat(query(actual, term))
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expected, term));
+        assertThat(query(actualFiltered, term))
+          .as("%s filtered candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expectedFiltered, term));
+      }
+    }
+  }
+
+  @Test
+  public void testSignalsTruncatedQueries() {
+    final LengthPartitionedDawg partitioned = new LengthPartitionedDawg(CostModelTest.DICTIONARY);
+    final QueryEngine engine = new PartitionedQueryEngine(partitioned, Algorithm.STANDARD, 2)
+      .budget(new QueryBudget().maxSteps(2L));
+    assertThat(query(engine, "the")).endsWith("<truncated>");
+  }
+
+  @Test
+  public void testPartitionsTermsByLength() {
+    final LengthPartitionedDawg partitioned =
+      new LengthPartitionedDawg(new SortedDawg(Arrays.asList("he", "ten", "the", "then", "thorax")));
+    assertThat(partitioned.size()).isEqualTo(5);
+    assertThat(partitioned.partitions()).isEqualTo(4);
+    assertThat(partitioned.maxLength()).isEqualTo(6);
+    assertThat(partitioned.partition(3)).containsExactly("ten", "the");
+    assertThat(partitioned.partition(5)).isNull();
+    assertThat(partitioned.partition(-1)).isNull();
+    assertThat(partitioned.partition(7)).isNull();
+
+    final LengthPartitionedDawg grouped = new LengthPartitionedDawg(
+        new char[][] {null, null, "hethe".toCharArray()}, new int[] {0, 0, 2});
+    assertThat(grouped.size()).isEqualTo(2);
+    assertThat(grouped.partition(2)).containsExactly("he", "th");
+    assertThatThrownBy(() -> new LengthPartitionedDawg(
+        new char[][] {null, null, "thhe".toCharArray()}, new int[] {0, 0, 2}))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    final WeightedDictionary dictionary = new WeightedDictionary(CostModelTest.DICTIONARY);
+    assertThat(dictionary.partitioned()).isSameAs(dictionary.partitioned());
+    assertThatThrownBy(() -> dictionary.partitioned(partitioned))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        candidates.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void truncated() {
+        candidates.add("<truncated>");
+      }
+    });
+    return candidates;
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.transducer.Candidate;
+import com.github.liblevenshtein.transducer.ITransducer;
+import com.github.liblevenshtein.transducer.factory.TransducerBuilder;
+
+public class PrefixQueryEngineTest {
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithTransducerOverPrefixes(final Algorithm algorithm) {
+    final Random random = new Random(0xFEEDFACEL);
+    final Set<String> terms = new TreeSet<>();
+    final Set<String> prefixes = new TreeSet<>();
+    while (terms.size() < 300) {
+      final String term = QueryTests.randomTerm(random, 1, 8);
+      terms.add(term);
+      for (int j = 1; j <= term.length(); j += 1) {
+        prefixes.add(term.substring(0, j));
+      }
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final SortedDawg prefixDictionary = new SortedDawg(prefixes);
+
+    for (int maxDistance = 0; maxDistance <= 2; maxDistance += 1) {
+      final ITransducer<Candidate> transducer = new TransducerBuilder()
+        .algorithm(algorithm)
+        .defaultMaxDistance(maxDistance)
+        .includeDistance(true)
+        .dictionary(prefixDictionary, true)
+        .build();
+
+      for (int i = 0; i < 30; i += 1) {
+        final String query = QueryTests.randomTerm(random, 0, 5);
+        final Map<String, Integer> prefixDistances = new HashMap<>();
+        for (final Candidate candidate : transducer.transduce(query)) {
+          prefixDistances.put(candidate.term(), candidate.distance());
+        }
+
+        final List<String> expected = new ArrayList<>();
+        for (int distance = 0; distance <= maxDistance; distance += 1) {
+          for (final String term : terms) {
+            if (distance == nearestPrefix(term, query, prefixDistances)) {
+              expected.add(term + ':' + distance);
+            }
+          }
+        }
+
+        for (final int limit : new int[] {1, 7, Integer.MAX_VALUE}) {
+          final PrefixQueryEngine engine =
+            new PrefixQueryEngine(dictionary, algorithm, maxDistance, limit);
+          final List<String> actual = new ArrayList<>();
+          engine.query(query, (completion, distance) ->
+            actual.add(completion.toString() + ':' + distance));
+          assertThat(actual)
+            .as("%s completions of [%s] within distance [%d], up to [%d]",
+              algorithm, query, maxDistance, limit)
+            .isEqualTo(expected.subList(0, Math.min(limit, expected.size())));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRejectsNonPositiveLimit() {
+    final SortedDawg dictionary = new SortedDawg(new ArrayList<>());
+    assertThatThrownBy(() ->
+      new PrefixQueryEngine(dictionary, Algorithm.STANDARD, 1, 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private int nearestPrefix(
+      final String term,
+      final String query,
+      final Map<String, Integer> prefixDistances) {
+    int nearest = query.length();
+    for (int j = 1; j <= term.length(); j += 1) {
+      final Integer distance = prefixDistances.get(term.substring(0, j));
+      if (null != distance) {
+        nearest = Math.min(nearest, distance);
+      }
+    }
+    return nearest;
+  }
+}
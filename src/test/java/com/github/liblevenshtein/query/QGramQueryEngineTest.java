@@ -0,0 +1,155 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:classdataabstractioncoupling"})
+public class QGramQueryEngineTest {
+
+  private static final String ALPHABET = "abcdef";
+
+  private static final List<String> TERMS = Arrays.asList(
+    "he", "ten", "the", "then", "theorem", "thorax", "thoraxes", "thorough");
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithDawgQueryEngine(final Algorithm algorithm) {
+    final Random random = new Random(0xFACADEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 1_000) {
+      terms.add(QueryTests.randomTerm(random, ALPHABET, 6, 16));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final QGramIndex index = new QGramIndex(dictionary, QGramIndex.DEFAULT_Q);
+
+    for (int maxDistance = 3; maxDistance <= 4; maxDistance += 1) {
+      final QueryEngine expected = new DawgQueryEngine(dictionary, algorithm, maxDistance);
+      final QGramQueryEngine actual = new QGramQueryEngine(index, algorithm, maxDistance,
+        new DawgQueryEngine(dictionary, algorithm, maxDistance));
+      final CandidateFilter filter = new CandidateFilter().minLength(10).pattern(new Glob("*[!f]"));
+      final QueryEngine expectedFiltered =
+        new DawgQueryEngine(dictionary, algorithm, maxDistance).filter(filter);
+      final QueryEngine actualFiltered = new QGramQueryEngine(index, algorithm, maxDistance,
+        new DawgQueryEngine(dictionary, algorithm, maxDistance).filter(filter))
+        .filter(filter);
+
+      for (int i = 0; i < 30; i += 1) {
+        // Perturbs a dictionary term, so most queries have spelling candidates
+        final String term = perturb(random, new ArrayList<>(terms).get(random.nextInt(terms.size())));
+        assertThat(actual.answers(term.length(), maxDistance))
+          .isEqualTo(term.length() - 1 - maxDistance * (Algorithm.STANDARD == algorithm ? 2 : 3) > 0);
+        assertThat(query(actual, term))
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expected, term));
+        assertThat(query(actualFiltered, term))
+          .as("%s filtered candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expectedFiltered, term));
+      }
+    }
+  }
+
+  @Test
+  public void testPassesOtherQueriesToTheFallback() {
+    final SortedDawg dictionary = new SortedDawg(TERMS);
+    final List<String> routed = new ArrayList<>();
+    final QueryEngine fallback = new DawgQueryEngine(dictionary, Algorithm.STANDARD, 3);
+    final QGramQueryEngine engine = new QGramQueryEngine(
+        new QGramIndex(dictionary, QGramIndex.DEFAULT_Q), Algorithm.STANDARD, 3,
+        new QueryEngine() {
+          @Override
+          public int maxDistance() {
+            return fallback.maxDistance();
+          }
+
+          @Override
+          public void query(final String term, final int maxDistance, final CandidateVisitor visitor) {
+            routed.add(term + ':' + maxDistance);
+            fallback.query(term, maxDistance, visitor);
+          }
+        });
+
+    assertThat(query(engine, "thorax")).isEqualTo(query(fallback, "thorax"));
+    engine.query("thoraxes", 2, (candidate, distance) -> { });
+    assertThat(routed).containsExactly("thorax:3", "thoraxes:2");
+
+    routed.clear();
+    assertThat(query(engine, "thoraxes")).isEqualTo(query(fallback, "thoraxes"));
+    assertThat(routed).isEmpty();
+    engine.minLength(9).query("thoraxes", 3, (candidate, distance) -> { });
+    assertThat(routed).containsExactly("thoraxes:3");
+
+    routed.clear();
+    engine.minLength(0).minDistance(4).query("thoraxes", 3, (candidate, distance) -> { });
+    assertThat(routed).containsExactly("thoraxes:3");
+  }
+
+  @Test
+  public void testIndexesEveryQGram() {
+    final QGramIndex index = new QGramIndex(new SortedDawg(TERMS), 3);
+    final Set<String> grams = new TreeSet<>();
+    int postings = 0;
+    for (final String term : TERMS) {
+      for (int i = 0; i + 3 <= term.length(); i += 1) {
+        grams.add(term.substring(i, i + 3));
+        postings += 1;
+        assertThat(index.find(QGramIndex.gram(term.toCharArray(), i, 3))).isNotNegative();
+      }
+    }
+    assertThat(index.size()).isEqualTo(TERMS.size());
+    assertThat(index.grams()).isEqualTo(grams.size());
+    assertThat(index.postingsEnd(index.grams() - 1)).isEqualTo(postings);
+    assertThat(index.find(QGramIndex.gram("zzz".toCharArray(), 0, 3))).isEqualTo(-1);
+    assertThatThrownBy(() -> new QGramIndex(new SortedDawg(), 0))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    final WeightedDictionary dictionary = new WeightedDictionary(new SortedDawg(TERMS));
+    assertThat(dictionary.qgramIndex()).isSameAs(dictionary.qgramIndex());
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        candidates.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void truncated() {
+        candidates.add("<truncated>");
+      }
+    });
+    return candidates;
+  }
+
+  private String perturb(final Random random, final String term) {
+    final StringBuilder perturbed = new StringBuilder(term);
+    for (int edits = random.nextInt(4); edits > 0 && perturbed.length() > 1; edits -= 1) {
+      final int i = random.nextInt(perturbed.length());
+      final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+      switch (random.nextInt(3)) {
+        case 0:
+          perturbed.setCharAt(i, c);
+          break;
+        case 1:
+          perturbed.insert(i, c);
+          break;
+        default:
+          perturbed.deleteCharAt(i);
+          break;
+      }
+    }
+    return perturbed.toString();
+  }
+}
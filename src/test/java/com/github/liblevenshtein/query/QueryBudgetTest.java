@@ -0,0 +1,94 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class QueryBudgetTest {
+
+  private static final SortedDawg DICTIONARY = new SortedDawg(Arrays.asList(
+    "tan", "ten", "the", "then", "thin", "thorn", "tin", "ton"));
+
+  @Test
+  public void testSpendsUpToMaxSteps() {
+    final QueryBudget budget = new QueryBudget().maxSteps(3L);
+    for (int query = 0; query < 2; query += 1) {
+      budget.start();
+      assertThat(budget.spend()).isTrue();
+      assertThat(budget.spend()).isTrue();
+      assertThat(budget.spend()).isTrue();
+      assertThat(budget.exhausted()).isFalse();
+      assertThat(budget.spend()).isFalse();
+      assertThat(budget.spend()).isFalse();
+      assertThat(budget.exhausted()).isTrue();
+    }
+  }
+
+  @Test
+  public void testExhaustsAfterDeadline() {
+    final QueryBudget budget = new QueryBudget().deadline(System.nanoTime() - 1L).start();
+    assertThat(budget.exhausted()).isTrue();
+    assertThat(budget.spend()).isFalse();
+
+    final QueryBudget timed = new QueryBudget().maxNanos(0L).start();
+    assertThat(timed.exhausted()).isTrue();
+
+    final QueryBudget unlimited = new QueryBudget().start();
+    for (int step = 0; step < 4 * QueryBudget.CLOCK_INTERVAL; step += 1) {
+      assertThat(unlimited.spend()).isTrue();
+    }
+  }
+
+  @Test
+  public void testTruncatesDawgQuery() {
+    final DawgQueryEngine engine = new DawgQueryEngine(DICTIONARY, Algorithm.STANDARD, 1);
+    final List<String> complete = query(engine, "thn");
+    assertThat(complete).containsExactly("tan:1", "ten:1", "the:1", "tin:1", "ton:1", "then:1", "thin:1");
+
+    engine.budget(new QueryBudget().maxSteps(6L));
+    final List<String> partial = query(engine, "thn");
+    assertThat(partial).endsWith("<truncated>");
+    assertThat(complete).containsAll(partial.subList(0, partial.size() - 1));
+    assertThat(partial.size() - 1).isLessThan(complete.size());
+  }
+
+  @Test
+  public void testTruncatesPrefixAndRankedQueries() {
+    final long passed = System.nanoTime() - 1L;
+    final PrefixQueryEngine prefix = new PrefixQueryEngine(DICTIONARY, Algorithm.STANDARD, 1, 10)
+      .budget(new QueryBudget().deadline(passed));
+    assertThat(query(prefix, "th")).containsExactly("<truncated>");
+
+    final RankedQueryEngine ranked = new RankedQueryEngine(
+      new WeightedDictionary(DICTIONARY), Algorithm.STANDARD, 1, 10)
+      .budget(new QueryBudget().deadline(passed));
+    assertThat(query(ranked, "thn")).containsExactly("<truncated>");
+
+    ranked.budget(new QueryBudget());
+    assertThat(query(ranked, "thn")).doesNotContain("<truncated>").isNotEmpty();
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    final List<String> visited = new ArrayList<>();
+    engine.query(term, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        visited.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void truncated() {
+        visited.add("<truncated>");
+      }
+    });
+    return visited;
+  }
+}
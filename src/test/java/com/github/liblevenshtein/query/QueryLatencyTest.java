@@ -0,0 +1,48 @@
+package com.github.liblevenshtein.query;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class QueryLatencyTest {
+
+  @Test
+  public void testBucketsHoldTheirTimes() {
+    for (long nanos = 0L; nanos < 1L << 16; nanos += 1L) {
+      final int bucket = QueryLatency.bucket(nanos);
+      assertThat(QueryLatency.upperBound(bucket)).isGreaterThanOrEqualTo(nanos);
+      if (0 < bucket) {
+        assertThat(QueryLatency.upperBound(bucket - 1)).isLessThan(nanos);
+      }
+    }
+    assertThat(QueryLatency.upperBound(QueryLatency.bucket(Long.MAX_VALUE)))
+      .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testPercentilesAreWithinAnEighth() {
+    final QueryLatency latency = new QueryLatency();
+    assertThat(latency.percentileNanos(0.5)).isEqualTo(0L);
+
+    for (long nanos = 1L; nanos <= 1000L; nanos += 1L) {
+      latency.record(nanos * 1000L);
+    }
+    assertThat(latency.queries()).isEqualTo(1000L);
+    assertThat(latency.meanNanos()).isEqualTo(500_500L);
+    assertThat(latency.maxNanos()).isEqualTo(1_000_000L);
+    assertThat(latency.percentileNanos(0.5)).isBetween(500_000L, 500_000L + 500_000L / 8);
+    assertThat(latency.percentileNanos(0.99)).isBetween(990_000L, 1_000_000L);
+    assertThat(latency.percentileNanos(1.0)).isEqualTo(1_000_000L);
+    assertThat(latency.percentileNanos(0.0)).isBetween(1_000L, 1_000L + 1_000L / 8);
+  }
+
+  @Test
+  public void testRejectsFractionsOutOfRange() {
+    final QueryLatency latency = new QueryLatency();
+    assertThatThrownBy(() -> latency.percentileNanos(1.5))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> latency.percentileNanos(Double.NaN))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,112 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class QuerySessionTest {
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithQueryEngineAfterEachEdit(final Algorithm algorithm) {
+    final Random random = new Random(0xDEADBEEFL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 500) {
+      terms.add(QueryTests.randomTerm(random, 1, 8));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+
+    for (int maxDistance = 0; maxDistance <= 3; maxDistance += 1) {
+      final DawgQueryEngine engine =
+        new DawgQueryEngine(dictionary, algorithm, maxDistance);
+      final QuerySession session =
+        new QuerySession(dictionary, algorithm, maxDistance);
+      final StringBuilder term = new StringBuilder();
+
+      for (int i = 0; i < 200; i += 1) {
+        final int edit = random.nextInt(10);
+        if (edit < 6 || term.length() == 0) {
+          final char c = QueryTests.ALPHABET.charAt(random.nextInt(QueryTests.ALPHABET.length()));
+          term.append(c);
+          session.append(c);
+        }
+        else if (edit < 9) {
+          final int count = 1 + random.nextInt(term.length());
+          term.setLength(term.length() - count);
+          session.delete(count);
+        }
+        else {
+          final String other = QueryTests.randomTerm(random, 0, 9);
+          term.setLength(0);
+          term.append(other);
+          session.edit(other);
+        }
+
+        assertThat(session.term()).isEqualTo(term.toString());
+        assertThat(candidates(session))
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(candidates(engine, term.toString()));
+      }
+
+      session.clear();
+      assertThat(session.length()).isZero();
+      assertThat(candidates(session)).isEqualTo(candidates(engine, ""));
+    }
+  }
+
+  @Test
+  public void testDiscardsThePathsOfReplacedTerms() {
+    final Random random = new Random(0xFEEDL);
+    final String alphabet = "abcdefghijklmnopqrstuvwxyz";
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 2_000) {
+      terms.add(QueryTests.randomTerm(random, alphabet, 3, 10));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final QuerySession session = new QuerySession(dictionary, Algorithm.STANDARD, 2);
+
+    // Alternates the first letter, so consecutive terms share no prefix, and
+    // the session should hold no more paths than a fresh one would
+    for (int i = 0; i < 500; i += 1) {
+      final String term = (0 == i % 2 ? 'x' : 'y') + QueryTests.randomTerm(random, alphabet, 2, 9);
+      session.edit(term);
+      assertThat(session.paths())
+        .as("Paths interned after editing the query term into [%s]", term)
+        .isEqualTo(new QuerySession(dictionary, Algorithm.STANDARD, 2).edit(term).paths());
+    }
+  }
+
+  @Test
+  public void testRejectsDeletingMoreThanTheTerm() {
+    final SortedDawg dictionary = new SortedDawg(new ArrayList<>());
+    final QuerySession session = new QuerySession(dictionary, Algorithm.STANDARD, 1);
+    session.append("ab");
+    assertThatThrownBy(() -> session.delete(3))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThat(session.term()).isEqualTo("ab");
+  }
+
+  private List<String> candidates(final QuerySession session) {
+    final List<String> candidates = new ArrayList<>();
+    session.candidates((candidate, distance) ->
+      candidates.add(candidate.toString() + ':' + distance));
+    return candidates;
+  }
+
+  private List<String> candidates(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, (candidate, distance) ->
+      candidates.add(candidate.toString() + ':' + distance));
+    return candidates;
+  }
+}
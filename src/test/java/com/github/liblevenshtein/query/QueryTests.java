@@ -0,0 +1,94 @@
+package com.github.liblevenshtein.query;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.annotations.DataProvider;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+
+/**
+ * Fixtures shared by the tests and benchmarks: random terms, and the
+ * algorithms to check each engine against.
+ */
+public final class QueryTests {
+
+  /**
+   * Letters of the random terms, by default.  Few letters make for many terms
+   * within a small distance of each other.
+   */
+  public static final String ALPHABET = "abcde";
+
+  /**
+   * Fixtures are static.
+   */
+  private QueryTests() {
+  }
+
+  /**
+   * Provides each algorithm, for tests that check every one of them.
+   * @return Each algorithm, one per set of parameters.
+   */
+  @DataProvider(name = "algorithms")
+  public static Object[][] algorithms() {
+    final Algorithm[] algorithms = Algorithm.values();
+    final Object[][] parameters = new Object[algorithms.length][];
+    for (int i = 0; i < algorithms.length; i += 1) {
+      parameters[i] = new Object[] {algorithms[i]};
+    }
+    return parameters;
+  }
+
+  /**
+   * Random term of letters of {@link #ALPHABET}.
+   * @param random Source of randomness.
+   * @param minLength Least length of the term.
+   * @param maxLength Greatest length of the term.
+   * @return Random term.
+   */
+  public static String randomTerm(final Random random, final int minLength, final int maxLength) {
+    return randomTerm(random, ALPHABET, minLength, maxLength);
+  }
+
+  /**
+   * Random term of letters of some alphabet.
+   * @param random Source of randomness.
+   * @param alphabet Letters of the term.
+   * @param minLength Least length of the term.
+   * @param maxLength Greatest length of the term.
+   * @return Random term.
+   */
+  public static String randomTerm(
+      final Random random,
+      final String alphabet,
+      final int minLength,
+      final int maxLength) {
+    final int length = minLength + random.nextInt(maxLength - minLength + 1);
+    final StringBuilder term = new StringBuilder(length);
+    for (int i = 0; i < length; i += 1) {
+      term.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return term.toString();
+  }
+
+  /**
+   * Deletes a directory and everything within it.
+   * @param directory Directory to delete.
+   * @throws IOException If anything cannot be deleted.
+   */
+  public static void delete(final Path directory) throws IOException {
+    final List<Path> paths;
+    try (final Stream<Path> walk = Files.walk(directory)) {
+      paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    }
+    for (final Path path : paths) {
+      Files.delete(path);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+public class RankedQueryEngineTest {
+
+  @Test(dataProvider = "algorithms", dataProviderClass = QueryTests.class)
+  public void testAgreesWithSortedCandidates(final Algorithm algorithm) {
+    final Random random = new Random(0xBADC0DEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 400) {
+      terms.add(QueryTests.randomTerm(random, 1, 8));
+    }
+    final List<String> ranked = new ArrayList<>(terms);
+    final int[] frequencies = new int[ranked.size()];
+    for (int rank = 0; rank < frequencies.length; rank += 1) {
+      // Few distinct frequencies, so ties are common
+      frequencies[rank] = random.nextInt(8) * random.nextInt(8);
+    }
+    final WeightedDictionary dictionary =
+      new WeightedDictionary(new SortedDawg(ranked), frequencies);
+
+    final Comparator<Candidate> order = Comparator
+      .comparingInt((Candidate candidate) -> candidate.distance)
+      .thenComparing(candidate -> -frequencies[candidate.rank])
+      .thenComparingInt(candidate -> candidate.rank);
+
+    for (int maxDistance = 0; maxDistance <= 2; maxDistance += 1) {
+      final DawgQueryEngine oracle =
+        new DawgQueryEngine(dictionary.dictionary(), algorithm, maxDistance);
+      for (final int limit : new int[] {1, 5, Integer.MAX_VALUE}) {
+        final RankedQueryEngine engine =
+          new RankedQueryEngine(dictionary, algorithm, maxDistance, limit);
+        for (int i = 0; i < 30; i += 1) {
+          final String term = QueryTests.randomTerm(random, 0, 7);
+          final List<Candidate> expected = new ArrayList<>();
+          oracle.query(term, (candidate, distance) -> expected.add(
+            new Candidate(ranked.indexOf(candidate.toString()), distance)));
+          expected.sort(order);
+
+          final List<String> expectedCandidates = new ArrayList<>();
+          for (int j = 0; j < expected.size() && j < limit; j += 1) {
+            expectedCandidates.add(
+              ranked.get(expected.get(j).rank) + ':' + expected.get(j).distance);
+          }
+          assertThat(candidates(engine, term))
+            .as("%s candidates of [%s] within distance [%d], up to [%d]",
+              algorithm, term, maxDistance, limit)
+            .isEqualTo(expectedCandidates);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRejectsNonPositiveLimit() {
+    final WeightedDictionary dictionary =
+      new WeightedDictionary(new SortedDawg(new ArrayList<>()));
+    assertThatThrownBy(() -> new RankedQueryEngine(dictionary, Algorithm.STANDARD, 1, 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private List<String> candidates(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, (candidate, distance) ->
+      candidates.add(candidate.toString() + ':' + distance));
+    return candidates;
+  }
+
+  private static final class Candidate {
+
+    private final int rank;
+
+    private final int distance;
+
+    Candidate(final int rank, final int distance) {
+      this.rank = rank;
+      this.distance = distance;
+    }
+  }
+}
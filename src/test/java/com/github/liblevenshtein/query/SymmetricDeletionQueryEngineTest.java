@@ -0,0 +1,170 @@
+package com.github.liblevenshtein.query;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:classdataabstractioncoupling"})
+public class SymmetricDeletionQueryEngineTest {
+
+  @DataProvider(name = "algorithms")
+  public Object[][] algorithms() {
+    return new Object[][] {
+      {Algorithm.STANDARD},
+      {Algorithm.TRANSPOSITION},
+    };
+  }
+
+  @Test(dataProvider = "algorithms")
+  public void testAgreesWithDawgQueryEngine(final Algorithm algorithm) {
+    final Random random = new Random(0xFACADEL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 500) {
+      terms.add(QueryTests.randomTerm(random, 1, 8));
+    }
+    final SortedDawg dictionary = new SortedDawg(terms);
+    final SymmetricDeletionIndex index =
+      new SymmetricDeletionIndex(dictionary, SymmetricDeletionIndex.MAX_DISTANCE);
+
+    for (int maxDistance = 0; maxDistance <= SymmetricDeletionIndex.MAX_DISTANCE; maxDistance += 1) {
+      final QueryEngine expected = new DawgQueryEngine(dictionary, algorithm, maxDistance);
+      final QueryEngine actual = new SymmetricDeletionQueryEngine(index, algorithm, maxDistance);
+      final QueryEngine expectedFiltered = new DawgQueryEngine(dictionary, algorithm, maxDistance)
+        .filter(new CandidateFilter().minLength(4).pattern(new Glob("*[!e]")));
+      final QueryEngine actualFiltered = new SymmetricDeletionQueryEngine(index, algorithm, maxDistance)
+        .filter(new CandidateFilter().minLength(4).pattern(new Glob("*[!e]")));
+
+      for (int i = 0; i < 50; i += 1) {
+        final String term = QueryTests.randomTerm(random, 0, 9);
+        assertThat(query(actual, term))
+          .as("%s candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expected, term));
+        assertThat(query(actualFiltered, term))
+          .as("%s filtered candidates of [%s] within distance [%d]", algorithm, term, maxDistance)
+          .isEqualTo(query(expectedFiltered, term));
+      }
+    }
+  }
+
+  @Test
+  public void testMapsWhatItWrites() throws Exception {
+    final WeightedDictionary dictionary = new WeightedDictionary(CostModelTest.DICTIONARY);
+    final SymmetricDeletionIndex built = dictionary.deletionIndex(1);
+    final Path file = Files.createTempFile("deletions-", ".idx");
+    try {
+      built.write(file);
+      final SymmetricDeletionIndex mapped = SymmetricDeletionIndex.read(file);
+      assertThat(mapped.maxDistance()).isEqualTo(1);
+      assertThat(mapped.size()).isEqualTo(built.size());
+      assertThat(mapped.fingerprint()).isEqualTo(built.fingerprint());
+      assertThat(mapped.sizeInBytes()).isEqualTo(built.sizeInBytes());
+      assertThat(mapped.indexes(dictionary)).isTrue();
+      assertThat(mapped.indexes(new WeightedDictionary(new SortedDawg(Arrays.asList("he", "the")))))
+        .isFalse();
+
+      final QueryEngine expected = new SymmetricDeletionQueryEngine(built, Algorithm.STANDARD, 1);
+      final QueryEngine actual = new SymmetricDeletionQueryEngine(mapped, Algorithm.STANDARD, 1);
+      for (final String term : Arrays.asList("", "th", "thn", "tehn", "thorx", "zzz")) {
+        assertThat(query(actual, term)).as("candidates of [%s]", term).isEqualTo(query(expected, term));
+      }
+
+      dictionary.deletionIndex(mapped);
+      assertThat(dictionary.deletionIndex(1)).isSameAs(mapped);
+      assertThat(dictionary.deletionIndex(2)).isNotSameAs(mapped);
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testReplacesFilesThatAreMapped() throws Exception {
+    final SymmetricDeletionIndex built = new SymmetricDeletionIndex(CostModelTest.DICTIONARY, 1);
+    final Path directory = Files.createTempDirectory("deletions-");
+    final Path file = directory.resolve("deletions.idx");
+    try {
+      built.write(file);
+      final SymmetricDeletionIndex mapped = SymmetricDeletionIndex.read(file);
+      new SymmetricDeletionIndex(CostModelTest.DICTIONARY, 2).write(file);
+      try (Stream<Path> files = Files.list(directory)) {
+        assertThat(files).containsExactly(file);
+      }
+      assertThat(SymmetricDeletionIndex.read(file).maxDistance()).isEqualTo(2);
+
+      final QueryEngine expected = new SymmetricDeletionQueryEngine(built, Algorithm.STANDARD, 1);
+      final QueryEngine actual = new SymmetricDeletionQueryEngine(mapped, Algorithm.STANDARD, 1);
+      for (final String term : Arrays.asList("th", "thn", "tehn")) {
+        assertThat(query(actual, term)).as("candidates of [%s]", term).isEqualTo(query(expected, term));
+      }
+    }
+    finally {
+      QueryTests.delete(directory);
+    }
+  }
+
+  @Test
+  public void testRejectsFilesThatAreNotIndices() throws Exception {
+    final Path file = Files.createTempFile("deletions-", ".idx");
+    try {
+      Files.write(file, new byte[64]);
+      assertThatThrownBy(() -> SymmetricDeletionIndex.read(file))
+        .hasMessageContaining("not a symmetric-deletion index");
+
+      new SymmetricDeletionIndex(CostModelTest.DICTIONARY, 2).write(file);
+      final byte[] bytes = Files.readAllBytes(file);
+      Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+      assertThatThrownBy(() -> SymmetricDeletionIndex.read(file))
+        .hasMessageContaining("corrupt");
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testRejectsWhatItCannotAnswer() {
+    final SymmetricDeletionIndex index = new SymmetricDeletionIndex(CostModelTest.DICTIONARY, 1);
+    assertThatThrownBy(() -> new SymmetricDeletionQueryEngine(index, Algorithm.MERGE_AND_SPLIT, 1))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new SymmetricDeletionQueryEngine(index, Algorithm.STANDARD, 2))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new SymmetricDeletionQueryEngine(index, Algorithm.STANDARD, 1)
+        .query("the", 2, (candidate, distance) -> { }))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new SymmetricDeletionIndex(CostModelTest.DICTIONARY, 3))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new WeightedDictionary(new SortedDawg()).deletionIndex(index))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private List<String> query(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, new CandidateVisitor() {
+      @Override
+      public void visit(final CharSequence candidate, final int distance) {
+        candidates.add(candidate.toString() + ':' + distance);
+      }
+
+      @Override
+      public void truncated() {
+        candidates.add("<truncated>");
+      }
+    });
+    return candidates;
+  }
+}
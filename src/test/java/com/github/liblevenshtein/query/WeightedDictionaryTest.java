@@ -0,0 +1,118 @@
+package com.github.liblevenshtein.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.SortedDawgBuilder;
+import com.github.liblevenshtein.collection.dictionary.SortedDawg;
+import com.github.liblevenshtein.transducer.Algorithm;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:classdataabstractioncoupling"})
+public class WeightedDictionaryTest {
+
+  private static final String ALPHABET = "abc";
+
+  @Test
+  public void testSpellsEachRankAndBoundsEachRange() {
+    final Random random = new Random(0xF00DL);
+    final Set<String> terms = new TreeSet<>();
+    while (terms.size() < 1000) {
+      final int length = 1 + random.nextInt(10);
+      final StringBuilder term = new StringBuilder(length);
+      for (int i = 0; i < length; i += 1) {
+        term.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      terms.add(term.toString());
+    }
+    final List<String> ranked = new ArrayList<>(terms);
+    final int[] frequencies = new int[ranked.size()];
+    for (int rank = 0; rank < frequencies.length; rank += 1) {
+      frequencies[rank] = random.nextInt(1_000_000);
+    }
+    final WeightedDictionary dictionary =
+      new WeightedDictionary(new SortedDawg(ranked), frequencies).index();
+
+    final char[] buffer = new char[10];
+    for (int rank = 0; rank < ranked.size(); rank += 1) {
+      final int length = dictionary.term(rank, buffer);
+      assertThat(new String(buffer, 0, length)).isEqualTo(ranked.get(rank));
+    }
+    final int[] offsets = dictionary.childOffsets(dictionary.dictionary().root());
+    assertThat(offsets).startsWith(0).endsWith(ranked.size());
+
+    for (int i = 0; i < 2000; i += 1) {
+      final int from = random.nextInt(ranked.size());
+      final int to = from + random.nextInt(ranked.size() - from + 1);
+      final int expected = from == to
+        ? -1
+        : Arrays.stream(frequencies, from, to).max().getAsInt();
+      assertThat(dictionary.maxFrequency(from, to))
+        .as("Maximum frequency of ranks [%d, %d)", from, to)
+        .isEqualTo(expected);
+    }
+
+    final List<String> visited = new ArrayList<>();
+    dictionary.terms((term, frequency) -> {
+      assertThat(frequency).isEqualTo(frequencies[visited.size()]);
+      visited.add(term.toString());
+    });
+    assertThat(visited).isEqualTo(ranked);
+  }
+
+  @Test
+  public void testRanksTheEmptyTerm() {
+    final List<String> terms = Arrays.asList("", "apple", "apply", "banana", "band");
+    final SortedDawgBuilder builder = new SortedDawgBuilder();
+    terms.forEach(builder::add);
+    for (final SortedDawg dawg : Arrays.asList(new SortedDawg(terms), builder.build())) {
+      final WeightedDictionary dictionary = new WeightedDictionary(dawg).index();
+      assertThat(dictionary.size()).isEqualTo(terms.size());
+      assertThat(dictionary.childOffsets(dawg.root())).endsWith(terms.size());
+      final List<String> visited = new ArrayList<>();
+      dictionary.terms((term, frequency) -> visited.add(term.toString()));
+      assertThat(visited).isEqualTo(terms);
+
+      final QueryEngine dawgEngine = new DawgQueryEngine(dawg, Algorithm.STANDARD, 2);
+      final List<QueryEngine> engines = Arrays.asList(
+        new RankedQueryEngine(dictionary, Algorithm.STANDARD, 2, terms.size()),
+        new PartitionedQueryEngine(dictionary.partitioned(), Algorithm.STANDARD, 2),
+        new SymmetricDeletionQueryEngine(dictionary.deletionIndex(2), Algorithm.STANDARD, 2),
+        new QGramQueryEngine(dictionary.qgramIndex(), Algorithm.STANDARD, 2, dawgEngine));
+      // Like the DAWG engine, no engine spells the empty term
+      assertThat(candidates(dawgEngine, "ba")).containsExactly("band");
+      assertThat(candidates(dawgEngine, "b")).isEmpty();
+      for (final String query : Arrays.asList("ba", "b")) {
+        final List<String> expected = candidates(dawgEngine, query);
+        for (final QueryEngine engine : engines) {
+          assertThat(candidates(engine, query))
+            .as("Candidates of [%s] for [%s]", engine.getClass().getSimpleName(), query)
+            .containsExactlyInAnyOrderElementsOf(expected);
+        }
+      }
+    }
+  }
+
+  private static List<String> candidates(final QueryEngine engine, final String term) {
+    final List<String> candidates = new ArrayList<>();
+    engine.query(term, (candidate, distance) -> candidates.add(candidate.toString()));
+    return candidates;
+  }
+
+  @Test
+  public void testRejectsMismatchedFrequencies() {
+    final SortedDawg dictionary = new SortedDawg(Arrays.asList("a", "b"));
+    assertThatThrownBy(() -> new WeightedDictionary(dictionary, new int[1]))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new WeightedDictionary(dictionary, new int[] {1, -1}))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
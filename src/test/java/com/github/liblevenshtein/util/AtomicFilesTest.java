@@ -0,0 +1,42 @@
+package com.github.liblevenshtein.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.liblevenshtein.query.QueryTests;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class AtomicFilesTest {
+
+  @Test
+  public void testKeepsTheOldFileWhenAWriteFails() throws Exception {
+    final Path directory = Files.createTempDirectory("atomic-");
+    try {
+      final Path target = directory.resolve("dictionary");
+      AtomicFiles.write(target, stream -> stream.write("old".getBytes(StandardCharsets.UTF_8)));
+
+      assertThatThrownBy(() -> AtomicFiles.write(target, stream -> {
+        stream.write("partial".getBytes(StandardCharsets.UTF_8));
+        throw new IOException("Interrupted");
+      })).isInstanceOf(IOException.class);
+      assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8)).isEqualTo("old");
+
+      AtomicFiles.write(target, stream -> stream.write("new".getBytes(StandardCharsets.UTF_8)));
+      assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8)).isEqualTo("new");
+      try (final Stream<Path> files = Files.list(directory)) {
+        assertThat(files).containsExactly(target);
+      }
+    }
+    finally {
+      QueryTests.delete(directory);
+    }
+  }
+}
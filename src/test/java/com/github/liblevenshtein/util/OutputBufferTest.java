@@ -0,0 +1,68 @@
+package com.github.liblevenshtein.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import com.google.common.io.ByteStreams;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings({"checkstyle:avoidescapedunicodecharacters", "checkstyle:multiplestringliterals"})
+public class OutputBufferTest {
+
+  @Test
+  public void testPutEscapedMatchesEscapeJava() throws Exception {
+    final String text = "quote\" backslash\\ \b\n\t\f\r \u0001 \u007f \u00e9 \ud83d\ude00 /";
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 16);
+    output.putEscaped(text).flush();
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.US_ASCII))
+      .isEqualTo(StringEscapeUtils.escapeJava(text));
+  }
+
+  @Test
+  public void testPutInt() throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 16);
+    output.putInt(0).put((byte) ' ')
+      .putInt(42).put((byte) ' ')
+      .putInt(-7).put((byte) ' ')
+      .putInt(Integer.MIN_VALUE).put((byte) ' ')
+      .putInt(Integer.MAX_VALUE)
+      .flush();
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.US_ASCII))
+      .isEqualTo("0 42 -7 -2147483648 2147483647");
+  }
+
+  @Test
+  public void testOpen() throws Exception {
+    final Path path = Files.createTempFile("output-", ".txt");
+    try {
+      for (final boolean gzip : new boolean[] {false, true}) {
+        try (final OutputBuffer output = OutputBuffer.open(path, gzip)) {
+          output.putAscii("gzip=").putAscii(String.valueOf(gzip)).newline();
+        }
+        final byte[] bytes;
+        try (final InputStream stream = gzip
+            ? new GZIPInputStream(Files.newInputStream(path))
+            : Files.newInputStream(path)) {
+          bytes = ByteStreams.toByteArray(stream);
+        }
+        assertThat(new String(bytes, StandardCharsets.US_ASCII))
+          .isEqualTo("gzip=" + gzip + System.lineSeparator());
+      }
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+}
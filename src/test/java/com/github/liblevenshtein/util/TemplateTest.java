@@ -0,0 +1,54 @@
+package com.github.liblevenshtein.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.liblevenshtein.util.Template.Slot;
+
+@SuppressWarnings("checkstyle:multiplestringliterals")
+public class TemplateTest {
+
+  private static final String LAYOUT =
+    "d(\"" + Slot.QUERY.placeholder() + "\", \"" + Slot.CANDIDATE.placeholder()
+      + "\") = " + Slot.DISTANCE.placeholder() + " <" + Slot.QUERY.placeholder() + ">";
+
+  @Test
+  public void testRender() throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 16);
+    Template.compile(LAYOUT).render(output, "foo", "f\"o", 2);
+    output.flush();
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.US_ASCII))
+      .isEqualTo("d(\"foo\", \"f\\\"o\") = 2 <foo>");
+  }
+
+  @Test
+  public void testBind() throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 16);
+    final Template template = Template.compile(LAYOUT).bind("bar");
+    template.render(output, null, "baz", 1);
+    template.render(output, null, "", 10);
+    output.flush();
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.US_ASCII))
+      .isEqualTo("d(\"bar\", \"baz\") = 1 <bar>d(\"bar\", \"\") = 10 <bar>");
+  }
+
+  @Test
+  public void testBindSource() throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final OutputBuffer output = new OutputBuffer(Channels.newChannel(bytes), 16);
+    Template.compile(LAYOUT + " [" + Slot.SOURCE.placeholder() + "]")
+      .bind("bar")
+      .bind(Slot.SOURCE, "glossary.txt")
+      .render(output, null, "baz", 1);
+    output.flush();
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.US_ASCII))
+      .isEqualTo("d(\"bar\", \"baz\") = 1 <bar> [glossary.txt]");
+  }
+}
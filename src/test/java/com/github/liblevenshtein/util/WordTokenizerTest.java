@@ -0,0 +1,66 @@
+package com.github.liblevenshtein.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings({"checkstyle:multiplestringliterals", "checkstyle:avoidescapedunicodecharacters"})
+public class WordTokenizerTest {
+
+  @Test
+  public void testSplitsWordsAtTheirByteOffsets() throws IOException {
+    assertThat(tokenize("The  quick-brown fox, 42 times!"))
+      .containsExactly("The@0", "quick@5", "brown@11", "fox@17", "times@25");
+  }
+
+  @Test
+  public void testCountsBytesOfMultiByteCharacters() throws IOException {
+    // An e with an acute accent takes two bytes, a CJK ideograph three and a
+    // mathematical script letter (outside the BMP) four
+    assertThat(tokenize("caf\u00e9 \u4e2d\u6587 \ud835\udc9cbc \u00e9"))
+      .containsExactly("caf\u00e9@0", "\u4e2d\u6587@6", "\ud835\udc9cbc@13", "\u00e9@20");
+  }
+
+  @Test
+  public void testJoinsWordsWithApostrophes() throws IOException {
+    assertThat(tokenize("don't 'quote' rock\u2019n\u2019roll o''clock"))
+      .containsExactly("don't@0", "quote@7", "rock\u2019n\u2019roll@14", "o''clock@30");
+  }
+
+  @Test
+  public void testSeparatesWordsAtMalformedBytes() throws IOException {
+    final byte[] bytes = {'a', 'b', (byte) 0xC3, 'c', 'd', (byte) 0x80, 'e', (byte) 0xE4};
+    final List<String> words = new ArrayList<>();
+    final long length = WordTokenizer.tokenize(new ByteArrayInputStream(bytes),
+      (word, offset) -> words.add(word + "@" + offset));
+    assertThat(length).isEqualTo(bytes.length);
+    assertThat(words).containsExactly("ab@0", "cd@3", "e@6");
+  }
+
+  @Test
+  public void testSplitsWordsAcrossBlocks() throws IOException {
+    final StringBuilder text = new StringBuilder();
+    while (text.length() < 200_000) {
+      text.append("\u00e9t\u00e9 ");
+    }
+    final List<String> words = tokenize(text.toString());
+    assertThat(words).hasSize(50_000);
+    for (int i = 0; i < words.size(); i += 1) {
+      assertThat(words.get(i)).isEqualTo("\u00e9t\u00e9@" + 6L * i);
+    }
+  }
+
+  private List<String> tokenize(final String text) throws IOException {
+    final List<String> words = new ArrayList<>();
+    WordTokenizer.tokenize(
+      new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+      (word, offset) -> words.add(word + "@" + offset));
+    return words;
+  }
+}